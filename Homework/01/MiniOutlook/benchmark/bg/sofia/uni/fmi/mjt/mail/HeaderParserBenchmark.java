@@ -0,0 +1,85 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+/**
+ * Measures the cost of parsing the metadata of a mail and a rule definition. It is not part of the unit tests;
+ * compile it together with the sources and run its main method.
+ */
+public class HeaderParserBenchmark {
+
+    private static final int MAILS_COUNT = 10_000;
+    private static final int ROUNDS_COUNT = 20;
+    private static final int WARM_UP_ROUNDS_COUNT = 10;
+
+    public static void main(String[] args) {
+
+        String[] mailsMetadata = new String[MAILS_COUNT];
+
+        for (int i = 0; i < MAILS_COUNT; i++) {
+
+            mailsMetadata[i] = "sender: fmi@uni-sofia.bg" + System.lineSeparator() +
+                "     subject: Question " + i + " about the available halls" + System.lineSeparator() +
+                "     recipients: fhf@uni-sofia.bg, fzf@uni-sofia.bg, hf@uni-sofia.bg" + System.lineSeparator() +
+                "     received: 2022-12-08 14:" + (10 + i % 50);
+        }
+
+        String ruleDefinition = "subject-includes: Halls, Available" + System.lineSeparator() +
+            "     subject-or-body-includes: 210, 325" + System.lineSeparator() +
+            "     recipients-includes: fhf@uni-sofia.bg, fzf@uni-sofia.bg" + System.lineSeparator() +
+            "     from: fmi@uni-sofia.bg" + System.lineSeparator();
+
+        for (int round = 0; round < WARM_UP_ROUNDS_COUNT + ROUNDS_COUNT; round++) {
+
+            long metadataNanos = parseMailsMetadata(mailsMetadata);
+            long ruleNanos = parseRuleDefinitions(ruleDefinition);
+
+            if (round >= WARM_UP_ROUNDS_COUNT) {
+
+                System.out.printf("metadata: %5d ns per mail, rule definition: %5d ns per rule%n",
+                    metadataNanos / MAILS_COUNT, ruleNanos / MAILS_COUNT);
+            }
+        }
+    }
+
+    private static long parseMailsMetadata(String[] mailsMetadata) {
+
+        long start = System.nanoTime();
+        int checksum = 0;
+
+        for (String currentMetadata : mailsMetadata) {
+
+            MailMetadataConverter mailMetadataConverter = new MailMetadataConverter();
+            mailMetadataConverter.convertToMailMetadata(currentMetadata);
+
+            checksum += mailMetadataConverter.getRecipients().size() + mailMetadataConverter.getReceived().getMinute();
+        }
+
+        return consume(checksum, System.nanoTime() - start);
+    }
+
+    private static long parseRuleDefinitions(String ruleDefinition) {
+
+        long start = System.nanoTime();
+        int checksum = 0;
+
+        for (int i = 0; i < MAILS_COUNT; i++) {
+
+            RuleDefinitionConverter ruleDefinitionConverter = new RuleDefinitionConverter();
+            ruleDefinitionConverter.convertToRuleDefinition(ruleDefinition);
+
+            checksum += ruleDefinitionConverter.getSubjectsIncludes().size();
+        }
+
+        return consume(checksum, System.nanoTime() - start);
+    }
+
+    // Keeps the JIT compiler from eliminating the parsing whose result is otherwise unused
+    private static long consume(int checksum, long nanos) {
+
+        if (checksum == 0) {
+
+            System.out.println("No headers were parsed.");
+        }
+
+        return nanos;
+    }
+}
@@ -0,0 +1,41 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Measures the cost of searching for the newest mails when every mail contains the words of the query. It is not
+ * part of the unit tests; compile it together with the sources and run its main method.
+ */
+public class MailSearchIndexBenchmark {
+
+    private static final int MAILS_COUNT = 1_000_000;
+    private static final int LIMIT = 20;
+    private static final int ROUNDS_COUNT = 10;
+    private static final int WARM_UP_ROUNDS_COUNT = 20;
+    private static final LocalDateTime RECEIVED = LocalDateTime.of(2022, 12, 8, 14, 14);
+
+    public static void main(String[] args) {
+
+        MailSearchIndex mailSearchIndex = new MailSearchIndex();
+        Account sender = new Account("fmi@uni-sofia.bg", "fmi");
+
+        for (int i = 0; i < MAILS_COUNT; i++) {
+
+            mailSearchIndex.add("/inbox", i, new Mail(sender, Set.of("fhf@uni-sofia.bg"), "Question " + i,
+                "Is Hall 210 free on 23.01.2023?", RECEIVED.plusMinutes(i)));
+        }
+
+        for (int round = 0; round < WARM_UP_ROUNDS_COUNT + ROUNDS_COUNT; round++) {
+
+            long start = System.nanoTime();
+            int found = mailSearchIndex.search("hall free", LIMIT).size();
+            long nanos = System.nanoTime() - start;
+
+            if (round >= WARM_UP_ROUNDS_COUNT) {
+
+                System.out.printf("%d of %d mails: %8d ns per search%n", found, MAILS_COUNT, nanos);
+            }
+        }
+    }
+}
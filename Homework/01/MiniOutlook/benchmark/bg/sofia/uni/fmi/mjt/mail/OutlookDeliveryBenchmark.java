@@ -0,0 +1,52 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+/**
+ * Measures the cost of receiving a mail while the inbox grows. It is not part of the unit tests; compile it together
+ * with the sources and run its main method.
+ */
+public class OutlookDeliveryBenchmark {
+
+    private static final int INBOX_SIZE = 100_000;
+    private static final int MEASURED_BATCH_SIZE = 2_000;
+
+    public static void main(String[] args) {
+
+        Outlook outlook = new Outlook();
+
+        outlook.addNewAccount("fmi", "fmi@uni-sofia.bg");
+        outlook.addNewAccount("fhf", "fhf@uni-sofia.bg");
+        outlook.createFolder("fhf", "/inbox/halls");
+
+        String ruleDefinition = "subject-includes: Halls" + System.lineSeparator() +
+            "     from: fmi@uni-sofia.bg" + System.lineSeparator();
+
+        outlook.addRule("fhf", "/inbox/halls", ruleDefinition, 1);
+
+        // Warm-up so that the first measured batch is not dominated by class loading and JIT compilation
+        deliverMails(outlook, 0, MEASURED_BATCH_SIZE);
+
+        for (int from = MEASURED_BATCH_SIZE; from < INBOX_SIZE; from += MEASURED_BATCH_SIZE) {
+
+            long batchNanos = deliverMails(outlook, from, MEASURED_BATCH_SIZE);
+
+            System.out.printf("inbox of %6d mails: %6d ns per mail%n", from, batchNanos / MEASURED_BATCH_SIZE);
+        }
+    }
+
+    private static long deliverMails(Outlook outlook, int from, int count) {
+
+        long start = System.nanoTime();
+
+        for (int i = from; i < from + count; i++) {
+
+            String metaData = "sender: fmi@uni-sofia.bg" + System.lineSeparator() +
+                "     subject: Question " + i + System.lineSeparator() +
+                "     recipients: fhf@uni-sofia.bg" + System.lineSeparator() +
+                "     received: 2022-12-08 14:14";
+
+            outlook.receiveMail("fhf", metaData, "Is Hall 210 free on 23.01.2023?");
+        }
+
+        return System.nanoTime() - start;
+    }
+}
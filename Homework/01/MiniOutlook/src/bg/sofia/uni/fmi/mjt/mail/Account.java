@@ -10,12 +10,16 @@ public record Account(String emailAddress, String name) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Account account = (Account) o;
+        // Senders who have no account in the client have no name, so they are told apart by their email
+        if (name == null || account.name == null) {
+            return name == null && account.name == null && Objects.equals(emailAddress, account.emailAddress);
+        }
         return name.equals(account.name);
     }
 
     @Override
     public int hashCode() {
 
-        return Objects.hash(name);
+        return name == null ? Objects.hash(emailAddress) : Objects.hash(name);
     }
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+public record AccountEntry(Account account, AccountFolders accountFolders, AccountRules accountRules,
+                           MailSearchIndex mailSearchIndex) {
+
+}
@@ -1,22 +1,35 @@
 package bg.sofia.uni.fmi.mjt.mail;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 
 public class AccountFolders {
 
+    private static final String PATH_SEPARATOR = "/";
+    private static final String INBOX = "inbox";
+    private static final String SENT = "sent";
+
     private Account account;
-    private Map<Folder, List<Folder>> directories;
+    private final FolderNode root;
+    private final FolderNode inbox;
+    private final FolderNode sent;
+    private final Map<String, FolderNode> foldersByPath;
 
     public AccountFolders(Account account) {
 
         this.account = account;
-        this.directories = new HashMap<>();
-        this.directories.put(new Folder("inbox"), new ArrayList<>());
-        this.directories.put(new Folder("sent"), new ArrayList<>());
+        this.root = new FolderNode(null, "");
+        this.inbox = this.root.addChild(INBOX);
+        this.sent = this.root.addChild(SENT);
+        this.foldersByPath = new LinkedHashMap<>();
+        this.foldersByPath.put(this.inbox.getPath(), this.inbox);
+        this.foldersByPath.put(this.sent.getPath(), this.sent);
 
     }
 
@@ -25,18 +38,99 @@ public class AccountFolders {
         return this.account;
     }
 
-    public Map<Folder, List<Folder>>  getDirectories() {
+    public Folder getInbox() {
+
+        return this.inbox.getFolder();
+    }
+
+    public Folder getSent() {
+
+        return this.sent.getFolder();
+    }
+
+    /**
+     * Returns every folder mapped to its direct subfolders. Folders are keyed by name, so two folders with the
+     * same name in different branches share an entry. Use {@link #getFolder(String)} to resolve a folder by path.
+     */
+    public Map<Folder, List<Folder>> getDirectories() {
+
+        Map<Folder, List<Folder>> result = new HashMap<>();
+        Queue<FolderNode> nodesQueue = new ArrayDeque<>(this.root.getChildren());
+
+        while (!nodesQueue.isEmpty()) {
+
+            FolderNode currentNode = nodesQueue.poll();
+            List<Folder> subfolders = result.computeIfAbsent(currentNode.getFolder(), folder -> new ArrayList<>());
+
+            for (FolderNode child : currentNode.getChildren()) {
+
+                subfolders.add(child.getFolder());
+                nodesQueue.add(child);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param path full path of the folder, e.g. /inbox/documents
+     * @return the folder or null if there is no folder with such path
+     */
+    public Folder getFolder(String path) {
 
-        return this.directories;
+        FolderNode searchedNode = resolve(path);
+
+        return searchedNode == null ? null : searchedNode.getFolder();
     }
 
-    public void addNewFolder(String beforeLastFolder, String lastFolder) {
+    /**
+     * @param path full path of the folder, e.g. /inbox/documents
+     * @return the path of the folder in the form it was created with, e.g. /inbox/documents for /inbox//documents/,
+     * or null if there is no folder with such path
+     */
+    public String getFolderPath(String path) {
 
-        Folder folderToAdd = new Folder(lastFolder);
-        Folder folderBeforeToAdd = new Folder(beforeLastFolder);
+        FolderNode searchedNode = resolve(path);
 
-        this.directories.get(folderBeforeToAdd).add(folderToAdd);
-        this.directories.put(folderToAdd, new ArrayList<>());
+        return searchedNode == null ? null : searchedNode.getPath();
+    }
+
+    /**
+     * @return the paths of all folders in the form and the order they were created in, starting with /inbox
+     * and /sent
+     */
+    public List<String> getFolderPaths() {
+
+        return List.copyOf(this.foldersByPath.keySet());
+    }
+
+    public boolean containsFolder(String parentPath, String folderName) {
+
+        FolderNode parent = resolve(parentPath);
+
+        return parent != null && parent.getChild(folderName) != null;
+    }
+
+    /**
+     * Creates a folder directly in the folder with the given path.
+     *
+     * @param parentPath full path of the parent folder
+     * @param folderName name of the new folder
+     * @return the created folder or null if the parent folder does not exist
+     */
+    public Folder addNewFolder(String parentPath, String folderName) {
+
+        FolderNode parent = resolve(parentPath);
+
+        if (parent == null) {
+
+            return null;
+        }
+
+        FolderNode toAdd = parent.addChild(folderName);
+        this.foldersByPath.put(toAdd.getPath(), toAdd);
+
+        return toAdd.getFolder();
     }
 
     @Override
@@ -53,4 +147,25 @@ public class AccountFolders {
 
         return Objects.hash(account);
     }
+
+    // Every folder is cached under its canonical path when it is created, so only the spelling of the path has to
+    // be normalized and the cache never grows beyond the number of folders
+    private FolderNode resolve(String path) {
+
+        return this.foldersByPath.get(normalize(path));
+    }
+
+    private static String normalize(String path) {
+
+        StringBuilder normalized = new StringBuilder(path.length() + 1);
+
+        for (String currentFolderName : path.split(PATH_SEPARATOR)) {
+
+            if (!currentFolderName.isEmpty()) {
+                normalized.append(PATH_SEPARATOR).append(currentFolderName);
+            }
+        }
+
+        return normalized.toString();
+    }
 }
@@ -0,0 +1,85 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class AccountRegistry {
+
+    private final Map<String, AccountEntry> accountsByName;
+    private final Map<String, AccountEntry> accountsByEmail;
+
+    public AccountRegistry() {
+
+        this.accountsByName = new ConcurrentHashMap<>();
+        this.accountsByEmail = new ConcurrentHashMap<>();
+    }
+
+    public boolean containsAccountName(String accountName) {
+
+        return this.accountsByName.containsKey(accountName);
+    }
+
+    /**
+     * Registers the account together with its folders, rules and search index. When several accounts share
+     * the same email address, the one registered first is the one returned by {@link #getByEmail(String)}.
+     *
+     * @return the entry holding the account, its folders, its rules and its search index or null if an account
+     * with the same name is already registered
+     */
+    public AccountEntry register(Account account) {
+
+        AccountEntry toAdd = new AccountEntry(account, new AccountFolders(account), new AccountRules(account),
+            new MailSearchIndex());
+
+        if (this.accountsByName.putIfAbsent(account.name(), toAdd) != null) {
+
+            return null;
+        }
+
+        this.accountsByEmail.putIfAbsent(account.emailAddress(), toAdd);
+
+        return toAdd;
+    }
+
+    /**
+     * @return the entry of the account with the given name or null if there is no such account
+     */
+    public AccountEntry getByAccountName(String accountName) {
+
+        return this.accountsByName.get(accountName);
+    }
+
+    /**
+     * @return the entry of the account with the given email or null if there is no such account
+     */
+    public AccountEntry getByEmail(String email) {
+
+        return this.accountsByEmail.get(email);
+    }
+
+    public Set<Account> getAccounts() {
+
+        Set<Account> result = new HashSet<>();
+
+        for (AccountEntry currentEntry : this.accountsByName.values()) {
+
+            result.add(currentEntry.account());
+        }
+
+        return result;
+    }
+
+    public Set<AccountFolders> getAccountsFolders() {
+
+        Set<AccountFolders> result = new HashSet<>();
+
+        for (AccountEntry currentEntry : this.accountsByName.values()) {
+
+            result.add(currentEntry.accountFolders());
+        }
+
+        return result;
+    }
+}
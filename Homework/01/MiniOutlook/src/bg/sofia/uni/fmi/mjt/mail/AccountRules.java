@@ -1,18 +1,19 @@
 package bg.sofia.uni.fmi.mjt.mail;
 
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
 
 public class AccountRules {
 
     private Account account;
     private Map<Integer, RuleDefinitionConverter> accountRules;
+    private RuleMatcher ruleMatcher;
 
     public AccountRules(Account account) {
 
         this.account = account;
         this.accountRules = new TreeMap<>();
+        this.ruleMatcher = new RuleMatcher(this.accountRules.values());
 
     }
 
@@ -29,6 +30,15 @@ public class AccountRules {
     public void addAccountRule(RuleDefinitionConverter toAdd, Integer priority) {
 
         this.accountRules.put(priority, toAdd);
+        this.ruleMatcher = new RuleMatcher(this.accountRules.values());
+    }
+
+    /**
+     * @return the rule with the highest priority which the mail matches or null if there is no such rule
+     */
+    public RuleDefinitionConverter findMatchingRule(Mail mail) {
+
+        return this.ruleMatcher.findMatchingRule(mail);
     }
 
     public void eraseAccountRule(String ruleDefinition, int priority) {
@@ -36,19 +46,15 @@ public class AccountRules {
         RuleDefinitionConverter convert = new RuleDefinitionConverter();
         convert.convertToRuleDefinition(ruleDefinition);
 
-        Set<Map.Entry<Integer, RuleDefinitionConverter>> searchedDirectoryAsSet = this.accountRules.entrySet();
-
-        for (Map.Entry<Integer, RuleDefinitionConverter> currentEntry : searchedDirectoryAsSet) {
-
-            if (currentEntry.getKey() == priority && currentEntry.getValue().equals(convert)) {
+        if (convert.equals(this.accountRules.get(priority))) {
 
-                this.eraseAccountRuleWithRuleDefinitionConverter(convert, priority);
-            }
+            this.eraseAccountRuleWithRuleDefinitionConverter(convert, priority);
         }
     }
 
     private void eraseAccountRuleWithRuleDefinitionConverter(RuleDefinitionConverter toErase, Integer priority) {
 
         this.accountRules.remove(priority, toErase);
+        this.ruleMatcher = new RuleMatcher(this.accountRules.values());
     }
 }
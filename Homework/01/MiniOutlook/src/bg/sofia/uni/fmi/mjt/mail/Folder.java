@@ -1,18 +1,22 @@
 package bg.sofia.uni.fmi.mjt.mail;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
 public class Folder {
 
     private String folderName;
-    private Set<Mail> mails;
+    private Map<Mail, MailCursor> mails;
+    private MailTimeline<Mail> timeline;
 
     public Folder(String folderName) {
 
         this.folderName = folderName;
-        this.mails = new HashSet<>();
+        this.mails = new HashMap<>();
+        this.timeline = new MailTimeline<>();
 
     }
 
@@ -23,12 +27,30 @@ public class Folder {
 
     public Set<Mail> getMails() {
 
-        return this.mails;
+        return Collections.unmodifiableSet(this.mails.keySet());
+    }
+
+    public MailTimeline<Mail> getTimeline() {
+
+        return this.timeline;
     }
 
     public void addMail(Mail mail) {
 
-        this.mails.add(mail);
+        if (!this.mails.containsKey(mail)) {
+
+            this.mails.put(mail, this.timeline.add(mail.received(), mail));
+        }
+    }
+
+    public void removeMail(Mail mail) {
+
+        MailCursor position = this.mails.remove(mail);
+
+        if (position != null) {
+
+            this.timeline.remove(position);
+        }
     }
 
     @Override
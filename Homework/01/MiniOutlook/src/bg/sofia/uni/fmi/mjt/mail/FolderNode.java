@@ -0,0 +1,49 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class FolderNode {
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private final Folder folder;
+    private final String path;
+    private final Map<String, FolderNode> children;
+
+    public FolderNode(Folder folder, String path) {
+
+        this.folder = folder;
+        this.path = path;
+        this.children = new LinkedHashMap<>();
+    }
+
+    public Folder getFolder() {
+
+        return this.folder;
+    }
+
+    public String getPath() {
+
+        return this.path;
+    }
+
+    public FolderNode getChild(String folderName) {
+
+        return this.children.get(folderName);
+    }
+
+    public Collection<FolderNode> getChildren() {
+
+        return this.children.values();
+    }
+
+    public FolderNode addChild(String folderName) {
+
+        FolderNode toAdd = new FolderNode(new Folder(folderName), this.path + PATH_SEPARATOR + folderName);
+        this.children.put(folderName, toAdd);
+
+        return toAdd;
+    }
+}
@@ -0,0 +1,230 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import bg.sofia.uni.fmi.mjt.mail.exceptions.MalformedHeaderException;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.Consumer;
+
+/**
+ * Reads "key: value" lines of mail metadata and rule definitions in a single pass over the input. Keys and
+ * values are kept as offsets into the input, so only the values which are actually used are copied.
+ * Blank lines are skipped and a non-blank line without a key is reported as malformed.
+ */
+public class HeaderParser {
+
+    public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final char KEY_VALUE_SEPARATOR = ':';
+    private static final char LIST_SEPARATOR = ',';
+    private static final char LINE_FEED = '\n';
+    private static final char CARRIAGE_RETURN = '\r';
+
+    private final CharSequence input;
+    private int nextLineStart;
+    private int keyStart;
+    private int keyEnd;
+    private int valueStart;
+    private int valueEnd;
+
+    public HeaderParser(CharSequence input) {
+
+        this.input = input;
+        this.nextLineStart = 0;
+    }
+
+    /**
+     * Moves to the next non-blank line.
+     *
+     * @return true if there is such a line and false if the end of the input is reached
+     * @throws MalformedHeaderException if the line does not contain a key followed by ':'
+     */
+    public boolean nextHeader() {
+
+        while (this.nextLineStart < this.input.length()) {
+
+            int lineEnd = findLineEnd(this.nextLineStart);
+            int start = skipWhitespaceForward(this.nextLineStart, lineEnd);
+            int end = skipWhitespaceBackward(start, lineEnd);
+
+            this.nextLineStart = skipLineTerminator(lineEnd);
+
+            if (start == end) {
+                continue;
+            }
+
+            int separator = indexOf(KEY_VALUE_SEPARATOR, start, end);
+
+            if (separator < 0) {
+
+                throw new MalformedHeaderException("Header without a key", start);
+            }
+
+            this.keyStart = start;
+            this.keyEnd = separator;
+            this.valueStart = skipWhitespaceForward(separator + 1, end);
+            this.valueEnd = end;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    public boolean isKey(String key) {
+
+        if (this.keyEnd - this.keyStart != key.length()) {
+
+            return false;
+        }
+
+        for (int i = 0; i < key.length(); i++) {
+
+            if (this.input.charAt(this.keyStart + i) != key.charAt(i)) {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public int getKeyStart() {
+
+        return this.keyStart;
+    }
+
+    public String getValue() {
+
+        return this.input.subSequence(this.valueStart, this.valueEnd).toString();
+    }
+
+    /**
+     * Passes every item of a value which is a list separated by commas and/or whitespace to the action.
+     * Empty items are skipped.
+     */
+    public void forEachListItem(Consumer<String> action) {
+
+        int current = this.valueStart;
+
+        while (current < this.valueEnd) {
+
+            while (current < this.valueEnd && isListSeparator(this.input.charAt(current))) {
+                current++;
+            }
+
+            int itemStart = current;
+
+            while (current < this.valueEnd && !isListSeparator(this.input.charAt(current))) {
+                current++;
+            }
+
+            if (itemStart < current) {
+
+                action.accept(this.input.subSequence(itemStart, current).toString());
+            }
+        }
+    }
+
+    /**
+     * @throws MalformedHeaderException if the value is not a date and time in format yyyy-MM-dd HH:mm
+     */
+    public LocalDateTime getDateTimeValue() {
+
+        ParsePosition parsePosition = new ParsePosition(this.valueStart);
+
+        try {
+
+            LocalDateTime result = LocalDateTime.from(DATE_TIME_FORMATTER.parse(this.input, parsePosition));
+
+            if (parsePosition.getIndex() != this.valueEnd) {
+
+                throw new MalformedHeaderException("Unexpected characters after date and time",
+                    parsePosition.getIndex());
+            }
+
+            return result;
+        } catch (DateTimeParseException e) {
+
+            throw new MalformedHeaderException("Invalid date and time", e.getErrorIndex(), e);
+        } catch (DateTimeException e) {
+
+            throw new MalformedHeaderException("Invalid date and time", this.valueStart, e);
+        }
+    }
+
+    private int findLineEnd(int from) {
+
+        int current = from;
+
+        while (current < this.input.length() && !isLineTerminator(this.input.charAt(current))) {
+            current++;
+        }
+
+        return current;
+    }
+
+    private int skipLineTerminator(int lineEnd) {
+
+        if (lineEnd >= this.input.length()) {
+
+            return lineEnd;
+        }
+
+        if (this.input.charAt(lineEnd) == CARRIAGE_RETURN && lineEnd + 1 < this.input.length() &&
+            this.input.charAt(lineEnd + 1) == LINE_FEED) {
+
+            return lineEnd + 2;
+        }
+
+        return lineEnd + 1;
+    }
+
+    private int skipWhitespaceForward(int from, int to) {
+
+        int current = from;
+
+        while (current < to && Character.isWhitespace(this.input.charAt(current))) {
+            current++;
+        }
+
+        return current;
+    }
+
+    private int skipWhitespaceBackward(int from, int to) {
+
+        int current = to;
+
+        while (current > from && Character.isWhitespace(this.input.charAt(current - 1))) {
+            current--;
+        }
+
+        return current;
+    }
+
+    private int indexOf(char symbol, int from, int to) {
+
+        for (int i = from; i < to; i++) {
+
+            if (this.input.charAt(i) == symbol) {
+
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isLineTerminator(char symbol) {
+
+        return symbol == LINE_FEED || symbol == CARRIAGE_RETURN;
+    }
+
+    private static boolean isListSeparator(char symbol) {
+
+        return symbol == LIST_SEPARATOR || Character.isWhitespace(symbol);
+    }
+}
@@ -0,0 +1,183 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed set of keywords. A keyword is found in a text only when it is surrounded
+ * by word boundaries, the same way as {@code \b<keyword>\b} would find it, so a text is scanned once no matter
+ * how many keywords there are.
+ */
+public class KeywordMatcher {
+
+    private static final int ROOT = 0;
+    private static final int NOT_FOUND = -1;
+
+    private final Map<String, Integer> keywordIds;
+    private final List<Integer> keywordLengths;
+    private final List<Map<Character, Integer>> transitions;
+    private final List<List<Integer>> outputs;
+    private int[] failureLinks;
+
+    public KeywordMatcher(Collection<String> keywords) {
+
+        this.keywordIds = new HashMap<>();
+        this.keywordLengths = new ArrayList<>();
+        this.transitions = new ArrayList<>();
+        this.outputs = new ArrayList<>();
+
+        addState();
+
+        for (String currentKeyword : keywords) {
+
+            addKeyword(currentKeyword);
+        }
+
+        buildFailureLinks();
+    }
+
+    /**
+     * @return the id of the keyword, which is the index of its bit in {@link #findKeywords(CharSequence)},
+     * or -1 if the keyword is not known to the matcher
+     */
+    public int getKeywordId(String keyword) {
+
+        return this.keywordIds.getOrDefault(keyword, NOT_FOUND);
+    }
+
+    public int getKeywordsCount() {
+
+        return this.keywordLengths.size();
+    }
+
+    /**
+     * @return the ids of all keywords found in the text as whole words
+     */
+    public BitSet findKeywords(CharSequence text) {
+
+        BitSet result = new BitSet(getKeywordsCount());
+
+        if (getKeywordsCount() == 0) {
+
+            return result;
+        }
+
+        int state = ROOT;
+
+        for (int i = 0; i < text.length(); i++) {
+
+            state = nextState(state, text.charAt(i));
+
+            for (int keywordId : this.outputs.get(state)) {
+
+                int begin = i + 1 - this.keywordLengths.get(keywordId);
+
+                if (isWordBoundary(text, begin) && isWordBoundary(text, i + 1)) {
+
+                    result.set(keywordId);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private int nextState(int state, char symbol) {
+
+        while (true) {
+
+            Integer next = this.transitions.get(state).get(symbol);
+
+            if (next != null) {
+
+                return next;
+            }
+
+            if (state == ROOT) {
+
+                return ROOT;
+            }
+
+            state = this.failureLinks[state];
+        }
+    }
+
+    private int addState() {
+
+        this.transitions.add(new HashMap<>());
+        this.outputs.add(new ArrayList<>());
+
+        return this.transitions.size() - 1;
+    }
+
+    private void addKeyword(String keyword) {
+
+        if (keyword.isEmpty() || this.keywordIds.containsKey(keyword)) {
+
+            return;
+        }
+
+        int state = ROOT;
+
+        for (int i = 0; i < keyword.length(); i++) {
+
+            Integer next = this.transitions.get(state).get(keyword.charAt(i));
+
+            if (next == null) {
+
+                next = addState();
+                this.transitions.get(state).put(keyword.charAt(i), next);
+            }
+
+            state = next;
+        }
+
+        int keywordId = this.keywordLengths.size();
+
+        this.keywordIds.put(keyword, keywordId);
+        this.keywordLengths.add(keyword.length());
+        this.outputs.get(state).add(keywordId);
+    }
+
+    private void buildFailureLinks() {
+
+        this.failureLinks = new int[this.transitions.size()];
+
+        Queue<Integer> statesQueue = new ArrayDeque<>(this.transitions.get(ROOT).values());
+
+        while (!statesQueue.isEmpty()) {
+
+            int state = statesQueue.poll();
+
+            for (Map.Entry<Character, Integer> currentTransition : this.transitions.get(state).entrySet()) {
+
+                int child = currentTransition.getValue();
+                int failure = nextState(this.failureLinks[state], currentTransition.getKey());
+
+                this.failureLinks[child] = failure;
+                this.outputs.get(child).addAll(this.outputs.get(failure));
+
+                statesQueue.add(child);
+            }
+        }
+    }
+
+    private static boolean isWordBoundary(CharSequence text, int position) {
+
+        boolean isWordBefore = position > 0 && isWordCharacter(text.charAt(position - 1));
+        boolean isWordAfter = position < text.length() && isWordCharacter(text.charAt(position));
+
+        return isWordBefore != isWordAfter;
+    }
+
+    private static boolean isWordCharacter(char symbol) {
+
+        return symbol == '_' || Character.isLetterOrDigit(symbol);
+    }
+}
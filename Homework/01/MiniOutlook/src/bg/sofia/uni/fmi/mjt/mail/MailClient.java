@@ -59,7 +59,8 @@ public interface MailClient {
      * @param ruleDefinition string definition of the rule
      * @param priority       priority of the rule - [1,10], 1 = highest priority
      * @throws IllegalArgumentException    if any of the string parameters is null, empty or blank,
-     *                                     or the priority of the rule is not within the expected range
+     *                                     or the priority of the rule is not within the expected range,
+     *                                     or a line of the rule definition is not a rule condition
      * @throws AccountNotFoundException    if the account does not exist
      * @throws FolderNotFoundException     if the folder does not exist
      * @throws RuleAlreadyDefinedException if the rule definition contains a rule *condition* that already exists,
@@ -0,0 +1,21 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Position of a mail in a folder. Mails are ordered by their receiving time and then by the order they were
+ * stored in, mails without receiving time being the oldest.
+ */
+public record MailCursor(LocalDateTime received, long sequence) implements Comparable<MailCursor> {
+
+    private static final Comparator<MailCursor> MAIL_CURSOR_COMPARATOR = Comparator
+        .comparing(MailCursor::received, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparingLong(MailCursor::sequence);
+
+    @Override
+    public int compareTo(MailCursor other) {
+
+        return MAIL_CURSOR_COMPARATOR.compare(this, other);
+    }
+}
@@ -1,10 +1,8 @@
 package bg.sofia.uni.fmi.mjt.mail;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
+import bg.sofia.uni.fmi.mjt.mail.exceptions.MalformedHeaderException;
+
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -24,22 +22,17 @@ public class MailMetadataConverter {
         this.received = null;
     }
 
-    public void convertToMailMetadata(String mailMetadata) {
-
-        try (BufferedReader bufferedReader = new BufferedReader(new StringReader(mailMetadata))) {
+    /**
+     * @throws MalformedHeaderException if a line is not a header or the received date and time cannot be parsed
+     */
+    public void convertToMailMetadata(CharSequence mailMetadata) {
 
-            String currentLine;
+        HeaderParser headerParser = new HeaderParser(mailMetadata);
 
-            while ((currentLine = bufferedReader.readLine()) != null) {
+        while (headerParser.nextHeader()) {
 
-                currentLine = currentLine.strip();
-                processCurrentLine(currentLine);
-            }
-        } catch (IOException e) {
-
-            throw new RuntimeException("There is a problem in reading from string with mailMetadata", e);
+            processCurrentHeader(headerParser);
         }
-
     }
 
     public void setSender(String sender) {
@@ -77,8 +70,7 @@ public class MailMetadataConverter {
             stringRepresentationRecipients = stringRepresentationRecipients.concat(recipient + ", ");
         }
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        String formattedReceived = this.received.format(formatter);
+        String formattedReceived = this.received.format(HeaderParser.DATE_TIME_FORMATTER);
 
         return "sender: " + this.sender + System.lineSeparator() +
             "subject: " + this.subject + System.lineSeparator() +
@@ -86,47 +78,23 @@ public class MailMetadataConverter {
             "received: " + formattedReceived + System.lineSeparator();
     }
 
-    private static String processRecipients(String currentLine) {
-
-        return currentLine.replaceFirst("recipients:", "").strip().replace(",", "");
-    }
-
-    private static String processSender(String currentLine) {
-
-        return currentLine.replaceFirst("sender:", "").strip();
-    }
-
-    private static String processSubject(String currentLine) {
-
-        return currentLine.replaceFirst("subject:", "").strip();
-    }
-
-    private static String processReceived(String currentLine) {
-
-        return currentLine.replaceFirst("received:", "").strip();
-    }
-    private void processCurrentLine(String currentLine) {
+    private void processCurrentHeader(HeaderParser headerParser) {
 
-        if (currentLine.startsWith("sender:")) {
+        if (headerParser.isKey("sender")) {
 
-            setSender(processSender(currentLine));
+            setSender(headerParser.getValue());
         }
-        else if (currentLine.startsWith("subject:")) {
+        else if (headerParser.isKey("subject")) {
 
-            setSubject(processSubject(currentLine));
+            setSubject(headerParser.getValue());
         }
-        else if (currentLine.startsWith("received:")) {
+        else if (headerParser.isKey("received")) {
 
-            DateTimeFormatter toFormatFromString = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-            setReceived(LocalDateTime.parse(processReceived(currentLine), toFormatFromString));
+            setReceived(headerParser.getDateTimeValue());
         }
-        else if (currentLine.startsWith("recipients:")) {
-
-            String[] toAddRecipients = processRecipients(currentLine).split(" ");
-            for (String currentRecipient : toAddRecipients) {
+        else if (headerParser.isKey("recipients")) {
 
-                addRecipients(currentRecipient);
-            }
+            headerParser.forEachListItem(this::addRecipients);
         }
     }
 
@@ -0,0 +1,15 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import java.util.List;
+
+/**
+ * @param mails      the mails of the page in the requested order
+ * @param nextCursor cursor to request the following page with or null if this is the last page
+ */
+public record MailPage(List<Mail> mails, MailCursor nextCursor) {
+
+    public boolean hasNext() {
+
+        return this.nextCursor != null;
+    }
+}
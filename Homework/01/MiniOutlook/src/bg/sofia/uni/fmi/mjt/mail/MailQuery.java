@@ -0,0 +1,132 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import java.time.LocalDateTime;
+
+public class MailQuery {
+
+    //Required parameters
+    private final int pageSize;
+
+    //Optional parameters
+    private final LocalDateTime receivedFrom;
+    private final LocalDateTime receivedTo;
+    private final SortOrder sortOrder;
+    private final MailCursor cursor;
+
+    public int getPageSize() {
+
+        return this.pageSize;
+    }
+
+    /**
+     * @return the earliest receiving time of the requested mails, inclusive, or null if not limited
+     */
+    public LocalDateTime getReceivedFrom() {
+
+        return this.receivedFrom;
+    }
+
+    /**
+     * @return the latest receiving time of the requested mails, inclusive, or null if not limited
+     */
+    public LocalDateTime getReceivedTo() {
+
+        return this.receivedTo;
+    }
+
+    public SortOrder getSortOrder() {
+
+        return this.sortOrder;
+    }
+
+    /**
+     * @return the cursor of the previous page, the requested mails come after it, or null for the first page
+     */
+    public MailCursor getCursor() {
+
+        return this.cursor;
+    }
+
+    public static MailQueryBuilder builder(int pageSize) {
+
+        return new MailQueryBuilder(pageSize);
+    }
+
+    private MailQuery(MailQueryBuilder builder) {
+
+        this.pageSize = builder.pageSize;
+        this.receivedFrom = builder.receivedFrom;
+        this.receivedTo = builder.receivedTo;
+        this.sortOrder = builder.sortOrder;
+        this.cursor = builder.cursor;
+    }
+
+    //Builder Class
+    public static class MailQueryBuilder {
+
+        //Required parameters
+        private final int pageSize;
+
+        //Optional parameters
+        private LocalDateTime receivedFrom;
+        private LocalDateTime receivedTo;
+        private SortOrder sortOrder;
+        private MailCursor cursor;
+
+        private MailQueryBuilder(int pageSize) {
+
+            this.pageSize = pageSize;
+            this.sortOrder = SortOrder.NEWEST_FIRST;
+        }
+
+        public MailQueryBuilder setReceivedFrom(LocalDateTime receivedFrom) {
+
+            this.receivedFrom = receivedFrom;
+            return this;
+        }
+
+        public MailQueryBuilder setReceivedTo(LocalDateTime receivedTo) {
+
+            this.receivedTo = receivedTo;
+            return this;
+        }
+
+        public MailQueryBuilder setSortOrder(SortOrder sortOrder) {
+
+            this.sortOrder = sortOrder;
+            return this;
+        }
+
+        public MailQueryBuilder setCursor(MailCursor cursor) {
+
+            this.cursor = cursor;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the page size is not positive, the sort order is null
+         *                                  or the receiving time range is empty
+         */
+        public MailQuery build() {
+
+            if (this.pageSize <= 0) {
+
+                throw new IllegalArgumentException("pageSize is not positive");
+            }
+
+            if (this.sortOrder == null) {
+
+                throw new IllegalArgumentException("sortOrder is null");
+            }
+
+            if (this.receivedFrom != null && this.receivedTo != null && this.receivedFrom.isAfter(this.receivedTo)) {
+
+                throw new IllegalArgumentException("receivedFrom is after receivedTo");
+            }
+
+            return new MailQuery(this);
+        }
+
+    }
+
+}
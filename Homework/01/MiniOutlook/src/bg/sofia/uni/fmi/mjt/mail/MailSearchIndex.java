@@ -0,0 +1,441 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index over the subject, body, sender and recipients of the mails of an account. Words are split the
+ * same way as {@code \b} splits them and are compared ignoring case. Every mail in a folder is a document, whose
+ * id grows with the order of indexing, so the posting list of every word is kept sorted by just appending to it.
+ * Moving a mail keeps its document, and removed documents are only marked as deleted. A document holds only the
+ * id of the mail in the {@link bg.sofia.uni.fmi.mjt.mail.storage.MailStorage} and the time it was received, so
+ * the mails themselves are read from the storage for the search results only.
+ * <p>
+ * Mails are usually indexed in the order they are received, so a search walks the posting lists from the newest
+ * documents and stops as soon as no older document can be newer than the mails found so far.
+ * <p>
+ * An index of an account whose mails are already in the storage, e.g. after a restart, is not built until it is
+ * searched, so until then mails need not be added to it.
+ */
+public class MailSearchIndex {
+
+    private static final int INITIAL_POSTINGS_CAPACITY = 4;
+
+    private final Map<String, PostingList> postingsByWord;
+    private final List<Document> documents;
+    private final BitSet deletedDocuments;
+    private final Map<String, Map<Long, Integer>> documentIdsByFolder;
+    private boolean built;
+
+    public MailSearchIndex() {
+
+        this.postingsByWord = new HashMap<>();
+        this.documents = new ArrayList<>();
+        this.deletedDocuments = new BitSet();
+        this.documentIdsByFolder = new HashMap<>();
+        this.built = true;
+    }
+
+    /**
+     * @return false if the mails already in the storage have not been added to the index yet
+     */
+    public boolean isBuilt() {
+
+        return this.built;
+    }
+
+    public void setBuilt(boolean built) {
+
+        this.built = built;
+    }
+
+    /**
+     * Indexes the mail stored in the folder. Adding a mail which is already in the folder has no effect.
+     *
+     * @param mailId id of the mail in the storage
+     */
+    public void add(String folderPath, long mailId, Mail mail) {
+
+        Map<Long, Integer> folderDocumentIds = this.documentIdsByFolder.computeIfAbsent(folderPath,
+            path -> new HashMap<>());
+
+        if (folderDocumentIds.containsKey(mailId)) {
+
+            return;
+        }
+
+        int documentId = this.documents.size();
+        LocalDateTime newestReceived = documentId == 0 ? null : this.documents.get(documentId - 1).newestReceived();
+
+        this.documents.add(new Document(mailId, mail.received(),
+            isAfter(newestReceived, mail.received()) ? newestReceived : mail.received()));
+        folderDocumentIds.put(mailId, documentId);
+
+        for (String currentWord : getWords(mail)) {
+
+            this.postingsByWord.computeIfAbsent(currentWord, word -> new PostingList()).add(documentId);
+        }
+    }
+
+    /**
+     * @param fromMailId id of the mail in the storage before the move
+     * @param toMailId   id of the mail in the storage after the move
+     */
+    public void move(String fromFolderPath, long fromMailId, String toFolderPath, long toMailId, Mail mail) {
+
+        Integer documentId = this.documentIdsByFolder.getOrDefault(fromFolderPath, Map.of()).get(fromMailId);
+
+        if (documentId == null) {
+
+            add(toFolderPath, toMailId, mail);
+            return;
+        }
+
+        this.documentIdsByFolder.get(fromFolderPath).remove(fromMailId);
+
+        Map<Long, Integer> toFolderDocumentIds = this.documentIdsByFolder.computeIfAbsent(toFolderPath,
+            path -> new HashMap<>());
+
+        if (toFolderDocumentIds.putIfAbsent(toMailId, documentId) != null) {
+
+            this.deletedDocuments.set(documentId);
+            return;
+        }
+
+        Document document = this.documents.get(documentId);
+        this.documents.set(documentId, new Document(toMailId, document.received(), document.newestReceived()));
+    }
+
+    /**
+     * @param query words which must all be contained in a mail
+     * @param limit maximum number of returned mails
+     * @return the ids in the storage of the matching mails from the newest to the oldest. A mail stored
+     * in several folders is returned once for every folder.
+     */
+    public List<Long> search(String query, int limit) {
+
+        Set<String> queryWords = tokenize(query);
+
+        if (queryWords.isEmpty() || limit <= 0) {
+
+            return List.of();
+        }
+
+        PostingList[] postingLists = new PostingList[queryWords.size()];
+        int i = 0;
+
+        for (String currentWord : queryWords) {
+
+            PostingList currentPostingList = this.postingsByWord.get(currentWord);
+
+            if (currentPostingList == null) {
+
+                return List.of();
+            }
+
+            postingLists[i++] = currentPostingList;
+        }
+
+        Arrays.sort(postingLists, Comparator.comparingInt(PostingList::size));
+
+        return searchNewest(postingLists, limit);
+    }
+
+    private List<Long> searchNewest(PostingList[] postingLists, int limit) {
+
+        // The shortest list is walked from its newest document, and every other list is galloped backwards only
+        // for the remaining candidates.
+        PostingList shortest = postingLists[0];
+        int[] searchFrom = new int[postingLists.length];
+        NewestDocuments newest = new NewestDocuments(Math.min(limit, shortest.size()));
+
+        for (int i = 1; i < postingLists.length; i++) {
+
+            searchFrom[i] = postingLists[i].size() - 1;
+        }
+
+        for (int i = shortest.size() - 1; i >= 0 && !isExhausted(searchFrom); i--) {
+
+            int candidate = shortest.documentIds[i];
+            LocalDateTime newestReceived = this.documents.get(candidate).newestReceived();
+
+            // The remaining candidates have lower ids, so they are ranked lower than mails received at the same time
+            if (newest.isFull() && !isAfter(newestReceived, newest.getOldestReceived())) {
+
+                break;
+            }
+
+            if (containsAll(postingLists, searchFrom, candidate) && !this.deletedDocuments.get(candidate)) {
+
+                newest.offer(candidate);
+            }
+        }
+
+        return newest.getMailIds();
+    }
+
+    private static boolean containsAll(PostingList[] postingLists, int[] searchFrom, int documentId) {
+
+        for (int i = 1; i < postingLists.length; i++) {
+
+            int position = postingLists[i].findBackwards(documentId, searchFrom[i]);
+
+            if (position < 0) {
+
+                searchFrom[i] = -position - 2;
+                return false;
+            }
+
+            searchFrom[i] = position - 1;
+        }
+
+        return true;
+    }
+
+    private static boolean isExhausted(int[] searchFrom) {
+
+        for (int i = 1; i < searchFrom.length; i++) {
+
+            if (searchFrom[i] < 0) {
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Mails without a received time are older than all others
+    private static boolean isAfter(LocalDateTime received, LocalDateTime other) {
+
+        return received != null && (other == null || received.isAfter(other));
+    }
+
+    private static Set<String> getWords(Mail mail) {
+
+        Set<String> words = new LinkedHashSet<>();
+
+        words.addAll(tokenize(mail.subject()));
+        words.addAll(tokenize(mail.body()));
+
+        if (mail.sender() != null) {
+
+            words.addAll(tokenize(mail.sender().emailAddress()));
+            words.addAll(tokenize(mail.sender().name()));
+        }
+
+        if (mail.recipients() != null) {
+
+            for (String currentRecipient : mail.recipients()) {
+
+                words.addAll(tokenize(currentRecipient));
+            }
+        }
+
+        return words;
+    }
+
+    private static Set<String> tokenize(String text) {
+
+        Set<String> words = new LinkedHashSet<>();
+
+        if (text == null) {
+
+            return words;
+        }
+
+        int wordStart = -1;
+
+        for (int i = 0; i <= text.length(); i++) {
+
+            boolean isWordCharacter = i < text.length() && isWordCharacter(text.charAt(i));
+
+            if (isWordCharacter && wordStart < 0) {
+
+                wordStart = i;
+            } else if (!isWordCharacter && wordStart >= 0) {
+
+                words.add(text.substring(wordStart, i).toLowerCase(Locale.ROOT));
+                wordStart = -1;
+            }
+        }
+
+        return words;
+    }
+
+    private static boolean isWordCharacter(char character) {
+
+        return character == '_' || Character.isLetterOrDigit(character);
+    }
+
+    /**
+     * @param newestReceived the newest time any of the documents up to this one was received
+     */
+    private record Document(long mailId, LocalDateTime received, LocalDateTime newestReceived) {
+
+    }
+
+    /**
+     * Keeps the newest documents offered to it in a binary heap whose root is the oldest of them.
+     */
+    private class NewestDocuments {
+
+        private final int[] heap;
+        private int size;
+
+        private NewestDocuments(int capacity) {
+
+            this.heap = new int[capacity];
+            this.size = 0;
+        }
+
+        private boolean isFull() {
+
+            return this.size == this.heap.length;
+        }
+
+        private LocalDateTime getOldestReceived() {
+
+            return documents.get(this.heap[0]).received();
+        }
+
+        private void offer(int documentId) {
+
+            if (!isFull()) {
+
+                this.heap[this.size] = documentId;
+                siftUp(this.size++);
+            } else if (this.size > 0 && isNewer(documentId, this.heap[0])) {
+
+                this.heap[0] = documentId;
+                siftDown(0);
+            }
+        }
+
+        private List<Long> getMailIds() {
+
+            Long[] mailIds = new Long[this.size];
+
+            while (this.size > 0) {
+
+                mailIds[this.size - 1] = documents.get(this.heap[0]).mailId();
+                this.heap[0] = this.heap[--this.size];
+                siftDown(0);
+            }
+
+            return Arrays.asList(mailIds);
+        }
+
+        private void siftUp(int position) {
+
+            while (position > 0) {
+
+                int parent = (position - 1) / 2;
+
+                if (!isNewer(this.heap[parent], this.heap[position])) {
+
+                    return;
+                }
+
+                swap(parent, position);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+
+            while (2 * position + 1 < this.size) {
+
+                int child = 2 * position + 1;
+
+                if (child + 1 < this.size && isNewer(this.heap[child], this.heap[child + 1])) {
+
+                    child++;
+                }
+
+                if (!isNewer(this.heap[position], this.heap[child])) {
+
+                    return;
+                }
+
+                swap(position, child);
+                position = child;
+            }
+        }
+
+        private void swap(int first, int second) {
+
+            int documentId = this.heap[first];
+            this.heap[first] = this.heap[second];
+            this.heap[second] = documentId;
+        }
+
+        // Mails received at the same time are ranked by the order they were indexed in
+        private boolean isNewer(int documentId, int otherDocumentId) {
+
+            LocalDateTime received = documents.get(documentId).received();
+            LocalDateTime otherReceived = documents.get(otherDocumentId).received();
+
+            if (isAfter(received, otherReceived) || isAfter(otherReceived, received)) {
+
+                return isAfter(received, otherReceived);
+            }
+
+            return documentId > otherDocumentId;
+        }
+    }
+
+    private static class PostingList {
+
+        private int[] documentIds;
+        private int size;
+
+        private PostingList() {
+
+            this.documentIds = new int[INITIAL_POSTINGS_CAPACITY];
+            this.size = 0;
+        }
+
+        private int size() {
+
+            return this.size;
+        }
+
+        private void add(int documentId) {
+
+            if (this.size == this.documentIds.length) {
+
+                this.documentIds = Arrays.copyOf(this.documentIds, this.size * 2);
+            }
+
+            this.documentIds[this.size++] = documentId;
+        }
+
+        /**
+         * Gallops backwards from the given position, so finding decreasing ids one after another costs less than
+         * a binary search over the whole list for each of them.
+         *
+         * @return the position of the id or (-(insertion point) - 1) if it is not among the ids up to the position
+         */
+        private int findBackwards(int documentId, int from) {
+
+            int bound = 1;
+
+            while (from - bound >= 0 && this.documentIds[from - bound] > documentId) {
+
+                bound *= 2;
+            }
+
+            return Arrays.binarySearch(this.documentIds, Math.max(from - bound, 0), from + 1, documentId);
+        }
+    }
+}
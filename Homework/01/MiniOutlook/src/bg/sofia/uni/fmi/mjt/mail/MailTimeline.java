@@ -0,0 +1,105 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Entries of a folder ordered by the receiving time of their mails. A page is found in logarithmic time
+ * regardless of the size of the folder.
+ *
+ * @param <T> the type of the entries, either the mails or a reference to where they are stored
+ */
+public class MailTimeline<T> {
+
+    private final NavigableMap<MailCursor, T> entries;
+    private long nextSequence;
+
+    public MailTimeline() {
+
+        this.entries = new TreeMap<>();
+        this.nextSequence = 0;
+    }
+
+    /**
+     * @return the position of the added entry, needed to remove it
+     */
+    public MailCursor add(LocalDateTime received, T entry) {
+
+        MailCursor position = new MailCursor(received, this.nextSequence++);
+        this.entries.put(position, entry);
+
+        return position;
+    }
+
+    public T remove(MailCursor position) {
+
+        return this.entries.remove(position);
+    }
+
+    public int size() {
+
+        return this.entries.size();
+    }
+
+    /**
+     * @return the entries from the oldest to the newest
+     */
+    public Collection<T> values() {
+
+        return this.entries.values();
+    }
+
+    /**
+     * @param query       the requested range, order and page
+     * @param entryToMail reads the mail of an entry. It is called only for the entries of the page
+     */
+    public MailPage getPage(MailQuery query, Function<T, Mail> entryToMail) {
+
+        NavigableMap<MailCursor, T> range = getRange(query);
+        Iterator<Map.Entry<MailCursor, T>> iterator = range.entrySet().iterator();
+
+        List<Mail> mails = new ArrayList<>(Math.min(query.getPageSize(), this.entries.size()));
+        MailCursor lastPosition = null;
+
+        while (mails.size() < query.getPageSize() && iterator.hasNext()) {
+
+            Map.Entry<MailCursor, T> currentEntry = iterator.next();
+            mails.add(entryToMail.apply(currentEntry.getValue()));
+            lastPosition = currentEntry.getKey();
+        }
+
+        return new MailPage(mails, iterator.hasNext() ? lastPosition : null);
+    }
+
+    private NavigableMap<MailCursor, T> getRange(MailQuery query) {
+
+        NavigableMap<MailCursor, T> range = this.entries;
+
+        // Mails without receiving time sort first, so any bound on the receiving time leaves them out.
+        if (query.getReceivedFrom() != null || query.getReceivedTo() != null) {
+
+            LocalDateTime receivedFrom = query.getReceivedFrom() != null ? query.getReceivedFrom() : LocalDateTime.MIN;
+            range = range.tailMap(new MailCursor(receivedFrom, Long.MIN_VALUE), true);
+        }
+
+        if (query.getReceivedTo() != null) {
+
+            range = range.headMap(new MailCursor(query.getReceivedTo(), Long.MAX_VALUE), true);
+        }
+
+        if (query.getCursor() != null) {
+
+            range = query.getSortOrder() == SortOrder.OLDEST_FIRST ?
+                range.tailMap(query.getCursor(), false) : range.headMap(query.getCursor(), false);
+        }
+
+        return query.getSortOrder() == SortOrder.OLDEST_FIRST ? range : range.descendingMap();
+    }
+}
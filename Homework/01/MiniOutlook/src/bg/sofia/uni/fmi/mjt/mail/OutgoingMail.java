@@ -0,0 +1,5 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+public record OutgoingMail(String mailMetadata, String mailContent) {
+
+}
@@ -5,29 +5,57 @@ import bg.sofia.uni.fmi.mjt.mail.exceptions.AccountNotFoundException;
 import bg.sofia.uni.fmi.mjt.mail.exceptions.FolderAlreadyExistsException;
 import bg.sofia.uni.fmi.mjt.mail.exceptions.FolderNotFoundException;
 import bg.sofia.uni.fmi.mjt.mail.exceptions.InvalidPathException;
+import bg.sofia.uni.fmi.mjt.mail.exceptions.MailStorageException;
 import bg.sofia.uni.fmi.mjt.mail.exceptions.RuleAlreadyDefinedException;
+import bg.sofia.uni.fmi.mjt.mail.storage.InMemoryMailStorage;
+import bg.sofia.uni.fmi.mjt.mail.storage.MailStorage;
+import bg.sofia.uni.fmi.mjt.mail.storage.StoredAccount;
+import bg.sofia.uni.fmi.mjt.mail.storage.StoredMail;
+import bg.sofia.uni.fmi.mjt.mail.storage.StoredRule;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Outlook implements MailClient {
 
     private static final int MAX_RULE_PRIORITY_RANGE = 10;
-    private static final String BEGINNING_REGEX = "(.)*\\b";
-    private static final String ENDING_REGEX = "\\b(.)*";
+    private static final String INBOX_PATH = "/inbox";
+    private static final String SENT_PATH = "/sent";
 
-    private final Set<Account> accounts;
-    private final Set<AccountFolders> accountsFolders;
-    private final Set<AccountRules> accountRules;
+    private final AccountRegistry accountRegistry;
+    private final MailStorage mailStorage;
 
     public Outlook() {
 
-        this.accounts = new HashSet<>();
-        this.accountsFolders = new HashSet<>();
-        this.accountRules = new HashSet<>();
+        this(new InMemoryMailStorage());
+    }
+
+    /**
+     * Creates a mail client which keeps its mails in the given storage. The accounts, folders and rules
+     * already present in the storage are restored.
+     *
+     * @param mailStorage storage of the mails
+     * @throws IllegalArgumentException if the storage is null
+     * @throws MailStorageException     if the storage cannot be read
+     */
+    public Outlook(MailStorage mailStorage) {
+
+        if (mailStorage == null) {
+
+            throw new IllegalArgumentException("mailStorage is null");
+        }
+
+        this.accountRegistry = new AccountRegistry();
+        this.mailStorage = mailStorage;
+
+        restoreAccounts(mailStorage.loadAccounts());
     }
 
     /**
@@ -52,9 +80,13 @@ public class Outlook implements MailClient {
 
         Account toAddAccount = new Account(email, accountName);
 
-        validateIsExistingAccount(toAddAccount);
+        synchronized (this.accountRegistry) {
 
-        this.accounts.add(toAddAccount);
+            validateIsNotRegistered(accountName);
+
+            this.mailStorage.addAccount(toAddAccount);
+            this.accountRegistry.register(toAddAccount);
+        }
 
         return toAddAccount;
     }
@@ -81,11 +113,15 @@ public class Outlook implements MailClient {
         validateIsEmpty(path, "path");
         validateIsBlank(path, "path");
 
-        Account searchedAccount = getAccountByAccountName(accountName);
+        AccountEntry searchedAccountEntry = getAccountEntryByAccountName(accountName);
+
+        synchronized (searchedAccountEntry) {
 
-        AccountFolders searchedAccountFolders = getAccountFoldersFromAccount(searchedAccount);
+            processPath(path, searchedAccountEntry.accountFolders());
 
-        processPath(path, searchedAccountFolders);
+            this.mailStorage.addFolder(searchedAccountEntry,
+                searchedAccountEntry.accountFolders().getFolderPath(path));
+        }
     }
 
     /**
@@ -110,7 +146,8 @@ public class Outlook implements MailClient {
      * @param ruleDefinition string definition of the rule
      * @param priority       priority of the rule - [1,10], 1 = highest priority
      * @throws IllegalArgumentException    if any of the string parameters is null, empty or blank,
-     *                                     or the priority of the rule is not within the expected range
+     *                                     or the priority of the rule is not within the expected range,
+     *                                     or a line of the rule definition is not a rule condition
      * @throws AccountNotFoundException    if the account does not exist
      * @throws FolderNotFoundException     if the folder does not exist
      * @throws RuleAlreadyDefinedException if the rule definition contains a rule/condition that already exists
@@ -120,26 +157,27 @@ public class Outlook implements MailClient {
 
         validateAddRuleMethod(accountName, folderPath, ruleDefinition, priority);
 
-        Account searchedAccount = getAccountByAccountName(accountName);
-        AccountFolders searchedAccountFolders = getAccountFoldersFromAccount(searchedAccount);
+        AccountEntry searchedAccountEntry = getAccountEntryByAccountName(accountName);
+        AccountFolders searchedAccountFolders = searchedAccountEntry.accountFolders();
 
-        RuleDefinitionConverter ruleDefinitionConverter = new RuleDefinitionConverter();
-        ruleDefinitionConverter.convertToRuleDefinition(ruleDefinition);
+        synchronized (searchedAccountEntry) {
 
-        if (!isExistingPath(folderPath, searchedAccountFolders)) {
+            if (searchedAccountFolders.getFolder(folderPath) == null) {
 
-            throw new FolderNotFoundException("Folder does not exist");
-        }
+                throw new FolderNotFoundException("Folder does not exist");
+            }
 
-        ruleDefinitionConverter.setDestinationPath(folderPath);
-        AccountRules searchedAccountRules = getAccountRulesFromAccount(searchedAccount);
+            RuleDefinitionConverter ruleDefinitionConverter = new RuleDefinitionConverter();
+            ruleDefinitionConverter.convertToRuleDefinition(ruleDefinition);
 
-        searchedAccountRules.addAccountRule(ruleDefinitionConverter, priority);
+            ruleDefinitionConverter.setDestinationPath(folderPath);
+            AccountRules searchedAccountRules = searchedAccountEntry.accountRules();
 
-        AccountRules newRule = new AccountRules(searchedAccount);
-        newRule.addAccountRule(ruleDefinitionConverter, priority);
+            searchedAccountRules.addAccountRule(ruleDefinitionConverter, priority);
+            this.mailStorage.addRule(searchedAccountEntry, folderPath, ruleDefinition, priority);
 
-        this.executeAccountRules(newRule, searchedAccountFolders);
+            this.executeAccountRules(ruleDefinitionConverter.compile(), searchedAccountEntry);
+        }
     }
 
     /**
@@ -167,23 +205,36 @@ public class Outlook implements MailClient {
 
         validateReceivedMailMethod(accountName, mailMetadata, mailContent);
 
-        Account searchedAccount = getAccountByAccountName(accountName);
+        AccountEntry searchedAccountEntry = getAccountEntryByAccountName(accountName);
 
-        AccountFolders searchedAccountFolders = getAccountFoldersFromAccount(searchedAccount);
+        deliverMail(searchedAccountEntry, createReceivedMail(mailMetadata, mailContent));
+    }
 
-        MailMetadataConverter mailMetadataConverter = new MailMetadataConverter();
-        mailMetadataConverter.convertToMailMetadata(mailMetadata);
+    /**
+     * Delivers the same mail to several accounts. The mail metadata is parsed once and the mail is delivered
+     * to the accounts in parallel. Deliveries to different accounts do not block each other.
+     *
+     * @param accountNames the recipient accounts
+     * @param mailMetadata metadata, including the sender, all recipients, subject, and receiving time,
+     *                     in the format described in {@link #receiveMail(String, String, String)}
+     * @param mailContent  content of the mail
+     * @throws IllegalArgumentException if any of the parameters is null, empty or blank
+     * @throws AccountNotFoundException if any of the accounts does not exist. The mail is not delivered
+     *                                  to any account in this case
+     */
+    public void receiveMailBatch(Collection<String> accountNames, String mailMetadata, String mailContent) {
 
-        String senderAccountName = getAccountNameByEmail(mailMetadataConverter.getSender());
+        validateReceiveMailBatchMethod(accountNames, mailMetadata, mailContent);
 
-        Mail toAdd = new Mail(new Account(mailMetadataConverter.getSender(), senderAccountName),
-            mailMetadataConverter.getRecipients(), mailMetadataConverter.getSubject(), mailContent,
-            mailMetadataConverter.getReceived());
+        List<AccountEntry> recipientAccountEntries = accountNames.stream()
+            .distinct()
+            .map(this::getAccountEntryByAccountName)
+            .toList();
 
-        addReceivedMailToInbox(toAdd, searchedAccountFolders);
+        Mail toAdd = createReceivedMail(mailMetadata, mailContent);
 
-        AccountRules searchedAccountRules = getAccountRulesFromAccount(searchedAccount);
-        this.executeAccountRules(searchedAccountRules, searchedAccountFolders);
+        recipientAccountEntries.parallelStream()
+            .forEach(recipientAccountEntry -> deliverMail(recipientAccountEntry, toAdd));
     }
 
     /**
@@ -201,32 +252,68 @@ public class Outlook implements MailClient {
 
         validateGetMailsFromFolderMethod(account, folderPath);
 
-        Account searchedAccount = getAccountByAccountName(account);
-        AccountFolders searchedAccountFolders = getAccountFoldersFromAccount(searchedAccount);
+        AccountEntry searchedAccountEntry = getAccountEntryByAccountName(account);
 
-        if (!isExistingPath(folderPath, searchedAccountFolders)) {
+        synchronized (searchedAccountEntry) {
 
-            throw new FolderNotFoundException("Folder does not exist");
+            return getMailsFromFolder(searchedAccountEntry, folderPath).collect(Collectors.toCollection(HashSet::new));
         }
+    }
+
+    /**
+     * Returns a page of the mails in the provided folder. Only the mails of the page are read, so requesting
+     * the newest mails of a large folder does not depend on its size.
+     *
+     * @param account    name of the selected account
+     * @param folderPath full path of the folder
+     * @param query      receiving time range, order and size of the page, and the cursor of the previous page
+     * @return the mails of the page and the cursor of the next one
+     * @throws IllegalArgumentException if any of the parameters is null, empty or blank
+     * @throws AccountNotFoundException if the account does not exist
+     * @throws FolderNotFoundException  if the folder does not exist
+     * @throws MailStorageException     if the mails cannot be read
+     */
+    public MailPage getMailsFromFolder(String account, String folderPath, MailQuery query) {
+
+        validateGetMailsFromFolderMethod(account, folderPath);
 
-        Set<Mail> result = new HashSet<>();
+        if (query == null) {
 
-        Set<Folder> folders = searchedAccountFolders.getDirectories().keySet();
-        String[] followingFolders = folderPath.split("/");
+            throw new IllegalArgumentException("query is null");
+        }
 
-        String lastDirectory = followingFolders[followingFolders.length - 1];
-        Folder lastDirectoryFolder = new Folder(lastDirectory);
+        AccountEntry searchedAccountEntry = getAccountEntryByAccountName(account);
 
-        for (Folder folder : folders) {
+        synchronized (searchedAccountEntry) {
 
-            if (folder.equals(lastDirectoryFolder)) {
+            String searchedFolderPath = getExistingFolderPath(searchedAccountEntry, folderPath);
 
-                result.addAll(folder.getMails());
-                break;
-            }
+            return this.mailStorage.getMails(searchedAccountEntry, searchedFolderPath, query);
         }
+    }
+
+    /**
+     * Returns the mails in the provided folder without collecting them first. The mails are read from the storage
+     * while the stream is consumed, so the stream should be closed if it is not consumed to the end.
+     *
+     * @param account    name of the selected account
+     * @param folderPath full path of the folder
+     * @return the mails in the folder at the moment of the call
+     * @throws IllegalArgumentException if any of the parameters is null, empty or blank
+     * @throws AccountNotFoundException if the account does not exist
+     * @throws FolderNotFoundException  if the folder does not exist
+     * @throws MailStorageException     if the mails cannot be read
+     */
+    public Stream<Mail> streamMailsFromFolder(String account, String folderPath) {
+
+        validateGetMailsFromFolderMethod(account, folderPath);
+
+        AccountEntry searchedAccountEntry = getAccountEntryByAccountName(account);
 
-        return result;
+        synchronized (searchedAccountEntry) {
+
+            return getMailsFromFolder(searchedAccountEntry, folderPath);
+        }
     }
 
     /**
@@ -246,260 +333,229 @@ public class Outlook implements MailClient {
 
         validateSendMailMethod(accountName, mailMetadata, mailContent);
 
-        Account searchedAccount = getAccountByAccountName(accountName);
-        AccountFolders searchedAccountFolders = getAccountFoldersFromAccount(searchedAccount);
+        AccountEntry searchedAccountEntry = getAccountEntryByAccountName(accountName);
 
-        Set<Folder> folders = searchedAccountFolders.getDirectories().keySet();
+        sendMails(searchedAccountEntry, List.of(new OutgoingMail(mailMetadata, mailContent)));
+    }
 
-        MailMetadataConverter mailMetadataConverter = new MailMetadataConverter();
-        mailMetadataConverter.convertToMailMetadata(mailMetadata);
+    /**
+     * Sends several emails from the same account. Each mail metadata is parsed once, all mails are stored into
+     * the sender's "/sent" folder and then delivered to the existing recipient accounts in parallel.
+     * Deliveries to different accounts do not block each other and the mails for an account are delivered
+     * in the order they are given.
+     *
+     * @param accountName name of the sender
+     * @param mails       metadata and content of the mails, as described in {@link #sendMail(String, String, String)}
+     * @throws IllegalArgumentException if any of the parameters is null, empty or blank
+     * @throws AccountNotFoundException if the sender account does not exist
+     */
+    public void sendMailBatch(String accountName, Collection<OutgoingMail> mails) {
 
-        mailMetadataConverter.setSender(searchedAccount.emailAddress());
+        validateSendMailBatchMethod(accountName, mails);
+
+        AccountEntry searchedAccountEntry = getAccountEntryByAccountName(accountName);
+
+        sendMails(searchedAccountEntry, mails);
+    }
 
-        Mail toAdd = new Mail(searchedAccount, mailMetadataConverter.getRecipients(),
-            mailMetadataConverter.getSubject(), mailContent, mailMetadataConverter.getReceived());
+    /**
+     * Searches all folders of the account for mails containing every word of the query in their subject, body,
+     * sender or recipients. Words are compared ignoring case.
+     *
+     * @param account name of the selected account
+     * @param query   words separated by any non-word characters
+     * @param limit   maximum number of returned mails
+     * @return the matching mails from the newest to the oldest
+     * @throws IllegalArgumentException if any of the string parameters is null, empty or blank,
+     *                                  or the limit is not positive
+     * @throws AccountNotFoundException if the account does not exist
+     */
+    public List<Mail> searchMails(String account, String query, int limit) {
 
-        for (Folder folder : folders) {
+        validateSearchMailsMethod(account, query, limit);
 
-            if (folder.equals(new Folder("sent"))) {
+        AccountEntry searchedAccountEntry = getAccountEntryByAccountName(account);
 
-                folder.getMails().add(toAdd);
-                break;
-            }
-        }
+        synchronized (searchedAccountEntry) {
 
-        activateReceivedMailOnRecipients(mailMetadataConverter, mailContent);
+            buildMailSearchIndex(searchedAccountEntry);
+
+            // Only the mails of the result are read from the storage
+            return searchedAccountEntry.mailSearchIndex().search(query, limit).stream()
+                .map(mailId -> this.mailStorage.getMail(searchedAccountEntry, mailId))
+                .toList();
+        }
     }
 
     public Set<Account> getAccounts() {
 
-        return accounts;
+        return this.accountRegistry.getAccounts();
     }
 
     public Set<AccountFolders> getAccountsFolders() {
 
-        return accountsFolders;
+        return this.accountRegistry.getAccountsFolders();
     }
 
     public AccountRules getAccountRulesFromAccount(Account account) {
 
-        for (AccountRules currentAccountRules : this.accountRules) {
-
-            if (currentAccountRules.getAccount().equals(account)) {
-
-                return currentAccountRules;
-            }
-        }
-
-        AccountRules newToAdd = new AccountRules(account);
-        this.accountRules.add(newToAdd);
-
-        return newToAdd;
+        return getAccountEntryByAccountName(account.name()).accountRules();
     }
 
-    private void executeAccountRules(AccountRules searchedAccountRules, AccountFolders searchedAccountFolders) {
-
-        Collection<RuleDefinitionConverter> values = searchedAccountRules.getAccountRules().values();
+    private void executeAccountRules(RuleMatcher ruleMatcher, AccountEntry searchedAccountEntry) {
 
-        Set<Folder> folders = searchedAccountFolders.getDirectories().keySet();
+        List<StoredMail> inboxMails;
 
-        for (RuleDefinitionConverter currentRule : values) {
+        try (Stream<StoredMail> mails = this.mailStorage.getStoredMails(searchedAccountEntry, INBOX_PATH)) {
 
-            for (Folder currentFolder : folders) {
+            inboxMails = mails.toList();
+        }
 
-                if (!currentFolder.getFolderName().equals("inbox")) {
-                    continue;
-                }
+        for (StoredMail currentMail : inboxMails) {
 
-                for (Mail currentMail : currentFolder.getMails()) {
+            RuleDefinitionConverter matchingRule = ruleMatcher.findMatchingRule(currentMail.mail());
 
-                    if (isForMoving(currentMail, currentRule)) {
+            if (matchingRule != null) {
 
-                        moveMail(currentRule, currentMail, currentFolder, folders);
-                    }
-                }
+                moveMail(matchingRule, currentMail.mail(), currentMail.id(), searchedAccountEntry);
             }
         }
     }
 
-    private void moveMail(RuleDefinitionConverter currentRule, Mail currentMail, Folder currentFolder,
-                          Set<Folder> folders) {
+    private void executeAccountRulesOnMail(AccountEntry searchedAccountEntry, Mail mail, long mailId) {
 
-        validatePathStartsFromRoot(currentRule.getDestinationPath());
-
-        String[] followingFolders = currentRule.getDestinationPath().split("/");
-
-        String lastDirectory = followingFolders[followingFolders.length - 1];
-        Folder lastDirectoryFolder = new Folder(lastDirectory);
-
-        for (Folder folder : folders) {
-
-            if (folder.equals(currentFolder)) {
-
-                folder.getMails().remove(currentMail);
-            }
+        // Mails already in the inbox have been checked against every rule on arrival or when the rule was added,
+        // so only the new mail is matched. The first matching rule by priority moves it out of the inbox.
+        RuleDefinitionConverter matchingRule = searchedAccountEntry.accountRules().findMatchingRule(mail);
 
-            if (folder.equals(lastDirectoryFolder)) {
+        if (matchingRule != null) {
 
-                folder.addMail(currentMail);
-            }
+            moveMail(matchingRule, mail, mailId, searchedAccountEntry);
         }
     }
 
-    private boolean validateIsForMovingSubjectsIncludes(Mail mail, RuleDefinitionConverter ruleDefinitionConverter) {
-
-        if (ruleDefinitionConverter.getSubjectsIncludes().isEmpty()) {
+    private void moveMail(RuleDefinitionConverter currentRule, Mail currentMail, long currentMailId,
+                          AccountEntry accountEntry) {
 
-            return true;
-        }
+        validatePathStartsFromRoot(currentRule.getDestinationPath());
 
-        for (String currentSubjectInclude : ruleDefinitionConverter.getSubjectsIncludes()) {
+        String destinationPath = accountEntry.accountFolders().getFolderPath(currentRule.getDestinationPath());
 
-            if (!mail.subject().matches(BEGINNING_REGEX + currentSubjectInclude + ENDING_REGEX)) {
+        if (destinationPath == null) {
 
-                return false;
-            }
+            throw new FolderNotFoundException("Folder does not exist");
         }
 
-        return true;
-    }
-
-    private boolean validateIsForMovingSubjectsOrBodyIncludes(Mail mail,
-                                                              RuleDefinitionConverter ruleDefinitionConverter) {
+        long movedMailId = this.mailStorage.moveMail(accountEntry, INBOX_PATH, destinationPath, currentMail);
 
-        if (ruleDefinitionConverter.getSubjectsOrBodyIncludes().isEmpty()) {
+        if (accountEntry.mailSearchIndex().isBuilt()) {
 
-            return true;
+            accountEntry.mailSearchIndex().move(INBOX_PATH, currentMailId, destinationPath, movedMailId, currentMail);
         }
+    }
 
-        for (String currentSubjectOrBodyInclude : ruleDefinitionConverter.getSubjectsOrBodyIncludes()) {
+    private long storeMail(AccountEntry accountEntry, String folderPath, Mail mail) {
 
+        long mailId = this.mailStorage.addMail(accountEntry, folderPath, mail);
 
-            if (!mail.subject().matches(BEGINNING_REGEX + currentSubjectOrBodyInclude + ENDING_REGEX) &&
-                !mail.body().matches(BEGINNING_REGEX + currentSubjectOrBodyInclude + ENDING_REGEX)) {
+        if (accountEntry.mailSearchIndex().isBuilt()) {
 
-                return false;
-            }
+            accountEntry.mailSearchIndex().add(folderPath, mailId, mail);
         }
 
-        return true;
+        return mailId;
     }
 
-    private boolean validateIsForMovingRecipientsIncludes(Mail mail,
-                                                              RuleDefinitionConverter ruleDefinitionConverter) {
+    private Stream<Mail> getMailsFromFolder(AccountEntry accountEntry, String folderPath) {
 
-        if (ruleDefinitionConverter.getRecipientsIncludes().isEmpty()) {
+        return this.mailStorage.getMails(accountEntry, getExistingFolderPath(accountEntry, folderPath));
+    }
 
-            return true;
-        }
+    private String getExistingFolderPath(AccountEntry accountEntry, String folderPath) {
 
-        boolean isMet = false;
-        for (String currentRecipientInclude : ruleDefinitionConverter.getRecipientsIncludes()) {
+        String searchedFolderPath = accountEntry.accountFolders().getFolderPath(folderPath);
 
-            if (mail.recipients().contains(currentRecipientInclude)) {
+        if (searchedFolderPath == null) {
 
-                isMet = true;
-                break;
-            }
+            throw new FolderNotFoundException("Folder does not exist");
         }
 
-        return isMet;
+        return searchedFolderPath;
     }
 
-    private boolean isForMoving(Mail mail, RuleDefinitionConverter ruleDefinitionConverter) {
+    private String getAccountNameByEmail(String email) {
+
+        AccountEntry searchedAccountEntry = this.accountRegistry.getByEmail(email);
 
-        if (!validateIsForMovingSubjectsIncludes(mail, ruleDefinitionConverter) ||
-            !validateIsForMovingSubjectsOrBodyIncludes(mail, ruleDefinitionConverter) ||
-            !validateIsForMovingRecipientsIncludes(mail, ruleDefinitionConverter)) {
+        if (searchedAccountEntry == null) {
 
-            return false;
+            return null;
         }
 
-        return mail.sender().emailAddress().equals(ruleDefinitionConverter.getFrom());
+        return searchedAccountEntry.account().name();
     }
 
-    private boolean isExistingPath(String folderPath, AccountFolders accountFolders) {
-
-        Map<Folder, List<Folder>> directories = accountFolders.getDirectories();
-
-        String[] followingFolders = folderPath.split("/");
+    private Mail createReceivedMail(String mailMetadata, String mailContent) {
 
-        for (int i = 1; i < followingFolders.length - 1; i++) {
-
-            if (directories.containsKey(new Folder(followingFolders[i]))) {
-
-                boolean isFound = false;
-                for (Folder neighbour : directories.get(new Folder(followingFolders[i]))) {
-
-                    if (neighbour.getFolderName().equals(followingFolders[i + 1])) {
-                        isFound = true;
-                        break;
-                    }
-                }
-
-                if (!isFound) {
-
-                    throw new FolderNotFoundException("Folder" + followingFolders[i + 1] + "does not exist");
-                }
-
-            } else {
+        MailMetadataConverter mailMetadataConverter = new MailMetadataConverter();
+        mailMetadataConverter.convertToMailMetadata(mailMetadata);
 
-                return false;
-            }
-        }
+        String senderAccountName = getAccountNameByEmail(mailMetadataConverter.getSender());
 
-        return true;
+        return new Mail(new Account(mailMetadataConverter.getSender(), senderAccountName),
+            Set.copyOf(mailMetadataConverter.getRecipients()), mailMetadataConverter.getSubject(), mailContent,
+            mailMetadataConverter.getReceived());
     }
 
-    private void addReceivedMailToInbox(Mail mail, AccountFolders searchedAccountFolders) {
+    private void deliverMail(AccountEntry recipientAccountEntry, Mail mail) {
 
-        Set<Folder> folders = searchedAccountFolders.getDirectories().keySet();
-        for (Folder folder : folders) {
+        synchronized (recipientAccountEntry) {
 
-            if (folder.getFolderName().equals("inbox")) {
+            long mailId = storeMail(recipientAccountEntry, INBOX_PATH, mail);
 
-                folder.addMail(mail);
-                break;
-            }
+            this.executeAccountRulesOnMail(recipientAccountEntry, mail, mailId);
         }
     }
 
-    private String getAccountNameByEmail(String email) {
+    private void sendMails(AccountEntry senderAccountEntry, Collection<OutgoingMail> mails) {
 
-        for (Account currentAccount : this.accounts) {
+        Account senderAccount = senderAccountEntry.account();
 
-            if (currentAccount.emailAddress().equals(email)) {
+        List<Mail> sentMails = new ArrayList<>();
+        Map<AccountEntry, List<Mail>> mailsByRecipient = new LinkedHashMap<>();
 
-                return currentAccount.name();
-            }
-        }
+        for (OutgoingMail currentMail : mails) {
 
-        return null;
-    }
+            MailMetadataConverter mailMetadataConverter = new MailMetadataConverter();
+            mailMetadataConverter.convertToMailMetadata(currentMail.mailMetadata());
+
+            Mail toAdd = new Mail(senderAccount, Set.copyOf(mailMetadataConverter.getRecipients()),
+                mailMetadataConverter.getSubject(), currentMail.mailContent(), mailMetadataConverter.getReceived());
 
-    private void activateReceivedMailOnRecipients(MailMetadataConverter mailMetadataConverter, String mailContent) {
+            sentMails.add(toAdd);
 
-        for (String recipient : mailMetadataConverter.getRecipients()) {
+            for (String recipient : toAdd.recipients()) {
 
-            Account toSaveAccount = null;
+                AccountEntry recipientAccountEntry = this.accountRegistry.getByEmail(recipient);
 
-            boolean isFound = false;
-            for (Account currentAccount : this.accounts) {
-                if (currentAccount.emailAddress().equals(recipient)) {
+                if (recipientAccountEntry != null) {
 
-                    toSaveAccount = currentAccount;
-                    isFound = true;
-                    break;
+                    mailsByRecipient.computeIfAbsent(recipientAccountEntry, entry -> new ArrayList<>()).add(toAdd);
                 }
             }
+        }
 
-            if (!isFound) {
+        synchronized (senderAccountEntry) {
 
-                continue;
-            }
+            for (Mail currentMail : sentMails) {
 
-            this.receiveMail(toSaveAccount.name(), mailMetadataConverter.toString(), mailContent);
+                storeMail(senderAccountEntry, SENT_PATH, currentMail);
+            }
         }
+
+        mailsByRecipient.entrySet().parallelStream()
+            .forEach(currentEntry -> currentEntry.getValue()
+                .forEach(currentMail -> deliverMail(currentEntry.getKey(), currentMail)));
     }
 
     private void validateIsNull(String parameter, String nameOfParameter) {
@@ -534,9 +590,9 @@ public class Outlook implements MailClient {
         }
     }
 
-    private void validateIsExistingAccount(Account account) {
+    private void validateIsNotRegistered(String accountName) {
 
-        if (this.accounts.contains(account)) {
+        if (this.accountRegistry.containsAccountName(accountName)) {
 
             throw new AccountAlreadyExistsException("There is already an account with that name");
         }
@@ -585,6 +641,22 @@ public class Outlook implements MailClient {
         validateIsBlank(folderPath, "folderPath");
     }
 
+    private void validateSearchMailsMethod(String account, String query, int limit) {
+
+        validateIsNull(account, "account");
+        validateIsEmpty(account, "account");
+        validateIsBlank(account, "account");
+
+        validateIsNull(query, "query");
+        validateIsEmpty(query, "query");
+        validateIsBlank(query, "query");
+
+        if (limit <= 0) {
+
+            throw new IllegalArgumentException("limit is not positive");
+        }
+    }
+
     private void validateSendMailMethod(String accountName, String mailMetadata, String mailContent) {
 
         validateIsNull(accountName, "accountName");
@@ -600,22 +672,62 @@ public class Outlook implements MailClient {
         validateIsBlank(mailContent, "mailContent");
     }
 
-    private Account getAccountByAccountName(String accountName) {
+    private void validateReceiveMailBatchMethod(Collection<String> accountNames, String mailMetadata,
+                                                String mailContent) {
+
+        if (accountNames == null) {
+
+            throw new IllegalArgumentException("accountNames is null");
+        }
+
+        for (String accountName : accountNames) {
+
+            validateIsNull(accountName, "accountName");
+            validateIsEmpty(accountName, "accountName");
+            validateIsBlank(accountName, "accountName");
+        }
+
+        validateIsNull(mailMetadata, "mailMetadata");
+        validateIsEmpty(mailMetadata, "mailMetadata");
+        validateIsBlank(mailMetadata, "mailMetadata");
+
+        validateIsNull(mailContent, "mailContent");
+        validateIsEmpty(mailContent, "mailContent");
+        validateIsBlank(mailContent, "mailContent");
+    }
+
+    private void validateSendMailBatchMethod(String accountName, Collection<OutgoingMail> mails) {
 
-        Account searchedAccount = new Account("", accountName);
+        validateIsNull(accountName, "accountName");
+        validateIsEmpty(accountName, "accountName");
+        validateIsBlank(accountName, "accountName");
 
-        if (this.accounts.contains(searchedAccount)) {
+        if (mails == null) {
 
-            for (Account currentAccount: this.accounts) {
+            throw new IllegalArgumentException("mails is null");
+        }
 
-                if (currentAccount.equals(searchedAccount)) {
+        for (OutgoingMail currentMail : mails) {
 
-                    return currentAccount;
-                }
+            if (currentMail == null) {
+
+                throw new IllegalArgumentException("mail is null");
             }
+
+            validateSendMailMethod(accountName, currentMail.mailMetadata(), currentMail.mailContent());
         }
+    }
+
+    private AccountEntry getAccountEntryByAccountName(String accountName) {
+
+        AccountEntry searchedAccountEntry = this.accountRegistry.getByAccountName(accountName);
+
+        if (searchedAccountEntry == null) {
 
-        throw new AccountNotFoundException("There is not such an account");
+            throw new AccountNotFoundException("There is not such an account");
+        }
+
+        return searchedAccountEntry;
     }
 
     private void validatePathStartsFromRoot(String path) {
@@ -626,73 +738,83 @@ public class Outlook implements MailClient {
         }
     }
 
-    private void validateInvalidPathIntermediateFoldersMissing(boolean isFound, String missing) {
+    private void validateFolderNameIsPresent(String folderName) {
 
-        if (!isFound) {
+        if (folderName.isEmpty()) {
 
-            throw new InvalidPathException("Intermediate folder" + missing + "is missing");
+            throw new InvalidPathException("The path does not end with a folder name");
         }
     }
 
-    private void validateAndProcessFolderCreation(Map<Folder, List<Folder>> directories, String[] followingFolders,
-                                            AccountFolders accountFolders) {
+    private void restoreAccounts(Collection<StoredAccount> storedAccounts) {
 
-        String beforeLastDirectory = followingFolders[followingFolders.length - 2];
-        Folder beforeLastDirectoryFolder = new Folder(beforeLastDirectory);
-        String lastDirectory = followingFolders[followingFolders.length - 1];
-        Folder lastDirectoryFolder = new Folder(lastDirectory);
+        for (StoredAccount currentStoredAccount : storedAccounts) {
 
-        if (directories.get(beforeLastDirectoryFolder).contains(lastDirectoryFolder)) {
+            AccountEntry restoredAccountEntry = this.accountRegistry.register(currentStoredAccount.account());
 
-            throw new FolderAlreadyExistsException("Folder with the same absolute path is already present for the " +
-                "provided account");
-        }
+            for (String currentFolderPath : currentStoredAccount.folderPaths()) {
 
-        accountFolders.addNewFolder(beforeLastDirectory, lastDirectory);
-    }
+                processPath(currentFolderPath, restoredAccountEntry.accountFolders());
+            }
 
-    private void processPath(String path, AccountFolders accountFolders) {
+            // Decoding every stored mail would slow down the start, so the index is built on the first search
+            restoredAccountEntry.mailSearchIndex().setBuilt(false);
 
-        validatePathStartsFromRoot(path);
+            // The mails in the storage are already in the folders the rules moved them to, so the inbox is not
+            // checked again.
+            for (StoredRule currentStoredRule : currentStoredAccount.rules()) {
 
-        Map<Folder, List<Folder>> directories = accountFolders.getDirectories();
+                RuleDefinitionConverter ruleDefinitionConverter = new RuleDefinitionConverter();
+                ruleDefinitionConverter.convertToRuleDefinition(currentStoredRule.ruleDefinition());
+                ruleDefinitionConverter.setDestinationPath(currentStoredRule.folderPath());
+
+                restoredAccountEntry.accountRules().addAccountRule(ruleDefinitionConverter,
+                    currentStoredRule.priority());
+            }
+        }
+    }
 
-        String[] followingFolders = path.split("/");
+    private void buildMailSearchIndex(AccountEntry accountEntry) {
 
-        for (int i = 1; i < followingFolders.length - 2; i++) {
+        MailSearchIndex mailSearchIndex = accountEntry.mailSearchIndex();
 
-            if (directories.containsKey(new Folder(followingFolders[i]))) {
+        if (mailSearchIndex.isBuilt()) {
 
-                boolean isFound = false;
-                for (Folder neighbour : directories.get(new Folder(followingFolders[i]))) {
+            return;
+        }
 
-                    if (neighbour.getFolderName().equals(followingFolders[i + 1])) {
+        for (String currentFolderPath : accountEntry.accountFolders().getFolderPaths()) {
 
-                        isFound = true;
-                        break;
-                    }
-                }
+            try (Stream<StoredMail> mails = this.mailStorage.getStoredMails(accountEntry, currentFolderPath)) {
 
-                validateInvalidPathIntermediateFoldersMissing(isFound, followingFolders[i + 1]);
+                mails.forEach(storedMail -> mailSearchIndex.add(currentFolderPath, storedMail.id(), storedMail.mail()));
             }
         }
 
-        validateAndProcessFolderCreation(directories, followingFolders, accountFolders);
+        mailSearchIndex.setBuilt(true);
     }
 
-    private AccountFolders getAccountFoldersFromAccount(Account account) {
+    private void processPath(String path, AccountFolders accountFolders) {
 
-        for (AccountFolders currentAccountFolders : this.accountsFolders) {
+        validatePathStartsFromRoot(path);
 
-            if (currentAccountFolders.getAccount().equals(account)) {
+        int lastSeparatorIndex = path.lastIndexOf('/');
+        String parentPath = path.substring(0, lastSeparatorIndex);
+        String folderName = path.substring(lastSeparatorIndex + 1);
 
-                return currentAccountFolders;
-            }
+        validateFolderNameIsPresent(folderName);
+
+        if (accountFolders.getFolder(parentPath) == null) {
+
+            throw new InvalidPathException("Intermediate folder of " + path + " is missing");
         }
 
-        AccountFolders newToAdd = new AccountFolders(account);
-        this.accountsFolders.add(newToAdd);
+        if (accountFolders.containsFolder(parentPath, folderName)) {
+
+            throw new FolderAlreadyExistsException("Folder with the same absolute path is already present for the " +
+                "provided account");
+        }
 
-        return newToAdd;
+        accountFolders.addNewFolder(parentPath, folderName);
     }
 }
@@ -1,11 +1,10 @@
 package bg.sofia.uni.fmi.mjt.mail;
 
+import bg.sofia.uni.fmi.mjt.mail.exceptions.MalformedHeaderException;
 import bg.sofia.uni.fmi.mjt.mail.exceptions.RuleAlreadyDefinedException;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
@@ -35,22 +34,17 @@ public class RuleDefinitionConverter {
         this.fromAlreadyDefined = false;
     }
 
-    public void convertToRuleDefinition(String ruleDefinition) {
+    /**
+     * @throws MalformedHeaderException    if a line is not a rule condition
+     * @throws RuleAlreadyDefinedException if a rule condition is present more than once
+     */
+    public void convertToRuleDefinition(CharSequence ruleDefinition) {
 
-        try (BufferedReader bufferedReader = new BufferedReader(new StringReader(ruleDefinition))) {
+        HeaderParser headerParser = new HeaderParser(ruleDefinition);
 
-            String currentLine;
+        while (headerParser.nextHeader()) {
 
-            while ((currentLine = bufferedReader.readLine()) != null) {
-
-                currentLine = currentLine.strip();
-                processCurrentLine(currentLine);
-            }
-
-        }
-        catch (IOException e) {
-
-            throw new RuntimeException("There is a problem in reading from string with ruleDefinition", e);
+            processCurrentHeader(headerParser);
         }
     }
 
@@ -74,6 +68,14 @@ public class RuleDefinitionConverter {
         return this.from;
     }
 
+    /**
+     * @return a matcher with the keywords of this rule compiled into a single automaton
+     */
+    public RuleMatcher compile() {
+
+        return new RuleMatcher(List.of(this));
+    }
+
     public void setDestinationPath(String destinationPath) {
 
         this.destinationPath = destinationPath;
@@ -102,26 +104,6 @@ public class RuleDefinitionConverter {
         return Objects.hash(subjectIncludes, subjectOrBodyIncludes, recipientsIncludes, from);
     }
 
-    private static String processSubjectIncludes(String currentLine) {
-
-        return currentLine.replaceFirst("subject-includes:", "").strip().replace(",", "");
-    }
-
-    private static String processSubjectOrBodyIncludes(String currentLine) {
-
-        return currentLine.replaceFirst("subject-or-body-includes:", "").strip().replace(",", "");
-    }
-
-    private static String processRecipientsIncludes(String currentLine) {
-
-        return currentLine.replaceFirst("recipients-includes:", "").strip().replace(",", "");
-    }
-
-    private static String processFrom(String currentLine) {
-
-        return currentLine.replaceFirst("from:", "").strip();
-    }
-
     private void processSubjectIncludeAlreadyDefined() {
 
         if (this.subjectIncludesAlreadyDefined) {
@@ -154,47 +136,34 @@ public class RuleDefinitionConverter {
         }
     }
 
-    private void processCurrentLine(String currentLine) {
+    private void processCurrentHeader(HeaderParser headerParser) {
 
-        if (currentLine.startsWith("subject-includes:")) {
+        if (headerParser.isKey("subject-includes")) {
 
             processSubjectIncludeAlreadyDefined();
             this.subjectIncludesAlreadyDefined = true;
 
-            String[] toAddSubjectIncludes = processSubjectIncludes(currentLine).split(" ");
-            for (String currentSubjectInclude : toAddSubjectIncludes) {
-
-                addSubjectIncludes(currentSubjectInclude);
-            }
+            headerParser.forEachListItem(this::addSubjectIncludes);
         }
-        else if (currentLine.startsWith("subject-or-body-includes:")) {
+        else if (headerParser.isKey("subject-or-body-includes")) {
 
             processSubjectOrBodyIncludeAlreadyDefined();
             this.subjectOrBodyIncludesAlreadyDefined = true;
 
-            String[] toAddSubjectOrBodyIncludes = processSubjectOrBodyIncludes(currentLine).split(" ");
-
-            for (String currentSubjectOrBodyInclude : toAddSubjectOrBodyIncludes) {
-
-                addSubjectOrBodyIncludes(currentSubjectOrBodyInclude);
-            }
+            headerParser.forEachListItem(this::addSubjectOrBodyIncludes);
         }
-        else if (currentLine.startsWith("recipients-includes:")) {
+        else if (headerParser.isKey("recipients-includes")) {
 
             processRecipientsIncludeAlreadyDefined();
             this.recipientsIncludesAlreadyDefined = true;
 
-            String[] toAddRecipientsIncludes = processRecipientsIncludes(currentLine).split(" ");
-            for (String currentRecipientInclude : toAddRecipientsIncludes) {
-
-                addRecipientsIncludes(currentRecipientInclude);
-            }
+            headerParser.forEachListItem(this::addRecipientsIncludes);
         }
-        else if (currentLine.startsWith("from:")) {
+        else if (headerParser.isKey("from")) {
 
             processFromAlreadyDefined();
             this.fromAlreadyDefined = true;
-            setSenderEmail(processFrom(currentLine));
+            setSenderEmail(headerParser.getValue());
         }
 
     }
@@ -0,0 +1,145 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rules of an account compiled into a single keyword automaton. The subject and the body of a mail are scanned
+ * at most once for the keywords of all rules.
+ */
+public class RuleMatcher {
+
+    private final List<RuleDefinitionConverter> rules;
+    private final List<int[]> subjectKeywordIds;
+    private final List<int[]> subjectOrBodyKeywordIds;
+    private final KeywordMatcher keywordMatcher;
+
+    /**
+     * @param rules the rules ordered by priority, the rule with the highest priority being first
+     */
+    public RuleMatcher(Collection<RuleDefinitionConverter> rules) {
+
+        this.rules = new ArrayList<>(rules);
+        this.subjectKeywordIds = new ArrayList<>();
+        this.subjectOrBodyKeywordIds = new ArrayList<>();
+
+        List<String> keywords = new ArrayList<>();
+
+        for (RuleDefinitionConverter currentRule : this.rules) {
+
+            keywords.addAll(currentRule.getSubjectsIncludes());
+            keywords.addAll(currentRule.getSubjectsOrBodyIncludes());
+        }
+
+        this.keywordMatcher = new KeywordMatcher(keywords);
+
+        for (RuleDefinitionConverter currentRule : this.rules) {
+
+            this.subjectKeywordIds.add(toKeywordIds(currentRule.getSubjectsIncludes()));
+            this.subjectOrBodyKeywordIds.add(toKeywordIds(currentRule.getSubjectsOrBodyIncludes()));
+        }
+    }
+
+    /**
+     * @return the rule with the highest priority which the mail matches or null if there is no such rule
+     */
+    public RuleDefinitionConverter findMatchingRule(Mail mail) {
+
+        if (this.rules.isEmpty()) {
+
+            return null;
+        }
+
+        BitSet subjectKeywords = this.keywordMatcher.findKeywords(mail.subject());
+        BitSet bodyKeywords = null;
+
+        for (int i = 0; i < this.rules.size(); i++) {
+
+            RuleDefinitionConverter currentRule = this.rules.get(i);
+
+            if (!isMatchingSender(mail, currentRule) || !isMatchingRecipients(mail, currentRule) ||
+                !containsAll(subjectKeywords, this.subjectKeywordIds.get(i))) {
+
+                continue;
+            }
+
+            int[] currentSubjectOrBodyKeywordIds = this.subjectOrBodyKeywordIds.get(i);
+
+            if (!containsAll(subjectKeywords, currentSubjectOrBodyKeywordIds)) {
+
+                if (bodyKeywords == null) {
+
+                    bodyKeywords = this.keywordMatcher.findKeywords(mail.body());
+                }
+
+                if (!containsAllInEither(subjectKeywords, bodyKeywords, currentSubjectOrBodyKeywordIds)) {
+
+                    continue;
+                }
+            }
+
+            return currentRule;
+        }
+
+        return null;
+    }
+
+    private int[] toKeywordIds(Set<String> keywords) {
+
+        return keywords.stream()
+            .mapToInt(this.keywordMatcher::getKeywordId)
+            .toArray();
+    }
+
+    private static boolean containsAll(BitSet found, int[] keywordIds) {
+
+        for (int keywordId : keywordIds) {
+
+            if (!found.get(keywordId)) {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean containsAllInEither(BitSet first, BitSet second, int[] keywordIds) {
+
+        for (int keywordId : keywordIds) {
+
+            if (!first.get(keywordId) && !second.get(keywordId)) {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isMatchingRecipients(Mail mail, RuleDefinitionConverter rule) {
+
+        if (rule.getRecipientsIncludes().isEmpty()) {
+
+            return true;
+        }
+
+        for (String currentRecipientInclude : rule.getRecipientsIncludes()) {
+
+            if (mail.recipients().contains(currentRecipientInclude)) {
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isMatchingSender(Mail mail, RuleDefinitionConverter rule) {
+
+        return mail.sender().emailAddress().equals(rule.getFrom());
+    }
+}
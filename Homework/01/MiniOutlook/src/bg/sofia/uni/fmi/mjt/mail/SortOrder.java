@@ -0,0 +1,6 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+public enum SortOrder {
+    OLDEST_FIRST,
+    NEWEST_FIRST
+}
@@ -0,0 +1,15 @@
+package bg.sofia.uni.fmi.mjt.mail.exceptions;
+
+public class MailStorageException extends RuntimeException {
+
+    public MailStorageException(String message) {
+
+        super(message);
+    }
+
+    public MailStorageException(String message, Throwable cause) {
+
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,23 @@
+package bg.sofia.uni.fmi.mjt.mail.exceptions;
+
+public class MalformedHeaderException extends IllegalArgumentException {
+
+    private final int position;
+
+    public MalformedHeaderException(String message, int position) {
+
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    public MalformedHeaderException(String message, int position, Throwable cause) {
+
+        super(message + " at position " + position, cause);
+        this.position = position;
+    }
+
+    public int getPosition() {
+
+        return this.position;
+    }
+}
@@ -0,0 +1,278 @@
+package bg.sofia.uni.fmi.mjt.mail.storage;
+
+import bg.sofia.uni.fmi.mjt.mail.Mail;
+import bg.sofia.uni.fmi.mjt.mail.MailPage;
+import bg.sofia.uni.fmi.mjt.mail.MailQuery;
+import bg.sofia.uni.fmi.mjt.mail.exceptions.MailStorageException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The mails of an account, appended to numbered segment files. A mail is addressed by its location, which holds
+ * the number of the segment in the high 32 bits and the offset of the record in the low 32 bits. Records are
+ * never rewritten: moving a mail only changes the indexes of the two folders.
+ */
+class AccountMailLog implements Closeable {
+
+    private static final String SEGMENT_FILE_FORMAT = "segment-%06d.log";
+    private static final String INDEX_FILE_FORMAT = "folder-%06d.idx";
+    private static final String SEGMENT_FILE_PREFIX = "segment-";
+    private static final int SEGMENT_NUMBER_SHIFT = 32;
+    private static final long OFFSET_MASK = 0xffffffffL;
+    private static final long NOT_FOUND = -1;
+
+    private final Path directory;
+    private final long segmentSizeLimit;
+    private final Map<String, FolderIndex> folderIndexes;
+    private final Map<Integer, MappedByteBuffer> mappedSegments;
+
+    private FileChannel activeSegment;
+    private int activeSegmentNumber;
+
+    AccountMailLog(Path directory, long segmentSizeLimit) {
+
+        this.directory = directory;
+        this.segmentSizeLimit = segmentSizeLimit;
+        this.folderIndexes = new LinkedHashMap<>();
+        this.mappedSegments = new ConcurrentHashMap<>();
+
+        try {
+
+            Files.createDirectories(directory);
+            this.activeSegmentNumber = findLastSegmentNumber();
+            this.activeSegment = openSegmentForAppend(this.activeSegmentNumber);
+        } catch (IOException e) {
+
+            throw new MailStorageException("There is a problem in opening the mail log in " + directory, e);
+        }
+    }
+
+    void addFolder(String folderPath) {
+
+        String indexFileName = String.format(INDEX_FILE_FORMAT, this.folderIndexes.size());
+        this.folderIndexes.put(folderPath, new FolderIndex(this.directory.resolve(indexFileName)));
+    }
+
+    /**
+     * @return the location of the mail
+     */
+    long addMail(String folderPath, Mail mail) {
+
+        byte[] record = MailCodec.encode(mail);
+        long fingerprint = MailCodec.fingerprint(record);
+        FolderIndex folderIndex = getFolderIndex(folderPath);
+
+        long location = find(folderIndex, fingerprint, record);
+
+        if (location != NOT_FOUND) {
+
+            return location;
+        }
+
+        location = append(record);
+        folderIndex.add(fingerprint, location, mail.received());
+
+        return location;
+    }
+
+    /**
+     * @return the location of the mail in the destination folder
+     */
+    long moveMail(String fromFolderPath, String toFolderPath, Mail mail) {
+
+        byte[] record = MailCodec.encode(mail);
+        long fingerprint = MailCodec.fingerprint(record);
+        FolderIndex fromFolderIndex = getFolderIndex(fromFolderPath);
+        FolderIndex toFolderIndex = getFolderIndex(toFolderPath);
+
+        long location = find(fromFolderIndex, fingerprint, record);
+
+        if (location != NOT_FOUND) {
+
+            fromFolderIndex.remove(fingerprint, location);
+        }
+
+        long toLocation = find(toFolderIndex, fingerprint, record);
+
+        if (toLocation != NOT_FOUND) {
+
+            return toLocation;
+        }
+
+        toLocation = location != NOT_FOUND ? location : append(record);
+        toFolderIndex.add(fingerprint, toLocation, mail.received());
+
+        return toLocation;
+    }
+
+    Mail getMail(long location) {
+
+        return MailCodec.decode(read(location));
+    }
+
+    Stream<Mail> getMails(String folderPath) {
+
+        return Arrays.stream(getFolderIndex(folderPath).getLocations())
+            .mapToObj(location -> MailCodec.decode(read(location)));
+    }
+
+    Stream<StoredMail> getStoredMails(String folderPath) {
+
+        return Arrays.stream(getFolderIndex(folderPath).getLocations())
+            .mapToObj(location -> new StoredMail(location, MailCodec.decode(read(location))));
+    }
+
+    MailPage getMails(String folderPath, MailQuery query) {
+
+        return getFolderIndex(folderPath).getPage(query, location -> MailCodec.decode(read(location)));
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        for (FolderIndex currentFolderIndex : this.folderIndexes.values()) {
+
+            currentFolderIndex.close();
+        }
+
+        this.activeSegment.close();
+        this.mappedSegments.clear();
+    }
+
+    private FolderIndex getFolderIndex(String folderPath) {
+
+        FolderIndex folderIndex = this.folderIndexes.get(folderPath);
+
+        if (folderIndex == null) {
+
+            throw new MailStorageException("There is no stored folder " + folderPath);
+        }
+
+        return folderIndex;
+    }
+
+    private long find(FolderIndex folderIndex, long fingerprint, byte[] record) {
+
+        ByteBuffer searchedRecord = ByteBuffer.wrap(record);
+
+        for (long currentLocation : folderIndex.findLocations(fingerprint)) {
+
+            if (read(currentLocation).equals(searchedRecord)) {
+
+                return currentLocation;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    private long append(byte[] record) {
+
+        try {
+
+            long offset = this.activeSegment.size();
+
+            if (offset > 0 && offset + Integer.BYTES + record.length > this.segmentSizeLimit) {
+
+                this.activeSegment.close();
+                this.activeSegment = openSegmentForAppend(++this.activeSegmentNumber);
+                offset = 0;
+            }
+
+            ByteBuffer toWrite = ByteBuffer.allocate(Integer.BYTES + record.length).putInt(record.length).put(record)
+                .flip();
+
+            long position = offset;
+
+            while (toWrite.hasRemaining()) {
+
+                position += this.activeSegment.write(toWrite, position);
+            }
+
+            return ((long) this.activeSegmentNumber << SEGMENT_NUMBER_SHIFT) | offset;
+        } catch (IOException e) {
+
+            throw new MailStorageException("There is a problem in writing to the mail log in " + this.directory, e);
+        }
+    }
+
+    private ByteBuffer read(long location) {
+
+        int segmentNumber = (int) (location >>> SEGMENT_NUMBER_SHIFT);
+        int offset = (int) (location & OFFSET_MASK);
+
+        int length = mapSegment(segmentNumber, offset + Integer.BYTES).getInt(offset);
+
+        return mapSegment(segmentNumber, (long) offset + Integer.BYTES + length)
+            .slice(offset + Integer.BYTES, length);
+    }
+
+    private MappedByteBuffer mapSegment(int segmentNumber, long requiredSize) {
+
+        MappedByteBuffer mappedSegment = this.mappedSegments.get(segmentNumber);
+
+        if (mappedSegment != null && mappedSegment.capacity() >= requiredSize) {
+
+            return mappedSegment;
+        }
+
+        synchronized (this.mappedSegments) {
+
+            mappedSegment = this.mappedSegments.get(segmentNumber);
+
+            if (mappedSegment != null && mappedSegment.capacity() >= requiredSize) {
+
+                return mappedSegment;
+            }
+
+            // The active segment keeps growing, so it is mapped again once a read goes past the mapped part.
+            try (FileChannel segment = FileChannel.open(getSegmentPath(segmentNumber), StandardOpenOption.READ)) {
+
+                mappedSegment = segment.map(FileChannel.MapMode.READ_ONLY, 0, segment.size());
+            } catch (IOException e) {
+
+                throw new MailStorageException("There is a problem in reading from the mail log in " +
+                    this.directory, e);
+            }
+
+            this.mappedSegments.put(segmentNumber, mappedSegment);
+
+            return mappedSegment;
+        }
+    }
+
+    private FileChannel openSegmentForAppend(int segmentNumber) throws IOException {
+
+        return FileChannel.open(getSegmentPath(segmentNumber), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private Path getSegmentPath(int segmentNumber) {
+
+        return this.directory.resolve(String.format(SEGMENT_FILE_FORMAT, segmentNumber));
+    }
+
+    private int findLastSegmentNumber() throws IOException {
+
+        try (Stream<Path> files = Files.list(this.directory)) {
+
+            return files.map(file -> file.getFileName().toString())
+                .filter(fileName -> fileName.startsWith(SEGMENT_FILE_PREFIX))
+                .mapToInt(fileName -> Integer.parseInt(fileName.substring(SEGMENT_FILE_PREFIX.length(),
+                    fileName.indexOf('.'))))
+                .max()
+                .orElse(0);
+        }
+    }
+}
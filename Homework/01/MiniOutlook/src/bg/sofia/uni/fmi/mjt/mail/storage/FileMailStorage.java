@@ -0,0 +1,290 @@
+package bg.sofia.uni.fmi.mjt.mail.storage;
+
+import bg.sofia.uni.fmi.mjt.mail.Account;
+import bg.sofia.uni.fmi.mjt.mail.AccountEntry;
+import bg.sofia.uni.fmi.mjt.mail.Mail;
+import bg.sofia.uni.fmi.mjt.mail.MailPage;
+import bg.sofia.uni.fmi.mjt.mail.MailQuery;
+import bg.sofia.uni.fmi.mjt.mail.exceptions.MailStorageException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the mails on disk, so that mailboxes may be larger than the heap and survive a restart.
+ * The accounts, folders and rules are appended to a metadata log. Each account has its own directory with
+ * append-only segments of mail records and an append-only index per folder. Only the folder indexes are kept
+ * in memory, the mails are read from memory-mapped segments. The {@link bg.sofia.uni.fmi.mjt.mail.Folder}s
+ * of the accounts stay empty.
+ */
+public class FileMailStorage implements MailStorage, Closeable {
+
+    private static final String METADATA_FILE_NAME = "metadata.log";
+    private static final String ACCOUNT_DIRECTORY_FORMAT = "account-%06d";
+    private static final long DEFAULT_SEGMENT_SIZE_LIMIT = 64L * 1024 * 1024;
+    private static final long MAX_SEGMENT_SIZE_LIMIT = Integer.MAX_VALUE;
+    private static final String INBOX_PATH = "/inbox";
+    private static final String SENT_PATH = "/sent";
+
+    private static final byte ACCOUNT_RECORD = 1;
+    private static final byte FOLDER_RECORD = 2;
+    private static final byte RULE_RECORD = 3;
+
+    private final Path directory;
+    private final long segmentSizeLimit;
+    private final Map<String, StoredAccount> storedAccounts;
+    private final Map<String, AccountMailLog> accountMailLogs;
+    private final FileChannel metadataChannel;
+
+    public FileMailStorage(Path directory) {
+
+        this(directory, DEFAULT_SEGMENT_SIZE_LIMIT);
+    }
+
+    /**
+     * @param directory        directory of the storage. It is created if missing
+     * @param segmentSizeLimit size in bytes after which a new segment of the mail log is started
+     * @throws IllegalArgumentException if the directory is null or the limit is not positive or does not fit
+     *                                  an int
+     * @throws MailStorageException     if the stored data cannot be read
+     */
+    public FileMailStorage(Path directory, long segmentSizeLimit) {
+
+        validateDirectory(directory);
+        validateSegmentSizeLimit(segmentSizeLimit);
+
+        this.directory = directory;
+        this.segmentSizeLimit = segmentSizeLimit;
+        this.storedAccounts = new LinkedHashMap<>();
+        this.accountMailLogs = new ConcurrentHashMap<>();
+
+        try {
+
+            Files.createDirectories(directory);
+            this.metadataChannel = FileChannel.open(directory.resolve(METADATA_FILE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            loadMetadata();
+        } catch (IOException e) {
+
+            throw new MailStorageException("There is a problem in reading the mail storage in " + directory, e);
+        }
+    }
+
+    @Override
+    public Collection<StoredAccount> loadAccounts() {
+
+        return List.copyOf(this.storedAccounts.values());
+    }
+
+    @Override
+    public synchronized void addAccount(Account account) {
+
+        appendMetadata(ACCOUNT_RECORD, account.name(), account.emailAddress());
+        openAccountMailLog(account.name());
+    }
+
+    @Override
+    public void addFolder(AccountEntry accountEntry, String folderPath) {
+
+        String accountName = accountEntry.account().name();
+
+        appendMetadata(FOLDER_RECORD, accountName, folderPath);
+        getAccountMailLog(accountName).addFolder(folderPath);
+    }
+
+    @Override
+    public void addRule(AccountEntry accountEntry, String folderPath, String ruleDefinition, int priority) {
+
+        appendMetadata(RULE_RECORD, accountEntry.account().name(), folderPath, ruleDefinition,
+            String.valueOf(priority));
+    }
+
+    @Override
+    public long addMail(AccountEntry accountEntry, String folderPath, Mail mail) {
+
+        return getAccountMailLog(accountEntry.account().name()).addMail(folderPath, mail);
+    }
+
+    @Override
+    public long moveMail(AccountEntry accountEntry, String fromFolderPath, String toFolderPath, Mail mail) {
+
+        return getAccountMailLog(accountEntry.account().name()).moveMail(fromFolderPath, toFolderPath, mail);
+    }
+
+    @Override
+    public Mail getMail(AccountEntry accountEntry, long mailId) {
+
+        return getAccountMailLog(accountEntry.account().name()).getMail(mailId);
+    }
+
+    @Override
+    public Stream<Mail> getMails(AccountEntry accountEntry, String folderPath) {
+
+        return getAccountMailLog(accountEntry.account().name()).getMails(folderPath);
+    }
+
+    @Override
+    public Stream<StoredMail> getStoredMails(AccountEntry accountEntry, String folderPath) {
+
+        return getAccountMailLog(accountEntry.account().name()).getStoredMails(folderPath);
+    }
+
+    @Override
+    public MailPage getMails(AccountEntry accountEntry, String folderPath, MailQuery query) {
+
+        return getAccountMailLog(accountEntry.account().name()).getMails(folderPath, query);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+
+        for (AccountMailLog currentAccountMailLog : this.accountMailLogs.values()) {
+
+            currentAccountMailLog.close();
+        }
+
+        this.metadataChannel.close();
+    }
+
+    private AccountMailLog getAccountMailLog(String accountName) {
+
+        AccountMailLog accountMailLog = this.accountMailLogs.get(accountName);
+
+        if (accountMailLog == null) {
+
+            throw new MailStorageException("There is no stored account " + accountName);
+        }
+
+        return accountMailLog;
+    }
+
+    private AccountMailLog openAccountMailLog(String accountName) {
+
+        String accountDirectoryName = String.format(ACCOUNT_DIRECTORY_FORMAT, this.accountMailLogs.size());
+        AccountMailLog accountMailLog = new AccountMailLog(this.directory.resolve(accountDirectoryName),
+            this.segmentSizeLimit);
+
+        accountMailLog.addFolder(INBOX_PATH);
+        accountMailLog.addFolder(SENT_PATH);
+        this.accountMailLogs.put(accountName, accountMailLog);
+
+        return accountMailLog;
+    }
+
+    private void loadMetadata() throws IOException {
+
+        ByteBuffer metadata = this.metadataChannel.map(FileChannel.MapMode.READ_ONLY, 0,
+            this.metadataChannel.size());
+        int validSize = 0;
+
+        try {
+
+            while (metadata.hasRemaining()) {
+
+                byte recordType = metadata.get();
+                String accountName = MailCodec.readString(metadata);
+
+                switch (recordType) {
+                    case ACCOUNT_RECORD -> loadAccount(new Account(MailCodec.readString(metadata), accountName));
+                    case FOLDER_RECORD -> loadFolder(accountName, MailCodec.readString(metadata));
+                    case RULE_RECORD -> loadRule(accountName, MailCodec.readString(metadata),
+                        MailCodec.readString(metadata), Integer.parseInt(MailCodec.readString(metadata)));
+                    default -> throw new MailStorageException("Unknown metadata record " + recordType);
+                }
+
+                validSize = metadata.position();
+            }
+        } catch (BufferUnderflowException e) {
+
+            // A crash may leave a partially written record at the end of the log.
+            this.metadataChannel.truncate(validSize);
+        }
+    }
+
+    private void loadAccount(Account account) {
+
+        this.storedAccounts.put(account.name(), new StoredAccount(account, new ArrayList<>(), new ArrayList<>()));
+        openAccountMailLog(account.name());
+    }
+
+    private void loadFolder(String accountName, String folderPath) {
+
+        getStoredAccount(accountName).folderPaths().add(folderPath);
+        getAccountMailLog(accountName).addFolder(folderPath);
+    }
+
+    private void loadRule(String accountName, String folderPath, String ruleDefinition, int priority) {
+
+        getStoredAccount(accountName).rules().add(new StoredRule(folderPath, ruleDefinition, priority));
+    }
+
+    private StoredAccount getStoredAccount(String accountName) {
+
+        StoredAccount storedAccount = this.storedAccounts.get(accountName);
+
+        if (storedAccount == null) {
+
+            throw new MailStorageException("There is no stored account " + accountName);
+        }
+
+        return storedAccount;
+    }
+
+    private synchronized void appendMetadata(byte recordType, String... fields) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+
+            output.writeByte(recordType);
+
+            for (String currentField : fields) {
+
+                MailCodec.writeString(output, currentField);
+            }
+
+            ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+            long position = this.metadataChannel.size();
+
+            while (record.hasRemaining()) {
+
+                position += this.metadataChannel.write(record, position);
+            }
+        } catch (IOException e) {
+
+            throw new MailStorageException("There is a problem in writing to the mail storage in " +
+                this.directory, e);
+        }
+    }
+
+    private void validateDirectory(Path directory) {
+
+        if (directory == null) {
+
+            throw new IllegalArgumentException("directory is null");
+        }
+    }
+
+    private void validateSegmentSizeLimit(long segmentSizeLimit) {
+
+        if (segmentSizeLimit <= 0 || segmentSizeLimit > MAX_SEGMENT_SIZE_LIMIT) {
+
+            throw new IllegalArgumentException("segmentSizeLimit is not within the expected range");
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package bg.sofia.uni.fmi.mjt.mail.storage;
+
+import bg.sofia.uni.fmi.mjt.mail.Mail;
+import bg.sofia.uni.fmi.mjt.mail.MailCursor;
+import bg.sofia.uni.fmi.mjt.mail.MailPage;
+import bg.sofia.uni.fmi.mjt.mail.MailQuery;
+import bg.sofia.uni.fmi.mjt.mail.MailTimeline;
+import bg.sofia.uni.fmi.mjt.mail.exceptions.MailStorageException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Locations of the mails in a folder, ordered by receiving time. Every change is appended to the index file
+ * as the mail fingerprint, its location and its receiving time, where removed locations are stored bitwise negated.
+ */
+class FolderIndex implements Closeable {
+
+    private static final int ENTRY_SIZE = 3 * Long.BYTES + Integer.BYTES;
+    private static final long NO_RECEIVED_TIME = Long.MIN_VALUE;
+
+    private final FileChannel indexChannel;
+    private final Map<Long, Long> locationsByFingerprint;
+    private final Map<Long, Long> collidedFingerprintsByLocation;
+    private final Map<Long, MailCursor> positionsByLocation;
+    private final MailTimeline<Long> timeline;
+
+    FolderIndex(Path indexFile) {
+
+        this.locationsByFingerprint = new HashMap<>();
+        this.collidedFingerprintsByLocation = new LinkedHashMap<>();
+        this.positionsByLocation = new HashMap<>();
+        this.timeline = new MailTimeline<>();
+
+        try {
+
+            this.indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            load();
+        } catch (IOException e) {
+
+            throw new MailStorageException("There is a problem in reading the index " + indexFile, e);
+        }
+    }
+
+    /**
+     * @return the locations of the mails with the given fingerprint. There is more than one only if different
+     * mails have the same fingerprint.
+     */
+    List<Long> findLocations(long fingerprint) {
+
+        List<Long> result = new ArrayList<>(1);
+
+        Long location = this.locationsByFingerprint.get(fingerprint);
+
+        if (location != null) {
+
+            result.add(location);
+        }
+
+        if (!this.collidedFingerprintsByLocation.isEmpty()) {
+
+            this.collidedFingerprintsByLocation.forEach((currentLocation, currentFingerprint) -> {
+
+                if (currentFingerprint == fingerprint) {
+
+                    result.add(currentLocation);
+                }
+            });
+        }
+
+        return result;
+    }
+
+    void add(long fingerprint, long location, LocalDateTime received) {
+
+        append(fingerprint, location, received);
+        apply(fingerprint, location, received);
+    }
+
+    void remove(long fingerprint, long location) {
+
+        append(fingerprint, ~location, null);
+        apply(fingerprint, ~location, null);
+    }
+
+    /**
+     * @return the locations from the oldest to the newest mail
+     */
+    long[] getLocations() {
+
+        return this.timeline.values().stream()
+            .mapToLong(Long::longValue)
+            .toArray();
+    }
+
+    MailPage getPage(MailQuery query, Function<Long, Mail> locationToMail) {
+
+        return this.timeline.getPage(query, locationToMail);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        this.indexChannel.close();
+    }
+
+    private void load() throws IOException {
+
+        long validSize = this.indexChannel.size() - this.indexChannel.size() % ENTRY_SIZE;
+
+        // A crash may leave a partially written entry at the end of the file.
+        if (validSize != this.indexChannel.size()) {
+
+            this.indexChannel.truncate(validSize);
+        }
+
+        ByteBuffer entries = this.indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, validSize);
+
+        while (entries.hasRemaining()) {
+
+            long fingerprint = entries.getLong();
+            long location = entries.getLong();
+            long receivedEpochSecond = entries.getLong();
+            int receivedNano = entries.getInt();
+
+            LocalDateTime received = receivedEpochSecond == NO_RECEIVED_TIME ? null :
+                LocalDateTime.ofEpochSecond(receivedEpochSecond, receivedNano, ZoneOffset.UTC);
+
+            apply(fingerprint, location, received);
+        }
+    }
+
+    private void apply(long fingerprint, long location, LocalDateTime received) {
+
+        if (location < 0) {
+
+            long removedLocation = ~location;
+
+            if (!this.locationsByFingerprint.remove(fingerprint, removedLocation)) {
+
+                this.collidedFingerprintsByLocation.remove(removedLocation);
+            }
+
+            MailCursor position = this.positionsByLocation.remove(removedLocation);
+
+            if (position != null) {
+
+                this.timeline.remove(position);
+            }
+
+            return;
+        }
+
+        if (this.locationsByFingerprint.putIfAbsent(fingerprint, location) != null) {
+
+            this.collidedFingerprintsByLocation.put(location, fingerprint);
+        }
+
+        this.positionsByLocation.put(location, this.timeline.add(received, location));
+    }
+
+    private void append(long fingerprint, long location, LocalDateTime received) {
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE)
+            .putLong(fingerprint)
+            .putLong(location)
+            .putLong(received == null ? NO_RECEIVED_TIME : received.toEpochSecond(ZoneOffset.UTC))
+            .putInt(received == null ? 0 : received.getNano())
+            .flip();
+
+        try {
+
+            while (entry.hasRemaining()) {
+
+                this.indexChannel.write(entry, this.indexChannel.size());
+            }
+        } catch (IOException e) {
+
+            throw new MailStorageException("There is a problem in writing to a folder index", e);
+        }
+    }
+}
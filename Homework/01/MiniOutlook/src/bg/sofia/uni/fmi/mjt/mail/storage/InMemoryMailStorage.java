@@ -0,0 +1,130 @@
+package bg.sofia.uni.fmi.mjt.mail.storage;
+
+import bg.sofia.uni.fmi.mjt.mail.Account;
+import bg.sofia.uni.fmi.mjt.mail.AccountEntry;
+import bg.sofia.uni.fmi.mjt.mail.Folder;
+import bg.sofia.uni.fmi.mjt.mail.Mail;
+import bg.sofia.uni.fmi.mjt.mail.MailPage;
+import bg.sofia.uni.fmi.mjt.mail.MailQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the mails in the {@link Folder}s of the accounts. Nothing survives a restart. Equal mails of an account
+ * share an id, which is their position in the order they were first stored in.
+ */
+public class InMemoryMailStorage implements MailStorage {
+
+    private final Map<String, AccountMailIds> accountMailIds;
+
+    public InMemoryMailStorage() {
+
+        this.accountMailIds = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Collection<StoredAccount> loadAccounts() {
+
+        return List.of();
+    }
+
+    @Override
+    public void addAccount(Account account) {
+
+    }
+
+    @Override
+    public void addFolder(AccountEntry accountEntry, String folderPath) {
+
+    }
+
+    @Override
+    public void addRule(AccountEntry accountEntry, String folderPath, String ruleDefinition, int priority) {
+
+    }
+
+    @Override
+    public long addMail(AccountEntry accountEntry, String folderPath, Mail mail) {
+
+        getFolder(accountEntry, folderPath).addMail(mail);
+
+        return getAccountMailIds(accountEntry).getId(mail);
+    }
+
+    @Override
+    public long moveMail(AccountEntry accountEntry, String fromFolderPath, String toFolderPath, Mail mail) {
+
+        getFolder(accountEntry, fromFolderPath).removeMail(mail);
+        getFolder(accountEntry, toFolderPath).addMail(mail);
+
+        return getAccountMailIds(accountEntry).getId(mail);
+    }
+
+    @Override
+    public Mail getMail(AccountEntry accountEntry, long mailId) {
+
+        return getAccountMailIds(accountEntry).getMail(mailId);
+    }
+
+    @Override
+    public Stream<Mail> getMails(AccountEntry accountEntry, String folderPath) {
+
+        return List.copyOf(getFolder(accountEntry, folderPath).getTimeline().values()).stream();
+    }
+
+    @Override
+    public Stream<StoredMail> getStoredMails(AccountEntry accountEntry, String folderPath) {
+
+        AccountMailIds mailIds = getAccountMailIds(accountEntry);
+
+        return getMails(accountEntry, folderPath).map(mail -> new StoredMail(mailIds.getId(mail), mail));
+    }
+
+    @Override
+    public MailPage getMails(AccountEntry accountEntry, String folderPath, MailQuery query) {
+
+        return getFolder(accountEntry, folderPath).getTimeline().getPage(query, mail -> mail);
+    }
+
+    private Folder getFolder(AccountEntry accountEntry, String folderPath) {
+
+        return accountEntry.accountFolders().getFolder(folderPath);
+    }
+
+    private AccountMailIds getAccountMailIds(AccountEntry accountEntry) {
+
+        return this.accountMailIds.computeIfAbsent(accountEntry.account().name(), name -> new AccountMailIds());
+    }
+
+    private static class AccountMailIds {
+
+        private final List<Mail> mails;
+        private final Map<Mail, Long> ids;
+
+        private AccountMailIds() {
+
+            this.mails = new ArrayList<>();
+            this.ids = new HashMap<>();
+        }
+
+        private long getId(Mail mail) {
+
+            return this.ids.computeIfAbsent(mail, toAdd -> {
+
+                this.mails.add(toAdd);
+                return (long) this.mails.size() - 1;
+            });
+        }
+
+        private Mail getMail(long mailId) {
+
+            return this.mails.get((int) mailId);
+        }
+    }
+}
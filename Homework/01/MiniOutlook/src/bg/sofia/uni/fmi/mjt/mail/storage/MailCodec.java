@@ -0,0 +1,138 @@
+package bg.sofia.uni.fmi.mjt.mail.storage;
+
+import bg.sofia.uni.fmi.mjt.mail.Account;
+import bg.sofia.uni.fmi.mjt.mail.Mail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+class MailCodec {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int NULL_LENGTH = -1;
+
+    private MailCodec() {
+
+    }
+
+    static byte[] encode(Mail mail) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+
+            writeString(output, mail.sender() == null ? null : mail.sender().emailAddress());
+            writeString(output, mail.sender() == null ? null : mail.sender().name());
+
+            output.writeInt(mail.recipients() == null ? NULL_LENGTH : mail.recipients().size());
+
+            if (mail.recipients() != null) {
+
+                // Sorted, so that a mail is encoded to the same bytes whatever the order of its recipient set
+                for (String currentRecipient : new TreeSet<>(mail.recipients())) {
+
+                    writeString(output, currentRecipient);
+                }
+            }
+
+            writeString(output, mail.subject());
+            writeString(output, mail.body());
+
+            output.writeBoolean(mail.received() != null);
+
+            if (mail.received() != null) {
+
+                output.writeLong(mail.received().toEpochSecond(ZoneOffset.UTC));
+                output.writeInt(mail.received().getNano());
+            }
+        } catch (IOException e) {
+
+            throw new UncheckedIOException("A mail cannot be written to memory", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    static Mail decode(ByteBuffer buffer) {
+
+        String senderEmail = readString(buffer);
+        String senderName = readString(buffer);
+        Account sender = senderEmail == null && senderName == null ? null : new Account(senderEmail, senderName);
+
+        int recipientsCount = buffer.getInt();
+        Set<String> recipients = null;
+
+        if (recipientsCount != NULL_LENGTH) {
+
+            recipients = new HashSet<>();
+
+            for (int i = 0; i < recipientsCount; i++) {
+
+                recipients.add(readString(buffer));
+            }
+        }
+
+        String subject = readString(buffer);
+        String body = readString(buffer);
+
+        LocalDateTime received = null;
+
+        if (buffer.get() != 0) {
+
+            long epochSecond = buffer.getLong();
+            received = LocalDateTime.ofEpochSecond(epochSecond, buffer.getInt(), ZoneOffset.UTC);
+        }
+
+        return new Mail(sender, recipients, subject, body, received);
+    }
+
+    static long fingerprint(byte[] encodedMail) {
+
+        long hash = FNV_OFFSET_BASIS;
+
+        for (byte currentByte : encodedMail) {
+
+            hash ^= currentByte & 0xff;
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    static void writeString(DataOutputStream output, String value) throws IOException {
+
+        if (value == null) {
+
+            output.writeInt(NULL_LENGTH);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer) {
+
+        int length = buffer.getInt();
+
+        if (length == NULL_LENGTH) {
+
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package bg.sofia.uni.fmi.mjt.mail.storage;
+
+import bg.sofia.uni.fmi.mjt.mail.Account;
+import bg.sofia.uni.fmi.mjt.mail.AccountEntry;
+import bg.sofia.uni.fmi.mjt.mail.Mail;
+import bg.sofia.uni.fmi.mjt.mail.MailPage;
+import bg.sofia.uni.fmi.mjt.mail.MailQuery;
+import bg.sofia.uni.fmi.mjt.mail.exceptions.MailStorageException;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the mails of the accounts of a mail client. The client calls the methods of an account only while
+ * holding the lock of its {@link AccountEntry}.
+ */
+public interface MailStorage {
+
+    /**
+     * @return the accounts together with their folders and rules which were stored before the client started.
+     * They are registered by the client without being stored again.
+     * @throws MailStorageException if the storage cannot be read
+     */
+    Collection<StoredAccount> loadAccounts();
+
+    /**
+     * Called when a new account is created
+     *
+     * @throws MailStorageException if the account cannot be stored
+     */
+    void addAccount(Account account);
+
+    /**
+     * Called when a new folder is created
+     *
+     * @param folderPath full path of the created folder
+     * @throws MailStorageException if the folder cannot be stored
+     */
+    void addFolder(AccountEntry accountEntry, String folderPath);
+
+    /**
+     * Called when a new rule is added
+     *
+     * @throws MailStorageException if the rule cannot be stored
+     */
+    void addRule(AccountEntry accountEntry, String folderPath, String ruleDefinition, int priority);
+
+    /**
+     * Stores the mail in the folder. Storing a mail which is already in the folder has no effect.
+     *
+     * @param folderPath full path of an existing folder
+     * @return id of the mail in the folder, by which the mail is read with {@link #getMail}
+     * @throws MailStorageException if the mail cannot be stored
+     */
+    long addMail(AccountEntry accountEntry, String folderPath, Mail mail);
+
+    /**
+     * Moves the mail between two existing folders of the account. A mail keeps its id when it is moved, unless
+     * it is already in the destination folder under another id.
+     *
+     * @return id of the mail in the destination folder
+     * @throws MailStorageException if the move cannot be stored
+     */
+    long moveMail(AccountEntry accountEntry, String fromFolderPath, String toFolderPath, Mail mail);
+
+    /**
+     * @param mailId id returned when the mail was stored or moved, or read with {@link #getStoredMails}
+     * @throws MailStorageException if the mail cannot be read
+     */
+    Mail getMail(AccountEntry accountEntry, long mailId);
+
+    /**
+     * @param folderPath full path of an existing folder
+     * @return the mails in the folder from the oldest to the newest. The stream reflects the folder at the moment
+     * of the call.
+     * @throws MailStorageException if the mails cannot be read
+     */
+    Stream<Mail> getMails(AccountEntry accountEntry, String folderPath);
+
+    /**
+     * @param folderPath full path of an existing folder
+     * @return the mails in the folder together with their ids, from the oldest to the newest. The stream reflects
+     * the folder at the moment of the call.
+     * @throws MailStorageException if the mails cannot be read
+     */
+    Stream<StoredMail> getStoredMails(AccountEntry accountEntry, String folderPath);
+
+    /**
+     * Reads only the mails of the requested page, without going through the rest of the folder
+     *
+     * @param folderPath full path of an existing folder
+     * @throws MailStorageException if the mails cannot be read
+     */
+    MailPage getMails(AccountEntry accountEntry, String folderPath, MailQuery query);
+
+}
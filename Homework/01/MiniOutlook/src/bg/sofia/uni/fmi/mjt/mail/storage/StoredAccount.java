@@ -0,0 +1,13 @@
+package bg.sofia.uni.fmi.mjt.mail.storage;
+
+import bg.sofia.uni.fmi.mjt.mail.Account;
+
+import java.util.List;
+
+/**
+ * An account as restored from a storage, with its folders in creation order and its rules in the order
+ * they were added.
+ */
+public record StoredAccount(Account account, List<String> folderPaths, List<StoredRule> rules) {
+
+}
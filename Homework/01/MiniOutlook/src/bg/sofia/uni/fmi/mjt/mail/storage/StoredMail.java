@@ -0,0 +1,10 @@
+package bg.sofia.uni.fmi.mjt.mail.storage;
+
+import bg.sofia.uni.fmi.mjt.mail.Mail;
+
+/**
+ * A mail as read from a storage, together with the id by which it is read again.
+ */
+public record StoredMail(long id, Mail mail) {
+
+}
@@ -0,0 +1,5 @@
+package bg.sofia.uni.fmi.mjt.mail.storage;
+
+public record StoredRule(String folderPath, String ruleDefinition, int priority) {
+
+}
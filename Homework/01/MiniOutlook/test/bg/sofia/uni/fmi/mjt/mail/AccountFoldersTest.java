@@ -34,4 +34,53 @@ public class AccountFoldersTest {
 
     }
 
+    @Test
+    void testGetFolderSameNameInDifferentBranches() {
+
+        AccountFolders accountFolders = new AccountFolders(new Account("fmi@uni-sofia.bg", "fmi"));
+        accountFolders.addNewFolder("/inbox", "documents");
+        accountFolders.addNewFolder("/inbox", "archive");
+        accountFolders.addNewFolder("/inbox/archive", "documents");
+
+        Folder documents = accountFolders.getFolder("/inbox/documents");
+        Folder archivedDocuments = accountFolders.getFolder("/inbox/archive/documents");
+
+        Assertions.assertNotNull(documents, "/inbox/documents must exist.");
+        Assertions.assertNotNull(archivedDocuments, "/inbox/archive/documents must exist.");
+        Assertions.assertNotSame(documents, archivedDocuments,
+            "Folders with the same name in different branches must be different folders.");
+    }
+
+    @Test
+    void testGetFolderMissingPath() {
+
+        AccountFolders accountFolders = new AccountFolders(new Account("fmi@uni-sofia.bg", "fmi"));
+        accountFolders.addNewFolder("/inbox", "documents");
+
+        Assertions.assertNull(accountFolders.getFolder("/inbox/documents/fmi"), "The folder does not exist.");
+        Assertions.assertNull(accountFolders.getFolder("/documents"), "The folder does not exist.");
+        Assertions.assertNull(accountFolders.addNewFolder("/inbox/other", "fmi"),
+            "A folder cannot be created in a missing folder.");
+        Assertions.assertSame(accountFolders.getInbox(), accountFolders.getFolder("/inbox"),
+            "/inbox must resolve to the inbox folder.");
+    }
+
+    @Test
+    void testGetFolderPathNormalizesSpellings() {
+
+        AccountFolders accountFolders = new AccountFolders(new Account("fmi@uni-sofia.bg", "fmi"));
+        Folder documents = accountFolders.addNewFolder("inbox/", "documents");
+
+        for (String currentPath : new String[] {"/inbox/documents", "inbox/documents", "/inbox//documents/"}) {
+
+            Assertions.assertSame(documents, accountFolders.getFolder(currentPath),
+                currentPath + " must resolve to /inbox/documents.");
+            Assertions.assertEquals("/inbox/documents", accountFolders.getFolderPath(currentPath),
+                "The path of the folder must be the one it was created with.");
+        }
+
+        Assertions.assertNull(accountFolders.getFolder("//"), "The root is not a folder.");
+        Assertions.assertNull(accountFolders.getFolderPath("inbox/documents/fmi"), "The folder does not exist.");
+    }
+
 }
@@ -0,0 +1,48 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AccountRegistryTest {
+
+    @Test
+    void testGetByAccountNameAndByEmail() {
+
+        AccountRegistry accountRegistry = new AccountRegistry();
+        Account fmiAccount = new Account("fmi@uni-sofia.bg", "fmi");
+
+        AccountEntry registered = accountRegistry.register(fmiAccount);
+
+        Assertions.assertSame(registered, accountRegistry.getByAccountName("fmi"),
+            "The registered entry must be found by account name.");
+        Assertions.assertSame(registered, accountRegistry.getByEmail("fmi@uni-sofia.bg"),
+            "The registered entry must be found by email.");
+        Assertions.assertEquals(fmiAccount, registered.accountFolders().getAccount(),
+            "The folders of the entry must belong to the registered account.");
+    }
+
+    @Test
+    void testGetByEmailKeepsFirstRegisteredAccount() {
+
+        AccountRegistry accountRegistry = new AccountRegistry();
+
+        AccountEntry first = accountRegistry.register(new Account("fmi@uni-sofia.bg", "fmi"));
+        accountRegistry.register(new Account("fmi@uni-sofia.bg", "fhf"));
+
+        Assertions.assertSame(first, accountRegistry.getByEmail("fmi@uni-sofia.bg"),
+            "The first registered account with the email is expected.");
+        Assertions.assertEquals(2, accountRegistry.getAccounts().size(),
+            "Both accounts must be registered.");
+    }
+
+    @Test
+    void testGetByAccountNameMissing() {
+
+        AccountRegistry accountRegistry = new AccountRegistry();
+
+        Assertions.assertNull(accountRegistry.getByAccountName("fmi"),
+            "There is no account with such name so null is expected.");
+        Assertions.assertFalse(accountRegistry.containsAccountName("fmi"),
+            "There is no account with such name.");
+    }
+}
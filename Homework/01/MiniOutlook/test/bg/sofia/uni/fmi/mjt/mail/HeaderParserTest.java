@@ -0,0 +1,71 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import bg.sofia.uni.fmi.mjt.mail.exceptions.MalformedHeaderException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HeaderParserTest {
+
+    @Test
+    void testNextHeaderSkipsBlankLinesAndStripsValues() {
+
+        HeaderParser headerParser = new HeaderParser("sender: testy@gmail.com\r\n\n" +
+            "     subject:   Hello, MJT!   \r" +
+            "received: 2022-12-08 14:14");
+
+        Assertions.assertTrue(headerParser.nextHeader(), "The first header is expected.");
+        Assertions.assertTrue(headerParser.isKey("sender"), "The first header is sender.");
+        Assertions.assertEquals("testy@gmail.com", headerParser.getValue(), "The sender is not as expected.");
+
+        Assertions.assertTrue(headerParser.nextHeader(), "The second header is expected.");
+        Assertions.assertTrue(headerParser.isKey("subject"), "The second header is subject.");
+        Assertions.assertEquals("Hello, MJT!", headerParser.getValue(), "The subject is not as expected.");
+
+        Assertions.assertTrue(headerParser.nextHeader(), "The third header is expected.");
+        Assertions.assertEquals(LocalDateTime.of(2022, 12, 8, 14, 14), headerParser.getDateTimeValue(),
+            "The received date and time is not as expected.");
+
+        Assertions.assertFalse(headerParser.nextHeader(), "There are no more headers.");
+    }
+
+    @Test
+    void testForEachListItemSplitsByCommasAndWhitespace() {
+
+        HeaderParser headerParser = new HeaderParser("recipients: pesho@gmail.com, gosho@gmail.com,,  ivan@fmi.bg,");
+        List<String> recipients = new ArrayList<>();
+
+        headerParser.nextHeader();
+        headerParser.forEachListItem(recipients::add);
+
+        Assertions.assertEquals(List.of("pesho@gmail.com", "gosho@gmail.com", "ivan@fmi.bg"), recipients,
+            "The recipients are not as expected.");
+    }
+
+    @Test
+    void testNextHeaderWithoutKey() {
+
+        HeaderParser headerParser = new HeaderParser("from: fmi@uni-sofia.bg\n  ruleDefinition");
+
+        headerParser.nextHeader();
+
+        MalformedHeaderException exception = Assertions.assertThrows(MalformedHeaderException.class,
+            headerParser::nextHeader, "MalformedHeaderException is expected but not thrown.");
+        Assertions.assertEquals(25, exception.getPosition(), "The position of the malformed header is wrong.");
+    }
+
+    @Test
+    void testGetDateTimeValueInvalid() {
+
+        HeaderParser headerParser = new HeaderParser("received: 2022-12-08 14:1x");
+
+        headerParser.nextHeader();
+
+        MalformedHeaderException exception = Assertions.assertThrows(MalformedHeaderException.class,
+            headerParser::getDateTimeValue, "MalformedHeaderException is expected but not thrown.");
+        Assertions.assertEquals(24, exception.getPosition(), "The position of the invalid value is wrong.");
+    }
+}
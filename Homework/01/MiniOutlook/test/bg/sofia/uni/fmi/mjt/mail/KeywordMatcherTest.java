@@ -0,0 +1,44 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+public class KeywordMatcherTest {
+
+    @Test
+    void testFindKeywordsOnlyWholeWords() {
+
+        KeywordMatcher keywordMatcher = new KeywordMatcher(List.of("Halls", "Availabl", "Hall"));
+
+        BitSet found = keywordMatcher.findKeywords("Available Halls?");
+
+        Assertions.assertTrue(found.get(keywordMatcher.getKeywordId("Halls")),
+            "Halls is a whole word in the text so it must be found.");
+        Assertions.assertFalse(found.get(keywordMatcher.getKeywordId("Availabl")),
+            "Availabl is only a prefix of a word so it must not be found.");
+        Assertions.assertFalse(found.get(keywordMatcher.getKeywordId("Hall")),
+            "Hall is only a prefix of a word so it must not be found.");
+    }
+
+    @Test
+    void testFindKeywordsOverlappingKeywords() {
+
+        KeywordMatcher keywordMatcher = new KeywordMatcher(List.of("mjt izpit", "izpit", "2022"));
+
+        BitSet found = keywordMatcher.findKeywords("mjt izpit 2022");
+
+        Assertions.assertEquals(3, found.cardinality(), "All keywords are present in the text.");
+    }
+
+    @Test
+    void testFindKeywordsEmptyText() {
+
+        KeywordMatcher keywordMatcher = new KeywordMatcher(List.of("Hall"));
+
+        Assertions.assertTrue(keywordMatcher.findKeywords("").isEmpty(), "Nothing can be found in empty text.");
+        Assertions.assertEquals(-1, keywordMatcher.getKeywordId("Room"), "Room is not a known keyword.");
+    }
+}
@@ -0,0 +1,127 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+public class MailSearchIndexTest {
+
+    private static final LocalDateTime RECEIVED = LocalDateTime.of(2022, 12, 8, 14, 14);
+
+    MailSearchIndex mailSearchIndex;
+
+    @BeforeEach
+    void initSetMailSearchIndex() {
+
+        this.mailSearchIndex = new MailSearchIndex();
+    }
+
+    @Test
+    void testSearchMatchesAllWordsIgnoringCase() {
+
+        Mail exam = createMail("MJT exam", "The exam is in hall 200", RECEIVED);
+        Mail lecture = createMail("MJT lecture", "The lecture is in hall 325", RECEIVED.plusDays(1));
+
+        this.mailSearchIndex.add("/inbox", 0, exam);
+        this.mailSearchIndex.add("/inbox", 1, lecture);
+
+        Assertions.assertEquals(List.of(0L), this.mailSearchIndex.search("mjt HALL exam", 10),
+            "Only mails containing every word of the query are expected.");
+        Assertions.assertEquals(List.of(), this.mailSearchIndex.search("mjt unknown", 10),
+            "No mails are expected for a word which is not indexed.");
+    }
+
+    @Test
+    void testSearchRanksByRecencyAndLimits() {
+
+        Mail oldest = createMail("mjt", "first", RECEIVED);
+        Mail newest = createMail("mjt", "third", RECEIVED.plusDays(2));
+        Mail middle = createMail("mjt", "second", RECEIVED.plusDays(1));
+
+        this.mailSearchIndex.add("/inbox", 0, oldest);
+        this.mailSearchIndex.add("/inbox", 1, newest);
+        this.mailSearchIndex.add("/inbox", 2, middle);
+
+        Assertions.assertEquals(List.of(1L, 2L), this.mailSearchIndex.search("mjt", 2),
+            "The newest mails are expected first, up to the limit.");
+    }
+
+    @Test
+    void testSearchMatchesSenderAndRecipients() {
+
+        Mail mail = createMail("Hello", "Hello", RECEIVED);
+
+        this.mailSearchIndex.add("/inbox", 0, mail);
+
+        Assertions.assertEquals(List.of(0L), this.mailSearchIndex.search("stoyo@fmi.bg pesho@gmail.com", 10),
+            "Mails are expected to be found by their sender and recipients.");
+    }
+
+    @Test
+    void testMoveKeepsMailSearchable() {
+
+        Mail mail = createMail("mjt", "Hello", RECEIVED);
+
+        this.mailSearchIndex.add("/inbox", 0, mail);
+        this.mailSearchIndex.move("/inbox", 0, "/inbox/mjt", 0, mail);
+        this.mailSearchIndex.add("/inbox/mjt", 0, mail);
+
+        Assertions.assertEquals(List.of(0L), this.mailSearchIndex.search("mjt", 10),
+            "A moved mail is expected to be found once.");
+    }
+
+    @Test
+    void testMoveToFolderContainingTheMailRemovesDuplicate() {
+
+        Mail mail = createMail("mjt", "Hello", RECEIVED);
+
+        this.mailSearchIndex.add("/inbox", 0, mail);
+        this.mailSearchIndex.add("/inbox/mjt", 1, mail);
+        this.mailSearchIndex.move("/inbox", 0, "/inbox/mjt", 1, mail);
+
+        Assertions.assertEquals(List.of(1L), this.mailSearchIndex.search("hello", 10),
+            "A mail is expected to be found once per folder containing it.");
+    }
+
+    @Test
+    void testSearchIntersectsLongPostingLists() {
+
+        for (int i = 0; i < 10_000; i++) {
+
+            this.mailSearchIndex.add("/inbox", i, createMail("common", i % 1_000 == 0 ? "rare " + i : "body " + i,
+                RECEIVED.plusMinutes(i)));
+        }
+
+        Assertions.assertEquals(List.of(9000L, 8000L, 7000L), this.mailSearchIndex.search("rare common", 3),
+            "The newest mails containing both words are expected.");
+    }
+
+    @Test
+    void testSearchFindsNewestMailsIndexedOutOfOrder() {
+
+        for (int i = 0; i < 1_000; i++) {
+
+            // Every tenth mail was received long before the mails indexed around it
+            LocalDateTime received = i % 10 == 0 ? RECEIVED.minusDays(i) : RECEIVED.plusMinutes(i);
+            this.mailSearchIndex.add("/inbox", i, createMail("common", i % 2 == 0 ? "even" : "odd", received));
+        }
+
+        this.mailSearchIndex.add("/inbox", 1_000, createMail("common", "even", RECEIVED.plusDays(1)));
+        this.mailSearchIndex.add("/inbox", 1_001, createMail("common", "even", null));
+
+        Assertions.assertEquals(List.of(1_000L, 998L, 996L), this.mailSearchIndex.search("even common", 3),
+            "The newest mails containing both words are expected regardless of the order they were indexed in.");
+        Assertions.assertEquals(List.of(970L, 980L, 990L, 1_001L),
+            this.mailSearchIndex.search("even common", 1_000).subList(498, 502),
+            "The oldest mails are expected last and mails without a received time after them.");
+    }
+
+    private Mail createMail(String subject, String body, LocalDateTime received) {
+
+        return new Mail(new Account("stoyo@fmi.bg", "stoyo"), Set.of("pesho@gmail.com"), subject, body, received);
+    }
+}
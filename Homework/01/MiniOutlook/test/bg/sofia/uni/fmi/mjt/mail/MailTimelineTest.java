@@ -0,0 +1,129 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class MailTimelineTest {
+
+    private static final LocalDateTime FIRST_RECEIVED = LocalDateTime.of(2022, 12, 1, 10, 0);
+
+    MailTimeline<Mail> timeline;
+
+    @BeforeEach
+    void initSetTimeline() {
+
+        this.timeline = new MailTimeline<>();
+
+        for (int i = 9; i >= 0; i--) {
+            addMail("Mail " + i, FIRST_RECEIVED.plusDays(i));
+        }
+
+        addMail("Mail without receiving time", null);
+    }
+
+    @Test
+    void testGetPageNewestFirst() {
+
+        MailPage page = this.timeline.getPage(MailQuery.builder(3).build(), mail -> mail);
+
+        Assertions.assertEquals(List.of("Mail 9", "Mail 8", "Mail 7"), getSubjects(page),
+            "The newest mails are expected first.");
+        Assertions.assertTrue(page.hasNext(), "A next page is expected.");
+    }
+
+    @Test
+    void testGetPagesWithCursorOldestFirst() {
+
+        List<String> subjects = new ArrayList<>();
+        MailCursor cursor = null;
+
+        do {
+            MailPage page = this.timeline.getPage(MailQuery.builder(4)
+                .setSortOrder(SortOrder.OLDEST_FIRST)
+                .setCursor(cursor)
+                .build(), mail -> mail);
+
+            subjects.addAll(getSubjects(page));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        Assertions.assertEquals(11, subjects.size(), "All mails are expected to be paged exactly once.");
+        Assertions.assertEquals("Mail without receiving time", subjects.get(0),
+            "Mails without receiving time are expected to be the oldest.");
+        Assertions.assertEquals("Mail 9", subjects.get(10), "The newest mail is expected last.");
+    }
+
+    @Test
+    void testGetPageWithReceivedTimeRange() {
+
+        MailPage page = this.timeline.getPage(MailQuery.builder(10)
+            .setReceivedFrom(FIRST_RECEIVED.plusDays(2))
+            .setReceivedTo(FIRST_RECEIVED.plusDays(4))
+            .build(), mail -> mail);
+
+        Assertions.assertEquals(List.of("Mail 4", "Mail 3", "Mail 2"), getSubjects(page),
+            "Only mails within the inclusive range are expected.");
+        Assertions.assertFalse(page.hasNext(), "No next page is expected.");
+    }
+
+    @Test
+    void testGetPageWithOnlyUpperBoundSkipsMailsWithoutReceivedTime() {
+
+        MailPage page = this.timeline.getPage(MailQuery.builder(10)
+            .setReceivedTo(FIRST_RECEIVED)
+            .build(), mail -> mail);
+
+        Assertions.assertEquals(List.of("Mail 0"), getSubjects(page),
+            "Mails without receiving time are not expected in a time range.");
+    }
+
+    @Test
+    void testRemovedMailIsNotPaged() {
+
+        Folder folder = new Folder("inbox");
+        Mail mail = new Mail(new Account("stoyo@fmi.bg", "stoyo"), Set.of(), "Hello", "Hello", FIRST_RECEIVED);
+
+        folder.addMail(mail);
+        folder.addMail(mail);
+        folder.removeMail(mail);
+
+        Assertions.assertTrue(folder.getTimeline().getPage(MailQuery.builder(1).build(), m -> m).mails().isEmpty(),
+            "A removed mail is not expected in the timeline.");
+    }
+
+    @Test
+    void testBuildQueryWithEmptyRange() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MailQuery.builder(1)
+                .setReceivedFrom(FIRST_RECEIVED.plusDays(1))
+                .setReceivedTo(FIRST_RECEIVED)
+                .build(),
+            "IllegalArgumentException is expected but not thrown.");
+    }
+
+    @Test
+    void testBuildQueryWithNonPositivePageSize() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MailQuery.builder(0).build(),
+            "IllegalArgumentException is expected but not thrown.");
+    }
+
+    private void addMail(String subject, LocalDateTime received) {
+
+        this.timeline.add(received, new Mail(new Account("stoyo@fmi.bg", "stoyo"), Set.of(), subject, subject,
+            received));
+    }
+
+    private List<String> getSubjects(MailPage page) {
+
+        return page.mails().stream()
+            .map(Mail::subject)
+            .toList();
+    }
+}
@@ -6,6 +6,8 @@ import bg.sofia.uni.fmi.mjt.mail.exceptions.FolderAlreadyExistsException;
 import bg.sofia.uni.fmi.mjt.mail.exceptions.FolderNotFoundException;
 import bg.sofia.uni.fmi.mjt.mail.exceptions.InvalidPathException;
 import bg.sofia.uni.fmi.mjt.mail.exceptions.RuleAlreadyDefinedException;
+import bg.sofia.uni.fmi.mjt.mail.storage.InMemoryMailStorage;
+import bg.sofia.uni.fmi.mjt.mail.storage.StoredMail;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 public class OutlookTest {
 
@@ -915,4 +918,199 @@ public class OutlookTest {
             }
         }
     }
+
+    @Test
+    void testReceiveMailBatchDeliversToAllAccounts() {
+
+        Account fmiAccount = outlook.addNewAccount("fmi", "fmi@uni-sofia.bg");
+        outlook.addNewAccount("fhf", "fhf@uni-sofia.bg");
+        outlook.addNewAccount("fzf", "fzf@uni-sofia.bg");
+
+        outlook.createFolder("fzf", "/inbox/halls");
+        outlook.addRule("fzf", "/inbox/halls", "subject-includes: Halls" + System.lineSeparator() +
+            "from: fmi@uni-sofia.bg", 1);
+
+        String metaData = "sender: fmi@uni-sofia.bg" + System.lineSeparator() +
+            "     subject: Available Halls?" + System.lineSeparator() +
+            "     recipients: fhf@uni-sofia.bg, fzf@uni-sofia.bg" + System.lineSeparator() +
+            "     received: 2022-12-08 14:14";
+
+        String mailContent = "I would like to ask if Hall 210 is free on 23.01.2023 from 10 to 15 h?";
+
+        outlook.receiveMailBatch(List.of("fhf", "fzf"), metaData, mailContent);
+
+        Mail mailExpected = new Mail(fmiAccount, Set.of("fhf@uni-sofia.bg", "fzf@uni-sofia.bg"),
+            "Available Halls?", mailContent, LocalDateTime.of(2022, 12, 8, 14, 14));
+
+        Assertions.assertEquals(Set.of(mailExpected), outlook.getMailsFromFolder("fhf", "/inbox"),
+            "The mail must be in the inbox of fhf.");
+        Assertions.assertEquals(Set.of(mailExpected), outlook.getMailsFromFolder("fzf", "/inbox/halls"),
+            "The mail must have been moved by the rule of fzf.");
+    }
+
+    @Test
+    void testReceiveMailBatchAccountNotFoundException() {
+
+        outlook.addNewAccount("fhf", "fhf@uni-sofia.bg");
+
+        String metaData = "sender: fmi@uni-sofia.bg" + System.lineSeparator() +
+            "     received: 2022-12-08 14:14";
+
+        Assertions.assertThrows(AccountNotFoundException.class, () ->
+                outlook.receiveMailBatch(List.of("fhf", "fzf"), metaData, "content"),
+            "AccountNotFoundException is expected but not thrown.");
+        Assertions.assertTrue(outlook.getMailsFromFolder("fhf", "/inbox").isEmpty(),
+            "The mail must not be delivered to any account.");
+    }
+
+    @Test
+    void testSendMailBatchConcurrentSenders() throws InterruptedException {
+
+        final int sendersCount = 8;
+        final int mailsPerSender = 200;
+
+        outlook.addNewAccount("fhf", "fhf@uni-sofia.bg");
+        outlook.addNewAccount("fzf", "fzf@uni-sofia.bg");
+
+        List<Thread> senders = new ArrayList<>();
+
+        for (int i = 0; i < sendersCount; i++) {
+
+            String senderName = "sender" + i;
+            outlook.addNewAccount(senderName, senderName + "@uni-sofia.bg");
+
+            List<OutgoingMail> mails = new ArrayList<>();
+
+            for (int j = 0; j < mailsPerSender; j++) {
+
+                mails.add(new OutgoingMail("subject: Mail " + j + System.lineSeparator() +
+                    "recipients: fhf@uni-sofia.bg, fzf@uni-sofia.bg, missing@uni-sofia.bg" + System.lineSeparator() +
+                    "received: 2022-12-08 14:14", "content"));
+            }
+
+            senders.add(new Thread(() -> outlook.sendMailBatch(senderName, mails)));
+        }
+
+        for (Thread sender : senders) {
+            sender.start();
+        }
+
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        Assertions.assertEquals(sendersCount * mailsPerSender, outlook.getMailsFromFolder("fhf", "/inbox").size(),
+            "All mails must be delivered to fhf.");
+        Assertions.assertEquals(sendersCount * mailsPerSender, outlook.getMailsFromFolder("fzf", "/inbox").size(),
+            "All mails must be delivered to fzf.");
+        Assertions.assertEquals(mailsPerSender, outlook.getMailsFromFolder("sender0", "/sent").size(),
+            "All mails must be stored in the sent folder of the sender.");
+    }
+
+    @Test
+    void testReceiveMailFromSendersWithoutAccountsKeepsMailsApart() {
+
+        outlook.addNewAccount("fhf", "fhf@uni-sofia.bg");
+
+        String metaData = "subject: Available Halls?" + System.lineSeparator() +
+            "     recipients: fhf@uni-sofia.bg" + System.lineSeparator() +
+            "     received: 2022-12-08 14:14";
+
+        outlook.receiveMail("fhf", "sender: fmi@uni-sofia.bg" + System.lineSeparator() + metaData, "Hall 210?");
+        outlook.receiveMail("fhf", "sender: fzf@uni-sofia.bg" + System.lineSeparator() + metaData, "Hall 210?");
+
+        Assertions.assertEquals(2, outlook.getMailsFromFolder("fhf", "/inbox").size(),
+            "Mails from different senders without accounts must not be taken for the same mail.");
+    }
+
+    @Test
+    void testReceiveMailMatchesOnlyTheNewMailAgainstTheRules() {
+
+        CountingMailStorage mailStorage = new CountingMailStorage();
+        Outlook countingOutlook = new Outlook(mailStorage);
+
+        countingOutlook.addNewAccount("fmi", "fmi@uni-sofia.bg");
+        countingOutlook.addNewAccount("fhf", "fhf@uni-sofia.bg");
+        countingOutlook.createFolder("fhf", "/inbox/halls");
+
+        String ruleDefinition = "subject-includes: Halls" + System.lineSeparator() +
+            "     from: fmi@uni-sofia.bg" + System.lineSeparator();
+
+        countingOutlook.addRule("fhf", "/inbox/halls", ruleDefinition, 1);
+
+        mailStorage.inboxReadsCount = 0;
+
+        for (int i = 0; i < 10; i++) {
+
+            countingOutlook.receiveMail("fhf", "sender: fmi@uni-sofia.bg" + System.lineSeparator() +
+                "     subject: Question " + i + System.lineSeparator() +
+                "     recipients: fhf@uni-sofia.bg" + System.lineSeparator() +
+                "     received: 2022-12-08 14:14", "Is Hall 210 free on 23.01.2023?");
+        }
+
+        countingOutlook.receiveMail("fhf", "sender: fmi@uni-sofia.bg" + System.lineSeparator() +
+            "     subject: Available Halls?" + System.lineSeparator() +
+            "     recipients: fhf@uni-sofia.bg" + System.lineSeparator() +
+            "     received: 2022-12-08 14:14", "Is Hall 210 free on 23.01.2023?");
+
+        Assertions.assertEquals(0, mailStorage.inboxReadsCount,
+            "The mails already in the inbox must not be matched against the rules again.");
+        Assertions.assertEquals(1, mailStorage.movedMailsCount,
+            "Only the new mail which matches the rule is expected to be moved.");
+        Assertions.assertEquals(10, countingOutlook.getMailsFromFolder("fhf", "/inbox").size(),
+            "The mails which do not match the rule must stay in the inbox.");
+    }
+
+    @Test
+    void testSearchMailsFindsSentAndReceivedMails() {
+
+        outlook.addNewAccount("fmi", "fmi@uni-sofia.bg");
+        outlook.addNewAccount("fhf", "fhf@uni-sofia.bg");
+
+        String metaData = "subject: Available Halls?" + System.lineSeparator() +
+            "recipients: fhf@uni-sofia.bg" + System.lineSeparator() +
+            "received: 2022-12-08 14:14";
+
+        outlook.sendMail("fmi", metaData, "Is Hall 210 free?");
+
+        Assertions.assertEquals(1, outlook.searchMails("fmi", "hall 210", 10).size(),
+            "The mail must be found in the sent folder of fmi.");
+        Assertions.assertEquals(1, outlook.searchMails("fhf", "halls fmi@uni-sofia.bg", 10).size(),
+            "The mail must be found in the inbox of fhf.");
+        Assertions.assertTrue(outlook.searchMails("fhf", "hall 325", 10).isEmpty(),
+            "No mail is expected to contain both words.");
+    }
+
+    @Test
+    void testSearchMailsWithNonPositiveLimit() {
+
+        outlook.addNewAccount("fmi", "fmi@uni-sofia.bg");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> outlook.searchMails("fmi", "hall", 0),
+            "IllegalArgumentException is expected but not thrown.");
+    }
+
+    private static class CountingMailStorage extends InMemoryMailStorage {
+
+        private int inboxReadsCount;
+        private int movedMailsCount;
+
+        @Override
+        public long moveMail(AccountEntry accountEntry, String fromFolderPath, String toFolderPath, Mail mail) {
+
+            this.movedMailsCount++;
+            return super.moveMail(accountEntry, fromFolderPath, toFolderPath, mail);
+        }
+
+        @Override
+        public Stream<StoredMail> getStoredMails(AccountEntry accountEntry, String folderPath) {
+
+            if (folderPath.equals("/inbox")) {
+
+                this.inboxReadsCount++;
+            }
+
+            return super.getStoredMails(accountEntry, folderPath);
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package bg.sofia.uni.fmi.mjt.mail;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+public class RuleMatcherTest {
+
+    private final static Mail MAIL = new Mail(new Account("fmi@uni-sofia.bg", "fmi"), Set.of("fhf@uni-sofia.bg"),
+        "Available Halls?", "I would like to ask if Hall 210 is free.", LocalDateTime.of(2022, 12, 8, 14, 14));
+
+    @Test
+    void testFindMatchingRuleReturnsFirstMatchingByPriority() {
+
+        RuleDefinitionConverter notMatching = createRule("subject-includes: Rooms" + System.lineSeparator() +
+            "from: fmi@uni-sofia.bg");
+        RuleDefinitionConverter matching = createRule("subject-or-body-includes: Hall, 210" +
+            System.lineSeparator() + "from: fmi@uni-sofia.bg");
+        RuleDefinitionConverter alsoMatching = createRule("subject-includes: Halls" + System.lineSeparator() +
+            "from: fmi@uni-sofia.bg");
+
+        RuleMatcher ruleMatcher = new RuleMatcher(List.of(notMatching, matching, alsoMatching));
+
+        Assertions.assertSame(matching, ruleMatcher.findMatchingRule(MAIL),
+            "The first matching rule by priority is expected.");
+    }
+
+    @Test
+    void testFindMatchingRuleNoMatch() {
+
+        RuleDefinitionConverter differentSender = createRule("subject-includes: Halls" + System.lineSeparator() +
+            "from: fhf@uni-sofia.bg");
+        RuleDefinitionConverter differentRecipient = createRule("recipients-includes: fzf@uni-sofia.bg" +
+            System.lineSeparator() + "from: fmi@uni-sofia.bg");
+
+        RuleMatcher ruleMatcher = new RuleMatcher(List.of(differentSender, differentRecipient));
+
+        Assertions.assertNull(ruleMatcher.findMatchingRule(MAIL), "None of the rules matches the mail.");
+    }
+
+    private static RuleDefinitionConverter createRule(String ruleDefinition) {
+
+        RuleDefinitionConverter ruleDefinitionConverter = new RuleDefinitionConverter();
+        ruleDefinitionConverter.convertToRuleDefinition(ruleDefinition);
+
+        return ruleDefinitionConverter;
+    }
+}
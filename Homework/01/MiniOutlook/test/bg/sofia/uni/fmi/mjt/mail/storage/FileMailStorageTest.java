@@ -0,0 +1,234 @@
+package bg.sofia.uni.fmi.mjt.mail.storage;
+
+import bg.sofia.uni.fmi.mjt.mail.AccountEntry;
+import bg.sofia.uni.fmi.mjt.mail.Mail;
+import bg.sofia.uni.fmi.mjt.mail.MailPage;
+import bg.sofia.uni.fmi.mjt.mail.MailQuery;
+import bg.sofia.uni.fmi.mjt.mail.Outlook;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class FileMailStorageTest {
+
+    private static final String MAIL_METADATA = """
+        sender: stoyo@fmi.bg
+        subject: Hello, MJT!
+        recipients: pesho@gmail.com
+        received: 2022-12-08 14:14""";
+
+    private static final String MJT_MAIL_METADATA = """
+        sender: stoyo@fmi.bg
+        subject: mjt izpit
+        recipients: pesho@gmail.com
+        received: 2022-12-09 10:00""";
+
+    @TempDir
+    Path storageDirectory;
+
+    @Test
+    void testRestartRestoresAccountsFoldersRulesAndMails() throws IOException {
+
+        Collection<Mail> inboxMails;
+        Collection<Mail> mjtMails;
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+            outlook.addNewAccount("stoyo", "stoyo@fmi.bg");
+            outlook.addNewAccount("pesho", "pesho@gmail.com");
+            outlook.createFolder("pesho", "/inbox/mjt");
+            outlook.addRule("pesho", "/inbox/mjt", "subject-includes: mjt" + System.lineSeparator() +
+                "from: stoyo@fmi.bg", 1);
+
+            outlook.receiveMail("pesho", MAIL_METADATA, "Hello");
+            outlook.receiveMail("pesho", MJT_MAIL_METADATA, "See you at the exam");
+            outlook.sendMail("pesho", MAIL_METADATA, "Hello back");
+
+            inboxMails = outlook.getMailsFromFolder("pesho", "/inbox");
+            mjtMails = outlook.getMailsFromFolder("pesho", "/inbox/mjt");
+        }
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+
+            Assertions.assertEquals(1, mjtMails.size(), "The rule is expected to move the mjt mail.");
+            Assertions.assertEquals(inboxMails, outlook.getMailsFromFolder("pesho", "/inbox"),
+                "Inbox is expected to be restored after a restart.");
+            Assertions.assertEquals(mjtMails, outlook.getMailsFromFolder("pesho", "/inbox/mjt"),
+                "Mails moved by a rule are expected to stay in the destination folder after a restart.");
+            Assertions.assertEquals(1, outlook.getMailsFromFolder("pesho", "/sent").size(),
+                "Sent mails are expected to be restored after a restart.");
+            Assertions.assertEquals(mjtMails.stream().toList(), outlook.searchMails("pesho", "izpit", 10),
+                "The search index is expected to be rebuilt after a restart.");
+
+            outlook.receiveMail("pesho", MJT_MAIL_METADATA.replace("10:00", "11:00"), "Second exam");
+
+            Assertions.assertEquals(2, outlook.getMailsFromFolder("pesho", "/inbox/mjt").size(),
+                "Restored rules are expected to apply to new mails.");
+        }
+    }
+
+    @Test
+    void testRestartBuildsTheSearchIndexOnTheFirstSearch() throws IOException {
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+            outlook.addNewAccount("pesho", "pesho@gmail.com");
+            outlook.createFolder("pesho", "/inbox/mjt");
+            outlook.addRule("pesho", "/inbox/mjt", "subject-includes: mjt" + System.lineSeparator() +
+                "from: stoyo@fmi.bg", 1);
+
+            outlook.receiveMail("pesho", MJT_MAIL_METADATA, "See you at the exam");
+        }
+
+        try (ReadCountingFileMailStorage mailStorage = new ReadCountingFileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+
+            Assertions.assertEquals(0, mailStorage.storedMailsReadsCount,
+                "No mails are expected to be read from the storage on a restart.");
+
+            outlook.receiveMail("pesho", MJT_MAIL_METADATA.replace("10:00", "11:00"), "Second exam");
+
+            Assertions.assertEquals(outlook.getMailsFromFolder("pesho", "/inbox/mjt").size(),
+                outlook.searchMails("pesho", "izpit", 10).size(),
+                "Mails received before the first search are expected to be found once.");
+            Assertions.assertEquals(2, outlook.searchMails("pesho", "izpit", 10).size(),
+                "Both mails are expected to be found.");
+        }
+    }
+
+    @Test
+    void testReceivingTheSameMailTwiceStoresItOnce() throws IOException {
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+            outlook.addNewAccount("pesho", "pesho@gmail.com");
+
+            outlook.receiveMail("pesho", MAIL_METADATA, "Hello");
+            outlook.receiveMail("pesho", MAIL_METADATA, "Hello");
+
+            Assertions.assertEquals(1, outlook.getMailsFromFolder("pesho", "/inbox").size(),
+                "A folder is expected to contain a mail only once.");
+        }
+    }
+
+    @Test
+    void testRuleMovesAStoredMailWithSeveralRecipientsOutOfTheInbox() throws IOException {
+
+        String metadata = MJT_MAIL_METADATA.replace("pesho@gmail.com",
+            "pesho@gmail.com, gosho@gmail.com, ivan@gmail.com, maria@gmail.com, elena@gmail.com");
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+            outlook.addNewAccount("pesho", "pesho@gmail.com");
+            outlook.createFolder("pesho", "/inbox/mjt");
+            outlook.receiveMail("pesho", metadata, "See you at the exam");
+        }
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+            outlook.addRule("pesho", "/inbox/mjt", "subject-includes: mjt" + System.lineSeparator() +
+                "from: stoyo@fmi.bg", 1);
+
+            Assertions.assertTrue(outlook.getMailsFromFolder("pesho", "/inbox").isEmpty(),
+                "The mail is expected to be removed from the inbox.");
+            Assertions.assertEquals(1, outlook.getMailsFromFolder("pesho", "/inbox/mjt").size(),
+                "The mail is expected to be moved to the folder of the rule.");
+        }
+    }
+
+    @Test
+    void testMailsAreSplitInSegments() throws IOException {
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory, 256)) {
+            Outlook outlook = new Outlook(mailStorage);
+            outlook.addNewAccount("pesho", "pesho@gmail.com");
+
+            for (int i = 0; i < 20; i++) {
+                outlook.receiveMail("pesho", MAIL_METADATA, "Hello " + i);
+            }
+
+            try (Stream<Mail> mails = outlook.streamMailsFromFolder("pesho", "/inbox")) {
+                Assertions.assertEquals(20, mails.count(),
+                    "All mails are expected to be read from the segments.");
+            }
+        }
+
+        try (Stream<Path> files = Files.walk(this.storageDirectory)) {
+            List<Path> segments = files.filter(file -> file.getFileName().toString().startsWith("segment-")).toList();
+
+            Assertions.assertTrue(segments.size() > 1, "The mail log is expected to be split in segments.");
+        }
+    }
+
+    @Test
+    void testGetNewestMailsPageAfterRestart() throws IOException {
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+            outlook.addNewAccount("pesho", "pesho@gmail.com");
+
+            for (int i = 10; i < 30; i++) {
+                outlook.receiveMail("pesho", MAIL_METADATA.replace("14:14", "14:" + i), "Hello " + i);
+            }
+        }
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+
+            MailPage page = outlook.getMailsFromFolder("pesho", "/inbox", MailQuery.builder(2).build());
+            MailPage nextPage = outlook.getMailsFromFolder("pesho", "/inbox",
+                MailQuery.builder(2).setCursor(page.nextCursor()).build());
+
+            Assertions.assertEquals(List.of("Hello 29", "Hello 28"), page.mails().stream().map(Mail::body).toList(),
+                "The newest mails are expected on the first page.");
+            Assertions.assertEquals(List.of("Hello 27", "Hello 26"), nextPage.mails().stream().map(Mail::body).toList(),
+                "The following mails are expected on the next page.");
+        }
+    }
+
+    @Test
+    void testPartiallyWrittenIndexEntryIsIgnored() throws IOException {
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+            outlook.addNewAccount("pesho", "pesho@gmail.com");
+            outlook.receiveMail("pesho", MAIL_METADATA, "Hello");
+        }
+
+        Path inboxIndex = this.storageDirectory.resolve("account-000000").resolve("folder-000000.idx");
+        Files.write(inboxIndex, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (FileMailStorage mailStorage = new FileMailStorage(this.storageDirectory)) {
+            Outlook outlook = new Outlook(mailStorage);
+
+            Assertions.assertEquals(1, outlook.getMailsFromFolder("pesho", "/inbox").size(),
+                "A partially written index entry is expected to be ignored.");
+        }
+    }
+
+    private static class ReadCountingFileMailStorage extends FileMailStorage {
+
+        private int storedMailsReadsCount;
+
+        private ReadCountingFileMailStorage(Path directory) {
+
+            super(directory);
+        }
+
+        @Override
+        public Stream<StoredMail> getStoredMails(AccountEntry accountEntry, String folderPath) {
+
+            this.storedMailsReadsCount++;
+            return super.getStoredMails(accountEntry, folderPath);
+        }
+    }
+}
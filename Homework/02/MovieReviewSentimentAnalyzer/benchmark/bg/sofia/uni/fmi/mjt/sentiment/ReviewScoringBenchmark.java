@@ -0,0 +1,66 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import java.io.StringReader;
+import java.io.Writer;
+
+/**
+ * Measures how many reviews are scored per second against the compact word statistics. It is not part of the unit
+ * tests; compile it together with the sources and run its main method.
+ */
+public class ReviewScoringBenchmark {
+
+    private static final int KNOWN_WORDS_COUNT = 5_000;
+    private static final int REVIEW_WORDS_COUNT = 25;
+    private static final int REVIEWS_COUNT = 1_000;
+    private static final int ROUNDS_COUNT = 10;
+    private static final int WARM_UP_ROUNDS_COUNT = 10;
+
+    public static void main(String[] args) {
+
+        StringBuilder reviewsIn = new StringBuilder();
+
+        for (int i = 0; i < KNOWN_WORDS_COUNT; i++) {
+
+            reviewsIn.append(i % 5).append(" Word").append(i).append(" word").append((i + 1) % KNOWN_WORDS_COUNT)
+                .append(System.lineSeparator());
+        }
+
+        MovieReviewSentimentAnalyzer analyzer = MovieReviewSentimentAnalyzer.builder(new StringReader(""),
+                new StringReader(reviewsIn.toString()), Writer.nullWriter())
+            .setWordStatisticsFactory(CompactWordStatistics::new)
+            .build();
+
+        String[] reviews = new String[REVIEWS_COUNT];
+
+        for (int i = 0; i < REVIEWS_COUNT; i++) {
+
+            StringBuilder review = new StringBuilder();
+
+            for (int j = 0; j < REVIEW_WORDS_COUNT; j++) {
+
+                review.append(j % 5 == 0 ? "unknown" : "WORD").append((i * 31 + j * 7) % KNOWN_WORDS_COUNT)
+                    .append(j % 3 == 0 ? ", " : " ");
+            }
+
+            reviews[i] = review.toString();
+        }
+
+        for (int round = 0; round < WARM_UP_ROUNDS_COUNT + ROUNDS_COUNT; round++) {
+
+            long start = System.nanoTime();
+            double checksum = 0;
+
+            for (String currentReview : reviews) {
+
+                checksum += analyzer.getReviewSentiment(currentReview);
+            }
+
+            long nanos = System.nanoTime() - start;
+
+            if (round >= WARM_UP_ROUNDS_COUNT) {
+
+                System.out.printf("%d reviews/s (checksum %.1f)%n", REVIEWS_COUNT * 1_000_000_000L / nanos, checksum);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how the readers scoring reviews are slowed down by writers appending reviews to the concurrent word
+ * statistics. It is not part of the unit tests; compile it together with the sources and run its main method from
+ * the directory of the project with the number of readers, writers and seconds to measure as arguments.
+ */
+public class WordStatisticsContentionBenchmark {
+
+    private static final int DEFAULT_READERS_COUNT = 4;
+    private static final int DEFAULT_WRITERS_COUNT = 4;
+    private static final int DEFAULT_SECONDS = 5;
+    private static final String REVIEW = "This quiet , introspective and entertaining independent is worth seeking";
+
+    public static void main(String[] args) throws Exception {
+
+        int readersCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_READERS_COUNT;
+        int writersCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WRITERS_COUNT;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SECONDS;
+
+        MovieReviewSentimentAnalyzer analyzer = createAnalyzer();
+
+        // Warm-up so that the measurement is not dominated by JIT compilation
+        measure(analyzer, readersCount, writersCount, 1);
+
+        long[] counts = measure(analyzer, readersCount, writersCount, seconds);
+
+        System.out.printf("%d readers, %d writers: %d scores/s, %d appends/s%n", readersCount, writersCount,
+            counts[0] / seconds, counts[1] / seconds);
+    }
+
+    private static MovieReviewSentimentAnalyzer createAnalyzer() throws IOException {
+
+        try (Reader stopwordsIn = new FileReader("stopwords.txt");
+             Reader reviewsIn = new FileReader("movieReviews.txt")) {
+
+            return MovieReviewSentimentAnalyzer.builder(stopwordsIn, reviewsIn, Writer.nullWriter())
+                .setWordStatisticsFactory(ConcurrentWordStatistics::new)
+                .build();
+        }
+    }
+
+    /**
+     * @return the number of scored reviews and the number of appended reviews
+     */
+    private static long[] measure(MovieReviewSentimentAnalyzer analyzer, int readersCount, int writersCount,
+                                  int seconds) throws Exception {
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(readersCount + writersCount);
+        List<Future<Long>> readers = new ArrayList<>();
+        List<Future<Long>> writers = new ArrayList<>();
+
+        for (int i = 0; i < readersCount; i++) {
+
+            readers.add(executor.submit(() -> {
+
+                long scoredCount = 0;
+
+                while (running.get()) {
+
+                    analyzer.getReviewSentiment(REVIEW);
+                    scoredCount++;
+                }
+
+                return scoredCount;
+            }));
+        }
+
+        for (int i = 0; i < writersCount; i++) {
+
+            int writerIndex = i;
+
+            writers.add(executor.submit(() -> {
+
+                long appendedCount = 0;
+
+                while (running.get()) {
+
+                    analyzer.appendReview(REVIEW + " word" + (writerIndex * 1_000 + appendedCount % 1_000), 3);
+                    appendedCount++;
+                }
+
+                return appendedCount;
+            }));
+        }
+
+        TimeUnit.SECONDS.sleep(seconds);
+        running.set(false);
+
+        long[] counts = new long[] {sum(readers), sum(writers)};
+
+        executor.shutdown();
+
+        return counts;
+    }
+
+    private static long sum(List<Future<Long>> counts) throws Exception {
+
+        long result = 0;
+
+        for (Future<Long> currentCount : counts) {
+
+            result += currentCount.get();
+        }
+
+        return result;
+    }
+}
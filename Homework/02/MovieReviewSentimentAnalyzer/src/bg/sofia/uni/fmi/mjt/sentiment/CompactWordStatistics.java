@@ -0,0 +1,306 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import java.util.Arrays;
+
+/**
+ * Word statistics without an object per word. The characters of all words are stored one after another in
+ * a single array and the counters are kept in primitive arrays indexed by word id. Words are found through
+ * an open addressing hash table of word ids.
+ */
+public class CompactWordStatistics implements WordStatistics {
+
+    private static final int INITIAL_WORDS_CAPACITY = 1024;
+    private static final int INITIAL_CHARACTERS_CAPACITY = 8 * INITIAL_WORDS_CAPACITY;
+    private static final int EMPTY_SLOT = -1;
+    private static final int SLOTS_PER_WORD = 2;
+
+    private char[] characters;
+    private int charactersSize;
+
+    private int[] wordOffsets;
+    private int[] wordHashes;
+    private int[] frequencies;
+    private int[] reviewsCounts;
+    private double[] totalSentiments;
+    private int size;
+
+    private int[] slots;
+
+    public CompactWordStatistics() {
+
+        this.characters = new char[INITIAL_CHARACTERS_CAPACITY];
+        this.charactersSize = 0;
+
+        this.wordOffsets = new int[INITIAL_WORDS_CAPACITY + 1];
+        this.wordHashes = new int[INITIAL_WORDS_CAPACITY];
+        this.frequencies = new int[INITIAL_WORDS_CAPACITY];
+        this.reviewsCounts = new int[INITIAL_WORDS_CAPACITY];
+        this.totalSentiments = new double[INITIAL_WORDS_CAPACITY];
+        this.size = 0;
+
+        this.slots = new int[SLOTS_PER_WORD * INITIAL_WORDS_CAPACITY];
+        Arrays.fill(this.slots, EMPTY_SLOT);
+    }
+
+    @Override
+    public int size() {
+
+        return this.size;
+    }
+
+    @Override
+    public int getWordId(CharSequence word) {
+
+        int hash = hash(word);
+
+        for (int slot = getFirstSlot(hash); ; slot = getNextSlot(slot)) {
+
+            int wordId = this.slots[slot];
+
+            if (wordId == EMPTY_SLOT) {
+
+                return NOT_FOUND;
+            }
+
+            if (this.wordHashes[wordId] == hash && isSameWord(wordId, word)) {
+
+                return wordId;
+            }
+        }
+    }
+
+    @Override
+    public int getWordId(CharSequence text, int beginIndex, int endIndex) {
+
+        int hash = hashIgnoringCase(text, beginIndex, endIndex);
+
+        for (int slot = getFirstSlot(hash); ; slot = getNextSlot(slot)) {
+
+            int wordId = this.slots[slot];
+
+            if (wordId == EMPTY_SLOT) {
+
+                return NOT_FOUND;
+            }
+
+            if (this.wordHashes[wordId] == hash && isSameWordIgnoringCase(wordId, text, beginIndex, endIndex)) {
+
+                return wordId;
+            }
+        }
+    }
+
+    @Override
+    public int getOrAddWordId(String word) {
+
+        int wordId = getWordId(word);
+
+        return wordId != NOT_FOUND ? wordId : addWord(word);
+    }
+
+    @Override
+    public String getWord(int wordId) {
+
+        validateWordId(wordId);
+
+        return new String(this.characters, this.wordOffsets[wordId], getWordLength(wordId));
+    }
+
+    @Override
+    public int compareWords(int firstWordId, int secondWordId) {
+
+        validateWordId(firstWordId);
+        validateWordId(secondWordId);
+
+        return Arrays.compare(this.characters, this.wordOffsets[firstWordId], this.wordOffsets[firstWordId + 1],
+            this.characters, this.wordOffsets[secondWordId], this.wordOffsets[secondWordId + 1]);
+    }
+
+    @Override
+    public void addCounters(int wordId, int frequency, int reviewsCount, double totalSentiment) {
+
+        validateWordId(wordId);
+
+        this.frequencies[wordId] += frequency;
+        this.reviewsCounts[wordId] += reviewsCount;
+        this.totalSentiments[wordId] += totalSentiment;
+    }
+
+    @Override
+    public int getFrequency(int wordId) {
+
+        validateWordId(wordId);
+
+        return this.frequencies[wordId];
+    }
+
+    @Override
+    public int getReviewsCount(int wordId) {
+
+        validateWordId(wordId);
+
+        return this.reviewsCounts[wordId];
+    }
+
+    @Override
+    public double getTotalSentiment(int wordId) {
+
+        validateWordId(wordId);
+
+        return this.totalSentiments[wordId];
+    }
+
+    private int addWord(String word) {
+
+        if (this.size == this.wordHashes.length) {
+
+            growWords();
+        }
+
+        if (this.charactersSize + word.length() > this.characters.length) {
+
+            this.characters = Arrays.copyOf(this.characters,
+                Math.max(2 * this.characters.length, this.charactersSize + word.length()));
+        }
+
+        word.getChars(0, word.length(), this.characters, this.charactersSize);
+        this.charactersSize += word.length();
+
+        int wordId = this.size++;
+        this.wordOffsets[wordId + 1] = this.charactersSize;
+        this.wordHashes[wordId] = hash(word);
+
+        insertIntoSlots(wordId);
+
+        return wordId;
+    }
+
+    private void growWords() {
+
+        int newCapacity = 2 * this.wordHashes.length;
+
+        this.wordOffsets = Arrays.copyOf(this.wordOffsets, newCapacity + 1);
+        this.wordHashes = Arrays.copyOf(this.wordHashes, newCapacity);
+        this.frequencies = Arrays.copyOf(this.frequencies, newCapacity);
+        this.reviewsCounts = Arrays.copyOf(this.reviewsCounts, newCapacity);
+        this.totalSentiments = Arrays.copyOf(this.totalSentiments, newCapacity);
+
+        this.slots = new int[SLOTS_PER_WORD * newCapacity];
+        Arrays.fill(this.slots, EMPTY_SLOT);
+
+        for (int wordId = 0; wordId < this.size; wordId++) {
+
+            insertIntoSlots(wordId);
+        }
+    }
+
+    private void insertIntoSlots(int wordId) {
+
+        int slot = getFirstSlot(this.wordHashes[wordId]);
+
+        while (this.slots[slot] != EMPTY_SLOT) {
+
+            slot = getNextSlot(slot);
+        }
+
+        this.slots[slot] = wordId;
+    }
+
+    private boolean isSameWord(int wordId, CharSequence word) {
+
+        int wordLength = getWordLength(wordId);
+
+        if (wordLength != word.length()) {
+
+            return false;
+        }
+
+        int offset = this.wordOffsets[wordId];
+
+        for (int i = 0; i < wordLength; i++) {
+
+            if (this.characters[offset + i] != word.charAt(i)) {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isSameWordIgnoringCase(int wordId, CharSequence text, int beginIndex, int endIndex) {
+
+        int wordLength = getWordLength(wordId);
+
+        if (wordLength != endIndex - beginIndex) {
+
+            return false;
+        }
+
+        int offset = this.wordOffsets[wordId];
+
+        for (int i = 0; i < wordLength; i++) {
+
+            if (this.characters[offset + i] != ReviewTokenizer.toLowerCase(text.charAt(beginIndex + i))) {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int getWordLength(int wordId) {
+
+        return this.wordOffsets[wordId + 1] - this.wordOffsets[wordId];
+    }
+
+    private int getFirstSlot(int hash) {
+
+        // The number of slots is a power of two.
+        return hash & (this.slots.length - 1);
+    }
+
+    private int getNextSlot(int slot) {
+
+        return (slot + 1) & (this.slots.length - 1);
+    }
+
+    private void validateWordId(int wordId) {
+
+        if (wordId < 0 || wordId >= this.size) {
+
+            throw new IllegalArgumentException("There is no word with id " + wordId);
+        }
+    }
+
+    private static int hash(CharSequence word) {
+
+        int hash = 0;
+
+        for (int i = 0; i < word.length(); i++) {
+
+            hash = 31 * hash + word.charAt(i);
+        }
+
+        return spread(hash);
+    }
+
+    private static int hashIgnoringCase(CharSequence text, int beginIndex, int endIndex) {
+
+        int hash = 0;
+
+        for (int i = beginIndex; i < endIndex; i++) {
+
+            hash = 31 * hash + ReviewTokenizer.toLowerCase(text.charAt(i));
+        }
+
+        return spread(hash);
+    }
+
+    private static int spread(int hash) {
+
+        // Spreads the higher bits, as only the lower ones select the slot.
+        return hash ^ (hash >>> 16);
+    }
+}
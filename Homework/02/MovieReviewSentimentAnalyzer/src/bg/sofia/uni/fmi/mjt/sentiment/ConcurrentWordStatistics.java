@@ -0,0 +1,190 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Word statistics which can be read while they are updated from other threads. The counters of a word are kept
+ * in an immutable object which every update replaces with compare-and-set, so reads never block and always see
+ * the counters of a word from the same moment. Counters are stored in chunks which never move when more words
+ * are added.
+ */
+public class ConcurrentWordStatistics implements WordStatistics {
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final int INITIAL_CHUNKS_CAPACITY = 16;
+
+    private final Map<String, Integer> wordIds;
+    private final Object addWordLock;
+    private volatile AtomicReferenceArray<WordCounters>[] chunks;
+    private volatile int size;
+
+    public ConcurrentWordStatistics() {
+
+        this.wordIds = new ConcurrentHashMap<>();
+        this.addWordLock = new Object();
+        this.chunks = createChunks(INITIAL_CHUNKS_CAPACITY);
+        this.size = 0;
+    }
+
+    @Override
+    public int size() {
+
+        return this.size;
+    }
+
+    @Override
+    public int getWordId(CharSequence word) {
+
+        return this.wordIds.getOrDefault(word.toString(), NOT_FOUND);
+    }
+
+    @Override
+    public int getOrAddWordId(String word) {
+
+        Integer wordId = this.wordIds.get(word);
+
+        if (wordId != null) {
+
+            return wordId;
+        }
+
+        synchronized (this.addWordLock) {
+
+            wordId = this.wordIds.get(word);
+
+            return wordId != null ? wordId : addWord(new WordCounters(word, 0, 0, 0));
+        }
+    }
+
+    @Override
+    public int addCounters(String word, int frequency, int reviewsCount, double totalSentiment) {
+
+        Integer wordId = this.wordIds.get(word);
+
+        if (wordId == null) {
+
+            synchronized (this.addWordLock) {
+
+                wordId = this.wordIds.get(word);
+
+                if (wordId == null) {
+
+                    // A word is published together with its first counters, so it is never found with zero reviews.
+                    return addWord(new WordCounters(word, frequency, reviewsCount, totalSentiment));
+                }
+            }
+        }
+
+        addCounters(wordId, frequency, reviewsCount, totalSentiment);
+
+        return wordId;
+    }
+
+    @Override
+    public String getWord(int wordId) {
+
+        return getWordCounters(wordId).word();
+    }
+
+    @Override
+    public void addCounters(int wordId, int frequency, int reviewsCount, double totalSentiment) {
+
+        AtomicReferenceArray<WordCounters> chunk = getChunk(wordId);
+        int index = wordId % CHUNK_SIZE;
+        WordCounters currentCounters;
+
+        do {
+
+            currentCounters = chunk.get(index);
+        } while (!chunk.compareAndSet(index, currentCounters, currentCounters.add(frequency, reviewsCount,
+            totalSentiment)));
+    }
+
+    @Override
+    public int getFrequency(int wordId) {
+
+        return getWordCounters(wordId).frequency();
+    }
+
+    @Override
+    public int getReviewsCount(int wordId) {
+
+        return getWordCounters(wordId).reviewsCount();
+    }
+
+    @Override
+    public double getTotalSentiment(int wordId) {
+
+        return getWordCounters(wordId).totalSentiment();
+    }
+
+    @Override
+    public double getSentimentScore(int wordId) {
+
+        WordCounters wordCounters = getWordCounters(wordId);
+
+        return wordCounters.totalSentiment() / wordCounters.reviewsCount();
+    }
+
+    // Called only while holding the lock for adding words
+    private int addWord(WordCounters wordCounters) {
+
+        int newWordId = this.size;
+        int chunkIndex = newWordId / CHUNK_SIZE;
+
+        if (chunkIndex == this.chunks.length) {
+
+            this.chunks = Arrays.copyOf(this.chunks, 2 * this.chunks.length);
+        }
+
+        if (this.chunks[chunkIndex] == null) {
+
+            this.chunks[chunkIndex] = new AtomicReferenceArray<>(CHUNK_SIZE);
+        }
+
+        // The counters are set before the id is published, so a word which is found always has counters.
+        this.chunks[chunkIndex].set(newWordId % CHUNK_SIZE, wordCounters);
+        this.size = newWordId + 1;
+        this.wordIds.put(wordCounters.word(), newWordId);
+
+        return newWordId;
+    }
+
+    private WordCounters getWordCounters(int wordId) {
+
+        return getChunk(wordId).get(wordId % CHUNK_SIZE);
+    }
+
+    private AtomicReferenceArray<WordCounters> getChunk(int wordId) {
+
+        validateWordId(wordId);
+
+        return this.chunks[wordId / CHUNK_SIZE];
+    }
+
+    private void validateWordId(int wordId) {
+
+        if (wordId < 0 || wordId >= this.size) {
+
+            throw new IllegalArgumentException("There is no word with id " + wordId);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static AtomicReferenceArray<WordCounters>[] createChunks(int chunksCount) {
+
+        return (AtomicReferenceArray<WordCounters>[]) new AtomicReferenceArray[chunksCount];
+    }
+
+    private record WordCounters(String word, int frequency, int reviewsCount, double totalSentiment) {
+
+        private WordCounters add(int otherFrequency, int otherReviewsCount, double otherTotalSentiment) {
+
+            return new WordCounters(this.word, this.frequency + otherFrequency,
+                this.reviewsCount + otherReviewsCount, this.totalSentiment + otherTotalSentiment);
+        }
+    }
+}
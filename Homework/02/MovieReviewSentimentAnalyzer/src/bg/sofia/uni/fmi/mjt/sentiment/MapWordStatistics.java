@@ -0,0 +1,77 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Word statistics keeping a {@link WordCharacteristics} object for every word
+ */
+public class MapWordStatistics implements WordStatistics {
+
+    private final Map<String, Integer> wordIds;
+    private final List<String> words;
+    private final List<WordCharacteristics> wordsCharacteristics;
+
+    public MapWordStatistics() {
+
+        this.wordIds = new HashMap<>();
+        this.words = new ArrayList<>();
+        this.wordsCharacteristics = new ArrayList<>();
+    }
+
+    @Override
+    public int size() {
+
+        return this.words.size();
+    }
+
+    @Override
+    public int getWordId(CharSequence word) {
+
+        return this.wordIds.getOrDefault(word.toString(), NOT_FOUND);
+    }
+
+    @Override
+    public int getOrAddWordId(String word) {
+
+        return this.wordIds.computeIfAbsent(word, newWord -> {
+
+            this.words.add(newWord);
+            this.wordsCharacteristics.add(new WordCharacteristics());
+
+            return this.words.size() - 1;
+        });
+    }
+
+    @Override
+    public String getWord(int wordId) {
+
+        return this.words.get(wordId);
+    }
+
+    @Override
+    public void addCounters(int wordId, int frequency, int reviewsCount, double totalSentiment) {
+
+        this.wordsCharacteristics.get(wordId).addCounters(frequency, reviewsCount, totalSentiment);
+    }
+
+    @Override
+    public int getFrequency(int wordId) {
+
+        return this.wordsCharacteristics.get(wordId).getWordFrequencyCounter();
+    }
+
+    @Override
+    public int getReviewsCount(int wordId) {
+
+        return this.wordsCharacteristics.get(wordId).getWordReviewsCounter();
+    }
+
+    @Override
+    public double getTotalSentiment(int wordId) {
+
+        return this.wordsCharacteristics.get(wordId).getWordTotalSentimentCounter();
+    }
+}
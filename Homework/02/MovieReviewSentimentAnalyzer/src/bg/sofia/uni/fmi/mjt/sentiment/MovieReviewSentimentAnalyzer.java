@@ -1,13 +1,15 @@
 package bg.sofia.uni.fmi.mjt.sentiment;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
-import java.util.Comparator;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
 
@@ -22,18 +24,43 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
     private final static int POSITIVE_RATE = 4;
     private final static String POSITIVE_ASSESSMENT = "positive";
     private final static String UNKNOWN_ASSESSMENT = "unknown";
-    private final static String NOT_WORD_REGEX = "[^a-zA-Z0-9']+";
+    private final static int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
 
     private final Reader stopwordsIn;
     private final Reader reviewsIn;
     private final Writer reviewsOut;
+    private final ForkJoinPool ingestionPool;
+    private final Supplier<? extends WordStatistics> wordStatisticsFactory;
+    private final Path snapshotPath;
+    private final int snapshotInterval;
+    private final ReviewLog reviewLog;
+    private final Object statisticsLock;
     private Reviewer reviewer;
+    private WordRankings wordRankings;
+    private long snapshotReviewsCount;
 
     public MovieReviewSentimentAnalyzer(Reader stopwordsIn, Reader reviewsIn, Writer reviewsOut) {
 
-        this.stopwordsIn = stopwordsIn;
-        this.reviewsIn = reviewsIn;
-        this.reviewsOut = reviewsOut;
+        this(builder(stopwordsIn, reviewsIn, reviewsOut));
+    }
+
+    public static MovieReviewSentimentAnalyzerBuilder builder(Reader stopwordsIn, Reader reviewsIn,
+                                                              Writer reviewsOut) {
+
+        return new MovieReviewSentimentAnalyzerBuilder(stopwordsIn, reviewsIn, reviewsOut);
+    }
+
+    private MovieReviewSentimentAnalyzer(MovieReviewSentimentAnalyzerBuilder builder) {
+
+        this.stopwordsIn = builder.stopwordsIn;
+        this.reviewsIn = builder.reviewsIn;
+        this.reviewsOut = builder.reviewsOut;
+        this.ingestionPool = builder.ingestionPool;
+        this.wordStatisticsFactory = builder.wordStatisticsFactory;
+        this.snapshotPath = builder.snapshotPath;
+        this.snapshotInterval = builder.snapshotInterval;
+        this.statisticsLock = new Object();
+        this.reviewLog = new ReviewLog(this.reviewsOut, this::updateReviewerAppendReviews);
         this.initializeReviewer();
     }
 
@@ -45,17 +72,24 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
     @Override
     public double getReviewSentiment(String review) {
 
+        WordStatistics wordStatistics = this.reviewer.getWordStatistics();
         double totalWordsSentiment = 0;
         int counterWords = 0;
 
-        for (String currentWord : review.split(NOT_WORD_REGEX)) {
+        int wordBeginIndex = ReviewTokenizer.findWordBegin(review, 0);
+
+        while (wordBeginIndex < review.length()) {
+
+            int wordEndIndex = ReviewTokenizer.findWordEnd(review, wordBeginIndex);
+            int wordId = wordStatistics.getWordId(review, wordBeginIndex, wordEndIndex);
 
-            if (this.getWordSentiment(currentWord) == -1) {
-                continue;
+            if (wordId != WordStatistics.NOT_FOUND) {
+
+                counterWords++;
+                totalWordsSentiment += wordStatistics.getSentimentScore(wordId);
             }
 
-            counterWords++;
-            totalWordsSentiment += this.getWordSentiment(currentWord);
+            wordBeginIndex = ReviewTokenizer.findWordBegin(review, wordEndIndex);
         }
 
         if (counterWords == 0) {
@@ -74,7 +108,32 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
     @Override
     public String getReviewSentimentAsName(String review) {
 
-        int reviewSentimentScoreRounded = (int) Math.round(this.getReviewSentiment(review));
+        return getSentimentName(this.getReviewSentiment(review));
+    }
+
+    /**
+     * Scores every line of {@code reviewsIn} as a review, writing a line with the score and the sentiment name
+     * of each review in the same order. Chunks of the reviews are scored on the ingestion pool if one is set.
+     * Neither stream is closed.
+     *
+     * @return the number of scored reviews
+     */
+    public long scoreReviews(Reader reviewsIn, Writer scoresOut) {
+
+        return new ReviewScorer(this, this.ingestionPool).scoreReviews(reviewsIn, scoresOut);
+    }
+
+    /**
+     * The same as {@link #scoreReviews(Reader, Writer)} with the reviews given as a stream
+     */
+    public long scoreReviews(Stream<String> reviews, Writer scoresOut) {
+
+        return new ReviewScorer(this, this.ingestionPool).scoreReviews(reviews, scoresOut);
+    }
+
+    static String getSentimentName(double reviewSentiment) {
+
+        int reviewSentimentScoreRounded = (int) Math.round(reviewSentiment);
 
         return switch (reviewSentimentScoreRounded) {
 
@@ -95,12 +154,14 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
     @Override
     public double getWordSentiment(String word) {
 
-        if (!this.reviewer.getFrequencySentimentMap().containsKey(word.toLowerCase())) {
+        int wordId = this.reviewer.getWordStatistics().getWordId(word.toLowerCase());
+
+        if (wordId == WordStatistics.NOT_FOUND) {
 
             return -1;
         }
 
-        return this.reviewer.getFrequencySentimentMap().get(word.toLowerCase()).getWordSentimentScore();
+        return this.reviewer.getWordStatistics().getSentimentScore(wordId);
     }
 
     /**
@@ -111,16 +172,19 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
     @Override
     public int getWordFrequency(String word) {
 
-        if (!this.reviewer.getFrequencySentimentMap().containsKey(word.toLowerCase())) {
+        int wordId = this.reviewer.getWordStatistics().getWordId(word.toLowerCase());
+
+        if (wordId == WordStatistics.NOT_FOUND) {
 
             return 0;
         }
 
-        return this.reviewer.getFrequencySentimentMap().get(word.toLowerCase()).getWordFrequencyCounter();
+        return this.reviewer.getWordStatistics().getFrequency(wordId);
     }
 
     /**
-     * Returns a list of the n most frequent words found in the reviews, sorted by frequency in decreasing order.
+     * Returns a list of the n most frequent words found in the reviews, sorted by frequency in decreasing order
+     * and then alphabetically.
      * Stopwords are ignored and should not be included in the result.
      *
      * @param n
@@ -131,16 +195,15 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
 
         validateDesiredNumber(n);
 
-        return this.reviewer.getFrequencySentimentMap().entrySet().stream()
-            .sorted((firstEntry, secondEntry) -> Integer.compare(secondEntry.getValue().getWordFrequencyCounter(),
-                firstEntry.getValue().getWordFrequencyCounter()))
-            .limit(n)
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toList());
+        synchronized (this.statisticsLock) {
+
+            return getWordRankings().getMostFrequentWords(n);
+        }
     }
 
     /**
      * Returns a list of the n most positive words in the reviews, sorted by sentiment score in decreasing order
+     * and then alphabetically
      *
      * @param n
      * @throws {@link IllegalArgumentException}, if n is negative
@@ -150,16 +213,15 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
 
         validateDesiredNumber(n);
 
-        return this.reviewer.getFrequencySentimentMap().entrySet().stream()
-            .sorted((firstEntry, secondEntry) -> Double.compare(secondEntry.getValue().getWordSentimentScore(),
-                firstEntry.getValue().getWordSentimentScore()))
-            .limit(n)
-            .map(Map.Entry::getKey)
-            .toList();
+        synchronized (this.statisticsLock) {
+
+            return getWordRankings().getMostPositiveWords(n);
+        }
     }
 
     /**
      * Returns a list of the n most negative words in the reviews, sorted by sentiment score in ascending order
+     * and then alphabetically
      *
      * @param n
      * @throws {@link IllegalArgumentException}, if n is negative
@@ -169,11 +231,10 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
 
         validateDesiredNumber(n);
 
-        return this.reviewer.getFrequencySentimentMap().entrySet().stream()
-            .sorted(Comparator.comparingDouble(currentEntry -> currentEntry.getValue().getWordSentimentScore()))
-            .limit(n)
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toList());
+        synchronized (this.statisticsLock) {
+
+            return getWordRankings().getMostNegativeWords(n);
+        }
     }
 
     /**
@@ -183,7 +244,7 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
      * @param review    The text part of the review
      * @param sentiment the given rating
      * @return true if the operation was successful and false if an issue has occurred and the review is not stored
-     * @throws {@link IllegalArgumentException}, if review is null, empty or blank,
+     * @throws {@link IllegalArgumentException}, if review is null, empty or blank, if it contains a line break,
      *                or if the sentiment is not in the [0.0, 4.0] range
      */
     @Override
@@ -191,20 +252,39 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
 
         validateSentimentInRange(sentiment);
         validateReviewIsNullEmptyOrBlank(review);
+        validateReviewIsSingleLine(review);
 
-        String entryToAdd = sentiment + " " + review;
+        // Reviews appended at the same time are written with a single flush and counted in the order written.
+        return this.reviewLog.append(sentiment + " " + review);
+    }
 
-        try (var bufferedWriter = new BufferedWriter(this.reviewsOut)) {
+    /**
+     * Writes the word statistics to the snapshot file, so that the next analyzer created with it reads only the
+     * reviews appended after the snapshot. A snapshot is also written automatically when an append makes
+     * {@code snapshotInterval} lines of the reviews counted since the last one.
+     *
+     * @throws IllegalStateException if no snapshot file is set
+     * @throws RuntimeException      if the snapshot cannot be written
+     */
+    public void writeSnapshot() {
 
-            bufferedWriter.write(entryToAdd + System.lineSeparator());
-            bufferedWriter.flush();
-            this.updateReviewerAppendReview(entryToAdd);
-        } catch (IOException e) {
+        validateSnapshotPathIsSet();
 
-            return false;
-        }
+        synchronized (this.statisticsLock) {
+
+            WordStatisticsSnapshot snapshot = new WordStatisticsSnapshot(this.reviewer.getWordStatistics(),
+                this.reviewer.getReviewsCount(), this.reviewer.getStopWordsSet().hashCode());
+
+            try {
+
+                snapshot.writeTo(this.snapshotPath);
+            } catch (IOException e) {
+
+                throw new RuntimeException("There is a problem in writing the snapshot", e);
+            }
 
-        return true;
+            this.snapshotReviewsCount = snapshot.reviewsCount();
+        }
     }
 
     /**
@@ -213,7 +293,7 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
     @Override
     public int getSentimentDictionarySize() {
 
-        return this.reviewer.getFrequencySentimentMap().size();
+        return this.reviewer.getWordStatistics().size();
     }
 
     /**
@@ -244,7 +324,28 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
 
     private void initializeReviewer() {
 
-        this.reviewer = new Reviewer(this.stopwordsIn, this.reviewsIn, this.reviewsOut);
+        WordStatisticsSnapshot initialSnapshot = readSnapshot();
+
+        this.reviewer = new Reviewer(this.stopwordsIn, this.reviewsIn, this.reviewsOut, this.ingestionPool,
+            this.wordStatisticsFactory, initialSnapshot);
+        this.snapshotReviewsCount = initialSnapshot == null ? 0 : initialSnapshot.reviewsCount();
+    }
+
+    private WordStatisticsSnapshot readSnapshot() {
+
+        if (this.snapshotPath == null || !Files.exists(this.snapshotPath)) {
+
+            return null;
+        }
+
+        try {
+
+            return WordStatisticsSnapshot.readFrom(this.snapshotPath, this.wordStatisticsFactory);
+        } catch (IOException e) {
+
+            // A damaged snapshot is not needed, as all reviews are read again without it.
+            return null;
+        }
     }
 
     private void validateDesiredNumber(int n) {
@@ -268,19 +369,159 @@ public class MovieReviewSentimentAnalyzer implements SentimentAnalyzer {
         }
     }
 
+    // Every review is a line of the data set, which the snapshot relies on to count the reviews it contains
+    private void validateReviewIsSingleLine(String review) {
+
+        if (review.indexOf('\n') >= 0 || review.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Given review contains a line break");
+        }
+    }
+
+    private void validateSnapshotPathIsSet() {
+
+        if (this.snapshotPath == null) {
+            throw new IllegalStateException("There is no snapshot file set");
+        }
+    }
+
+    private void updateReviewerAppendReviews(List<String> currentReviews) {
+
+        synchronized (this.statisticsLock) {
+
+            for (String currentReview : currentReviews) {
+
+                updateReviewerAppendReview(currentReview);
+            }
+        }
+
+        if (this.snapshotPath != null &&
+            this.reviewer.getReviewsCount() - this.snapshotReviewsCount >= this.snapshotInterval) {
+
+            try {
+
+                writeSnapshot();
+            } catch (RuntimeException e) {
+
+                // The reviews are already written, so a failed snapshot only makes the next startup read more of them.
+            }
+        }
+    }
+
     private void updateReviewerAppendReview(String currentReview) {
 
-        this.reviewer.readWordsAddingFrequency(currentReview);
+        Set<Integer> changedWordIds = this.reviewer.readWordsAddingFrequency(currentReview);
 
-        for (String currentWord : currentReview.split(NOT_WORD_REGEX)) {
+        if (this.wordRankings != null) {
 
-            WordCharacteristics currentWordCharacteristics = this.reviewer.getFrequencySentimentMap()
-                .get(currentWord.toLowerCase());
+            for (int currentWordId : changedWordIds) {
 
-            if (currentWordCharacteristics != null) {
+                this.wordRankings.update(currentWordId);
+            }
+        }
+    }
 
-                currentWordCharacteristics.calculateSentimentScore();
+    private WordRankings getWordRankings() {
+
+        // The rankings are built on the first request and kept up to date by appendReview afterwards.
+        if (this.wordRankings == null) {
+
+            this.wordRankings = new WordRankings(this.reviewer.getWordStatistics());
+        }
+
+        return this.wordRankings;
+    }
+
+    //Builder Class
+    public static class MovieReviewSentimentAnalyzerBuilder {
+
+        //Required parameters
+        private final Reader stopwordsIn;
+        private final Reader reviewsIn;
+        private final Writer reviewsOut;
+
+        //Optional parameters
+        private ForkJoinPool ingestionPool;
+        private Supplier<? extends WordStatistics> wordStatisticsFactory;
+        private Path snapshotPath;
+        private int snapshotInterval;
+
+        private MovieReviewSentimentAnalyzerBuilder(Reader stopwordsIn, Reader reviewsIn, Writer reviewsOut) {
+
+            this.stopwordsIn = stopwordsIn;
+            this.reviewsIn = reviewsIn;
+            this.reviewsOut = reviewsOut;
+            this.wordStatisticsFactory = MapWordStatistics::new;
+            this.snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+        }
+
+        /**
+         * Makes the analyzer split the initial reviews into words in parallel and score reviews in bulk in
+         * parallel. The result is the same as when the reviews are processed sequentially.
+         *
+         * @param ingestionPool pool on which chunks of the reviews are processed, or null to read them sequentially
+         */
+        public MovieReviewSentimentAnalyzerBuilder setIngestionPool(ForkJoinPool ingestionPool) {
+
+            this.ingestionPool = ingestionPool;
+            return this;
+        }
+
+        /**
+         * Reviews may be appended while other threads query the analyzer only with statistics which can be read
+         * during updates, i.e. {@code ConcurrentWordStatistics::new}. Queries of the most frequent, positive and
+         * negative words wait for the appends being counted.
+         *
+         * @param wordStatisticsFactory creates the empty statistics the words are counted in,
+         *                              e.g. {@code CompactWordStatistics::new} for large vocabularies
+         */
+        public MovieReviewSentimentAnalyzerBuilder setWordStatisticsFactory(
+            Supplier<? extends WordStatistics> wordStatisticsFactory) {
+
+            this.wordStatisticsFactory = wordStatisticsFactory;
+            return this;
+        }
+
+        /**
+         * Makes the analyzer start from the word statistics in the snapshot file, if there is one, and read only
+         * the reviews after the ones counted in it. {@code reviewsIn} and {@code reviewsOut} are expected to read
+         * and append to the same file the snapshot was taken of.
+         *
+         * @param snapshotPath file the snapshots of the word statistics are read from and written to
+         */
+        public MovieReviewSentimentAnalyzerBuilder setSnapshotPath(Path snapshotPath) {
+
+            this.snapshotPath = snapshotPath;
+            return this;
+        }
+
+        /**
+         * @param snapshotInterval number of lines of the reviews not in a snapshot after which a new one is written,
+         *                         if a snapshot file is set
+         */
+        public MovieReviewSentimentAnalyzerBuilder setSnapshotInterval(int snapshotInterval) {
+
+            this.snapshotInterval = snapshotInterval;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the word statistics factory is null or the snapshot interval
+         *                                  is not positive
+         */
+        public MovieReviewSentimentAnalyzer build() {
+
+            if (this.wordStatisticsFactory == null) {
+
+                throw new IllegalArgumentException("wordStatisticsFactory is null");
+            }
+
+            if (this.snapshotInterval <= 0) {
+
+                throw new IllegalArgumentException("snapshotInterval is not positive");
             }
+
+            return new MovieReviewSentimentAnalyzer(this);
         }
+
     }
 }
@@ -0,0 +1,142 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Appends entries to a writer with group commits. While one thread writes and flushes a batch of entries, the
+ * entries appended by other threads are collected into the next batch, which is written with a single flush.
+ * The writer is never closed.
+ * <p>
+ * A failed write may leave a part of its batch buffered in the writer, where it would be flushed together with the
+ * next batch, so after a failure the log is failed and no more entries are written to it.
+ */
+public class ReviewLog {
+
+    private final Writer reviewsOut;
+    private final Consumer<List<String>> committedEntriesConsumer;
+    private Batch pendingBatch;
+    private boolean committing;
+    private boolean failed;
+
+    /**
+     * @param committedEntriesConsumer called with every successfully written batch, in the order of the batches
+     *                                 and by one thread at a time
+     */
+    public ReviewLog(Writer reviewsOut, Consumer<List<String>> committedEntriesConsumer) {
+
+        this.reviewsOut = reviewsOut;
+        this.committedEntriesConsumer = committedEntriesConsumer;
+        this.pendingBatch = new Batch();
+        this.committing = false;
+        this.failed = false;
+    }
+
+    /**
+     * Appends the entry as a line and waits until the batch containing it is flushed
+     *
+     * @return true if the batch containing the entry was written and flushed, false if it failed or an earlier
+     * batch has failed
+     */
+    public boolean append(String entry) {
+
+        Batch batch;
+        boolean committingBatch = false;
+        boolean interrupted = false;
+
+        synchronized (this) {
+
+            if (this.failed) {
+
+                return false;
+            }
+
+            batch = this.pendingBatch;
+            batch.entries.add(entry);
+
+            while (this.committing && !batch.completed) {
+
+                try {
+
+                    wait();
+                } catch (InterruptedException e) {
+
+                    // The entry is already in a batch, so it is waited for anyway.
+                    interrupted = true;
+                }
+            }
+
+            if (!batch.completed && this.failed) {
+
+                // The batch written before this one has failed, so this one is not written at all.
+                batch.completed = true;
+                this.pendingBatch = new Batch();
+                notifyAll();
+            } else if (!batch.completed) {
+
+                // No batch is being written, so this thread writes the pending one.
+                this.committing = true;
+                this.pendingBatch = new Batch();
+                committingBatch = true;
+            }
+        }
+
+        if (interrupted) {
+
+            Thread.currentThread().interrupt();
+        }
+
+        if (committingBatch) {
+
+            return commit(batch);
+        }
+
+        synchronized (this) {
+
+            return batch.successful;
+        }
+    }
+
+    private boolean commit(Batch batch) {
+
+        boolean successful = false;
+
+        try {
+
+            for (String currentEntry : batch.entries) {
+
+                this.reviewsOut.write(currentEntry);
+                this.reviewsOut.write(System.lineSeparator());
+            }
+
+            this.reviewsOut.flush();
+            this.committedEntriesConsumer.accept(batch.entries);
+            successful = true;
+        } catch (IOException e) {
+
+            successful = false;
+        } finally {
+
+            synchronized (this) {
+
+                batch.successful = successful;
+                batch.completed = true;
+                this.failed = !successful;
+                this.committing = false;
+                notifyAll();
+            }
+        }
+
+        return successful;
+    }
+
+    private static class Batch {
+
+        private final List<String> entries = new ArrayList<>();
+        private boolean completed;
+        private boolean successful;
+    }
+}
@@ -0,0 +1,143 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Scores many reviews in one pass. For every review a line with its sentiment score and its sentiment name,
+ * separated by a tab, is written in the order of the reviews.
+ * Reviews are read and written in chunks, so only a bounded number of them is held in memory.
+ */
+public class ReviewScorer {
+
+    private final static int REVIEWS_PER_CHUNK = 1_000;
+    private final static int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+    private final static char SEPARATOR = '\t';
+
+    private final SentimentAnalyzer sentimentAnalyzer;
+    private final ForkJoinPool scoringPool;
+
+    /**
+     * @param scoringPool pool on which chunks of the reviews are scored in parallel,
+     *                    or null to score them on the calling thread
+     */
+    public ReviewScorer(SentimentAnalyzer sentimentAnalyzer, ForkJoinPool scoringPool) {
+
+        this.sentimentAnalyzer = sentimentAnalyzer;
+        this.scoringPool = scoringPool;
+    }
+
+    /**
+     * Scores every line of {@code reviewsIn} as a review. Neither stream is closed.
+     *
+     * @return the number of scored reviews
+     */
+    public long scoreReviews(Reader reviewsIn, Writer scoresOut) {
+
+        BufferedReader bufferedReader = new BufferedReader(reviewsIn);
+
+        try {
+
+            return scoreReviews(bufferedReader.lines(), scoresOut);
+        } catch (UncheckedIOException e) {
+
+            throw new RuntimeException("There is a problem in reading from reviewsIn reader", e);
+        }
+    }
+
+    /**
+     * Scores every element of {@code reviews}. The writer is flushed but not closed.
+     *
+     * @return the number of scored reviews
+     */
+    public long scoreReviews(Stream<String> reviews, Writer scoresOut) {
+
+        // Chunks are written in the order they were read. The number of chunks waiting to be written is bounded.
+        int maxChunksInFlight = this.scoringPool == null ? 0 : CHUNKS_IN_FLIGHT_PER_THREAD *
+            this.scoringPool.getParallelism();
+        Deque<ForkJoinTask<String>> chunksInFlight = new ArrayDeque<>();
+        long reviewsCount = 0;
+
+        try {
+
+            Iterator<String> reviewsIterator = reviews.iterator();
+            List<String> currentChunk = new ArrayList<>(REVIEWS_PER_CHUNK);
+
+            while (reviewsIterator.hasNext()) {
+
+                currentChunk.add(reviewsIterator.next());
+                reviewsCount++;
+
+                if (currentChunk.size() == REVIEWS_PER_CHUNK) {
+
+                    submitChunk(currentChunk, chunksInFlight, maxChunksInFlight, scoresOut);
+                    currentChunk = new ArrayList<>(REVIEWS_PER_CHUNK);
+                }
+            }
+
+            if (!currentChunk.isEmpty()) {
+
+                submitChunk(currentChunk, chunksInFlight, maxChunksInFlight, scoresOut);
+            }
+
+            while (!chunksInFlight.isEmpty()) {
+
+                scoresOut.write(chunksInFlight.poll().join());
+            }
+
+            scoresOut.flush();
+        } catch (IOException e) {
+
+            throw new RuntimeException("There is a problem in writing to scoresOut writer", e);
+        } finally {
+
+            chunksInFlight.forEach(currentChunk -> currentChunk.cancel(false));
+        }
+
+        return reviewsCount;
+    }
+
+    private void submitChunk(List<String> chunk, Deque<ForkJoinTask<String>> chunksInFlight, int maxChunksInFlight,
+                             Writer scoresOut) throws IOException {
+
+        if (this.scoringPool == null) {
+
+            scoresOut.write(scoreChunk(chunk));
+            return;
+        }
+
+        if (chunksInFlight.size() == maxChunksInFlight) {
+
+            scoresOut.write(chunksInFlight.poll().join());
+        }
+
+        chunksInFlight.add(this.scoringPool.submit(() -> scoreChunk(chunk)));
+    }
+
+    private String scoreChunk(List<String> chunk) {
+
+        StringBuilder scores = new StringBuilder();
+
+        for (String currentReview : chunk) {
+
+            double currentScore = this.sentimentAnalyzer.getReviewSentiment(currentReview);
+
+            scores.append(currentScore).append(SEPARATOR)
+                .append(MovieReviewSentimentAnalyzer.getSentimentName(currentScore))
+                .append(System.lineSeparator());
+        }
+
+        return scores.toString();
+    }
+}
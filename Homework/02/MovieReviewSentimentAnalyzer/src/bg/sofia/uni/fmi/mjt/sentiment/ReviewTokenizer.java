@@ -0,0 +1,81 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import java.util.function.Consumer;
+
+/**
+ * Splits a review into the maximal runs of latin letters, digits and apostrophes, the same words as splitting by
+ * {@code [^a-zA-Z0-9']+} gives, without a regular expression. Words are passed on in lower case.
+ */
+public class ReviewTokenizer {
+
+    private ReviewTokenizer() {
+
+    }
+
+    public static void forEachWord(String text, int beginIndex, Consumer<String> wordConsumer) {
+
+        int wordBeginIndex = findWordBegin(text, beginIndex);
+
+        while (wordBeginIndex < text.length()) {
+
+            int wordEndIndex = findWordEnd(text, wordBeginIndex);
+
+            wordConsumer.accept(toLowerCase(text, wordBeginIndex, wordEndIndex));
+            wordBeginIndex = findWordBegin(text, wordEndIndex);
+        }
+    }
+
+    /**
+     * @return the index of the first character of the next word starting at or after {@code fromIndex},
+     * or the length of the text if there are no more words
+     */
+    public static int findWordBegin(CharSequence text, int fromIndex) {
+
+        int index = fromIndex;
+
+        while (index < text.length() && !isWordCharacter(text.charAt(index))) {
+
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * @return the index after the last character of the word starting at {@code wordBeginIndex}
+     */
+    public static int findWordEnd(CharSequence text, int wordBeginIndex) {
+
+        int index = wordBeginIndex;
+
+        while (index < text.length() && isWordCharacter(text.charAt(index))) {
+
+            index++;
+        }
+
+        return index;
+    }
+
+    public static String toLowerCase(CharSequence text, int beginIndex, int endIndex) {
+
+        char[] word = new char[endIndex - beginIndex];
+
+        for (int i = 0; i < word.length; i++) {
+
+            word[i] = toLowerCase(text.charAt(beginIndex + i));
+        }
+
+        return new String(word);
+    }
+
+    public static boolean isWordCharacter(char character) {
+
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') ||
+            (character >= '0' && character <= '9') || character == '\'';
+    }
+
+    public static char toLowerCase(char character) {
+
+        return character >= 'A' && character <= 'Z' ? (char) (character + ('a' - 'A')) : character;
+    }
+}
@@ -4,32 +4,79 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 
 public class Reviewer {
 
     private final static int BEGIN_INDEX_AFTER_SENTIMENT = 2;
-    private final static String NOT_WORD_REGEX = "[^a-zA-Z0-9']+";
-    private final static String LETTERS_DIGITS_APOSTROPHE_REGEX = "[a-zA-Z0-9']+";
+    private final static int MIN_WORD_LENGTH = 2;
+    private final static int LINES_PER_CHUNK = 10_000;
+    private final static int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
 
     private final Reader stopwordsIn;
     private final Reader reviewsIn;
     private final Writer reviewsOut;
-    private final Map<String, WordCharacteristics> frequencySentimentMap;
+    private final ForkJoinPool ingestionPool;
+    private final Supplier<? extends WordStatistics> wordStatisticsFactory;
+    private final WordStatistics wordStatistics;
+    private final long snapshotReviewsCount;
     private Set<String> stopWordsSet;
+    private long reviewsCount;
 
     public Reviewer(Reader stopwordsIn, Reader reviewsIn, Writer reviewsOut) {
 
+        this(stopwordsIn, reviewsIn, reviewsOut, null, MapWordStatistics::new);
+    }
+
+    /**
+     * @param ingestionPool         pool on which chunks of the reviews are split into words in parallel,
+     *                              or null to read the reviews on the calling thread
+     * @param wordStatisticsFactory creates the empty statistics the words are counted in
+     */
+    public Reviewer(Reader stopwordsIn, Reader reviewsIn, Writer reviewsOut, ForkJoinPool ingestionPool,
+                    Supplier<? extends WordStatistics> wordStatisticsFactory) {
+
+        this(stopwordsIn, reviewsIn, reviewsOut, ingestionPool, wordStatisticsFactory, null);
+    }
+
+    /**
+     * @param initialSnapshot statistics of the first lines of the reviews, which are then skipped instead of read,
+     *                        or null to read all reviews. The snapshot is ignored if it was counted with
+     *                        other stopwords.
+     */
+    public Reviewer(Reader stopwordsIn, Reader reviewsIn, Writer reviewsOut, ForkJoinPool ingestionPool,
+                    Supplier<? extends WordStatistics> wordStatisticsFactory, WordStatisticsSnapshot initialSnapshot) {
+
         this.stopwordsIn = stopwordsIn;
         this.reviewsIn = reviewsIn;
         this.reviewsOut = reviewsOut;
-        this.frequencySentimentMap = new HashMap<>();
+        this.ingestionPool = ingestionPool;
+        this.wordStatisticsFactory = wordStatisticsFactory;
         this.stopWordsSet = new HashSet<>();
 
-        updateReviewer();
+        readStopWords();
+
+        if (initialSnapshot != null && initialSnapshot.stopWordsHash() == this.stopWordsSet.hashCode()) {
+
+            this.wordStatistics = initialSnapshot.wordStatistics();
+            this.snapshotReviewsCount = initialSnapshot.reviewsCount();
+        } else {
+
+            this.wordStatistics = wordStatisticsFactory.get();
+            this.snapshotReviewsCount = 0;
+        }
+
+        this.reviewsCount = 0;
+
+        calculateWordsSentiment();
     }
 
     public Set<String> getStopWordsSet() {
@@ -37,38 +84,58 @@ public class Reviewer {
         return this.stopWordsSet;
     }
 
-    public Map<String, WordCharacteristics> getFrequencySentimentMap() {
+    public WordStatistics getWordStatistics() {
 
-        return this.frequencySentimentMap;
+        return this.wordStatistics;
     }
 
-    public void readWordsAddingFrequency(String currentLine) {
+    /**
+     * @return the number of lines of the reviews the statistics are counted from, including the appended ones
+     */
+    public long getReviewsCount() {
 
-        int currentRating = Integer.parseInt(currentLine.substring(0, 1));
+        return this.reviewsCount;
+    }
+
+    /**
+     * Counts the words of a review appended as the next line of the reviews
+     *
+     * @return the ids of the words of the review whose counters have changed
+     */
+    public Set<Integer> readWordsAddingFrequency(String currentLine) {
+
+        this.reviewsCount++;
+
+        return readWordsAddingFrequency(currentLine, this.wordStatistics);
+    }
 
-        currentLine = currentLine.substring(BEGIN_INDEX_AFTER_SENTIMENT);
-        String[] currentWords = currentLine.split(NOT_WORD_REGEX);
-        Set<String> currentLineWordsSet = new HashSet<>();
+    private Set<Integer> readWordsAddingFrequency(String currentLine, WordStatistics wordsStatistics) {
 
-        for (String currentWord : currentWords) {
+        int currentRating = Integer.parseInt(currentLine.substring(0, 1));
+        Set<Integer> currentLineWordIds = new HashSet<>();
 
-            currentWord = currentWord.toLowerCase();
+        ReviewTokenizer.forEachWord(currentLine, BEGIN_INDEX_AFTER_SENTIMENT, currentWord -> {
 
             if (isForSkipping(currentWord)) {
-                continue;
+                return;
             }
 
-            increaseFrequency(currentWord);
-            increaseWordReviewAndSentimentIfFirstOccurrence(currentWord, currentLineWordsSet, currentRating);
+            int currentWordId = wordsStatistics.getWordId(currentWord);
 
-            currentLineWordsSet.add(currentWord);
-        }
-    }
+            // The rating of a review counts once for every word in it, however many times the word occurs.
+            if (currentWordId == WordStatistics.NOT_FOUND) {
 
-    private void updateReviewer() {
+                currentLineWordIds.add(wordsStatistics.addCounters(currentWord, 1, 1, currentRating));
+            } else if (currentLineWordIds.add(currentWordId)) {
 
-        readStopWords();
-        calculateWordsSentiment();
+                wordsStatistics.addCounters(currentWordId, 1, 1, currentRating);
+            } else {
+
+                wordsStatistics.addCounters(currentWordId, 1, 0, 0);
+            }
+        });
+
+        return currentLineWordIds;
     }
 
     private void readStopWords() {
@@ -84,59 +151,101 @@ public class Reviewer {
 
     private void calculateWordsSentiment() {
 
+        if (this.ingestionPool != null) {
+
+            calculateWordsSentimentInParallel();
+            return;
+        }
+
         try (BufferedReader bufferedReader = new BufferedReader(reviewsIn)) {
 
             String currentLine;
             while ((currentLine = bufferedReader.readLine()) != null) {
 
-                if (currentLine.isEmpty() || currentLine.isBlank()) {
+                if (isForSkippingLine(currentLine)) {
                     continue;
                 }
 
-                readWordsAddingFrequency(currentLine);
+                readWordsAddingFrequency(currentLine, this.wordStatistics);
             }
         } catch (IOException e) {
 
             throw new RuntimeException("There is a problem in reading from reviewsIn reader", e);
         }
-
-        calculateSentimentScore();
     }
 
-    private void calculateSentimentScore() {
+    private void calculateWordsSentimentInParallel() {
+
+        // Chunks are merged in the order they were read, so the words get the same ids as when the reviews
+        // are read sequentially. The number of chunks waiting to be merged is bounded.
+        int maxChunksInFlight = CHUNKS_IN_FLIGHT_PER_THREAD * this.ingestionPool.getParallelism();
+        Deque<ForkJoinTask<WordStatistics>> chunksInFlight = new ArrayDeque<>();
+
+        try (BufferedReader bufferedReader = new BufferedReader(reviewsIn)) {
+
+            List<String> currentChunk = new ArrayList<>(LINES_PER_CHUNK);
+            String currentLine;
+            while ((currentLine = bufferedReader.readLine()) != null) {
+
+                if (isForSkippingLine(currentLine)) {
+                    continue;
+                }
+
+                currentChunk.add(currentLine);
+
+                if (currentChunk.size() == LINES_PER_CHUNK) {
+
+                    submitChunk(currentChunk, chunksInFlight, maxChunksInFlight);
+                    currentChunk = new ArrayList<>(LINES_PER_CHUNK);
+                }
+            }
+
+            if (!currentChunk.isEmpty()) {
 
-        for (Map.Entry<String, WordCharacteristics> currentFrequencySentimentMap :
-            this.frequencySentimentMap.entrySet()) {
+                submitChunk(currentChunk, chunksInFlight, maxChunksInFlight);
+            }
+        } catch (IOException e) {
+
+            throw new RuntimeException("There is a problem in reading from reviewsIn reader", e);
+        }
+
+        while (!chunksInFlight.isEmpty()) {
 
-            currentFrequencySentimentMap.getValue().calculateSentimentScore();
+            this.wordStatistics.merge(chunksInFlight.poll().join());
         }
     }
 
-    private boolean isForSkipping(String word) {
+    private void submitChunk(List<String> chunk, Deque<ForkJoinTask<WordStatistics>> chunksInFlight,
+                             int maxChunksInFlight) {
+
+        if (chunksInFlight.size() == maxChunksInFlight) {
 
-        return (word.length() < 2 || !word.matches(LETTERS_DIGITS_APOSTROPHE_REGEX) ||
-            this.stopWordsSet.contains(word));
+            this.wordStatistics.merge(chunksInFlight.poll().join());
+        }
+
+        chunksInFlight.add(this.ingestionPool.submit(() -> readChunkWords(chunk)));
     }
 
-    private void increaseFrequency(String word) {
+    private WordStatistics readChunkWords(List<String> chunk) {
 
-        if (!this.frequencySentimentMap.containsKey(word)) {
+        WordStatistics chunkWordsStatistics = this.wordStatisticsFactory.get();
 
-            //In newly created WordCharacteristics wordFrequencyCounter is 1
-            this.frequencySentimentMap.put(word, new WordCharacteristics());
-        } else {
+        for (String currentLine : chunk) {
 
-            this.frequencySentimentMap.get(word).increaseFrequencyCounter();
+            readWordsAddingFrequency(currentLine, chunkWordsStatistics);
         }
+
+        return chunkWordsStatistics;
     }
 
-    private void increaseWordReviewAndSentimentIfFirstOccurrence(String word, Set<String> currentLineWordsSet,
-                                                                 int currentRating) {
+    private boolean isForSkippingLine(String line) {
 
-        if (!currentLineWordsSet.contains(word)) {
+        // Blank lines are counted too, so the count matches the lines of the file the snapshot is taken of.
+        return ++this.reviewsCount <= this.snapshotReviewsCount || line.isEmpty() || line.isBlank();
+    }
 
-            this.frequencySentimentMap.get(word).increaseWordReviewsCounter();
-            this.frequencySentimentMap.get(word).increaseWordTotalSentimentCounter(currentRating);
-        }
+    private boolean isForSkipping(String word) {
+
+        return (word.length() < MIN_WORD_LENGTH || this.stopWordsSet.contains(word));
     }
 }
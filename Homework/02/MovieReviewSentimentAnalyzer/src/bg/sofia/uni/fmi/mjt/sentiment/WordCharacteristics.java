@@ -3,35 +3,21 @@ package bg.sofia.uni.fmi.mjt.sentiment;
 public class WordCharacteristics {
 
     private int wordFrequencyCounter;
-    private double wordSentimentScore;
     private int wordReviewsCounter;
     private double wordTotalSentimentCounter;
 
     public WordCharacteristics() {
 
-        this.wordFrequencyCounter = 1;
-        this.wordSentimentScore = 0;
+        this.wordFrequencyCounter = 0;
         this.wordReviewsCounter = 0;
+        this.wordTotalSentimentCounter = 0;
     }
 
-    public void increaseFrequencyCounter() {
+    public void addCounters(int frequency, int reviewsCount, double totalSentiment) {
 
-        this.wordFrequencyCounter++;
-    }
-
-    public void increaseWordReviewsCounter() {
-
-        this.wordReviewsCounter++;
-    }
-
-    public void increaseWordTotalSentimentCounter(double toAdd) {
-
-        this.wordTotalSentimentCounter += toAdd;
-    }
-
-    public void calculateSentimentScore() {
-
-        this.wordSentimentScore = getWordTotalSentimentCounter() / getWordReviewsCounter();
+        this.wordFrequencyCounter += frequency;
+        this.wordReviewsCounter += reviewsCount;
+        this.wordTotalSentimentCounter += totalSentiment;
     }
 
     public int getWordFrequencyCounter() {
@@ -41,7 +27,7 @@ public class WordCharacteristics {
 
     public double getWordSentimentScore() {
 
-        return this.wordSentimentScore;
+        return this.wordTotalSentimentCounter / this.wordReviewsCounter;
     }
 
     public double getWordTotalSentimentCounter() {
@@ -0,0 +1,138 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Words ranked by frequency and by sentiment score. Words with the same frequency, or the same score, form
+ * a level ordered alphabetically, so the first n words of a ranking are found without sorting all words.
+ * A word is moved between levels when {@link #update(int)} is called after its counters change.
+ */
+public class WordRankings {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final WordStatistics wordStatistics;
+    private final NavigableMap<Integer, NavigableSet<Integer>> wordIdsByFrequency;
+    private final NavigableMap<Double, NavigableSet<Integer>> wordIdsBySentimentScore;
+
+    private int[] rankedFrequencies;
+    private double[] rankedSentimentScores;
+    private int rankedWordsCount;
+
+    public WordRankings(WordStatistics wordStatistics) {
+
+        this.wordStatistics = wordStatistics;
+        this.wordIdsByFrequency = new TreeMap<>();
+        this.wordIdsBySentimentScore = new TreeMap<>();
+        this.rankedFrequencies = new int[Math.max(INITIAL_CAPACITY, wordStatistics.size())];
+        this.rankedSentimentScores = new double[this.rankedFrequencies.length];
+        this.rankedWordsCount = 0;
+
+        for (int wordId = 0; wordId < wordStatistics.size(); wordId++) {
+
+            update(wordId);
+        }
+    }
+
+    /**
+     * Ranks a new word or moves a word whose counters have changed
+     */
+    public void update(int wordId) {
+
+        // Words added since the last update are ranked in the order of their ids.
+        if (wordId >= this.rankedWordsCount) {
+
+            ensureCapacity(wordId + 1);
+
+            while (this.rankedWordsCount <= wordId) {
+
+                rank(this.rankedWordsCount++);
+            }
+
+            return;
+        }
+
+        removeFromLevel(this.wordIdsByFrequency, this.rankedFrequencies[wordId], wordId);
+        removeFromLevel(this.wordIdsBySentimentScore, this.rankedSentimentScores[wordId], wordId);
+
+        rank(wordId);
+    }
+
+    public List<String> getMostFrequentWords(int n) {
+
+        return getFirstWords(this.wordIdsByFrequency.descendingMap().values(), n);
+    }
+
+    public List<String> getMostPositiveWords(int n) {
+
+        return getFirstWords(this.wordIdsBySentimentScore.descendingMap().values(), n);
+    }
+
+    public List<String> getMostNegativeWords(int n) {
+
+        return getFirstWords(this.wordIdsBySentimentScore.values(), n);
+    }
+
+    private void rank(int wordId) {
+
+        this.rankedFrequencies[wordId] = this.wordStatistics.getFrequency(wordId);
+        this.rankedSentimentScores[wordId] = this.wordStatistics.getSentimentScore(wordId);
+
+        addToLevel(this.wordIdsByFrequency, this.rankedFrequencies[wordId], wordId);
+        addToLevel(this.wordIdsBySentimentScore, this.rankedSentimentScores[wordId], wordId);
+    }
+
+    private List<String> getFirstWords(Collection<NavigableSet<Integer>> levels, int n) {
+
+        List<String> result = new ArrayList<>(Math.min(n, this.rankedWordsCount));
+
+        for (NavigableSet<Integer> currentLevel : levels) {
+
+            for (int currentWordId : currentLevel) {
+
+                if (result.size() == n) {
+
+                    return result;
+                }
+
+                result.add(this.wordStatistics.getWord(currentWordId));
+            }
+        }
+
+        return result;
+    }
+
+    private <K> void addToLevel(NavigableMap<K, NavigableSet<Integer>> levels, K key, int wordId) {
+
+        levels.computeIfAbsent(key, level -> new TreeSet<>(this.wordStatistics::compareWords)).add(wordId);
+    }
+
+    private <K> void removeFromLevel(NavigableMap<K, NavigableSet<Integer>> levels, K key, int wordId) {
+
+        NavigableSet<Integer> level = levels.get(key);
+        level.remove(wordId);
+
+        if (level.isEmpty()) {
+
+            levels.remove(key);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+
+        if (capacity > this.rankedFrequencies.length) {
+
+            int newCapacity = Math.max(capacity, 2 * this.rankedFrequencies.length);
+
+            this.rankedFrequencies = Arrays.copyOf(this.rankedFrequencies, newCapacity);
+            this.rankedSentimentScores = Arrays.copyOf(this.rankedSentimentScores, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+/**
+ * Counters of the words found in the reviews. Every word gets an id when it is first added, the ids being
+ * consecutive from 0 in the order the words were added.
+ */
+public interface WordStatistics {
+
+    int NOT_FOUND = -1;
+
+    /**
+     * @return the number of words
+     */
+    int size();
+
+    /**
+     * @param word word in lower case
+     * @return the id of the word or {@link #NOT_FOUND} if the word has not been added
+     */
+    int getWordId(CharSequence word);
+
+    /**
+     * Looks up the word {@code text[beginIndex, endIndex)}, whose latin letters may be in any case
+     *
+     * @return the id of the word in lower case or {@link #NOT_FOUND} if the word has not been added
+     */
+    default int getWordId(CharSequence text, int beginIndex, int endIndex) {
+
+        return getWordId(ReviewTokenizer.toLowerCase(text, beginIndex, endIndex));
+    }
+
+    /**
+     * @param word word in lower case
+     * @return the id of the word, adding it with zero counters if it is not present
+     */
+    int getOrAddWordId(String word);
+
+    /**
+     * Adds the counters to the word, adding the word if it is not present. Statistics read while they are updated
+     * publish a new word together with these counters, so it is never found with zero reviews.
+     *
+     * @param word word in lower case
+     * @return the id of the word
+     */
+    default int addCounters(String word, int frequency, int reviewsCount, double totalSentiment) {
+
+        int wordId = getOrAddWordId(word);
+        addCounters(wordId, frequency, reviewsCount, totalSentiment);
+
+        return wordId;
+    }
+
+    String getWord(int wordId);
+
+    /**
+     * Compares two words alphabetically
+     */
+    default int compareWords(int firstWordId, int secondWordId) {
+
+        return getWord(firstWordId).compareTo(getWord(secondWordId));
+    }
+
+    void addCounters(int wordId, int frequency, int reviewsCount, double totalSentiment);
+
+    /**
+     * @return the number of occurrences of the word in all reviews
+     */
+    int getFrequency(int wordId);
+
+    /**
+     * @return the number of reviews containing the word
+     */
+    int getReviewsCount(int wordId);
+
+    /**
+     * @return the sum of the ratings of the reviews containing the word
+     */
+    double getTotalSentiment(int wordId);
+
+    default double getSentimentScore(int wordId) {
+
+        return getTotalSentiment(wordId) / getReviewsCount(wordId);
+    }
+
+    /**
+     * Adds the counters of the other statistics. Words which are not present are added in the order of their ids
+     * in the other statistics.
+     */
+    default void merge(WordStatistics other) {
+
+        for (int otherWordId = 0; otherWordId < other.size(); otherWordId++) {
+
+            addCounters(other.getWord(otherWordId), other.getFrequency(otherWordId),
+                other.getReviewsCount(otherWordId), other.getTotalSentiment(otherWordId));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+/**
+ * Word statistics of the first {@code reviewsCount} lines of the reviews, stored in a binary file so that only
+ * the lines after them have to be read again on startup.
+ *
+ * @param stopWordsHash hash of the stopwords the statistics were counted with
+ */
+public record WordStatisticsSnapshot(WordStatistics wordStatistics, long reviewsCount, int stopWordsHash) {
+
+    private static final int MAGIC = 0x57535331;
+    private static final int VERSION = 1;
+
+    /**
+     * Writes the snapshot to a temporary file which then replaces the file at {@code snapshotPath}, so a previous
+     * snapshot is never left half overwritten.
+     */
+    public void writeTo(Path snapshotPath) throws IOException {
+
+        Path temporaryPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+
+        try (FileChannel fileChannel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            var dataOutputStream = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(fileChannel)));
+
+            dataOutputStream.writeInt(MAGIC);
+            dataOutputStream.writeInt(VERSION);
+            dataOutputStream.writeLong(this.reviewsCount);
+            dataOutputStream.writeInt(this.stopWordsHash);
+            dataOutputStream.writeInt(this.wordStatistics.size());
+
+            // Words are written in the order of their ids, so they get the same ids when read.
+            for (int wordId = 0; wordId < this.wordStatistics.size(); wordId++) {
+
+                dataOutputStream.writeUTF(this.wordStatistics.getWord(wordId));
+                dataOutputStream.writeInt(this.wordStatistics.getFrequency(wordId));
+                dataOutputStream.writeInt(this.wordStatistics.getReviewsCount(wordId));
+                dataOutputStream.writeDouble(this.wordStatistics.getTotalSentiment(wordId));
+            }
+
+            dataOutputStream.flush();
+            fileChannel.force(true);
+        }
+
+        Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param wordStatisticsFactory creates the empty statistics the words are read into
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static WordStatisticsSnapshot readFrom(Path snapshotPath,
+                                                  Supplier<? extends WordStatistics> wordStatisticsFactory)
+        throws IOException {
+
+        try (var dataInputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+
+            if (dataInputStream.readInt() != MAGIC || dataInputStream.readInt() != VERSION) {
+
+                throw new IOException("The file is not a word statistics snapshot: " + snapshotPath);
+            }
+
+            long reviewsCount = dataInputStream.readLong();
+            int stopWordsHash = dataInputStream.readInt();
+            int wordsCount = dataInputStream.readInt();
+            WordStatistics wordStatistics = wordStatisticsFactory.get();
+
+            for (int i = 0; i < wordsCount; i++) {
+
+                wordStatistics.addCounters(dataInputStream.readUTF(), dataInputStream.readInt(),
+                    dataInputStream.readInt(), dataInputStream.readDouble());
+            }
+
+            return new WordStatisticsSnapshot(wordStatistics, reviewsCount, stopWordsHash);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+public class CompactWordStatisticsTest {
+
+    private final static double DELTA = 0.001;
+
+    @Test
+    void testGetOrAddWordIdGivesConsecutiveIdsWhileGrowing() {
+
+        CompactWordStatistics wordStatistics = new CompactWordStatistics();
+
+        for (int i = 0; i < 100_000; i++) {
+
+            Assertions.assertEquals(i, wordStatistics.getOrAddWordId("word" + i),
+                "Words are expected to get consecutive ids");
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+
+            Assertions.assertEquals(i, wordStatistics.getWordId(new StringBuilder("word").append(i)),
+                "Every added word is expected to be found after growing");
+        }
+
+        Assertions.assertEquals(100_000, wordStatistics.size(), "All added words are expected to be counted");
+        Assertions.assertEquals("word12345", wordStatistics.getWord(12345), "The word is expected by its id");
+        Assertions.assertEquals(WordStatistics.NOT_FOUND, wordStatistics.getWordId("word100000"),
+            "A word which was not added is not expected to be found");
+    }
+
+    @Test
+    void testGetWordIdOfRangeIgnoresCase() {
+
+        CompactWordStatistics wordStatistics = new CompactWordStatistics();
+        int wordId = wordStatistics.getOrAddWordId("isn't");
+
+        Assertions.assertEquals(wordId, wordStatistics.getWordId("It ISN'T bad", 3, 8),
+            "The word is expected to be found by its range regardless of the case");
+        Assertions.assertEquals(WordStatistics.NOT_FOUND, wordStatistics.getWordId("It ISN'T bad", 3, 7),
+            "A prefix of a word is not expected to be found");
+    }
+
+    @Test
+    void testAddCountersAndSentimentScore() {
+
+        CompactWordStatistics wordStatistics = new CompactWordStatistics();
+
+        int wordId = wordStatistics.getOrAddWordId("drama");
+        wordStatistics.addCounters(wordId, 3, 1, 4);
+        wordStatistics.addCounters(wordId, 1, 1, 1);
+
+        Assertions.assertEquals(4, wordStatistics.getFrequency(wordId), "Frequencies are expected to be summed");
+        Assertions.assertEquals(2.5, wordStatistics.getSentimentScore(wordId), DELTA,
+            "The sentiment score is expected to be the average rating of the reviews");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> wordStatistics.getFrequency(1),
+            "IllegalArgumentException is expected but not thrown");
+    }
+
+    @Test
+    void testAnalyzerWithCompactWordStatisticsMatchesDefault() {
+
+        String stopwords = "a" + System.lineSeparator() + "of" + System.lineSeparator();
+        String reviews = "1 A series of escapades demonstrating the adage" + System.lineSeparator() +
+            "3 This quiet , introspective and entertaining independent is worth seeking ." + System.lineSeparator() +
+            "4 The Importance of Being Earnest , so thick with wit" + System.lineSeparator();
+
+        var defaultAnalyzer = new MovieReviewSentimentAnalyzer(new StringReader(stopwords),
+            new StringReader(reviews), new StringWriter());
+        var compactAnalyzer = MovieReviewSentimentAnalyzer.builder(new StringReader(stopwords),
+                new StringReader(reviews), new StringWriter())
+            .setWordStatisticsFactory(CompactWordStatistics::new)
+            .build();
+
+        Assertions.assertEquals(defaultAnalyzer.getMostFrequentWords(10), compactAnalyzer.getMostFrequentWords(10),
+            "Both word statistics are expected to give the same frequent words");
+        Assertions.assertEquals(defaultAnalyzer.getMostPositiveWords(10), compactAnalyzer.getMostPositiveWords(10),
+            "Both word statistics are expected to give the same positive words");
+        Assertions.assertEquals(defaultAnalyzer.getReviewSentiment("the quiet adage"),
+            compactAnalyzer.getReviewSentiment("the quiet adage"), DELTA,
+            "Both word statistics are expected to give the same review sentiment");
+    }
+}
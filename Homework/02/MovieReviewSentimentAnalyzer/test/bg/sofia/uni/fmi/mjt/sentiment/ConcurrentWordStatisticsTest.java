@@ -0,0 +1,170 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConcurrentWordStatisticsTest {
+
+    private final static double DELTA = 0.001;
+
+    @Test
+    void testConcurrentAddsAreAllCounted() throws Exception {
+
+        ConcurrentWordStatistics wordStatistics = new ConcurrentWordStatistics();
+        int threadsCount = 8;
+        int addsPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        List<Future<?>> adds = new ArrayList<>();
+
+        for (int i = 0; i < threadsCount; i++) {
+
+            adds.add(executor.submit(() -> {
+
+                for (int j = 0; j < addsPerThread; j++) {
+
+                    int wordId = wordStatistics.getOrAddWordId("word" + j % 3_000);
+                    wordStatistics.addCounters(wordId, 1, 1, 2);
+                }
+            }));
+        }
+
+        for (Future<?> currentAdd : adds) {
+
+            currentAdd.get();
+        }
+
+        executor.shutdown();
+
+        Assertions.assertEquals(3_000, wordStatistics.size(), "Every word is expected to get a single id");
+
+        long totalFrequency = 0;
+
+        for (int wordId = 0; wordId < wordStatistics.size(); wordId++) {
+
+            totalFrequency += wordStatistics.getFrequency(wordId);
+            Assertions.assertEquals(2, wordStatistics.getSentimentScore(wordId), DELTA,
+                "The counters of a word are expected to be updated together");
+        }
+
+        Assertions.assertEquals((long) threadsCount * addsPerThread, totalFrequency, "No add is expected to be lost");
+    }
+
+    @Test
+    void testReadersQueryWhileWritersAppend() throws Exception {
+
+        var analyzer = MovieReviewSentimentAnalyzer.builder(new StringReader("a" + System.lineSeparator()),
+                new StringReader("2 first review" + System.lineSeparator()), new StringWriter())
+            .setWordStatisticsFactory(ConcurrentWordStatistics::new)
+            .build();
+
+        int readersCount = 4;
+        int writersCount = 4;
+        int reviewsPerWriter = 2_000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(readersCount + writersCount);
+        List<Future<?>> readers = new ArrayList<>();
+        List<Future<?>> writers = new ArrayList<>();
+
+        for (int i = 0; i < readersCount; i++) {
+
+            readers.add(executor.submit(() -> {
+
+                while (writing.get()) {
+
+                    double reviewSentiment = analyzer.getReviewSentiment("first review of word17 and word42");
+
+                    Assertions.assertTrue(reviewSentiment >= 0 && reviewSentiment <= 4,
+                        "The review sentiment is expected to stay in range while reviews are appended");
+                    Assertions.assertTrue(analyzer.getMostFrequentWords(5).size() <= 5,
+                        "No more than the requested words are expected");
+                }
+            }));
+        }
+
+        for (int i = 0; i < writersCount; i++) {
+
+            int writerIndex = i;
+
+            writers.add(executor.submit(() -> {
+
+                for (int j = 0; j < reviewsPerWriter; j++) {
+
+                    analyzer.appendReview("review word" + (writerIndex * reviewsPerWriter + j) % 100, writerIndex);
+                }
+            }));
+        }
+
+        for (Future<?> currentWriter : writers) {
+
+            currentWriter.get();
+        }
+
+        writing.set(false);
+
+        for (Future<?> currentReader : readers) {
+
+            currentReader.get();
+        }
+
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "All threads are expected to finish");
+
+        Assertions.assertEquals(1 + writersCount * reviewsPerWriter, analyzer.getWordFrequency("review"),
+            "Every appended review is expected to be counted");
+        Assertions.assertEquals(102, analyzer.getSentimentDictionarySize(),
+            "Every appended word is expected to be known");
+        Assertions.assertEquals(List.of("review"), analyzer.getMostFrequentWords(1),
+            "The rankings are expected to include the appended reviews");
+    }
+
+    @Test
+    void testReaderNeverFindsANewWordWithoutReviews() throws Exception {
+
+        var analyzer = MovieReviewSentimentAnalyzer.builder(new StringReader("a" + System.lineSeparator()),
+                new StringReader("2 first review" + System.lineSeparator()), new StringWriter())
+            .setWordStatisticsFactory(ConcurrentWordStatistics::new)
+            .build();
+
+        int newWordsCount = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<?> writer = executor.submit(() -> {
+
+            for (int i = 0; i < newWordsCount; i++) {
+
+                analyzer.appendReview("newword" + i, 3);
+            }
+        });
+
+        // The reader waits for every new word and checks the first sentiment it sees.
+        Future<?> reader = executor.submit(() -> {
+
+            for (int i = 0; i < newWordsCount; i++) {
+
+                double wordSentiment;
+
+                do {
+
+                    wordSentiment = analyzer.getWordSentiment("newword" + i);
+                } while (wordSentiment == -1);
+
+                Assertions.assertEquals(3, wordSentiment, DELTA,
+                    "A new word is expected to be found together with the review it was added from");
+            }
+        });
+
+        writer.get();
+        reader.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+    }
+}
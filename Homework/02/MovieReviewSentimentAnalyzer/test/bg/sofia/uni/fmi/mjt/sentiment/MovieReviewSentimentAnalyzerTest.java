@@ -8,7 +8,11 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 public class MovieReviewSentimentAnalyzerTest {
 
@@ -206,6 +210,14 @@ public class MovieReviewSentimentAnalyzerTest {
             "The actual review sentiment as name is not the same as the expected");
     }
 
+    @Test
+    void testGetReviewSentimentSuccessfullyWithMixedCaseAndSymbolsAroundWords() {
+
+        Assertions.assertEquals(3.666, this.movieReviewSentimentAnalyzer.getReviewSentiment(
+                "...YEAR!!!quiet,unknown  ISN't"), DELTA,
+            "Actual review sentiment is not the same as the expected");
+    }
+
     @Test
     void testGetReviewSentimentAllUnfamiliarWords() {
 
@@ -419,6 +431,17 @@ public class MovieReviewSentimentAnalyzerTest {
             "IllegalClassArgumentException is expected but not thrown");
     }
 
+    @Test
+    void testAppendReviewWithLineBreaks() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                this.movieReviewSentimentAnalyzer.appendReview("Sample review\n4 forged review", 1),
+            "IllegalArgumentException is expected but not thrown for a line feed");
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                this.movieReviewSentimentAnalyzer.appendReview("Sample\rreview", 1),
+            "IllegalArgumentException is expected but not thrown for a carriage return");
+    }
+
     @Test
     void testAppendReviewSuccessfully() {
 
@@ -431,6 +454,28 @@ public class MovieReviewSentimentAnalyzerTest {
             "Actual sentiment score of some words after appending review is not the same as expected");
     }
 
+    @Test
+    void testAppendReviewUpdatesMostFrequentWords() {
+
+        this.movieReviewSentimentAnalyzer.getMostFrequentWords(2);
+        this.movieReviewSentimentAnalyzer.appendReview("isn't isn't Isn't", 4);
+
+        Assertions.assertIterableEquals(List.of("isn't", "year"),
+            this.movieReviewSentimentAnalyzer.getMostFrequentWords(2),
+            "Most frequent words after appending review are not the same as the expected");
+    }
+
+    @Test
+    void testAppendReviewUpdatesMostNegativeWords() {
+
+        this.movieReviewSentimentAnalyzer.getMostNegativeWords(1);
+        this.movieReviewSentimentAnalyzer.appendReview("aardvark", 0);
+
+        Assertions.assertIterableEquals(List.of("aardvark", "envy"),
+            this.movieReviewSentimentAnalyzer.getMostNegativeWords(2),
+            "Most negative words after appending review are not the same as the expected");
+    }
+
     @Test
     void testAppendReviewSuccessfullyWithStopWordsAndOneOrdinaryWord() {
 
@@ -472,4 +517,158 @@ public class MovieReviewSentimentAnalyzerTest {
         Assertions.assertEquals(2, this.movieReviewSentimentAnalyzer.getWordSentiment("yoU"),
             "Actual word sentiment after appending review is not the same as as the expected");
     }
+
+    @Test
+    void testAppendReviewAfterAFailedWriteFails() {
+
+        var reviewsOut = new FailingFirstFlushWriter();
+        var analyzer = new MovieReviewSentimentAnalyzer(new StringReader(STOPWORDS_STRING),
+            new StringReader(REVIEWS_STRING), reviewsOut);
+
+        Assertions.assertFalse(analyzer.appendReview("aardvark", 0), "The first write is expected to fail");
+        Assertions.assertFalse(analyzer.appendReview("zebra", 4),
+            "Reviews appended after a failed write are expected not to be stored");
+        Assertions.assertEquals("", reviewsOut.getFlushed(),
+            "The review buffered by the failed write must not be flushed with a later review");
+        Assertions.assertEquals(-1, analyzer.getWordSentiment("aardvark"),
+            "Words of reviews which are not stored must not be counted");
+    }
+
+    @Test
+    void testParallelIngestionMatchesSequential() {
+
+        String reviews = generateReviews(35_000);
+
+        var sequentialAnalyzer = new MovieReviewSentimentAnalyzer(new StringReader(STOPWORDS_STRING),
+            new StringReader(reviews), new StringWriter());
+
+        ForkJoinPool ingestionPool = new ForkJoinPool(4);
+
+        try {
+            var parallelAnalyzer = MovieReviewSentimentAnalyzer.builder(new StringReader(STOPWORDS_STRING),
+                    new StringReader(reviews), new StringWriter())
+                .setIngestionPool(ingestionPool)
+                .build();
+
+            Assertions.assertEquals(sequentialAnalyzer.getSentimentDictionarySize(),
+                parallelAnalyzer.getSentimentDictionarySize(),
+                "Parallel ingestion is expected to find the same words as the sequential one");
+            Assertions.assertEquals(sequentialAnalyzer.getMostFrequentWords(100),
+                parallelAnalyzer.getMostFrequentWords(100),
+                "Parallel ingestion is expected to count the same frequencies as the sequential one");
+            Assertions.assertEquals(sequentialAnalyzer.getMostPositiveWords(100),
+                parallelAnalyzer.getMostPositiveWords(100),
+                "Parallel ingestion is expected to calculate the same sentiments as the sequential one");
+
+            for (String currentWord : sequentialAnalyzer.getMostNegativeWords(100)) {
+
+                Assertions.assertEquals(sequentialAnalyzer.getWordSentiment(currentWord),
+                    parallelAnalyzer.getWordSentiment(currentWord),
+                    "Parallel ingestion is expected to calculate the same sentiment of " + currentWord);
+            }
+        } finally {
+
+            ingestionPool.shutdown();
+        }
+    }
+
+    @Test
+    void testScoreReviewsWritesScoreAndNameOfEveryReviewInOrder() {
+
+        var scoresOut = new StringWriter();
+
+        long scoredCount = this.movieReviewSentimentAnalyzer.scoreReviews(
+            Stream.of("year isn't", "unknown words", "leave"), scoresOut);
+
+        String expected = 4.0 + "\tpositive" + System.lineSeparator() +
+            -1.0 + "\tunknown" + System.lineSeparator() +
+            1.0 + "\tsomewhat negative" + System.lineSeparator();
+
+        Assertions.assertEquals(3, scoredCount, "Every review is expected to be scored");
+        Assertions.assertEquals(expected, scoresOut.toString(),
+            "The scores are expected to be written in the order of the reviews");
+    }
+
+    @Test
+    void testScoreReviewsInParallelMatchesSequential() {
+
+        String reviews = generateReviews(25_000);
+        var sequentialScoresOut = new StringWriter();
+        var parallelScoresOut = new StringWriter();
+
+        this.movieReviewSentimentAnalyzer.scoreReviews(new StringReader(reviews), sequentialScoresOut);
+
+        ForkJoinPool scoringPool = new ForkJoinPool(4);
+
+        try {
+            var parallelAnalyzer = MovieReviewSentimentAnalyzer.builder(new StringReader(STOPWORDS_STRING),
+                    new StringReader(REVIEWS_STRING), new StringWriter())
+                .setIngestionPool(scoringPool)
+                .build();
+
+            Assertions.assertEquals(25_000, parallelAnalyzer.scoreReviews(new StringReader(reviews),
+                parallelScoresOut), "Every review is expected to be scored");
+            Assertions.assertEquals(sequentialScoresOut.toString(), parallelScoresOut.toString(),
+                "Parallel scoring is expected to write the same scores in the same order as the sequential one");
+        } finally {
+
+            scoringPool.shutdown();
+        }
+    }
+
+    private String generateReviews(int reviewsCount) {
+
+        Random random = new Random(42);
+        StringBuilder reviews = new StringBuilder();
+
+        for (int i = 0; i < reviewsCount; i++) {
+
+            reviews.append(random.nextInt(5));
+
+            for (int j = 0; j < 12; j++) {
+
+                reviews.append(j % 3 == 0 ? " , " : " ").append("Word").append(random.nextInt(2_000));
+            }
+
+            reviews.append(" of about isn't .").append(System.lineSeparator());
+        }
+
+        return reviews.toString();
+    }
+
+    private static class FailingFirstFlushWriter extends Writer {
+
+        private final StringBuilder buffered = new StringBuilder();
+        private final StringBuilder flushed = new StringBuilder();
+        private boolean failed;
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+
+            this.buffered.append(chars, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+
+            if (!this.failed) {
+
+                this.failed = true;
+                throw new IOException("The disk is full");
+            }
+
+            this.flushed.append(this.buffered);
+            this.buffered.setLength(0);
+        }
+
+        @Override
+        public void close() {
+
+        }
+
+        private String getFlushed() {
+
+            return this.flushed.toString();
+        }
+    }
 }
@@ -0,0 +1,171 @@
+package bg.sofia.uni.fmi.mjt.sentiment;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class WordStatisticsSnapshotTest {
+
+    private final static String STOPWORDS_STRING = "a" + System.lineSeparator() + "of" + System.lineSeparator();
+    private final static String REVIEWS_STRING = "1 A series of escapades demonstrating the adage" +
+        System.lineSeparator() +
+        "3 This quiet , introspective and entertaining independent is worth seeking ." + System.lineSeparator() +
+        System.lineSeparator() +
+        "4 The Importance of Being Earnest , so thick with wit" + System.lineSeparator();
+    private final static double DELTA = 0.001;
+
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    void testWriteToAndReadFromKeepWordIdsAndCounters() throws IOException {
+
+        CompactWordStatistics wordStatistics = new CompactWordStatistics();
+        wordStatistics.addCounters(wordStatistics.getOrAddWordId("drama"), 3, 2, 5);
+        wordStatistics.addCounters(wordStatistics.getOrAddWordId("isn't"), 1, 1, 4);
+
+        Path snapshotPath = this.temporaryDirectory.resolve("statistics.snapshot");
+        new WordStatisticsSnapshot(wordStatistics, 7, 42).writeTo(snapshotPath);
+
+        WordStatisticsSnapshot snapshot = WordStatisticsSnapshot.readFrom(snapshotPath, MapWordStatistics::new);
+
+        Assertions.assertEquals(7, snapshot.reviewsCount(), "The reviews count is expected to be restored");
+        Assertions.assertEquals(42, snapshot.stopWordsHash(), "The stopwords hash is expected to be restored");
+        Assertions.assertEquals(1, snapshot.wordStatistics().getWordId("isn't"),
+            "Words are expected to keep their ids");
+        Assertions.assertEquals(3, snapshot.wordStatistics().getFrequency(0),
+            "The frequency is expected to be restored");
+        Assertions.assertEquals(2.5, snapshot.wordStatistics().getSentimentScore(0), DELTA,
+            "The sentiment score is expected to be restored");
+    }
+
+    @Test
+    void testReadFromFileWhichIsNotSnapshot() throws IOException {
+
+        Path snapshotPath = Files.writeString(this.temporaryDirectory.resolve("statistics.snapshot"), "reviews");
+
+        Assertions.assertThrows(IOException.class,
+            () -> WordStatisticsSnapshot.readFrom(snapshotPath, MapWordStatistics::new),
+            "IOException is expected but not thrown");
+    }
+
+    @Test
+    void testAnalyzerStartsFromSnapshotAndReadsOnlyReviewsAfterIt() throws IOException {
+
+        Path reviewsPath = Files.writeString(this.temporaryDirectory.resolve("reviews.txt"), REVIEWS_STRING);
+        Path snapshotPath = this.temporaryDirectory.resolve("statistics.snapshot");
+
+        try (var reviewsIn = Files.newBufferedReader(reviewsPath);
+             var reviewsOut = Files.newBufferedWriter(reviewsPath, StandardOpenOption.APPEND)) {
+
+            var analyzer = createAnalyzer(reviewsIn, reviewsOut, snapshotPath);
+
+            Assertions.assertTrue(analyzer.appendReview("quiet drama", 1), "The review is expected to be appended");
+            analyzer.writeSnapshot();
+            Assertions.assertTrue(analyzer.appendReview("drama after the snapshot", 4),
+                "The review is expected to be appended");
+        }
+
+        // The reviews before the snapshot are changed, so reading them again would change the sentiment of quiet.
+        List<String> reviewLines = new ArrayList<>(Files.readAllLines(reviewsPath));
+        reviewLines.set(1, "0 This quiet one");
+        Files.write(reviewsPath, reviewLines);
+
+        try (var reviewsIn = Files.newBufferedReader(reviewsPath);
+             var reviewsOut = Files.newBufferedWriter(reviewsPath, StandardOpenOption.APPEND)) {
+
+            var restoredAnalyzer = createAnalyzer(reviewsIn, reviewsOut, snapshotPath);
+
+            Assertions.assertEquals(2, restoredAnalyzer.getWordSentiment("quiet"), DELTA,
+                "The sentiment of the reviews before the snapshot is expected to be taken from it");
+            Assertions.assertEquals(2.5, restoredAnalyzer.getWordSentiment("drama"), DELTA,
+                "The reviews after the snapshot are expected to be read");
+            Assertions.assertEquals(4, restoredAnalyzer.getWordSentiment("snapshot"), DELTA,
+                "The words of the reviews after the snapshot are expected to be known");
+        }
+    }
+
+    @Test
+    void testAnalyzerWritesSnapshotEverySnapshotInterval() throws IOException {
+
+        Path reviewsPath = Files.writeString(this.temporaryDirectory.resolve("reviews.txt"), REVIEWS_STRING);
+        Path snapshotPath = this.temporaryDirectory.resolve("statistics.snapshot");
+
+        try (var reviewsIn = Files.newBufferedReader(reviewsPath);
+             var reviewsOut = Files.newBufferedWriter(reviewsPath, StandardOpenOption.APPEND)) {
+
+            var analyzer = MovieReviewSentimentAnalyzer.builder(new StringReader(STOPWORDS_STRING), reviewsIn,
+                    reviewsOut)
+                .setSnapshotPath(snapshotPath)
+                .setSnapshotInterval(6)
+                .build();
+
+            analyzer.appendReview("first drama", 1);
+            Assertions.assertFalse(Files.exists(snapshotPath), "No snapshot is expected before 6 lines are counted");
+
+            analyzer.appendReview("second drama", 3);
+        }
+
+        Assertions.assertEquals(6,
+            WordStatisticsSnapshot.readFrom(snapshotPath, MapWordStatistics::new).reviewsCount(),
+            "The snapshot is expected to count all lines of the reviews file");
+    }
+
+    @Test
+    void testConcurrentAppendsAreAllWrittenToTheSameWriter() throws Exception {
+
+        Path reviewsPath = Files.writeString(this.temporaryDirectory.resolve("reviews.txt"), REVIEWS_STRING);
+        int threadsCount = 8;
+        int reviewsPerThread = 200;
+
+        try (var reviewsIn = Files.newBufferedReader(reviewsPath);
+             var reviewsOut = Files.newBufferedWriter(reviewsPath, StandardOpenOption.APPEND)) {
+
+            var analyzer = new MovieReviewSentimentAnalyzer(new StringReader(STOPWORDS_STRING), reviewsIn,
+                reviewsOut);
+            ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+            List<Future<Boolean>> appends = new ArrayList<>();
+
+            for (int i = 0; i < threadsCount * reviewsPerThread; i++) {
+
+                appends.add(executor.submit(() -> analyzer.appendReview("concurrent review", 2)));
+            }
+
+            for (Future<Boolean> currentAppend : appends) {
+
+                Assertions.assertTrue(currentAppend.get(), "Every review is expected to be appended");
+            }
+
+            executor.shutdown();
+            Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Appends are expected to finish");
+
+            Assertions.assertEquals(threadsCount * reviewsPerThread, analyzer.getWordFrequency("concurrent"),
+                "Every appended review is expected to be counted");
+        }
+
+        Assertions.assertEquals(threadsCount * reviewsPerThread + 4, Files.readAllLines(reviewsPath).size(),
+            "Every appended review is expected to be written after the existing ones");
+    }
+
+    private MovieReviewSentimentAnalyzer createAnalyzer(Reader reviewsIn, Writer reviewsOut,
+                                                        Path snapshotPath) {
+
+        return MovieReviewSentimentAnalyzer.builder(new StringReader(STOPWORDS_STRING), reviewsIn, reviewsOut)
+            .setSnapshotPath(snapshotPath)
+            .build();
+    }
+}
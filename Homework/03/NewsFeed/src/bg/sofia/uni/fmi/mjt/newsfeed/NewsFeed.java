@@ -1,20 +1,56 @@
 package bg.sofia.uni.fmi.mjt.newsfeed;
 
+import bg.sofia.uni.fmi.mjt.newsfeed.archive.ArticleArchive;
+import bg.sofia.uni.fmi.mjt.newsfeed.cache.NewsFeedCache;
 import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.IncorrectRequestException;
 import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.NewsFeedException;
 import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.ServerErrorException;
 import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.TooManyRequestsException;
 import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.UnauthorizedException;
+import bg.sofia.uni.fmi.mjt.newsfeed.json.NewsBody;
+import bg.sofia.uni.fmi.mjt.newsfeed.json.NewsBodyHandler;
+import bg.sofia.uni.fmi.mjt.newsfeed.metrics.NewsFeedListener;
+import bg.sofia.uni.fmi.mjt.newsfeed.metrics.ResponseMetrics;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
 import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
-import com.google.gson.Gson;
+import bg.sofia.uni.fmi.mjt.newsfeed.ratelimit.RetryPolicy;
+import bg.sofia.uni.fmi.mjt.newsfeed.ratelimit.ThrottleMetrics;
+import bg.sofia.uni.fmi.mjt.newsfeed.ratelimit.TokenBucketRateLimiter;
+import bg.sofia.uni.fmi.mjt.newsfeed.search.ArticleIndex;
+import bg.sofia.uni.fmi.mjt.newsfeed.subscription.NewsFeedSubscription;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
@@ -39,20 +75,66 @@ public class NewsFeed {
 
     private static final int PAGE_SIZE = 50;
     private static final int MAX_PAGES = 3;
+    private static final int DEFAULT_MAX_CONCURRENT_QUERIES = 8;
     private final static int TOO_MANY_REQUESTS = 429;
+    private final static String RETRY_AFTER_HEADER = "Retry-After";
 
-    private static final Gson GSON = new Gson();
+    private static final NewsBodyHandler NEWS_BODY_HANDLER = new NewsBodyHandler();
+    private static final NewsFeedListener NO_LISTENER = new NewsFeedListener() { };
+
+    // Idle threads are stopped after a minute, so the pool does not need to be shut down.
+    private static final Executor DEFAULT_DECODING_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+
+        Thread thread = new Thread(runnable, "news-feed-decoding");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final HttpClient newsFeedHttpClient;
     private final String apiKey;
+    private final NewsFeedCache newsFeedCache;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final int maxConcurrentQueries;
+    private final ArticleArchive articleArchive;
+    private final ArticleIndex articleIndex;
+    private final NewsFeedListener listener;
+    private final Executor decodingExecutor;
+    private final LongAdder requestsCount;
+    private final LongAdder throttledRequestsCount;
+    private final LongAdder throttleWaitNanos;
+    private final LongAdder retriesCount;
 
     public NewsFeed(HttpClient newsFeedHttpClient) {
         this(newsFeedHttpClient, API_KEY);
     }
 
     public NewsFeed(HttpClient newsFeedHttpClient, String apiKey) {
-        this.newsFeedHttpClient = newsFeedHttpClient;
-        this.apiKey = apiKey;
+        this(builder(newsFeedHttpClient).setApiKey(apiKey));
+    }
+
+    public static NewsFeedBuilder builder(HttpClient newsFeedHttpClient) {
+
+        return new NewsFeedBuilder(newsFeedHttpClient);
+    }
+
+    private NewsFeed(NewsFeedBuilder builder) {
+
+        this.newsFeedHttpClient = builder.newsFeedHttpClient;
+        this.apiKey = builder.apiKey;
+        this.newsFeedCache = builder.newsFeedCache;
+        this.rateLimiter = builder.rateLimiter;
+        this.retryPolicy = builder.retryPolicy;
+        this.maxConcurrentQueries = builder.maxConcurrentQueries;
+        this.articleArchive = builder.articleArchive;
+        this.articleIndex = builder.articleIndex;
+        this.listener = builder.listener == null ? NO_LISTENER : builder.listener;
+        this.decodingExecutor = builder.decodingExecutor == null ? DEFAULT_DECODING_EXECUTOR :
+            builder.decodingExecutor;
+        this.requestsCount = new LongAdder();
+        this.throttledRequestsCount = new LongAdder();
+        this.throttleWaitNanos = new LongAdder();
+        this.retriesCount = new LongAdder();
     }
 
     /**
@@ -70,10 +152,103 @@ public class NewsFeed {
 
         validateNull(queryData);
 
+        if (this.newsFeedCache != null) {
+
+            AtomicBoolean loaded = new AtomicBoolean();
+            List<News> news = this.newsFeedCache.get(queryData, cachedQuery -> {
+
+                loaded.set(true);
+                this.listener.onCacheMiss(cachedQuery);
+                return fetchNewsFeed(cachedQuery);
+            });
+
+            if (!loaded.get()) {
+
+                this.listener.onCacheHit(queryData);
+            }
+
+            return news;
+        }
+
+        return fetchNewsFeed(queryData);
+    }
+
+    /**
+     * Answers the query from the articles fetched before when a query fetched within the maximum age of the
+     * article index has returned all articles which can match it. Otherwise the query is requested as by
+     * {@link #getNewsFeed(QueryData)}.
+     *
+     * @param queryData QueryData created in builder pattern; list of keywords for searching is
+     *                  mandatory; country and category are optional
+     * @return the fetched articles whose titles or descriptions contain all keywords. The service may also match
+     * keywords in the content of the articles, but such articles are not returned, so that the answer does not
+     * depend on whether the query was requested or answered from the index
+     * @throws IllegalArgumentException if the parameter is null
+     * @throws IllegalStateException    if no article index is set in the builder
+     * @throws NewsFeedException        and its subclasses in the same cases as {@link #getNewsFeed(QueryData)}
+     */
+    public List<Article> searchLocal(QueryData queryData) throws UnauthorizedException, TooManyRequestsException,
+        ServerErrorException, IncorrectRequestException {
+
+        validateNull(queryData);
+
+        if (this.articleIndex == null) {
+            throw new IllegalStateException("Local search needs an article index.");
+        }
+
+        Optional<List<Article>> localResult = this.articleIndex.search(queryData);
+
+        if (localResult.isPresent()) {
+
+            return localResult.get();
+        }
+
+        // Fetched news are indexed when they are received. Cached news are not indexed again, since they would be
+        // taken for news fetched now and answer queries after the maximum age.
+        List<News> news = getNewsFeed(queryData);
+
+        return this.articleIndex.filter(queryData, getArticles(news));
+    }
+
+    /**
+     * Requests the same pages as {@link #getNewsFeed(QueryData)} and gives their articles to the consumer as soon
+     * as they are read, without keeping whole pages in memory. The news feed cache is not used.
+     *
+     * @param queryData       QueryData created in builder pattern; list of keywords for searching is
+     *                        mandatory; country and category are optional
+     * @param articleConsumer receives the articles of all pages in order
+     * @return the status and total results of every requested page, without their articles
+     * @throws IllegalArgumentException if any of the parameters is null
+     * @throws NewsFeedException        and its subclasses in the same cases as {@link #getNewsFeed(QueryData)}
+     */
+    public List<News> getNewsFeed(QueryData queryData, Consumer<Article> articleConsumer)
+        throws UnauthorizedException, TooManyRequestsException, ServerErrorException, IncorrectRequestException {
+
+        validateNull(queryData);
+
+        if (articleConsumer == null) {
+            throw new IllegalArgumentException("The given argument cannot be null.");
+        }
+
+        Consumer<Article> consumer = this.articleArchive == null ? articleConsumer :
+            archivingConsumer(articleConsumer);
+
+        return fetchNewsFeed(queryData, new NewsBodyHandler(consumer));
+    }
+
+    private List<News> fetchNewsFeed(QueryData queryData) throws UnauthorizedException,
+        TooManyRequestsException, ServerErrorException, IncorrectRequestException {
+
+        return fetchNewsFeed(queryData, NEWS_BODY_HANDLER);
+    }
+
+    private List<News> fetchNewsFeed(QueryData queryData, NewsBodyHandler bodyHandler)
+        throws UnauthorizedException, TooManyRequestsException, ServerErrorException, IncorrectRequestException {
+
         List<News> result = new ArrayList<>();
         for (int i = 1; i <= MAX_PAGES; i++) {
 
-            News receivedNews = getNewsFeed(queryData, i);
+            News receivedNews = getNewsFeed(queryData, i, bodyHandler);
             result.add(receivedNews);
 
             if (receivedNews.totalResults() < i * PAGE_SIZE) {
@@ -81,7 +256,102 @@ public class NewsFeed {
             }
         }
 
-        return result;
+        return indexNews(queryData, archiveNews(result));
+    }
+
+    /**
+     * Requests the first page and then all other pages at the same time, without blocking the calling thread
+     *
+     * @param queryData QueryData created in builder pattern; list of keywords for searching is
+     *                  mandatory; country and category are optional
+     * @return future of the same news as {@link #getNewsFeed(QueryData)}; the future completes exceptionally with
+     * the same exceptions as {@link #getNewsFeed(QueryData)} throws
+     * @throws IllegalArgumentException if the parameter is null
+     */
+    public CompletableFuture<List<News>> getNewsFeedAsync(QueryData queryData) {
+
+        validateNull(queryData);
+
+        if (this.newsFeedCache != null) {
+
+            AtomicBoolean loaded = new AtomicBoolean();
+            CompletableFuture<List<News>> news = this.newsFeedCache.getAsync(queryData, cachedQuery -> {
+
+                loaded.set(true);
+                this.listener.onCacheMiss(cachedQuery);
+                return fetchNewsFeedAsync(cachedQuery);
+            });
+
+            if (!loaded.get()) {
+
+                this.listener.onCacheHit(queryData);
+            }
+
+            return news;
+        }
+
+        return fetchNewsFeedAsync(queryData);
+    }
+
+    /**
+     * Requests the news of all queries at the same time over the shared http client, which multiplexes them over
+     * one HTTP/2 connection when the news feed service supports it. At most the maximum number of concurrent
+     * queries set in the builder are requested at a time; the others wait for one of them to complete.
+     *
+     * @param queries QueryData objects created in builder pattern; equal queries are requested once
+     * @return futures of the news of every query in the order of the queries, each completing as soon as its
+     * query completes in the same way as {@link #getNewsFeedAsync(QueryData)}
+     * @throws IllegalArgumentException if the queries or any of them are null
+     */
+    public Map<QueryData, CompletableFuture<List<News>>> getNewsFeeds(Collection<QueryData> queries) {
+
+        if (queries == null) {
+            throw new IllegalArgumentException("The given argument cannot be null.");
+        }
+
+        Map<QueryData, CompletableFuture<List<News>>> result = new LinkedHashMap<>();
+
+        for (QueryData currentQuery : queries) {
+
+            validateNull(currentQuery);
+            result.putIfAbsent(currentQuery, new CompletableFuture<>());
+        }
+
+        Queue<Map.Entry<QueryData, CompletableFuture<List<News>>>> pendingQueries =
+            new ConcurrentLinkedQueue<>(result.entrySet());
+
+        for (int i = 0; i < this.maxConcurrentQueries; i++) {
+
+            requestNextQuery(pendingQueries);
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Creates a subscription which polls the query and gives only the articles it has not seen before to its
+     * listeners, requesting further pages only until it reaches articles seen in a previous poll. The polled
+     * articles are archived if an article archive is set. The subscription polls when
+     * {@link NewsFeedSubscription#poll()} is called or after it is started.
+     *
+     * @param queryData QueryData created in builder pattern; list of keywords for searching is
+     *                  mandatory; country and category are optional
+     * @throws IllegalArgumentException if the parameter is null
+     */
+    public NewsFeedSubscription subscribe(QueryData queryData) {
+
+        validateNull(queryData);
+
+        return new NewsFeedSubscription(queryData, this::getPolledNewsFeed, PAGE_SIZE, MAX_PAGES);
+    }
+
+    /**
+     * @return the number of requests sent by this news feed and how long they were held back by the rate limiter
+     */
+    public ThrottleMetrics getThrottleMetrics() {
+
+        return new ThrottleMetrics(this.requestsCount.sum(), this.throttledRequestsCount.sum(),
+            Duration.ofNanos(this.throttleWaitNanos.sum()), this.retriesCount.sum());
     }
 
     private void validateNull(QueryData queryData) {
@@ -113,26 +383,341 @@ public class NewsFeed {
         throw new NewsFeedException("Unexpected response code and behaviour from news feed service.");
     }
 
-    private News getNewsFeed(QueryData queryData, int pageNumber)
+    private News getNewsFeed(QueryData queryData, int pageNumber, NewsBodyHandler bodyHandler)
         throws IncorrectRequestException, TooManyRequestsException, UnauthorizedException, ServerErrorException {
 
-        HttpResponse<String> response;
+        for (int retry = 0; ; retry++) {
+
+            HttpResponse<Supplier<News>> response;
+            long sentAt;
+
+            try {
+                URI uri = constructURI(queryData, pageNumber);
+                HttpRequest request = HttpRequest.newBuilder().uri(uri).build();
+
+                waitForPermit();
+                sentAt = System.nanoTime();
+                response = this.newsFeedHttpClient.send(request, bodyHandler);
+            } catch (Exception e) {
+                IncorrectRequestException exception = new IncorrectRequestException("Could not retrieve news feed", e);
+                this.listener.onRequestFailed(queryData, pageNumber, exception);
+                throw exception;
+            }
+
+            Duration timeToHeaders = Duration.ofNanos(System.nanoTime() - sentAt);
+
+            Optional<Duration> backoff = shouldRetry(response.statusCode(), retry) ? getBackoff(response, retry) :
+                Optional.empty();
+
+            if (backoff.isEmpty()) {
+
+                return receiveNews(queryData, pageNumber, response, timeToHeaders);
+            }
+
+            this.listener.onResponseReceived(new ResponseMetrics(queryData, pageNumber, response.statusCode(),
+                timeToHeaders, Duration.ZERO, 0));
+
+            this.retriesCount.increment();
+
+            try {
+
+                TimeUnit.NANOSECONDS.sleep(backoff.get().toNanos());
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                throw new IncorrectRequestException("Could not retrieve news feed", e);
+            }
+        }
+    }
+
+    private void requestNextQuery(Queue<Map.Entry<QueryData, CompletableFuture<List<News>>>> pendingQueries) {
+
+        Map.Entry<QueryData, CompletableFuture<List<News>>> nextQuery = pendingQueries.poll();
+
+        if (nextQuery == null) {
+
+            return;
+        }
+
+        // The next query is requested asynchronously, so cached queries completing at once do not nest calls.
+        getNewsFeedAsync(nextQuery.getKey()).whenCompleteAsync((news, exception) -> {
+
+            if (exception == null) {
+
+                nextQuery.getValue().complete(news);
+            } else {
+
+                nextQuery.getValue().completeExceptionally(exception instanceof CompletionException ?
+                    exception.getCause() : exception);
+            }
+
+            requestNextQuery(pendingQueries);
+        });
+    }
+
+    private News getPolledNewsFeed(QueryData queryData, int pageNumber) throws IncorrectRequestException,
+        TooManyRequestsException, UnauthorizedException, ServerErrorException {
+
+        return archiveNews(List.of(getNewsFeed(queryData, pageNumber, NEWS_BODY_HANDLER))).get(0);
+    }
+
+    private CompletableFuture<List<News>> fetchNewsFeedAsync(QueryData queryData) {
+
+        return getNewsFeedAsync(queryData, 1).thenCompose(firstPage -> {
+
+            // The same pages are requested as by getNewsFeed, which stops at the first page with the last results.
+            int pagesCount = Math.min(MAX_PAGES, firstPage.totalResults() / PAGE_SIZE + 1);
+            List<CompletableFuture<News>> pages = new ArrayList<>();
+            pages.add(CompletableFuture.completedFuture(firstPage));
+
+            for (int i = 2; i <= pagesCount; i++) {
+
+                pages.add(getNewsFeedAsync(queryData, i));
+            }
+
+            return CompletableFuture.allOf(pages.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> indexNews(queryData,
+                    archiveNews(pages.stream().map(CompletableFuture::join).toList())));
+        });
+    }
+
+    private CompletableFuture<News> getNewsFeedAsync(QueryData queryData, int pageNumber) {
+
+        return getNewsFeedAsync(queryData, pageNumber, 0);
+    }
+
+    private CompletableFuture<News> getNewsFeedAsync(QueryData queryData, int pageNumber, int retry) {
+
+        HttpRequest request;
 
         try {
             URI uri = constructURI(queryData, pageNumber);
-            HttpRequest request = HttpRequest.newBuilder().uri(uri).build();
-
-            response = this.newsFeedHttpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            request = HttpRequest.newBuilder().uri(uri).build();
         } catch (Exception e) {
-            throw new IncorrectRequestException("Could not retrieve news feed", e);
+            return CompletableFuture.failedFuture(new IncorrectRequestException("Could not retrieve news feed", e));
+        }
+
+        // The request is sent when its permit is due instead of blocking a thread until then.
+        Executor permitExecutor = CompletableFuture.delayedExecutor(reservePermit(), TimeUnit.NANOSECONDS);
+
+        return CompletableFuture.supplyAsync(() -> request, permitExecutor)
+            .thenCompose(permittedRequest -> {
+
+                long sentAt = System.nanoTime();
+
+                return this.newsFeedHttpClient.sendAsync(permittedRequest, NEWS_BODY_HANDLER)
+                    .thenApply(response -> new TimedResponse(response, Duration.ofNanos(System.nanoTime() - sentAt)));
+            })
+            // Decoding blocks until the body is received, so it is done neither by the threads of the http client
+            // nor by the common pool.
+            .handleAsync((timedResponse, exception) -> {
+
+                HttpResponse<Supplier<News>> receivedResponse = exception == null ? timedResponse.response() : null;
+                Optional<Duration> backoff = exception == null && shouldRetry(receivedResponse.statusCode(), retry) ?
+                    getBackoff(receivedResponse, retry) : Optional.empty();
+
+                if (backoff.isPresent()) {
+
+                    this.listener.onResponseReceived(new ResponseMetrics(queryData, pageNumber,
+                        receivedResponse.statusCode(), timedResponse.timeToHeaders(), Duration.ZERO, 0));
+                    this.retriesCount.increment();
+                    Executor backoffExecutor = CompletableFuture.delayedExecutor(backoff.get().toNanos(),
+                        TimeUnit.NANOSECONDS);
+
+                    return CompletableFuture.runAsync(() -> { }, backoffExecutor)
+                        .thenCompose(ignored -> getNewsFeedAsync(queryData, pageNumber, retry + 1));
+                }
+
+                if (exception != null) {
+
+                    IncorrectRequestException requestException = new IncorrectRequestException(
+                        "Could not retrieve news feed", exception);
+                    this.listener.onRequestFailed(queryData, pageNumber, requestException);
+
+                    return CompletableFuture.<News>failedFuture(requestException);
+                }
+
+                try {
+
+                    return CompletableFuture.completedFuture(receiveNews(queryData, pageNumber, receivedResponse,
+                        timedResponse.timeToHeaders()));
+                } catch (IncorrectRequestException | TooManyRequestsException | UnauthorizedException |
+                         ServerErrorException e) {
+
+                    return CompletableFuture.<News>failedFuture(e);
+                }
+            }, this.decodingExecutor)
+            .thenCompose(Function.identity());
+    }
+
+    private List<News> archiveNews(List<News> news) {
+
+        if (this.articleArchive == null) {
+
+            return news;
+        }
+
+        // The same articles may be returned on several pages, so only their first occurrence is kept.
+        Set<UUID> articleKeys = new HashSet<>();
+        List<Article> articles = new ArrayList<>();
+        List<News> result = new ArrayList<>();
+
+        for (News currentNews : news) {
+
+            Article[] uniqueArticles = Arrays.stream(currentNews.articles())
+                .filter(article -> articleKeys.add(ArticleArchive.getKey(article)))
+                .toArray(Article[]::new);
+
+            articles.addAll(Arrays.asList(uniqueArticles));
+            result.add(new News(currentNews.status(), currentNews.totalResults(), uniqueArticles));
+        }
+
+        archiveArticles(articles);
+
+        return result;
+    }
+
+    private List<News> indexNews(QueryData queryData, List<News> news) {
+
+        if (this.articleIndex != null && !news.isEmpty()) {
+
+            // All results are fetched unless the last page is full and there are more results than fit in it.
+            boolean complete = news.get(news.size() - 1).totalResults() <= news.size() * PAGE_SIZE;
+            this.articleIndex.add(queryData, getArticles(news), complete);
         }
 
+        return news;
+    }
+
+    private List<Article> getArticles(List<News> news) {
+
+        List<Article> articles = new ArrayList<>();
+
+        for (News currentNews : news) {
+
+            if (currentNews.articles() != null) {
+
+                articles.addAll(Arrays.asList(currentNews.articles()));
+            }
+        }
+
+        return articles;
+    }
+
+    private Consumer<Article> archivingConsumer(Consumer<Article> articleConsumer) {
+
+        Set<UUID> articleKeys = new HashSet<>();
+
+        return article -> {
+
+            if (articleKeys.add(ArticleArchive.getKey(article))) {
+
+                archiveArticles(List.of(article));
+                articleConsumer.accept(article);
+            }
+        };
+    }
+
+    private void archiveArticles(List<Article> articles) {
+
+        try {
+
+            this.articleArchive.archive(articles);
+        } catch (IOException e) {
+
+            throw new NewsFeedException("Could not archive the news feed", e);
+        }
+    }
+
+    private News receiveNews(QueryData queryData, int pageNumber, HttpResponse<Supplier<News>> response,
+                             Duration timeToHeaders) throws IncorrectRequestException, TooManyRequestsException,
+        UnauthorizedException, ServerErrorException {
+
+        long bodyStartedAt = System.nanoTime();
+        Exception failure = null;
+
+        try {
+
+            return parseNews(response);
+        } catch (IncorrectRequestException | TooManyRequestsException | UnauthorizedException |
+                 ServerErrorException | RuntimeException e) {
+
+            failure = e;
+            throw e;
+        } finally {
+
+            Duration bodyTime = Duration.ofNanos(System.nanoTime() - bodyStartedAt);
+            long bytesReceived = response.body() instanceof NewsBody newsBody ? newsBody.getBytesRead() : 0;
+
+            this.listener.onResponseReceived(new ResponseMetrics(queryData, pageNumber, response.statusCode(),
+                timeToHeaders, bodyTime, bytesReceived));
+
+            if (failure != null) {
+
+                this.listener.onRequestFailed(queryData, pageNumber, failure);
+            }
+        }
+    }
+
+    private void waitForPermit() throws InterruptedException {
+
+        long waitNanos = reservePermit();
+
+        if (waitNanos > 0) {
+
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private long reservePermit() {
+
+        this.requestsCount.increment();
+
+        if (this.rateLimiter == null) {
+
+            return 0;
+        }
+
+        long waitNanos = this.rateLimiter.reserve();
+
+        if (waitNanos > 0) {
+
+            this.throttledRequestsCount.increment();
+            this.throttleWaitNanos.add(waitNanos);
+        }
+
+        return waitNanos;
+    }
+
+    private boolean shouldRetry(int statusCode, int retry) {
+
+        return (statusCode == TOO_MANY_REQUESTS || statusCode >= HTTP_INTERNAL_ERROR) &&
+            retry < this.retryPolicy.maxRetries();
+    }
+
+    /**
+     * @return the time to wait before the retry or empty if the response is not to be retried
+     */
+    private Optional<Duration> getBackoff(HttpResponse<?> response, int retry) {
+
+        HttpHeaders headers = response.headers();
+
+        // The server may tell how long to wait, which is respected if longer than the backoff. If it asks for
+        // longer than the maximum backoff, the response fails at once instead of blocking for that long.
+        String retryAfter = headers == null ? null : headers.firstValue(RETRY_AFTER_HEADER).orElse(null);
+
+        return this.retryPolicy.getBackoff(retry, retryAfter, Instant.now());
+    }
+
+    private News parseNews(HttpResponse<Supplier<News>> response) throws IncorrectRequestException,
+        TooManyRequestsException, UnauthorizedException, ServerErrorException {
+
         if (response.statusCode() != HTTP_OK) {
 
             validateStatusCode(response.statusCode());
         }
 
-        return GSON.fromJson(response.body(), News.class);
+        return response.body().get();
     }
 
     private void appendData(List<String> keywords, String category, String country, int pageNumber,
@@ -182,4 +767,138 @@ public class NewsFeed {
             throw new RuntimeException("There is an exception while creating URI.", e);
         }
     }
+
+    private record TimedResponse(HttpResponse<Supplier<News>> response, Duration timeToHeaders) {
+    }
+
+    //Builder Class
+    public static class NewsFeedBuilder {
+
+        //Required parameters
+        private final HttpClient newsFeedHttpClient;
+
+        //Optional parameters
+        private String apiKey;
+        private NewsFeedCache newsFeedCache;
+        private TokenBucketRateLimiter rateLimiter;
+        private RetryPolicy retryPolicy;
+        private int maxConcurrentQueries;
+        private ArticleArchive articleArchive;
+        private ArticleIndex articleIndex;
+        private NewsFeedListener listener;
+        private Executor decodingExecutor;
+
+        private NewsFeedBuilder(HttpClient newsFeedHttpClient) {
+
+            this.newsFeedHttpClient = newsFeedHttpClient;
+            this.apiKey = API_KEY;
+            this.retryPolicy = RetryPolicy.NO_RETRIES;
+            this.maxConcurrentQueries = DEFAULT_MAX_CONCURRENT_QUERIES;
+        }
+
+        public NewsFeedBuilder setApiKey(String apiKey) {
+
+            this.apiKey = apiKey;
+            return this;
+        }
+
+        /**
+         * @param newsFeedCache cache the news of repeated queries are taken from instead of the news feed service,
+         *                      or null to send every query
+         */
+        public NewsFeedBuilder setNewsFeedCache(NewsFeedCache newsFeedCache) {
+
+            this.newsFeedCache = newsFeedCache;
+            return this;
+        }
+
+        /**
+         * @param rateLimiter rate limiter every request waits for, e.g. one shared by all news feeds using the
+         *                    same API key through {@link TokenBucketRateLimiter#shared}, or null not to wait
+         */
+        public NewsFeedBuilder setRateLimiter(TokenBucketRateLimiter rateLimiter) {
+
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * @param retryPolicy how requests rejected with 429 or a 5xx status code are retried;
+         *                    by default they are not
+         */
+        public NewsFeedBuilder setRetryPolicy(RetryPolicy retryPolicy) {
+
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentQueries how many queries {@link NewsFeed#getNewsFeeds} requests at a time;
+         *                             8 by default
+         */
+        public NewsFeedBuilder setMaxConcurrentQueries(int maxConcurrentQueries) {
+
+            this.maxConcurrentQueries = maxConcurrentQueries;
+            return this;
+        }
+
+        /**
+         * @param articleArchive archive every received article is kept in, in which case the articles repeated in
+         *                       the pages of a query are returned once; or null not to archive the articles
+         */
+        public NewsFeedBuilder setArticleArchive(ArticleArchive articleArchive) {
+
+            this.articleArchive = articleArchive;
+            return this;
+        }
+
+        /**
+         * @param articleIndex index of the articles of every fetched query, which {@link NewsFeed#searchLocal}
+         *                     answers queries from; or null not to index the articles
+         */
+        public NewsFeedBuilder setArticleIndex(ArticleIndex articleIndex) {
+
+            this.articleIndex = articleIndex;
+            return this;
+        }
+
+        /**
+         * @param listener receives the metrics of every response, failed requests and cache hits, e.g.
+         *                 {@link bg.sofia.uni.fmi.mjt.newsfeed.metrics.NewsFeedMetrics}; or null not to collect them
+         */
+        public NewsFeedBuilder setListener(NewsFeedListener listener) {
+
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * @param decodingExecutor executor the asynchronously received responses are decoded in, which blocks its
+         *                         threads until the bodies are received; or null to use a pool of the news feeds
+         */
+        public NewsFeedBuilder setDecodingExecutor(Executor decodingExecutor) {
+
+            this.decodingExecutor = decodingExecutor;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the retry policy is null or the maximum number of concurrent queries
+         *                                  is not positive
+         */
+        public NewsFeed build() {
+
+            if (this.retryPolicy == null) {
+                throw new IllegalArgumentException("The retry policy cannot be null.");
+            }
+
+            if (this.maxConcurrentQueries <= 0) {
+                throw new IllegalArgumentException("The maximum number of concurrent queries must be positive.");
+            }
+
+
+            return new NewsFeed(this);
+        }
+
+    }
 }
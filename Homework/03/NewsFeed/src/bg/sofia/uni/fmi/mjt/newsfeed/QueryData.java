@@ -1,6 +1,7 @@
 package bg.sofia.uni.fmi.mjt.newsfeed;
 
 import java.util.List;
+import java.util.Objects;
 
 public class QueryData {
 
@@ -23,6 +24,20 @@ public class QueryData {
         return country;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        QueryData queryData = (QueryData) o;
+        return Objects.equals(keywords, queryData.keywords) && Objects.equals(category, queryData.category) &&
+            Objects.equals(country, queryData.country);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keywords, category, country);
+    }
+
     public static QueryDataBuilder builder(List<String> keywords) {
 
         return new QueryDataBuilder(keywords);
@@ -47,7 +62,8 @@ public class QueryData {
 
         private QueryDataBuilder(List<String> keywords) {
 
-            this.keywords = keywords;
+            // A copy, since the query data is used as a key and must not change with the list of the caller
+            this.keywords = List.copyOf(keywords);
         }
 
         public QueryDataBuilder setCategory(String category) {
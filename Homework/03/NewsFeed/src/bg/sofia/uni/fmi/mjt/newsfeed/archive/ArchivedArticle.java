@@ -0,0 +1,12 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.archive;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+
+import java.time.Instant;
+
+/**
+ * @param archivedAt when the article was first seen and archived
+ * @param article    the archived article
+ */
+public record ArchivedArticle(Instant archivedAt, Article article) {
+}
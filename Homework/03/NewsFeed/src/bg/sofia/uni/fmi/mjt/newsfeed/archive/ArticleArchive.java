@@ -0,0 +1,347 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.archive;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps every article once in an append-only file, one compact JSON record per line. Articles are identified
+ * by a hash of their url and title. Only the hashes and the positions of the records are kept in memory; the
+ * articles are read from the file when they are requested. A record which was not completely written, e.g.
+ * because the process was stopped, is removed when the archive is opened. After a failed write the records
+ * of the failed call are removed, so the archive can be appended to again.
+ */
+public class ArticleArchive implements Closeable {
+
+    private static final Gson GSON = new Gson();
+    private static final int RECORD_SEPARATOR = '\n';
+    private static final char KEY_SEPARATOR = '\n';
+
+    private final Path archivePath;
+    private final Clock clock;
+    private final Set<UUID> articleKeys;
+    private final List<IndexEntry> index;
+    private final ArchiveOutputOpener archiveOutputOpener;
+    private OutputStream archiveOutputStream;
+    private long archiveSize;
+
+    /**
+     * @param archivePath file of the archive, which is created if it does not exist
+     * @throws IOException if the archive could not be opened or contains records which are not articles
+     */
+    public ArticleArchive(Path archivePath) throws IOException {
+
+        this(archivePath, Clock.systemUTC());
+    }
+
+    public ArticleArchive(Path archivePath, Clock clock) throws IOException {
+
+        this(archivePath, clock, path -> Files.newOutputStream(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    ArticleArchive(Path archivePath, Clock clock, ArchiveOutputOpener archiveOutputOpener) throws IOException {
+
+        if (archivePath == null || clock == null) {
+            throw new IllegalArgumentException("The given arguments cannot be null.");
+        }
+
+        this.archivePath = archivePath;
+        this.clock = clock;
+        this.archiveOutputOpener = archiveOutputOpener;
+        this.articleKeys = new HashSet<>();
+        this.index = new ArrayList<>();
+        this.archiveSize = 0;
+
+        if (Files.exists(archivePath)) {
+
+            readIndex();
+        }
+
+        this.archiveOutputStream = new BufferedOutputStream(archiveOutputOpener.open(archivePath));
+    }
+
+    /**
+     * @return the key which identifies the article in the archive, a hash of its url and title
+     */
+    public static UUID getKey(Article article) {
+
+        return UUID.nameUUIDFromBytes((article.url() + KEY_SEPARATOR + article.title())
+            .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Archives the articles which are not in the archive yet, in the given order
+     *
+     * @return the articles which were archived, without the ones archived before and the repeated ones
+     * @throws IOException if the articles could not be written
+     */
+    public synchronized List<Article> archive(Collection<Article> articles) throws IOException {
+
+        if (articles == null) {
+            throw new IllegalArgumentException("The given argument cannot be null.");
+        }
+
+        List<Article> archivedArticles = new ArrayList<>();
+        List<IndexEntry> indexEntries = new ArrayList<>();
+        Set<UUID> newKeys = new HashSet<>();
+        long archivedAt = getArchiveTime();
+        long recordOffset = this.archiveSize;
+
+        if (this.archiveOutputStream == null) {
+
+            reopen();
+        }
+
+        try {
+
+            for (Article currentArticle : articles) {
+
+                UUID key = getKey(currentArticle);
+
+                if (this.articleKeys.contains(key) || !newKeys.add(key)) {
+
+                    continue;
+                }
+
+                byte[] record = GSON.toJson(new ArchiveRecord(archivedAt, currentArticle))
+                    .getBytes(StandardCharsets.UTF_8);
+                this.archiveOutputStream.write(record);
+                this.archiveOutputStream.write(RECORD_SEPARATOR);
+
+                indexEntries.add(new IndexEntry(key, archivedAt, recordOffset));
+                archivedArticles.add(currentArticle);
+                recordOffset += record.length + 1;
+            }
+
+            this.archiveOutputStream.flush();
+        } catch (IOException e) {
+
+            // The end of the file is unknown after a failed write, so the records of this call are removed and
+            // the next call appends after the last complete record.
+            try {
+
+                reopen();
+            } catch (IOException reopenException) {
+
+                e.addSuppressed(reopenException);
+            }
+
+            throw e;
+        }
+
+        // The articles are indexed only after they are written, so readers never look for missing records.
+        for (IndexEntry currentEntry : indexEntries) {
+
+            this.articleKeys.add(currentEntry.key());
+            this.index.add(currentEntry);
+        }
+
+        this.archiveSize = recordOffset;
+
+        return archivedArticles;
+    }
+
+    public synchronized boolean contains(Article article) {
+
+        return this.articleKeys.contains(getKey(article));
+    }
+
+    public synchronized int size() {
+
+        return this.index.size();
+    }
+
+    /**
+     * @return the articles archived at or after the given time, in the order they were archived
+     * @throws IOException if the articles could not be read
+     */
+    public List<ArchivedArticle> getArticlesSince(Instant since) throws IOException {
+
+        if (since == null) {
+            throw new IllegalArgumentException("The given argument cannot be null.");
+        }
+
+        long firstOffset;
+        int articlesCount;
+
+        synchronized (this) {
+
+            int firstIndex = findFirstArchivedAt(since.toEpochMilli());
+
+            if (firstIndex == this.index.size()) {
+
+                return List.of();
+            }
+
+            firstOffset = this.index.get(firstIndex).offset();
+            articlesCount = this.index.size() - firstIndex;
+        }
+
+        List<ArchivedArticle> result = new ArrayList<>(articlesCount);
+
+        try (FileChannel archiveChannel = FileChannel.open(this.archivePath, StandardOpenOption.READ);
+             BufferedReader archiveReader = new BufferedReader(Channels.newReader(archiveChannel.position(firstOffset),
+                 StandardCharsets.UTF_8))) {
+
+            for (int i = 0; i < articlesCount; i++) {
+
+                ArchiveRecord record = parseRecord(archiveReader.readLine());
+                result.add(new ArchivedArticle(Instant.ofEpochMilli(record.archivedAt()), record.article()));
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+
+        if (this.archiveOutputStream != null) {
+
+            this.archiveOutputStream.close();
+        }
+    }
+
+    private void reopen() throws IOException {
+
+        OutputStream failedOutputStream = this.archiveOutputStream;
+        this.archiveOutputStream = null;
+
+        if (failedOutputStream != null) {
+
+            try {
+
+                failedOutputStream.close();
+            } catch (IOException e) {
+
+                // The buffered part of the failed records is discarded together with the rest of them
+            }
+        }
+
+        // If the archive cannot be truncated or opened, the next call tries again.
+        try (FileChannel archiveChannel = FileChannel.open(this.archivePath, StandardOpenOption.WRITE)) {
+
+            archiveChannel.truncate(this.archiveSize);
+        }
+
+        this.archiveOutputStream = new BufferedOutputStream(this.archiveOutputOpener.open(this.archivePath));
+    }
+
+    private void readIndex() throws IOException {
+
+        try (InputStream archiveInputStream = new BufferedInputStream(Files.newInputStream(this.archivePath))) {
+
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            int currentByte;
+
+            while ((currentByte = archiveInputStream.read()) != -1) {
+
+                if (currentByte != RECORD_SEPARATOR) {
+
+                    record.write(currentByte);
+                    continue;
+                }
+
+                ArchiveRecord archiveRecord = parseRecord(record.toString(StandardCharsets.UTF_8));
+                UUID key = getKey(archiveRecord.article());
+
+                this.articleKeys.add(key);
+                this.index.add(new IndexEntry(key, archiveRecord.archivedAt(), this.archiveSize));
+                this.archiveSize += record.size() + 1;
+                record.reset();
+            }
+        }
+
+        if (Files.size(this.archivePath) > this.archiveSize) {
+
+            try (FileChannel archiveChannel = FileChannel.open(this.archivePath, StandardOpenOption.WRITE)) {
+
+                archiveChannel.truncate(this.archiveSize);
+            }
+        }
+    }
+
+    private ArchiveRecord parseRecord(String record) throws IOException {
+
+        try {
+
+            ArchiveRecord archiveRecord = GSON.fromJson(record, ArchiveRecord.class);
+
+            if (archiveRecord == null || archiveRecord.article() == null) {
+                throw new IOException("The archive contains a record which is not an article.");
+            }
+
+            return archiveRecord;
+        } catch (JsonParseException e) {
+
+            throw new IOException("The archive contains a record which is not an article.", e);
+        }
+    }
+
+    private long getArchiveTime() {
+
+        long archivedAt = this.clock.millis();
+
+        // The archive times never decrease, so the articles archived since a time follow each other in the file.
+        if (!this.index.isEmpty()) {
+
+            archivedAt = Math.max(archivedAt, this.index.get(this.index.size() - 1).archivedAt());
+        }
+
+        return archivedAt;
+    }
+
+    private int findFirstArchivedAt(long since) {
+
+        int low = 0;
+        int high = this.index.size();
+
+        while (low < high) {
+
+            int middle = (low + high) >>> 1;
+
+            if (this.index.get(middle).archivedAt() < since) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    interface ArchiveOutputOpener {
+
+        OutputStream open(Path archivePath) throws IOException;
+    }
+
+    private record ArchiveRecord(long archivedAt, Article article) {
+    }
+
+    private record IndexEntry(UUID key, long archivedAt, long offset) {
+    }
+}
@@ -0,0 +1,266 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.cache;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.IncorrectRequestException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.NewsFeedException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.ServerErrorException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.TooManyRequestsException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.UnauthorizedException;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Keeps the news of recent queries for a limited time. When the cache is full, the least recently used query
+ * is evicted. Callers asking for a query which is being loaded wait for that load instead of starting another
+ * one. Failed loads are not cached.
+ */
+public class NewsFeedCache {
+
+    private final Duration timeToLive;
+    private final int maxEntries;
+    private final Clock clock;
+    private final LinkedHashMap<QueryData, CacheEntry> entries;
+    private final Map<QueryData, CompletableFuture<List<News>>> loadsInFlight;
+
+    /**
+     * @param timeToLive time after which the news of a query are loaded again
+     * @param maxEntries maximum number of cached queries
+     * @throws IllegalArgumentException if the time to live is null or not positive, or maxEntries is not positive
+     */
+    public NewsFeedCache(Duration timeToLive, int maxEntries) {
+
+        this(timeToLive, maxEntries, Clock.systemUTC());
+    }
+
+    public NewsFeedCache(Duration timeToLive, int maxEntries, Clock clock) {
+
+        validateTimeToLive(timeToLive);
+        validateMaxEntries(maxEntries);
+
+        this.timeToLive = timeToLive;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.loadsInFlight = new HashMap<>();
+    }
+
+    /**
+     * @return the cached news of the query if they have not expired, otherwise the news loaded by the loader
+     */
+    public List<News> get(QueryData queryData, NewsFeedLoader loader) throws UnauthorizedException,
+        TooManyRequestsException, ServerErrorException, IncorrectRequestException {
+
+        CompletableFuture<List<News>> load;
+        boolean loading = false;
+
+        synchronized (this) {
+
+            CacheEntry entry = this.entries.get(queryData);
+
+            if (entry != null && entry.expiresAt().isAfter(this.clock.instant())) {
+
+                return entry.news();
+            }
+
+            this.entries.remove(queryData);
+            load = this.loadsInFlight.get(queryData);
+
+            if (load == null) {
+
+                load = new CompletableFuture<>();
+                this.loadsInFlight.put(queryData, load);
+                loading = true;
+            }
+        }
+
+        if (!loading) {
+
+            return awaitLoad(load);
+        }
+
+        try {
+
+            List<News> news = List.copyOf(loader.load(queryData));
+
+            synchronized (this) {
+
+                this.entries.put(queryData, new CacheEntry(news, this.clock.instant().plus(this.timeToLive)));
+                evictEldestEntries();
+            }
+
+            load.complete(news);
+            return news;
+        } catch (UnauthorizedException | TooManyRequestsException | ServerErrorException |
+                 IncorrectRequestException | RuntimeException e) {
+
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+
+            // Waiting callers are released even if the loader failed with an error.
+            load.completeExceptionally(new NewsFeedException("Could not retrieve news feed"));
+
+            synchronized (this) {
+
+                this.loadsInFlight.remove(queryData);
+            }
+        }
+    }
+
+    /**
+     * The same as {@link #get(QueryData, NewsFeedLoader)} without waiting for the news to be loaded
+     *
+     * @param asyncLoader starts loading the news for the query
+     */
+    public CompletableFuture<List<News>> getAsync(QueryData queryData,
+                                                  Function<QueryData, CompletableFuture<List<News>>> asyncLoader) {
+
+        CompletableFuture<List<News>> load;
+
+        synchronized (this) {
+
+            CacheEntry entry = this.entries.get(queryData);
+
+            if (entry != null && entry.expiresAt().isAfter(this.clock.instant())) {
+
+                return CompletableFuture.completedFuture(entry.news());
+            }
+
+            this.entries.remove(queryData);
+            load = this.loadsInFlight.get(queryData);
+
+            if (load != null) {
+
+                return load.copy();
+            }
+
+            load = new CompletableFuture<>();
+            this.loadsInFlight.put(queryData, load);
+        }
+
+        CompletableFuture<List<News>> startedLoad = load;
+
+        try {
+
+            asyncLoader.apply(queryData).whenComplete((news, exception) -> completeLoad(queryData, startedLoad, news,
+                exception));
+        } catch (RuntimeException e) {
+
+            completeLoad(queryData, startedLoad, null, e);
+        }
+
+        return startedLoad.copy();
+    }
+
+    public synchronized void invalidate(QueryData queryData) {
+
+        this.entries.remove(queryData);
+    }
+
+    public synchronized void clear() {
+
+        this.entries.clear();
+    }
+
+    /**
+     * @return the number of cached queries, including expired ones which have not been requested again yet
+     */
+    public synchronized int size() {
+
+        return this.entries.size();
+    }
+
+    private void completeLoad(QueryData queryData, CompletableFuture<List<News>> load, List<News> news,
+                              Throwable exception) {
+
+        List<News> loadedNews = exception == null ? List.copyOf(news) : null;
+
+        synchronized (this) {
+
+            if (loadedNews != null) {
+
+                this.entries.put(queryData, new CacheEntry(loadedNews, this.clock.instant().plus(this.timeToLive)));
+                evictEldestEntries();
+            }
+
+            this.loadsInFlight.remove(queryData);
+        }
+
+        if (loadedNews != null) {
+
+            load.complete(loadedNews);
+        } else {
+
+            load.completeExceptionally(exception instanceof CompletionException ? exception.getCause() : exception);
+        }
+    }
+
+    private void evictEldestEntries() {
+
+        var iterator = this.entries.entrySet().iterator();
+
+        while (this.entries.size() > this.maxEntries) {
+
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private List<News> awaitLoad(CompletableFuture<List<News>> load) throws UnauthorizedException,
+        TooManyRequestsException, ServerErrorException, IncorrectRequestException {
+
+        try {
+
+            return load.get();
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new NewsFeedException("Interrupted while waiting for the news feed", e);
+        } catch (ExecutionException e) {
+
+            Throwable cause = e.getCause();
+
+            if (cause instanceof UnauthorizedException unauthorizedException) {
+                throw unauthorizedException;
+            } else if (cause instanceof TooManyRequestsException tooManyRequestsException) {
+                throw tooManyRequestsException;
+            } else if (cause instanceof ServerErrorException serverErrorException) {
+                throw serverErrorException;
+            } else if (cause instanceof IncorrectRequestException incorrectRequestException) {
+                throw incorrectRequestException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw new NewsFeedException("Could not retrieve news feed", cause);
+        }
+    }
+
+    private void validateTimeToLive(Duration timeToLive) {
+
+        if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("The time to live must be positive.");
+        }
+    }
+
+    private void validateMaxEntries(int maxEntries) {
+
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("The maximum number of entries must be positive.");
+        }
+    }
+
+    private record CacheEntry(List<News> news, Instant expiresAt) {
+    }
+}
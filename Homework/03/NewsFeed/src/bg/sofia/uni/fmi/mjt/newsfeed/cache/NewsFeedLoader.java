@@ -0,0 +1,20 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.cache;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.IncorrectRequestException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.ServerErrorException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.TooManyRequestsException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.UnauthorizedException;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface NewsFeedLoader {
+
+    /**
+     * Retrieves the news for the query from the news feed service
+     */
+    List<News> load(QueryData queryData) throws UnauthorizedException, TooManyRequestsException,
+        ServerErrorException, IncorrectRequestException;
+}
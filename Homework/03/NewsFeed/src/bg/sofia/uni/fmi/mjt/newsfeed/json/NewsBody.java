@@ -0,0 +1,85 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.json;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Body of a successful response, which decodes the news from the response body when they are requested.
+ * The news can be requested only once.
+ */
+public class NewsBody implements Supplier<News> {
+
+    private final CountingInputStream inputStream;
+    private final Consumer<Article> articleConsumer;
+
+    /**
+     * @param articleConsumer receives the articles one by one instead of the decoded news,
+     *                        or null to keep them in the news
+     */
+    public NewsBody(InputStream inputStream, Consumer<Article> articleConsumer) {
+
+        this.inputStream = new CountingInputStream(inputStream);
+        this.articleConsumer = articleConsumer;
+    }
+
+    @Override
+    public News get() {
+
+        if (this.articleConsumer == null) {
+
+            return NewsJsonReader.readNews(this.inputStream);
+        }
+
+        return NewsJsonReader.readNews(this.inputStream, this.articleConsumer);
+    }
+
+    /**
+     * @return the number of bytes of the body read so far
+     */
+    public long getBytesRead() {
+
+        return this.inputStream.bytesRead;
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long bytesRead;
+
+        private CountingInputStream(InputStream inputStream) {
+
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            int readByte = super.read();
+
+            if (readByte != -1) {
+
+                this.bytesRead++;
+            }
+
+            return readByte;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+
+            int readCount = super.read(buffer, offset, length);
+
+            if (readCount > 0) {
+
+                this.bytesRead += readCount;
+            }
+
+            return readCount;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.json;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
+
+import java.net.http.HttpResponse;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+
+/**
+ * Gives the body of a successful response as a {@link NewsBody}, which decodes the news with
+ * {@link NewsJsonReader} while the body is received. Decoding blocks until the body is read, so it should not
+ * be done by the threads of the http client. The bodies of other responses are discarded and given as null.
+ */
+public class NewsBodyHandler implements HttpResponse.BodyHandler<Supplier<News>> {
+
+    private final Consumer<Article> articleConsumer;
+
+    public NewsBodyHandler() {
+        this(null);
+    }
+
+    /**
+     * @param articleConsumer receives the articles one by one instead of the decoded news,
+     *                        or null to keep them in the news
+     */
+    public NewsBodyHandler(Consumer<Article> articleConsumer) {
+
+        this.articleConsumer = articleConsumer;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<Supplier<News>> apply(HttpResponse.ResponseInfo responseInfo) {
+
+        if (responseInfo.statusCode() != HTTP_OK) {
+
+            return HttpResponse.BodySubscribers.replacing(null);
+        }
+
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(),
+            inputStream -> new NewsBody(inputStream, this.articleConsumer));
+    }
+}
@@ -0,0 +1,202 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.json;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Decodes the news returned by the news feed service while they are read, so the whole response is never kept
+ * in memory as text. Articles can be taken one by one before the rest of the response is read.
+ */
+public class NewsJsonReader {
+
+    private static final String STATUS_FIELD = "status";
+    private static final String TOTAL_RESULTS_FIELD = "totalResults";
+    private static final String ARTICLES_FIELD = "articles";
+
+    private static final TypeAdapter<Article> ARTICLE_ADAPTER = new Gson().getAdapter(Article.class);
+
+    private NewsJsonReader() {
+    }
+
+    /**
+     * @return the news read from the input stream, which is closed afterwards
+     * @throws JsonSyntaxException if the input stream does not contain news
+     * @throws JsonIOException     if the input stream could not be read
+     */
+    public static News readNews(InputStream inputStream) {
+
+        List<Article> articles = new ArrayList<>();
+        News news = readNews(inputStream, articles::add);
+
+        return new News(news.status(), news.totalResults(), articles.toArray(Article[]::new));
+    }
+
+    /**
+     * @param articleConsumer receives every article as soon as it is read
+     * @return the status and total results of the news read from the input stream, without the articles which
+     * are given to the consumer; the input stream is closed afterwards
+     * @throws JsonSyntaxException if the input stream does not contain news
+     * @throws JsonIOException     if the input stream could not be read
+     */
+    public static News readNews(InputStream inputStream, Consumer<Article> articleConsumer) {
+
+        String status = null;
+        int totalResults = 0;
+
+        try (JsonReader jsonReader = createJsonReader(inputStream)) {
+
+            jsonReader.beginObject();
+
+            while (jsonReader.hasNext()) {
+
+                String name = jsonReader.nextName();
+
+                if (jsonReader.peek() == JsonToken.NULL) {
+
+                    jsonReader.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+                    case STATUS_FIELD -> status = jsonReader.nextString();
+                    case TOTAL_RESULTS_FIELD -> totalResults = jsonReader.nextInt();
+                    case ARTICLES_FIELD -> readArticles(jsonReader, articleConsumer);
+                    default -> jsonReader.skipValue();
+                }
+            }
+
+            jsonReader.endObject();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+
+            throw toParseException(e);
+        }
+
+        return new News(status, totalResults, new Article[0]);
+    }
+
+    /**
+     * @return the articles of the news in the input stream, read only as the stream is consumed; the stream
+     * should be closed to close the input stream. Reading the stream throws the same exceptions as
+     * {@link #readNews(InputStream)}.
+     */
+    public static Stream<Article> readArticles(InputStream inputStream) {
+
+        JsonReader jsonReader = createJsonReader(inputStream);
+
+        return StreamSupport.stream(new ArticlesSpliterator(jsonReader), false)
+            .onClose(() -> {
+
+                try {
+
+                    jsonReader.close();
+                } catch (IOException e) {
+
+                    throw toParseException(e);
+                }
+            });
+    }
+
+    private static void readArticles(JsonReader jsonReader, Consumer<Article> articleConsumer) throws IOException {
+
+        jsonReader.beginArray();
+
+        while (jsonReader.hasNext()) {
+
+            articleConsumer.accept(ARTICLE_ADAPTER.read(jsonReader));
+        }
+
+        jsonReader.endArray();
+    }
+
+    private static JsonReader createJsonReader(InputStream inputStream) {
+
+        return new JsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    private static JsonParseException toParseException(Exception e) {
+
+        if (e instanceof IOException && !(e instanceof MalformedJsonException)) {
+
+            return new JsonIOException("Could not read the news.", e);
+        }
+
+        return new JsonSyntaxException("The input does not contain news.", e);
+    }
+
+    private static class ArticlesSpliterator extends Spliterators.AbstractSpliterator<Article> {
+
+        private final JsonReader jsonReader;
+        private boolean started;
+        private boolean finished;
+
+        private ArticlesSpliterator(JsonReader jsonReader) {
+
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.jsonReader = jsonReader;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Article> action) {
+
+            try {
+
+                if (!this.started) {
+
+                    this.started = true;
+                    this.finished = !moveToArticles();
+                }
+
+                if (this.finished || !this.jsonReader.hasNext()) {
+
+                    this.finished = true;
+                    return false;
+                }
+
+                action.accept(ARTICLE_ADAPTER.read(this.jsonReader));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+
+                throw toParseException(e);
+            }
+        }
+
+        private boolean moveToArticles() throws IOException {
+
+            this.jsonReader.beginObject();
+
+            while (this.jsonReader.hasNext()) {
+
+                if (this.jsonReader.nextName().equals(ARTICLES_FIELD) &&
+                    this.jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+
+                    this.jsonReader.beginArray();
+                    return true;
+                }
+
+                this.jsonReader.skipValue();
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in buckets with microsecond resolution. Every power of two is split into 8 buckets, so a
+ * percentile is at most 12.5% above the actual one. Recording never blocks and does not allocate.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS_COUNT;
+    private static final double MAX_PERCENTILE = 100.0;
+
+    private final AtomicLongArray bucketCounts;
+    private final LongAdder count;
+    private final LongAdder totalMicros;
+
+    public LatencyHistogram() {
+
+        this.bucketCounts = new AtomicLongArray(BUCKETS_COUNT);
+        this.count = new LongAdder();
+        this.totalMicros = new LongAdder();
+    }
+
+    public void record(Duration duration) {
+
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(duration.toNanos()));
+
+        this.bucketCounts.incrementAndGet(getBucket(micros));
+        this.count.increment();
+        this.totalMicros.add(micros);
+    }
+
+    public long getCount() {
+
+        return this.count.sum();
+    }
+
+    public Duration getMean() {
+
+        long recordedCount = getCount();
+
+        return recordedCount == 0 ? Duration.ZERO : Duration.ofNanos(
+            TimeUnit.MICROSECONDS.toNanos(this.totalMicros.sum()) / recordedCount);
+    }
+
+    /**
+     * @param percentile between 0 exclusive and 100 inclusive, e.g. 99 for the duration which 99% of the
+     *                   recorded durations do not exceed
+     * @return the upper bound of the bucket of the percentile, or zero if nothing is recorded
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public Duration getPercentile(double percentile) {
+
+        if (percentile <= 0 || percentile > MAX_PERCENTILE) {
+            throw new IllegalArgumentException("The percentile must be between 0 exclusive and 100 inclusive.");
+        }
+
+        long[] counts = new long[BUCKETS_COUNT];
+        long recordedCount = 0;
+
+        for (int i = 0; i < BUCKETS_COUNT; i++) {
+
+            counts[i] = this.bucketCounts.get(i);
+            recordedCount += counts[i];
+        }
+
+        long rank = (long) Math.ceil(percentile / MAX_PERCENTILE * recordedCount);
+        long seenCount = 0;
+
+        for (int i = 0; i < BUCKETS_COUNT && recordedCount > 0; i++) {
+
+            seenCount += counts[i];
+
+            if (seenCount >= rank) {
+
+                return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(getBucketUpperBound(i)));
+            }
+        }
+
+        return Duration.ZERO;
+    }
+
+    private static int getBucket(long micros) {
+
+        if (micros < SUB_BUCKETS_COUNT) {
+
+            return (int) micros;
+        }
+
+        int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS_COUNT - 1);
+
+        return (highestBit - SUB_BUCKET_BITS + 1) * SUB_BUCKETS_COUNT + subBucket;
+    }
+
+    private static long getBucketUpperBound(int bucket) {
+
+        if (bucket < SUB_BUCKETS_COUNT) {
+
+            return bucket;
+        }
+
+        int highestBit = bucket / SUB_BUCKETS_COUNT + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS_COUNT;
+
+        return ((SUB_BUCKETS_COUNT + subBucket + 1) << (highestBit - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,36 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.metrics;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+
+/**
+ * Receives what happens while the news feed is requested. It is called by the threads which request the news,
+ * so it should return quickly.
+ */
+public interface NewsFeedListener {
+
+    /**
+     * Called for every received response, including the ones which are retried
+     */
+    default void onResponseReceived(ResponseMetrics responseMetrics) {
+    }
+
+    /**
+     * Called when a page could not be retrieved after all retries
+     *
+     * @param exception the exception the request failed with
+     */
+    default void onRequestFailed(QueryData queryData, int pageNumber, Exception exception) {
+    }
+
+    /**
+     * Called when the news of a query are taken from the cache or from a load of the same query in progress
+     */
+    default void onCacheHit(QueryData queryData) {
+    }
+
+    /**
+     * Called when the news of a query are not cached and are requested
+     */
+    default void onCacheMiss(QueryData queryData) {
+    }
+}
@@ -0,0 +1,112 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.metrics;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener which keeps counters and latency histograms of the requests of the news feeds it is set to. Updates
+ * use only striped counters and atomic arrays, so it can be left on while serving.
+ */
+public class NewsFeedMetrics implements NewsFeedListener {
+
+    private final LatencyHistogram timeToHeaders;
+    private final LatencyHistogram bodyTime;
+    private final LongAdder bytesReceived;
+    private final LongAdder cacheHits;
+    private final LongAdder cacheMisses;
+    private final Map<Integer, LongAdder> responsesByStatusCode;
+    private final Map<Class<? extends Exception>, LongAdder> failuresByType;
+
+    public NewsFeedMetrics() {
+
+        this.timeToHeaders = new LatencyHistogram();
+        this.bodyTime = new LatencyHistogram();
+        this.bytesReceived = new LongAdder();
+        this.cacheHits = new LongAdder();
+        this.cacheMisses = new LongAdder();
+        this.responsesByStatusCode = new ConcurrentHashMap<>();
+        this.failuresByType = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void onResponseReceived(ResponseMetrics responseMetrics) {
+
+        this.timeToHeaders.record(responseMetrics.timeToHeaders());
+        this.bodyTime.record(responseMetrics.bodyTime());
+        this.bytesReceived.add(responseMetrics.bytesReceived());
+        this.responsesByStatusCode.computeIfAbsent(responseMetrics.statusCode(), ignored -> new LongAdder())
+            .increment();
+    }
+
+    @Override
+    public void onRequestFailed(QueryData queryData, int pageNumber, Exception exception) {
+
+        this.failuresByType.computeIfAbsent(exception.getClass(), ignored -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void onCacheHit(QueryData queryData) {
+
+        this.cacheHits.increment();
+    }
+
+    @Override
+    public void onCacheMiss(QueryData queryData) {
+
+        this.cacheMisses.increment();
+    }
+
+    /**
+     * @return the time from sending a request until its response headers were received
+     */
+    public LatencyHistogram getTimeToHeaders() {
+
+        return this.timeToHeaders;
+    }
+
+    /**
+     * @return the time to receive and decode a response body
+     */
+    public LatencyHistogram getBodyTime() {
+
+        return this.bodyTime;
+    }
+
+    public long getBytesReceived() {
+
+        return this.bytesReceived.sum();
+    }
+
+    public long getCacheHits() {
+
+        return this.cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+
+        return this.cacheMisses.sum();
+    }
+
+    /**
+     * @return the number of responses with the status code, e.g. 429 for rate limited requests
+     */
+    public long getResponsesCount(int statusCode) {
+
+        LongAdder responsesCount = this.responsesByStatusCode.get(statusCode);
+
+        return responsesCount == null ? 0 : responsesCount.sum();
+    }
+
+    /**
+     * @return the number of pages which could not be retrieved because of an exception of exactly this type
+     */
+    public long getFailuresCount(Class<? extends Exception> exceptionType) {
+
+        LongAdder failuresCount = this.failuresByType.get(exceptionType);
+
+        return failuresCount == null ? 0 : failuresCount.sum();
+    }
+}
@@ -0,0 +1,18 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.metrics;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+
+import java.time.Duration;
+
+/**
+ * @param queryData     the requested query
+ * @param pageNumber    the requested page
+ * @param statusCode    the status code of the response
+ * @param timeToHeaders time from sending the request until the response headers were received, which includes
+ *                      connecting and the time the server took
+ * @param bodyTime      time to receive and decode the body; zero if the body was not decoded
+ * @param bytesReceived size of the decoded body; zero if the body was not decoded
+ */
+public record ResponseMetrics(QueryData queryData, int pageNumber, int statusCode, Duration timeToHeaders,
+                              Duration bodyTime, long bytesReceived) {
+}
@@ -0,0 +1,119 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.ratelimit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How many times a request rejected with 429 or a 5xx status code is sent again and how long to wait before that.
+ * The wait doubles with every retry up to {@code maxBackoff}, and a random half of it is jittered so that
+ * clients rejected together do not retry together.
+ */
+public record RetryPolicy(int maxRetries, Duration initialBackoff, Duration maxBackoff) {
+
+    public static final RetryPolicy NO_RETRIES = new RetryPolicy(0, Duration.ZERO, Duration.ZERO);
+
+    private static final Duration MAX_DURATION = Duration.ofSeconds(Long.MAX_VALUE);
+
+    /**
+     * @throws IllegalArgumentException if maxRetries is negative, a backoff is null or negative or
+     *                                  the initial backoff is longer than the maximum one
+     */
+    public RetryPolicy {
+
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries cannot be negative.");
+        }
+
+        if (initialBackoff == null || maxBackoff == null || initialBackoff.isNegative() ||
+            initialBackoff.compareTo(maxBackoff) > 0) {
+            throw new IllegalArgumentException("The backoffs must be non-negative and initialBackoff cannot be " +
+                "longer than maxBackoff.");
+        }
+    }
+
+    /**
+     * @param retry number of the retry, starting from 0
+     * @return the time to wait before the retry
+     */
+    public Duration getBackoff(int retry) {
+
+        long maxBackoffNanos = this.maxBackoff.toNanos();
+        long backoffNanos = this.initialBackoff.toNanos();
+
+        for (int i = 0; i < retry && backoffNanos < maxBackoffNanos; i++) {
+
+            backoffNanos *= 2;
+        }
+
+        backoffNanos = Math.min(backoffNanos, maxBackoffNanos);
+
+        long halfBackoffNanos = backoffNanos / 2;
+
+        return Duration.ofNanos(halfBackoffNanos + ThreadLocalRandom.current().nextLong(halfBackoffNanos + 1));
+    }
+
+    /**
+     * @param retry      number of the retry, starting from 0
+     * @param retryAfter value of the Retry-After header of the rejected response, either a number of seconds or
+     *                   an HTTP-date, or null if there is no such header
+     * @param now        the time an HTTP-date is counted from
+     * @return the time to wait before the retry, which is the time the server asked for if it is longer than
+     * the backoff; or empty if the server asked to wait longer than {@code maxBackoff}, in which case the request
+     * is not retried. A Retry-After value which is neither of the two forms is ignored.
+     */
+    public Optional<Duration> getBackoff(int retry, String retryAfter, Instant now) {
+
+        Duration requestedBackoff = parseRetryAfter(retryAfter, now);
+
+        if (requestedBackoff.compareTo(this.maxBackoff) > 0) {
+
+            return Optional.empty();
+        }
+
+        Duration backoff = getBackoff(retry);
+
+        return Optional.of(requestedBackoff.compareTo(backoff) > 0 ? requestedBackoff : backoff);
+    }
+
+    private static Duration parseRetryAfter(String retryAfter, Instant now) {
+
+        if (retryAfter == null || retryAfter.isBlank()) {
+
+            return Duration.ZERO;
+        }
+
+        String value = retryAfter.strip();
+
+        try {
+
+            if (value.chars().allMatch(Character::isDigit)) {
+
+                return parseSeconds(value);
+            }
+
+            Instant retryAt = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+
+            return retryAt.isAfter(now) ? Duration.between(now, retryAt) : Duration.ZERO;
+        } catch (DateTimeParseException e) {
+
+            return Duration.ZERO;
+        }
+    }
+
+    private static Duration parseSeconds(String digits) {
+
+        try {
+
+            return Duration.ofSeconds(Long.parseLong(digits));
+        } catch (NumberFormatException e) {
+
+            // Only a number too large for a long gets here, which still asks to wait longer than any backoff.
+            return MAX_DURATION;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * @param requests          number of requests sent, including retries
+ * @param throttledRequests number of requests which waited for the rate limiter
+ * @param throttleWaitTime  total time requests waited for the rate limiter
+ * @param retries           number of requests sent again after 429 or a 5xx status code
+ */
+public record ThrottleMetrics(long requests, long throttledRequests, Duration throttleWaitTime, long retries) {
+}
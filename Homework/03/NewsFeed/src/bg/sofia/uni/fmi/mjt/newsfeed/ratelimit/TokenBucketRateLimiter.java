@@ -0,0 +1,102 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket which lets through a steady number of requests per second with bursts up to its capacity.
+ * A request which finds the bucket empty reserves the next token and is told how long to wait for it, so
+ * waiting requests are spread evenly instead of retrying all at once.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final Map<String, TokenBucketRateLimiter> SHARED_RATE_LIMITERS = new ConcurrentHashMap<>();
+
+    private final double nanosPerPermit;
+    private final int capacity;
+    private final LongSupplier nanoTimeSource;
+    private double availablePermits;
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond number of requests let through per second
+     * @param capacity         maximum number of requests let through at once after a quiet period
+     * @throws IllegalArgumentException if any of the arguments is not positive
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, int capacity) {
+
+        this(permitsPerSecond, capacity, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int capacity, LongSupplier nanoTimeSource) {
+
+        validatePositive(permitsPerSecond, "permitsPerSecond");
+        validatePositive(capacity, "capacity");
+
+        this.nanosPerPermit = NANOS_PER_SECOND / permitsPerSecond;
+        this.capacity = capacity;
+        this.nanoTimeSource = nanoTimeSource;
+        this.availablePermits = capacity;
+        this.lastRefillNanos = nanoTimeSource.getAsLong();
+    }
+
+    /**
+     * @return the rate limiter shared by everyone using the key, created with the given rate on first use
+     */
+    public static TokenBucketRateLimiter shared(String key, double permitsPerSecond, int capacity) {
+
+        return SHARED_RATE_LIMITERS.computeIfAbsent(key,
+            newKey -> new TokenBucketRateLimiter(permitsPerSecond, capacity));
+    }
+
+    /**
+     * Takes a permit, reserving a future one if none is available
+     *
+     * @return the time in nanoseconds to wait before using the permit
+     */
+    public synchronized long reserve() {
+
+        long now = this.nanoTimeSource.getAsLong();
+        refill(now);
+
+        this.availablePermits--;
+
+        // A negative number of permits means permits already reserved by requests which are waiting.
+        return this.availablePermits >= 0 ? 0 : (long) Math.ceil(-this.availablePermits * this.nanosPerPermit);
+    }
+
+    /**
+     * Takes a permit, waiting until one is available
+     *
+     * @return the time in nanoseconds waited
+     */
+    public long acquire() throws InterruptedException {
+
+        long waitNanos = reserve();
+
+        if (waitNanos > 0) {
+
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+
+        return waitNanos;
+    }
+
+    private void refill(long now) {
+
+        double newPermits = (now - this.lastRefillNanos) / this.nanosPerPermit;
+
+        this.availablePermits = Math.min(this.capacity, this.availablePermits + newPermits);
+        this.lastRefillNanos = now;
+    }
+
+    private static void validatePositive(double value, String name) {
+
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive.");
+        }
+    }
+}
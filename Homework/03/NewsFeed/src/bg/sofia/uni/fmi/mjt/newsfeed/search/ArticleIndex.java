@@ -0,0 +1,383 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.search;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+import bg.sofia.uni.fmi.mjt.newsfeed.archive.ArticleArchive;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index of the words in the titles and descriptions of fetched articles. Articles do not tell their
+ * category and country, so an article is found by the category and country of the queries it was fetched for.
+ * A query is answered only if a query fetched within the maximum age has returned every article which can
+ * match it: one with the same category and country, some of its keywords and all of its results. The answer holds
+ * only the articles fetched for its category and country within the maximum age.
+ * <p>
+ * Articles and queries are evicted once they were last fetched before the maximum age, so the index holds only
+ * what was fetched within it. Eviction follows the order of fetching, so it costs only for what is evicted.
+ */
+public class ArticleIndex {
+
+    private static final String WORD_SEPARATOR_REGEX = "[^\\p{L}\\p{N}]+";
+
+    private final Duration maxAge;
+    private final Clock clock;
+    private final ReadWriteLock lock;
+    private final List<IndexedArticle> articles;
+    private final Deque<Integer> freeArticleIds;
+    private final Map<UUID, Integer> articleIds;
+    private final Map<String, BitSet> wordPostings;
+    private final Map<Scope, BitSet> scopePostings;
+    private final Map<QueryData, FetchedQuery> fetchedQueries;
+    private final Deque<ArticleFetch> articleFetches;
+    private final Deque<QueryFetch> queryFetches;
+    private long articlesAddedCount;
+
+    /**
+     * @param maxAge time after which the articles fetched for a query are not used to answer queries and are
+     *               evicted unless they are fetched again
+     * @throws IllegalArgumentException if the maximum age is null or not positive
+     */
+    public ArticleIndex(Duration maxAge) {
+
+        this(maxAge, Clock.systemUTC());
+    }
+
+    public ArticleIndex(Duration maxAge, Clock clock) {
+
+        if (maxAge == null || maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("The maximum age must be positive.");
+        }
+
+        this.maxAge = maxAge;
+        this.clock = clock;
+        this.lock = new ReentrantReadWriteLock();
+        this.articles = new ArrayList<>();
+        this.freeArticleIds = new ArrayDeque<>();
+        this.articleIds = new HashMap<>();
+        this.wordPostings = new HashMap<>();
+        this.scopePostings = new HashMap<>();
+        this.fetchedQueries = new HashMap<>();
+        this.articleFetches = new ArrayDeque<>();
+        this.queryFetches = new ArrayDeque<>();
+        this.articlesAddedCount = 0;
+    }
+
+    /**
+     * @param queryData the query the articles were fetched for
+     * @param articles  the fetched articles
+     * @param complete  whether these are all articles the news feed service has for the query
+     */
+    public void add(QueryData queryData, Collection<Article> articles, boolean complete) {
+
+        if (queryData == null || articles == null) {
+            throw new IllegalArgumentException("The given arguments cannot be null.");
+        }
+
+        Scope scope = Scope.of(queryData);
+
+        this.lock.writeLock().lock();
+
+        try {
+
+            Instant fetchedAt = this.clock.instant();
+            evictFetchedBefore(fetchedAt.minus(this.maxAge));
+
+            BitSet scopeArticles = this.scopePostings.computeIfAbsent(scope, ignored -> new BitSet());
+
+            for (Article currentArticle : articles) {
+
+                int articleId = getOrAddArticleId(currentArticle);
+                IndexedArticle indexedArticle = this.articles.get(articleId);
+
+                scopeArticles.set(articleId);
+                indexedArticle.fetchedAtByScope().put(scope, fetchedAt);
+                this.articleFetches.add(new ArticleFetch(indexedArticle, articleId, scope, fetchedAt));
+            }
+
+            this.fetchedQueries.put(queryData, new FetchedQuery(getWords(queryData.getKeywords()), scope,
+                fetchedAt, complete));
+            this.queryFetches.add(new QueryFetch(queryData, fetchedAt));
+        } finally {
+
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the articles whose titles or descriptions contain all keywords of the query, fetched for its
+     * category and country, in the order they were first fetched; or empty if the articles fetched within the
+     * maximum age may not be all articles which match the query
+     */
+    public Optional<List<Article>> search(QueryData queryData) {
+
+        if (queryData == null) {
+            throw new IllegalArgumentException("The given argument cannot be null.");
+        }
+
+        Set<String> words = getWords(queryData.getKeywords());
+        Scope scope = Scope.of(queryData);
+
+        this.lock.readLock().lock();
+
+        try {
+
+            Instant oldestFetchTime = this.clock.instant().minus(this.maxAge);
+
+            if (!isCovered(words, scope, oldestFetchTime)) {
+
+                return Optional.empty();
+            }
+
+            BitSet matchingArticles = (BitSet) this.scopePostings.getOrDefault(scope, new BitSet()).clone();
+
+            for (String currentWord : words) {
+
+                matchingArticles.and(this.wordPostings.getOrDefault(currentWord, new BitSet()));
+            }
+
+            List<IndexedArticle> result = new ArrayList<>(matchingArticles.cardinality());
+
+            for (int id = matchingArticles.nextSetBit(0); id >= 0; id = matchingArticles.nextSetBit(id + 1)) {
+
+                IndexedArticle currentArticle = this.articles.get(id);
+
+                // Articles are evicted only when more are added, so older ones may still be indexed.
+                if (currentArticle.fetchedAtByScope().get(scope).isAfter(oldestFetchTime)) {
+
+                    result.add(currentArticle);
+                }
+            }
+
+            // The ids of evicted articles are reused, so they do not tell the order the articles were fetched in.
+            result.sort(Comparator.comparingLong(IndexedArticle::addedOrder));
+
+            return Optional.of(result.stream().map(IndexedArticle::article).toList());
+        } finally {
+
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the given articles whose titles or descriptions contain all keywords of the query, each once, in the
+     * given order; i.e. the articles {@link #search(QueryData)} finds among them
+     */
+    public List<Article> filter(QueryData queryData, Collection<Article> articles) {
+
+        if (queryData == null || articles == null) {
+            throw new IllegalArgumentException("The given arguments cannot be null.");
+        }
+
+        Set<String> words = getWords(queryData.getKeywords());
+        Set<UUID> keys = new HashSet<>();
+        List<Article> result = new ArrayList<>();
+
+        for (Article currentArticle : articles) {
+
+            if (getArticleWords(currentArticle).containsAll(words) && keys.add(ArticleArchive.getKey(currentArticle))) {
+
+                result.add(currentArticle);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the number of indexed articles, including ones fetched before the maximum age which are not yet
+     * evicted
+     */
+    public int size() {
+
+        this.lock.readLock().lock();
+
+        try {
+
+            return this.articleIds.size();
+        } finally {
+
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private boolean isCovered(Set<String> words, Scope scope, Instant oldestFetchTime) {
+
+        for (FetchedQuery currentQuery : this.fetchedQueries.values()) {
+
+            if (currentQuery.complete() && currentQuery.scope().equals(scope) &&
+                currentQuery.fetchedAt().isAfter(oldestFetchTime) && words.containsAll(currentQuery.words())) {
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int getOrAddArticleId(Article article) {
+
+        UUID key = ArticleArchive.getKey(article);
+        Integer articleId = this.articleIds.get(key);
+
+        if (articleId != null) {
+
+            return articleId;
+        }
+
+        int newArticleId = this.freeArticleIds.isEmpty() ? this.articles.size() : this.freeArticleIds.pop();
+        IndexedArticle indexedArticle = new IndexedArticle(article, this.articlesAddedCount++, new HashMap<>());
+
+        if (newArticleId == this.articles.size()) {
+
+            this.articles.add(indexedArticle);
+        } else {
+
+            this.articles.set(newArticleId, indexedArticle);
+        }
+
+        this.articleIds.put(key, newArticleId);
+
+        for (String currentWord : getArticleWords(article)) {
+
+            this.wordPostings.computeIfAbsent(currentWord, ignored -> new BitSet()).set(newArticleId);
+        }
+
+        return newArticleId;
+    }
+
+    private void evictFetchedBefore(Instant oldestFetchTime) {
+
+        // A fetch which was repeated later is skipped, since the article or the query is still in use.
+        while (!this.articleFetches.isEmpty() && !this.articleFetches.peek().fetchedAt().isAfter(oldestFetchTime)) {
+
+            ArticleFetch fetch = this.articleFetches.poll();
+            IndexedArticle indexedArticle = fetch.indexedArticle();
+
+            if (this.articles.get(fetch.articleId()) == indexedArticle &&
+                fetch.fetchedAt().equals(indexedArticle.fetchedAtByScope().get(fetch.scope()))) {
+
+                evictFromScope(fetch.articleId(), indexedArticle, fetch.scope());
+            }
+        }
+
+        while (!this.queryFetches.isEmpty() && !this.queryFetches.peek().fetchedAt().isAfter(oldestFetchTime)) {
+
+            QueryFetch fetch = this.queryFetches.poll();
+            FetchedQuery fetchedQuery = this.fetchedQueries.get(fetch.queryData());
+
+            if (fetchedQuery != null && fetchedQuery.fetchedAt().equals(fetch.fetchedAt())) {
+
+                this.fetchedQueries.remove(fetch.queryData());
+            }
+        }
+    }
+
+    private void evictFromScope(int articleId, IndexedArticle indexedArticle, Scope scope) {
+
+        indexedArticle.fetchedAtByScope().remove(scope);
+        removePosting(this.scopePostings, scope, articleId);
+
+        if (!indexedArticle.fetchedAtByScope().isEmpty()) {
+
+            return;
+        }
+
+        for (String currentWord : getArticleWords(indexedArticle.article())) {
+
+            removePosting(this.wordPostings, currentWord, articleId);
+        }
+
+        this.articles.set(articleId, null);
+        this.articleIds.remove(ArticleArchive.getKey(indexedArticle.article()));
+        this.freeArticleIds.push(articleId);
+    }
+
+    private static <K> void removePosting(Map<K, BitSet> postings, K key, int articleId) {
+
+        BitSet articleIds = postings.get(key);
+        articleIds.clear(articleId);
+
+        if (articleIds.isEmpty()) {
+
+            postings.remove(key);
+        }
+    }
+
+    private static Set<String> getArticleWords(Article article) {
+
+        return getWords(Stream.of(article.title(), article.description()).filter(Objects::nonNull).toList());
+    }
+
+    private static Set<String> getWords(List<String> texts) {
+
+        Set<String> words = new HashSet<>();
+
+        if (texts == null) {
+
+            return words;
+        }
+
+        for (String currentText : texts) {
+
+            for (String currentWord : currentText.toLowerCase(Locale.ROOT).split(WORD_SEPARATOR_REGEX)) {
+
+                if (!currentWord.isEmpty()) {
+
+                    words.add(currentWord);
+                }
+            }
+        }
+
+        return words;
+    }
+
+    private record Scope(String category, String country) {
+
+        private static Scope of(QueryData queryData) {
+
+            return new Scope(normalize(queryData.getCategory()), normalize(queryData.getCountry()));
+        }
+
+        private static String normalize(String value) {
+
+            return value == null || value.isBlank() ? "" : value.strip().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private record FetchedQuery(Set<String> words, Scope scope, Instant fetchedAt, boolean complete) {
+    }
+
+    /**
+     * @param addedOrder       the number of articles added to the index before this one
+     * @param fetchedAtByScope the last time the article was fetched for every scope it is indexed in
+     */
+    private record IndexedArticle(Article article, long addedOrder, Map<Scope, Instant> fetchedAtByScope) {
+    }
+
+    private record ArticleFetch(IndexedArticle indexedArticle, int articleId, Scope scope, Instant fetchedAt) {
+    }
+
+    private record QueryFetch(QueryData queryData, Instant fetchedAt) {
+    }
+}
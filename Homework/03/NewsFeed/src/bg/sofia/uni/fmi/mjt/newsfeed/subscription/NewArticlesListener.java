@@ -0,0 +1,23 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.subscription;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface NewArticlesListener {
+
+    /**
+     * Called after a poll which found articles that were not seen in the previous polls
+     *
+     * @param articles the new articles in the order the news feed service returned them
+     */
+    void onNewArticles(QueryData queryData, List<Article> articles);
+
+    /**
+     * Called after a scheduled poll failed; the next poll is still made
+     */
+    default void onPollFailed(QueryData queryData, Exception exception) {
+    }
+}
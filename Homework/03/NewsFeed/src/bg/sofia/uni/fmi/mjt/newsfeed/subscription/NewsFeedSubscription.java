@@ -0,0 +1,209 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.subscription;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+import bg.sofia.uni.fmi.mjt.newsfeed.archive.ArticleArchive;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.IncorrectRequestException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.ServerErrorException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.TooManyRequestsException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.UnauthorizedException;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the news of a query and gives only the articles which were not seen before to its listeners. The news
+ * feed service returns the newest articles first, so paging stops at the first page with an article which was
+ * already seen. Once the first poll has seen the current articles, a poll usually needs only the first page.
+ */
+public class NewsFeedSubscription implements Closeable {
+
+    private static final int SEEN_ARTICLES_PAGES = 10;
+
+    private final QueryData queryData;
+    private final NewsPageLoader pageLoader;
+    private final int pageSize;
+    private final int maxPages;
+    private final int maxSeenArticles;
+    private final Set<UUID> seenArticleKeys;
+    private final List<NewArticlesListener> listeners;
+    // Guards the scheduler apart from the polls, so that closing never waits for a blocked poll
+    private final Object lifecycleLock;
+    private ScheduledExecutorService scheduler;
+    private boolean closed;
+
+    /**
+     * @param queryData  the polled query
+     * @param pageLoader loads the pages of the query
+     * @param pageSize   number of articles on a full page
+     * @param maxPages   maximum number of pages loaded in a poll
+     * @throws IllegalArgumentException if the query or the loader are null, or the numbers are not positive
+     */
+    public NewsFeedSubscription(QueryData queryData, NewsPageLoader pageLoader, int pageSize, int maxPages) {
+
+        if (queryData == null || pageLoader == null) {
+            throw new IllegalArgumentException("The given arguments cannot be null.");
+        }
+
+        if (pageSize <= 0 || maxPages <= 0) {
+            throw new IllegalArgumentException("The page size and the maximum number of pages must be positive.");
+        }
+
+        this.queryData = queryData;
+        this.pageLoader = pageLoader;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.maxSeenArticles = SEEN_ARTICLES_PAGES * maxPages * pageSize;
+        this.seenArticleKeys = new LinkedHashSet<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.lifecycleLock = new Object();
+    }
+
+    public void addListener(NewArticlesListener listener) {
+
+        if (listener == null) {
+            throw new IllegalArgumentException("The given argument cannot be null.");
+        }
+
+        this.listeners.add(listener);
+    }
+
+    public void removeListener(NewArticlesListener listener) {
+
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Polls the query now and gives the new articles to the listeners. Throws the same exceptions as the page
+     * loader.
+     *
+     * @return the articles which were not seen in the previous polls
+     */
+    public synchronized List<Article> poll() throws UnauthorizedException, TooManyRequestsException,
+        ServerErrorException, IncorrectRequestException {
+
+        List<Article> newArticles = new ArrayList<>();
+        Set<UUID> newArticleKeys = new LinkedHashSet<>();
+
+        for (int i = 1; i <= this.maxPages; i++) {
+
+            News receivedNews = this.pageLoader.load(this.queryData, i);
+            boolean reachedSeenArticles = false;
+
+            for (Article currentArticle : receivedNews.articles()) {
+
+                UUID key = ArticleArchive.getKey(currentArticle);
+
+                if (this.seenArticleKeys.contains(key)) {
+
+                    reachedSeenArticles = true;
+                } else if (newArticleKeys.add(key)) {
+
+                    newArticles.add(currentArticle);
+                }
+            }
+
+            if (reachedSeenArticles || receivedNews.totalResults() <= i * this.pageSize) {
+                break;
+            }
+        }
+
+        rememberSeenArticles(newArticleKeys);
+
+        if (!newArticles.isEmpty()) {
+
+            for (NewArticlesListener currentListener : this.listeners) {
+
+                currentListener.onNewArticles(this.queryData, newArticles);
+            }
+        }
+
+        return newArticles;
+    }
+
+    /**
+     * Polls the query now and then after every poll interval in a background thread, until the subscription is
+     * closed. Failed polls are reported to the listeners.
+     *
+     * @throws IllegalArgumentException if the poll interval is null or not positive
+     * @throws IllegalStateException    if the subscription is already started or closed
+     */
+    public void start(Duration pollInterval) {
+
+        if (pollInterval == null || pollInterval.isNegative() || pollInterval.isZero()) {
+            throw new IllegalArgumentException("The poll interval must be positive.");
+        }
+
+        synchronized (this.lifecycleLock) {
+
+            if (this.scheduler != null || this.closed) {
+                throw new IllegalStateException("The subscription is already started or closed.");
+            }
+
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+
+                Thread thread = new Thread(runnable, "news-feed-subscription");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(this::pollAndReportFailure, 0, pollInterval.toNanos(),
+                TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stops the background polls. A poll which is in progress is interrupted and the method does not wait for it.
+     */
+    @Override
+    public void close() {
+
+        synchronized (this.lifecycleLock) {
+
+            this.closed = true;
+
+            if (this.scheduler != null) {
+
+                this.scheduler.shutdownNow();
+            }
+        }
+    }
+
+    private void pollAndReportFailure() {
+
+        try {
+
+            poll();
+        } catch (Exception e) {
+
+            // An exception would cancel the next polls, so it is only reported.
+            for (NewArticlesListener currentListener : this.listeners) {
+
+                currentListener.onPollFailed(this.queryData, e);
+            }
+        }
+    }
+
+    private void rememberSeenArticles(Set<UUID> newArticleKeys) {
+
+        this.seenArticleKeys.addAll(newArticleKeys);
+
+        Iterator<UUID> oldestKeys = this.seenArticleKeys.iterator();
+
+        while (this.seenArticleKeys.size() > this.maxSeenArticles) {
+
+            oldestKeys.next();
+            oldestKeys.remove();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.subscription;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.IncorrectRequestException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.ServerErrorException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.TooManyRequestsException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.UnauthorizedException;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
+
+@FunctionalInterface
+public interface NewsPageLoader {
+
+    /**
+     * Retrieves one page of the news for the query from the news feed service, starting from page 1
+     */
+    News load(QueryData queryData, int pageNumber) throws UnauthorizedException, TooManyRequestsException,
+        ServerErrorException, IncorrectRequestException;
+}
@@ -1,28 +1,58 @@
 package bg.sofia.uni.fmi.mjt.newsfeed;
 
+import bg.sofia.uni.fmi.mjt.newsfeed.archive.ArchivedArticle;
+import bg.sofia.uni.fmi.mjt.newsfeed.archive.ArticleArchive;
+import bg.sofia.uni.fmi.mjt.newsfeed.cache.NewsFeedCache;
 import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.IncorrectRequestException;
 import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.NewsFeedException;
 import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.ServerErrorException;
 import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.TooManyRequestsException;
 import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.UnauthorizedException;
+import bg.sofia.uni.fmi.mjt.newsfeed.json.NewsJsonReader;
+import bg.sofia.uni.fmi.mjt.newsfeed.metrics.NewsFeedMetrics;
 import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
 import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
 import bg.sofia.uni.fmi.mjt.newsfeed.model.Source;
+import bg.sofia.uni.fmi.mjt.newsfeed.ratelimit.RetryPolicy;
+import bg.sofia.uni.fmi.mjt.newsfeed.ratelimit.TokenBucketRateLimiter;
+import bg.sofia.uni.fmi.mjt.newsfeed.search.ArticleIndex;
+import bg.sofia.uni.fmi.mjt.newsfeed.subscription.NewsFeedSubscription;
 import com.google.gson.Gson;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.mockito.Mockito.when;
 
@@ -35,7 +65,7 @@ public class NewsFeedTest {
     private HttpClient newsFeedHttpClientMock = Mockito.mock(HttpClient.class);
 
     @Mock
-    private HttpResponse<String> newsFeedHttpResponseMock = Mockito.mock(HttpResponse.class);
+    private HttpResponse<Supplier<News>> newsFeedHttpResponseMock = Mockito.mock(HttpResponse.class);
 
     private NewsFeed newsFeed = new NewsFeed(newsFeedHttpClientMock);
 
@@ -53,7 +83,7 @@ public class NewsFeedTest {
     void setUp() throws IOException, InterruptedException {
 
         when(newsFeedHttpClientMock.send(Mockito.any(HttpRequest.class),
-            ArgumentMatchers.<HttpResponse.BodyHandler<String>>any()))
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any()))
             .thenReturn(newsFeedHttpResponseMock);
 
         this.newsFeed = new NewsFeed(newsFeedHttpClientMock);
@@ -64,7 +94,7 @@ public class NewsFeedTest {
         UnauthorizedException, ServerErrorException {
 
         when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
-        when(this.newsFeedHttpResponseMock.body()).thenReturn(sampleNewsJson);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(sampleNewsJson));
 
         var result = this.newsFeed.getNewsFeed(QueryData.builder(List.of("Important")).build());
 
@@ -87,7 +117,7 @@ public class NewsFeedTest {
         String sampleNewsJsonLocal = new Gson().toJson(sampleNewsLocal);
 
         when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
-        when(this.newsFeedHttpResponseMock.body()).thenReturn(sampleNewsJsonLocal);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(sampleNewsJsonLocal));
 
         var result = this.newsFeed.getNewsFeed(QueryData.builder(List.of("Article"))
             .setCategory("general").setCountry("gb").build());
@@ -117,7 +147,7 @@ public class NewsFeedTest {
         String sampleNewsJsonLocal = new Gson().toJson(sampleNewsLocal);
 
         when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
-        when(this.newsFeedHttpResponseMock.body()).thenReturn(sampleNewsJsonLocal);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(sampleNewsJsonLocal));
 
         var result = this.newsFeed.getNewsFeed(QueryData.builder(List.of("Article"))
             .setCategory("general").setCountry("gb").build());
@@ -179,6 +209,427 @@ public class NewsFeedTest {
             "NewsFeedException is expected but not thrown");
     }
 
+    @Test
+    void testGetNewsFeedWithCacheSendsRepeatedQueryOnce() throws Exception {
+
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(sampleNewsJson));
+
+        NewsFeed cachedNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setNewsFeedCache(new NewsFeedCache(Duration.ofMinutes(5), 100))
+            .build();
+
+        cachedNewsFeed.getNewsFeed(QueryData.builder(List.of("Important")).setCountry("bg").build());
+        var result = cachedNewsFeed.getNewsFeed(QueryData.builder(List.of("Important")).setCountry("bg").build());
+
+        Mockito.verify(this.newsFeedHttpClientMock, Mockito.times(1)).send(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any());
+        Assertions.assertEquals(sampleNews, result.get(0), "The cached news is not the same as the expected");
+    }
+
+    @Test
+    void testGetNewsFeedAsyncRequestsAllPagesInOrder() throws Exception {
+
+        when(this.newsFeedHttpClientMock.sendAsync(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any())).thenAnswer(invocation -> {
+
+                HttpRequest request = invocation.getArgument(0);
+                String page = request.uri().getQuery().replaceAll(".*page=(\\d+).*", "$1");
+
+                HttpResponse<Supplier<News>> pageResponse = Mockito.mock(HttpResponse.class);
+                when(pageResponse.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+                when(pageResponse.body()).thenReturn(newsBody(new Gson().toJson(new News("ok", 120, new Article[] {
+                    new Article(new Source("444", "bbc"), "Ivan Ivanov", "Page " + page, null, null, null, null,
+                        null)}))));
+
+                return CompletableFuture.completedFuture(pageResponse);
+            });
+
+        var result = this.newsFeed.getNewsFeedAsync(QueryData.builder(List.of("Article")).build())
+            .get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(3, result.size(), "All pages are expected to be requested");
+        Assertions.assertEquals(List.of("Page 1", "Page 2", "Page 3"),
+            result.stream().map(news -> news.articles()[0].title()).toList(),
+            "The pages are expected to be in order");
+    }
+
+    @Test
+    void testGetNewsFeedAsyncDecodesInTheDecodingExecutor() throws Exception {
+
+        when(this.newsFeedHttpClientMock.sendAsync(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any()))
+            .thenReturn(CompletableFuture.completedFuture(this.newsFeedHttpResponseMock));
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(sampleNewsJson));
+
+        AtomicInteger decodedCount = new AtomicInteger();
+        NewsFeed decodingNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setDecodingExecutor(task -> {
+
+                decodedCount.incrementAndGet();
+                task.run();
+            })
+            .build();
+
+        var result = decodingNewsFeed.getNewsFeedAsync(QueryData.builder(List.of("Important")).build())
+            .get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(List.of(sampleNews), result, "The decoded news are expected to be returned");
+        Assertions.assertEquals(1, decodedCount.get(), "The response is expected to be decoded in the executor");
+    }
+
+    @Test
+    void testGetNewsFeedAsyncTooManyRequests() {
+
+        when(this.newsFeedHttpClientMock.sendAsync(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any()))
+            .thenReturn(CompletableFuture.completedFuture(this.newsFeedHttpResponseMock));
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HTTP_TOO_MANY_REQUESTS);
+
+        var result = this.newsFeed.getNewsFeedAsync(QueryData.builder(List.of("Education")).build());
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, result::get,
+            "ExecutionException is expected but not thrown");
+        Assertions.assertInstanceOf(TooManyRequestsException.class, exception.getCause(),
+            "The future is expected to fail with TooManyRequestsException");
+    }
+
+    @Test
+    void testGetNewsFeedRetriesAfterTooManyRequests() throws Exception {
+
+        HttpResponse<Supplier<News>> rateLimitedResponse = Mockito.mock(HttpResponse.class);
+        when(rateLimitedResponse.statusCode()).thenReturn(HTTP_TOO_MANY_REQUESTS);
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(sampleNewsJson));
+        when(this.newsFeedHttpClientMock.send(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any()))
+            .thenReturn(rateLimitedResponse, this.newsFeedHttpResponseMock);
+
+        NewsFeed retryingNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setRateLimiter(new TokenBucketRateLimiter(1_000, 10))
+            .setRetryPolicy(new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(5)))
+            .build();
+
+        var result = retryingNewsFeed.getNewsFeed(QueryData.builder(List.of("Important")).build());
+
+        Assertions.assertEquals(sampleNews, result.get(0), "The news of the retried request are expected");
+        Assertions.assertEquals(2, retryingNewsFeed.getThrottleMetrics().requests(),
+            "The retried request is expected to be counted");
+        Assertions.assertEquals(1, retryingNewsFeed.getThrottleMetrics().retries(), "One retry is expected");
+    }
+
+    @Test
+    void testGetNewsFeedRetriesAfterTooManyRequestsWithRetryAfterDate() throws Exception {
+
+        HttpResponse<Supplier<News>> rateLimitedResponse = Mockito.mock(HttpResponse.class);
+        HttpHeaders retryAfterHeaders = HttpHeaders.of(Map.of("Retry-After", List.of("Wed, 21 Oct 2015 07:28:00 GMT")),
+            (name, value) -> true);
+        when(rateLimitedResponse.statusCode()).thenReturn(HTTP_TOO_MANY_REQUESTS);
+        when(rateLimitedResponse.headers()).thenReturn(retryAfterHeaders);
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(sampleNewsJson));
+        when(this.newsFeedHttpClientMock.send(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any()))
+            .thenReturn(rateLimitedResponse, this.newsFeedHttpResponseMock);
+
+        NewsFeed retryingNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setRetryPolicy(new RetryPolicy(1, Duration.ofMillis(1), Duration.ofMillis(5)))
+            .build();
+
+        var result = retryingNewsFeed.getNewsFeed(QueryData.builder(List.of("Important")).build());
+
+        Assertions.assertEquals(sampleNews, result.get(0),
+            "The request is expected to be retried when Retry-After is an HTTP-date");
+    }
+
+    @Test
+    void testGetNewsFeedFailsWhenRetryAfterExceedsMaxBackoff() throws Exception {
+
+        HttpHeaders retryAfterHeaders = HttpHeaders.of(Map.of("Retry-After", List.of("86400")),
+            (name, value) -> true);
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HTTP_TOO_MANY_REQUESTS);
+        when(this.newsFeedHttpResponseMock.headers()).thenReturn(retryAfterHeaders);
+
+        NewsFeed retryingNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setRetryPolicy(new RetryPolicy(1, Duration.ofMillis(1), Duration.ofSeconds(5)))
+            .build();
+
+        Assertions.assertThrows(TooManyRequestsException.class,
+            () -> retryingNewsFeed.getNewsFeed(QueryData.builder(List.of("Important")).build()),
+            "TooManyRequestsException is expected instead of waiting for a day");
+        Assertions.assertEquals(0, retryingNewsFeed.getThrottleMetrics().retries(),
+            "The request is expected not to be retried");
+
+        when(this.newsFeedHttpClientMock.sendAsync(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any()))
+            .thenReturn(CompletableFuture.completedFuture(this.newsFeedHttpResponseMock));
+
+        var result = retryingNewsFeed.getNewsFeedAsync(QueryData.builder(List.of("Education")).build());
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+            () -> result.get(5, TimeUnit.SECONDS), "ExecutionException is expected but not thrown");
+        Assertions.assertInstanceOf(TooManyRequestsException.class, exception.getCause(),
+            "The future is expected to fail with TooManyRequestsException instead of waiting for a day");
+    }
+
+    @Test
+    void testGetNewsFeedAsyncFailsAfterLastRetry() {
+
+        when(this.newsFeedHttpClientMock.sendAsync(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any()))
+            .thenReturn(CompletableFuture.completedFuture(this.newsFeedHttpResponseMock));
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_INTERNAL_ERROR);
+
+        NewsFeed retryingNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setRetryPolicy(new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(5)))
+            .build();
+
+        var result = retryingNewsFeed.getNewsFeedAsync(QueryData.builder(List.of("Education")).build());
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, result::get,
+            "ExecutionException is expected but not thrown");
+        Assertions.assertInstanceOf(ServerErrorException.class, exception.getCause(),
+            "The future is expected to fail with ServerErrorException after the last retry");
+        Assertions.assertEquals(3, retryingNewsFeed.getThrottleMetrics().requests(),
+            "The request is expected to be sent once and retried twice");
+    }
+
+    @Test
+    void testGetNewsFeedGivesArticlesToConsumer() throws Exception {
+
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpClientMock.send(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any())).thenAnswer(invocation -> {
+
+                // The body is decoded by the handler which was sent, as the http client would do.
+                Supplier<News> body = newsBody(sampleNewsJson, invocation.getArgument(1));
+                when(this.newsFeedHttpResponseMock.body()).thenReturn(body);
+
+                return this.newsFeedHttpResponseMock;
+            });
+
+        List<Article> articles = new ArrayList<>();
+        var result = this.newsFeed.getNewsFeed(QueryData.builder(List.of("Important")).build(), articles::add);
+
+        Assertions.assertEquals(List.of(sampleNews.articles()[0]), articles,
+            "The articles are expected to be given to the consumer");
+        Assertions.assertEquals(1, result.get(0).totalResults(), "The total results are expected to be kept");
+        Assertions.assertEquals(0, result.get(0).articles().length,
+            "The articles given to the consumer are not expected to be kept");
+    }
+
+    @Test
+    void testGetNewsFeedsRequestsBoundedNumberOfQueriesAtATime() throws Exception {
+
+        Map<String, CompletableFuture<HttpResponse<Supplier<News>>>> sentRequests = new ConcurrentHashMap<>();
+        when(this.newsFeedHttpClientMock.sendAsync(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any())).thenAnswer(invocation -> {
+
+                HttpRequest request = invocation.getArgument(0);
+                String keyword = request.uri().getQuery().replaceAll(".*q=(\\w+).*", "$1");
+
+                return sentRequests.computeIfAbsent(keyword, ignored -> new CompletableFuture<>());
+            });
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(sampleNewsJson));
+
+        NewsFeed boundedNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setMaxConcurrentQueries(2)
+            .build();
+        List<QueryData> queries = List.of(QueryData.builder(List.of("first")).build(),
+            QueryData.builder(List.of("second")).build(), QueryData.builder(List.of("third")).build(),
+            QueryData.builder(List.of("first")).build());
+
+        var result = boundedNewsFeed.getNewsFeeds(queries);
+
+        Assertions.assertEquals(3, result.size(), "Equal queries are expected to be requested once");
+        waitForSentRequests(sentRequests, 2);
+        Assertions.assertEquals(Set.of("first", "second"), sentRequests.keySet(),
+            "No more than the first two queries are expected to be requested");
+
+        sentRequests.get("second").complete(this.newsFeedHttpResponseMock);
+
+        Assertions.assertEquals(List.of(sampleNews), result.get(queries.get(1)).get(5, TimeUnit.SECONDS),
+            "The completed query is expected to be returned before the others complete");
+        Assertions.assertFalse(result.get(queries.get(0)).isDone(), "The other queries are expected to be pending");
+        waitForSentRequests(sentRequests, 3);
+
+        sentRequests.get("first").complete(this.newsFeedHttpResponseMock);
+        sentRequests.get("third").completeExceptionally(new IOException("connection reset"));
+
+        Assertions.assertEquals(List.of(sampleNews), result.get(queries.get(0)).get(5, TimeUnit.SECONDS),
+            "Every query is expected to be completed");
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+            () -> result.get(queries.get(2)).get(5, TimeUnit.SECONDS), "ExecutionException is expected but not thrown");
+        Assertions.assertInstanceOf(IncorrectRequestException.class, exception.getCause(),
+            "A failed query is expected to fail only its own future");
+    }
+
+    @Test
+    void testGetNewsFeedWithArchiveReturnsRepeatedArticlesOnce(@TempDir Path temporaryDirectory) throws Exception {
+
+        Article otherArticle = new Article(new Source("444", "bbc"), "Ivan Ivanov", "Other Article", null,
+            "This is other URL element", null, "16.01.2023", null);
+        Article[] articles = new Article[60];
+
+        for (int i = 0; i < 60; i++) {
+            articles[i] = i % 2 == 0 ? sampleNews.articles()[0] : otherArticle;
+        }
+
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(new Gson().toJson(new News("ok", 60,
+            articles))));
+
+        try (ArticleArchive articleArchive = new ArticleArchive(temporaryDirectory.resolve("articles.jsonl"))) {
+
+            NewsFeed archivingNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+                .setArticleArchive(articleArchive)
+                .build();
+
+            var result = archivingNewsFeed.getNewsFeed(QueryData.builder(List.of("Article")).build());
+
+            Assertions.assertEquals(2, result.size(), "Both pages are expected to be returned");
+            Assertions.assertArrayEquals(new Article[] {sampleNews.articles()[0], otherArticle},
+                result.get(0).articles(), "The repeated articles are expected to be returned once");
+            Assertions.assertEquals(0, result.get(1).articles().length,
+                "The articles of the first page are not expected to be returned again");
+            Assertions.assertEquals(List.of(sampleNews.articles()[0], otherArticle),
+                articleArchive.getArticlesSince(Instant.EPOCH).stream().map(ArchivedArticle::article).toList(),
+                "The returned articles are expected to be archived");
+        }
+    }
+
+    @Test
+    void testSearchLocalAnswersRepeatedQueryFromIndex() throws Exception {
+
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(sampleNewsJson));
+
+        NewsFeed indexingNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setArticleIndex(new ArticleIndex(Duration.ofMinutes(10)))
+            .build();
+
+        Assertions.assertEquals(List.of(sampleNews.articles()[0]),
+            indexingNewsFeed.searchLocal(QueryData.builder(List.of("important")).build()),
+            "The articles are expected to be requested first");
+        Assertions.assertEquals(List.of(sampleNews.articles()[0]),
+            indexingNewsFeed.searchLocal(QueryData.builder(List.of("important", "article")).build()),
+            "A query covered by the first one is expected to be answered from the index");
+        Assertions.assertEquals(List.of(),
+            indexingNewsFeed.searchLocal(QueryData.builder(List.of("important", "missing")).build()),
+            "No articles are expected for keywords which are not in the fetched articles");
+
+        Mockito.verify(this.newsFeedHttpClientMock, Mockito.times(1)).send(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any());
+    }
+
+    @Test
+    void testSearchLocalGivesSameAnswerWhenRequestedAndFromIndex() throws Exception {
+
+        Article titleMatch = sampleNews.articles()[0];
+        Article contentMatch = new Article(new Source("444", "bbc"), "Ivan Ivanov", "Weather", "Sunny days ahead",
+            "https://news.bg/weather", null, "15.01.2023", "An important article about the weather");
+        String newsJson = new Gson().toJson(new News("ok", 2, new Article[] {titleMatch, contentMatch}));
+
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(newsJson));
+
+        NewsFeed indexingNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setArticleIndex(new ArticleIndex(Duration.ofMinutes(10)))
+            .build();
+        QueryData queryData = QueryData.builder(List.of("important")).build();
+
+        Assertions.assertEquals(List.of(titleMatch), indexingNewsFeed.searchLocal(queryData),
+            "Articles which match only in their content are not expected when the query is requested");
+        Assertions.assertEquals(List.of(titleMatch), indexingNewsFeed.searchLocal(queryData),
+            "The same articles are expected when the query is answered from the index");
+    }
+
+    @Test
+    void testSearchLocalDoesNotIndexCachedNewsAsFetchedNow() throws Exception {
+
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(sampleNewsJson));
+
+        MutableClock clock = new MutableClock(Instant.parse("2023-01-20T10:00:00Z"));
+        ArticleIndex articleIndex = new ArticleIndex(Duration.ofMinutes(10), clock);
+        NewsFeed indexingNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setNewsFeedCache(new NewsFeedCache(Duration.ofHours(1), 10, clock))
+            .setArticleIndex(articleIndex)
+            .build();
+        QueryData queryData = QueryData.builder(List.of("important")).build();
+
+        indexingNewsFeed.searchLocal(queryData);
+        clock.advance(Duration.ofMinutes(11));
+
+        Assertions.assertEquals(List.of(sampleNews.articles()[0]), indexingNewsFeed.searchLocal(queryData),
+            "The cached articles are expected once the index is too old to answer");
+        Assertions.assertTrue(articleIndex.search(queryData).isEmpty(),
+            "Cached news are not expected to be indexed as if they were fetched now");
+
+        Mockito.verify(this.newsFeedHttpClientMock, Mockito.times(1)).send(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any());
+    }
+
+    @Test
+    void testSubscriptionPollsOnlyFirstPageOnceArticlesAreSeen() throws Exception {
+
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpResponseMock.body()).thenReturn(newsBody(new Gson().toJson(new News("ok", 120,
+            sampleNews.articles()))));
+
+        NewsFeedSubscription subscription = this.newsFeed.subscribe(QueryData.builder(List.of("Important")).build());
+
+        Assertions.assertEquals(List.of(sampleNews.articles()[0]), subscription.poll(),
+            "The article is expected to be new at the first poll");
+        Mockito.verify(this.newsFeedHttpClientMock, Mockito.times(3)).send(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any());
+
+        Assertions.assertEquals(List.of(), subscription.poll(), "The article is not expected to be new again");
+        Mockito.verify(this.newsFeedHttpClientMock, Mockito.times(4)).send(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any());
+    }
+
+    @Test
+    void testGetNewsFeedReportsResponsesFailuresAndCacheHits() throws Exception {
+
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(this.newsFeedHttpClientMock.send(Mockito.any(HttpRequest.class),
+            ArgumentMatchers.<HttpResponse.BodyHandler<Supplier<News>>>any())).thenAnswer(invocation -> {
+
+                Supplier<News> body = newsBody(sampleNewsJson, invocation.getArgument(1));
+                when(this.newsFeedHttpResponseMock.body()).thenReturn(body);
+
+                return this.newsFeedHttpResponseMock;
+            });
+
+        NewsFeedMetrics newsFeedMetrics = new NewsFeedMetrics();
+        NewsFeed measuredNewsFeed = NewsFeed.builder(this.newsFeedHttpClientMock)
+            .setNewsFeedCache(new NewsFeedCache(Duration.ofMinutes(1), 10))
+            .setListener(newsFeedMetrics)
+            .build();
+
+        measuredNewsFeed.getNewsFeed(QueryData.builder(List.of("Important")).build());
+        measuredNewsFeed.getNewsFeed(QueryData.builder(List.of("Important")).build());
+
+        when(this.newsFeedHttpResponseMock.statusCode()).thenReturn(HTTP_TOO_MANY_REQUESTS);
+        Assertions.assertThrows(TooManyRequestsException.class,
+            () -> measuredNewsFeed.getNewsFeed(QueryData.builder(List.of("Other")).build()),
+            "TooManyRequestsException is expected but not thrown");
+
+        Assertions.assertEquals(1, newsFeedMetrics.getResponsesCount(HttpURLConnection.HTTP_OK),
+            "One successful response is expected");
+        Assertions.assertEquals(1, newsFeedMetrics.getResponsesCount(HTTP_TOO_MANY_REQUESTS),
+            "One rate limited response is expected");
+        Assertions.assertEquals(1, newsFeedMetrics.getFailuresCount(TooManyRequestsException.class),
+            "The rate limited request is expected to be counted as failed");
+        Assertions.assertEquals(sampleNewsJson.getBytes(StandardCharsets.UTF_8).length,
+            newsFeedMetrics.getBytesReceived(), "The bytes of the decoded body are expected to be counted");
+        Assertions.assertEquals(1, newsFeedMetrics.getCacheHits(), "The repeated query is expected to hit the cache");
+        Assertions.assertEquals(2, newsFeedMetrics.getCacheMisses(), "The other queries are expected to miss it");
+    }
+
     @Test
     void testGetNewsFeedWithNullParameter() {
 
@@ -186,4 +637,75 @@ public class NewsFeedTest {
                 this.newsFeed.getNewsFeed(null),
             "Given argument cannot be null");
     }
+
+    private static Supplier<News> newsBody(String json) {
+
+        return () -> NewsJsonReader.readNews(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Supplier<News> newsBody(String json, HttpResponse.BodyHandler<Supplier<News>> bodyHandler) {
+
+        var bodySubscriber = bodyHandler.apply(Mockito.mock(HttpResponse.ResponseInfo.class, invocation ->
+            HttpURLConnection.HTTP_OK));
+        bodySubscriber.onSubscribe(new Flow.Subscription() {
+
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        bodySubscriber.onNext(List.of(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8))));
+        bodySubscriber.onComplete();
+
+        return bodySubscriber.getBody().toCompletableFuture().join();
+    }
+
+    private static void waitForSentRequests(Map<?, ?> sentRequests, int expectedCount) throws InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (sentRequests.size() < expectedCount && System.nanoTime() < deadline) {
+
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+
+        // Give requests which are not expected a chance to be sent.
+        TimeUnit.MILLISECONDS.sleep(20);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+
+            return this.instant;
+        }
+    }
 }
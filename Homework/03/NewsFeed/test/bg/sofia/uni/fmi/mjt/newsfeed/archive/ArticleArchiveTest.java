@@ -0,0 +1,179 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.archive;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Source;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ArticleArchiveTest {
+
+    private static final Instant FIRST_ARCHIVE_TIME = Instant.parse("2023-01-20T10:00:00Z");
+    private static final Instant SECOND_ARCHIVE_TIME = Instant.parse("2023-01-20T11:00:00Z");
+
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    void testArchiveSkipsArchivedAndRepeatedArticles() throws IOException {
+
+        try (ArticleArchive articleArchive = new ArticleArchive(this.temporaryDirectory.resolve("articles.jsonl"))) {
+
+            Assertions.assertEquals(List.of(createArticle(1), createArticle(2)),
+                articleArchive.archive(List.of(createArticle(1), createArticle(2), createArticle(1))),
+                "Repeated articles are expected to be archived once");
+            Assertions.assertEquals(List.of(createArticle(3)),
+                articleArchive.archive(List.of(createArticle(2), createArticle(3))),
+                "Archived articles are not expected to be archived again");
+            Assertions.assertEquals(3, articleArchive.size(), "Every article is expected to be archived once");
+        }
+    }
+
+    @Test
+    void testArticlesWithSameUrlAndTitleHaveSameKey() {
+
+        Article article = createArticle(1);
+        Article changedArticle = new Article(new Source(null, "cnn"), "Other Author", article.title(), null,
+            article.url(), null, null, null);
+
+        Assertions.assertEquals(ArticleArchive.getKey(article), ArticleArchive.getKey(changedArticle),
+            "The key is expected to depend only on the url and the title");
+        Assertions.assertNotEquals(ArticleArchive.getKey(article), ArticleArchive.getKey(createArticle(2)),
+            "Other articles are expected to have other keys");
+    }
+
+    @Test
+    void testGetArticlesSinceReturnsArticlesArchivedAtOrAfterTime() throws IOException {
+
+        Path archivePath = this.temporaryDirectory.resolve("articles.jsonl");
+
+        try (ArticleArchive articleArchive = new ArticleArchive(archivePath, createClock(FIRST_ARCHIVE_TIME))) {
+
+            articleArchive.archive(List.of(createArticle(1), createArticle(2)));
+        }
+
+        try (ArticleArchive articleArchive = new ArticleArchive(archivePath, createClock(SECOND_ARCHIVE_TIME))) {
+
+            articleArchive.archive(List.of(createArticle(2), createArticle(3)));
+
+            Assertions.assertEquals(List.of(new ArchivedArticle(SECOND_ARCHIVE_TIME, createArticle(3))),
+                articleArchive.getArticlesSince(FIRST_ARCHIVE_TIME.plusMillis(1)),
+                "Only the articles archived since the time are expected");
+            Assertions.assertEquals(List.of(createArticle(1), createArticle(2), createArticle(3)),
+                articleArchive.getArticlesSince(Instant.EPOCH).stream().map(ArchivedArticle::article).toList(),
+                "All articles are expected in the order they were archived");
+            Assertions.assertEquals(List.of(), articleArchive.getArticlesSince(SECOND_ARCHIVE_TIME.plusMillis(1)),
+                "No articles are expected after the last one");
+        }
+    }
+
+    @Test
+    void testOpenRemovesIncompleteRecord() throws IOException {
+
+        Path archivePath = this.temporaryDirectory.resolve("articles.jsonl");
+
+        try (ArticleArchive articleArchive = new ArticleArchive(archivePath)) {
+
+            articleArchive.archive(List.of(createArticle(1)));
+        }
+
+        Files.writeString(archivePath, "{\"archivedAt\":1,\"article\":{\"ti", StandardOpenOption.APPEND);
+
+        try (ArticleArchive articleArchive = new ArticleArchive(archivePath)) {
+
+            articleArchive.archive(List.of(createArticle(2)));
+
+            Assertions.assertEquals(List.of(createArticle(1), createArticle(2)),
+                articleArchive.getArticlesSince(Instant.EPOCH).stream().map(ArchivedArticle::article).toList(),
+                "The incomplete record is expected to be removed");
+        }
+    }
+
+    @Test
+    void testOpenArchiveWithRecordWhichIsNotArticle() throws IOException {
+
+        Path archivePath = Files.writeString(this.temporaryDirectory.resolve("articles.jsonl"),
+            "not an article" + System.lineSeparator());
+
+        Assertions.assertThrows(IOException.class, () -> new ArticleArchive(archivePath),
+            "IOException is expected but not thrown");
+    }
+
+    @Test
+    void testArchiveAfterFailedWrite() throws IOException {
+
+        Path archivePath = this.temporaryDirectory.resolve("articles.jsonl");
+        AtomicBoolean failNextWrite = new AtomicBoolean();
+
+        try (ArticleArchive articleArchive = new ArticleArchive(archivePath, createClock(FIRST_ARCHIVE_TIME),
+            path -> new FailingOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND), failNextWrite))) {
+
+            articleArchive.archive(List.of(createArticle(1)));
+
+            failNextWrite.set(true);
+            Assertions.assertThrows(IOException.class, () -> articleArchive.archive(List.of(createArticle(2))),
+                "IOException is expected but not thrown");
+
+            Assertions.assertFalse(articleArchive.contains(createArticle(2)),
+                "An article which was not written is not expected to be archived");
+            Assertions.assertEquals(List.of(createArticle(2), createArticle(3)),
+                articleArchive.archive(List.of(createArticle(2), createArticle(3))),
+                "The archive is expected to be appended to after a failed write");
+        }
+
+        try (ArticleArchive articleArchive = new ArticleArchive(archivePath)) {
+
+            Assertions.assertEquals(List.of(createArticle(1), createArticle(2), createArticle(3)),
+                articleArchive.getArticlesSince(FIRST_ARCHIVE_TIME).stream().map(ArchivedArticle::article).toList(),
+                "The records of the failed write are expected to be removed from the archive");
+        }
+    }
+
+    private static Article createArticle(int number) {
+
+        return new Article(new Source("444", "bbc"), "Ivan Ivanov", "Article " + number, "Description " + number,
+            "https://news.bg/" + number, null, "2023-01-15T10:00:00Z", null);
+    }
+
+    private static Clock createClock(Instant instant) {
+
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+
+    private static class FailingOutputStream extends FilterOutputStream {
+
+        private final AtomicBoolean failNextWrite;
+
+        private FailingOutputStream(OutputStream out, AtomicBoolean failNextWrite) {
+
+            super(out);
+            this.failNextWrite = failNextWrite;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+
+            if (this.failNextWrite.getAndSet(false)) {
+
+                // Leaves an incomplete record, as a full disk would
+                this.out.write(bytes, offset, length / 2);
+                throw new IOException("No space left on device");
+            }
+
+            this.out.write(bytes, offset, length);
+        }
+    }
+}
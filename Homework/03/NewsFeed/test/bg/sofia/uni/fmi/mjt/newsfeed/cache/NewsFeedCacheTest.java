@@ -0,0 +1,224 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.cache;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.TooManyRequestsException;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NewsFeedCacheTest {
+
+    private static final QueryData FIRST_QUERY = QueryData.builder(List.of("first")).build();
+    private static final QueryData SECOND_QUERY = QueryData.builder(List.of("second")).setCountry("bg").build();
+    private static final QueryData THIRD_QUERY = QueryData.builder(List.of("third")).setCategory("science").build();
+
+    private MutableClock clock;
+    private AtomicInteger loadsCount;
+    private NewsFeedLoader countingLoader;
+
+    @BeforeEach
+    void setUp() {
+
+        this.clock = new MutableClock(Instant.parse("2023-01-20T10:00:00Z"));
+        this.loadsCount = new AtomicInteger();
+        this.countingLoader = queryData -> List.of(new News("ok", this.loadsCount.incrementAndGet(),
+            new Article[0]));
+    }
+
+    @Test
+    void testGetReturnsCachedNewsOfEqualQuery() throws Exception {
+
+        NewsFeedCache newsFeedCache = new NewsFeedCache(Duration.ofMinutes(1), 10, this.clock);
+
+        newsFeedCache.get(FIRST_QUERY, this.countingLoader);
+        var result = newsFeedCache.get(QueryData.builder(List.of("first")).build(), this.countingLoader);
+
+        Assertions.assertEquals(1, this.loadsCount.get(), "An equal query is expected to be served from the cache");
+        Assertions.assertEquals(1, result.get(0).totalResults(), "The cached news are expected to be returned");
+    }
+
+    @Test
+    void testGetIsNotAffectedByChangesToTheKeywordsOfTheQuery() throws Exception {
+
+        NewsFeedCache newsFeedCache = new NewsFeedCache(Duration.ofMinutes(1), 10, this.clock);
+        List<String> keywords = new ArrayList<>(List.of("first"));
+
+        newsFeedCache.get(QueryData.builder(keywords).build(), this.countingLoader);
+        keywords.add("second");
+        newsFeedCache.get(FIRST_QUERY, this.countingLoader);
+
+        Assertions.assertEquals(1, this.loadsCount.get(),
+            "Changing the keywords after building a query is expected not to change the cached query");
+    }
+
+    @Test
+    void testGetLoadsAgainAfterTimeToLive() throws Exception {
+
+        NewsFeedCache newsFeedCache = new NewsFeedCache(Duration.ofMinutes(1), 10, this.clock);
+
+        newsFeedCache.get(FIRST_QUERY, this.countingLoader);
+        this.clock.advance(Duration.ofMinutes(1));
+        var result = newsFeedCache.get(FIRST_QUERY, this.countingLoader);
+
+        Assertions.assertEquals(2, this.loadsCount.get(), "Expired news are expected to be loaded again");
+        Assertions.assertEquals(2, result.get(0).totalResults(), "The newly loaded news are expected to be returned");
+    }
+
+    @Test
+    void testGetEvictsLeastRecentlyUsedQuery() throws Exception {
+
+        NewsFeedCache newsFeedCache = new NewsFeedCache(Duration.ofMinutes(1), 2, this.clock);
+
+        newsFeedCache.get(FIRST_QUERY, this.countingLoader);
+        newsFeedCache.get(SECOND_QUERY, this.countingLoader);
+        newsFeedCache.get(FIRST_QUERY, this.countingLoader);
+        newsFeedCache.get(THIRD_QUERY, this.countingLoader);
+
+        Assertions.assertEquals(2, newsFeedCache.size(), "The cache is not expected to exceed its size");
+
+        newsFeedCache.get(FIRST_QUERY, this.countingLoader);
+        Assertions.assertEquals(3, this.loadsCount.get(), "The recently used query is expected to stay cached");
+
+        newsFeedCache.get(SECOND_QUERY, this.countingLoader);
+        Assertions.assertEquals(4, this.loadsCount.get(), "The least recently used query is expected to be evicted");
+    }
+
+    @Test
+    void testConcurrentGetsOfSameQueryShareOneLoad() throws Exception {
+
+        NewsFeedCache newsFeedCache = new NewsFeedCache(Duration.ofMinutes(1), 10, this.clock);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch loadReleased = new CountDownLatch(1);
+
+        NewsFeedLoader blockingLoader = queryData -> {
+
+            loadStarted.countDown();
+
+            try {
+
+                loadReleased.await();
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+            }
+
+            return this.countingLoader.load(queryData);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<List<News>> firstResult = executor.submit(() -> newsFeedCache.get(FIRST_QUERY, blockingLoader));
+            Assertions.assertTrue(loadStarted.await(5, TimeUnit.SECONDS), "The load is expected to start");
+
+            List<Future<List<News>>> otherResults = List.of(
+                executor.submit(() -> newsFeedCache.get(FIRST_QUERY, blockingLoader)),
+                executor.submit(() -> newsFeedCache.get(FIRST_QUERY, blockingLoader)));
+
+            loadReleased.countDown();
+
+            for (Future<List<News>> currentResult : otherResults) {
+
+                Assertions.assertEquals(firstResult.get(), currentResult.get(),
+                    "All callers are expected to get the news of the same load");
+            }
+        } finally {
+
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, this.loadsCount.get(), "Concurrent equal queries are expected to be loaded once");
+    }
+
+    @Test
+    void testFailedLoadIsNotCached() throws Exception {
+
+        NewsFeedCache newsFeedCache = new NewsFeedCache(Duration.ofMinutes(1), 10, this.clock);
+
+        Assertions.assertThrows(TooManyRequestsException.class, () -> newsFeedCache.get(FIRST_QUERY, queryData -> {
+            throw new TooManyRequestsException("rate limited");
+        }), "TooManyRequestsException is expected but not thrown");
+
+        newsFeedCache.get(FIRST_QUERY, this.countingLoader);
+        Assertions.assertEquals(1, this.loadsCount.get(), "A failed load is expected to be retried");
+    }
+
+    @Test
+    void testGetAsyncSharesLoadWithOtherCallers() throws Exception {
+
+        NewsFeedCache newsFeedCache = new NewsFeedCache(Duration.ofMinutes(1), 10, this.clock);
+        CompletableFuture<List<News>> pendingLoad = new CompletableFuture<>();
+
+        var firstResult = newsFeedCache.getAsync(FIRST_QUERY, queryData -> pendingLoad);
+        var secondResult = newsFeedCache.getAsync(FIRST_QUERY, queryData -> {
+            throw new IllegalStateException("The query is expected to be loaded once");
+        });
+
+        pendingLoad.complete(this.countingLoader.load(FIRST_QUERY));
+
+        Assertions.assertEquals(firstResult.get(), secondResult.get(),
+            "Both callers are expected to get the news of the same load");
+        Assertions.assertEquals(firstResult.get(), newsFeedCache.get(FIRST_QUERY, this.countingLoader),
+            "The loaded news are expected to be cached");
+        Assertions.assertEquals(1, this.loadsCount.get(), "The query is expected to be loaded once");
+    }
+
+    @Test
+    void testCreateWithNonPositiveArguments() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new NewsFeedCache(Duration.ZERO, 10),
+            "IllegalArgumentException is expected but not thrown");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new NewsFeedCache(Duration.ofMinutes(1), 0),
+            "IllegalArgumentException is expected but not thrown");
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+
+            return this.instant;
+        }
+    }
+}
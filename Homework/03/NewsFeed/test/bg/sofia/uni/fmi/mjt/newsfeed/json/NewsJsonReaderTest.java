@@ -0,0 +1,86 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.json;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Source;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class NewsJsonReaderTest {
+
+    private static final Article FIRST_ARTICLE = new Article(new Source("444", "bbc"), "Ivan Ivanov",
+        "\u0412\u0430\u0436\u043d\u0430 \u0441\u0442\u0430\u0442\u0438\u044f", "This is an important article",
+        "https://news.bg/1", null, "2023-01-15T10:00:00Z", null);
+    private static final Article SECOND_ARTICLE = new Article(new Source(null, "cnn"), null, "Second article",
+        null, "https://news.bg/2", null, "2023-01-16T10:00:00Z", "content");
+
+    @Test
+    void testReadNewsReadsTheSameNewsAsGson() {
+
+        News news = new News("ok", 2, new Article[] {FIRST_ARTICLE, SECOND_ARTICLE});
+        String json = new Gson().toJson(news);
+
+        Assertions.assertEquals(new Gson().fromJson(json, News.class), NewsJsonReader.readNews(toInputStream(json)),
+            "The news are expected to be read as Gson reads them");
+    }
+
+    @Test
+    void testReadNewsSkipsUnknownFieldsInAnyOrder() {
+
+        String json = "{\"articles\": [], \"code\": null, \"extra\": {\"nested\": [1, 2]}, \"totalResults\": 7, " +
+            "\"status\": \"ok\"}";
+
+        Assertions.assertEquals(new News("ok", 7, new Article[0]), NewsJsonReader.readNews(toInputStream(json)),
+            "Unknown fields are expected to be skipped");
+    }
+
+    @Test
+    void testReadNewsGivesArticlesToConsumer() {
+
+        String json = new Gson().toJson(new News("ok", 2, new Article[] {FIRST_ARTICLE, SECOND_ARTICLE}));
+        List<Article> articles = new ArrayList<>();
+
+        News news = NewsJsonReader.readNews(toInputStream(json), articles::add);
+
+        Assertions.assertEquals(List.of(FIRST_ARTICLE, SECOND_ARTICLE), articles,
+            "The articles are expected to be given to the consumer in order");
+        Assertions.assertEquals(new News("ok", 2, new Article[0]), news,
+            "The news are expected to be returned without the articles");
+    }
+
+    @Test
+    void testReadArticlesReadsOnlyConsumedArticles() {
+
+        String json = "{\"status\": \"ok\", \"articles\": [" + new Gson().toJson(FIRST_ARTICLE) + ", {broken";
+
+        try (Stream<Article> articles = NewsJsonReader.readArticles(toInputStream(json))) {
+
+            Assertions.assertEquals(List.of(FIRST_ARTICLE), articles.limit(1).toList(),
+                "The first article is expected to be read before the rest of the input");
+        }
+    }
+
+    @Test
+    void testReadNewsFromInvalidInput() {
+
+        Assertions.assertThrows(JsonSyntaxException.class, () -> NewsJsonReader.readNews(toInputStream("[1, 2]")),
+            "JsonSyntaxException is expected but not thrown");
+        Assertions.assertThrows(JsonSyntaxException.class,
+            () -> NewsJsonReader.readNews(toInputStream("{\"totalResults\": \"many\"}")),
+            "JsonSyntaxException is expected but not thrown");
+    }
+
+    private static InputStream toInputStream(String json) {
+
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,84 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.metrics;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.ServerErrorException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+public class NewsFeedMetricsTest {
+
+    private static final QueryData QUERY = QueryData.builder(List.of("metrics")).build();
+
+    @Test
+    void testLatencyHistogramPercentilesAreWithinBucketPrecision() {
+
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 1000; i++) {
+
+            latencyHistogram.record(Duration.ofMillis(i));
+        }
+
+        Assertions.assertEquals(1000, latencyHistogram.getCount(), "Every duration is expected to be counted");
+        Assertions.assertEquals(500.5, latencyHistogram.getMean().toNanos() / 1_000_000.0, 0.001,
+            "The mean is expected to be exact");
+
+        for (double currentPercentile : List.of(50.0, 90.0, 99.0, 100.0)) {
+
+            double expectedMillis = currentPercentile * 10;
+            double actualMillis = latencyHistogram.getPercentile(currentPercentile).toNanos() / 1_000_000.0;
+
+            Assertions.assertTrue(actualMillis >= expectedMillis && actualMillis <= expectedMillis * 1.125,
+                "The percentile is expected to be at most 12.5% above the actual one");
+        }
+    }
+
+    @Test
+    void testLatencyHistogramKeepsSmallDurationsExact() {
+
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        latencyHistogram.record(Duration.ofNanos(3_000));
+        latencyHistogram.record(Duration.ofNanos(5_000));
+
+        Assertions.assertEquals(Duration.ofNanos(3_000), latencyHistogram.getPercentile(50),
+            "Durations below 8 microseconds are expected to be exact");
+        Assertions.assertEquals(Duration.ZERO, new LatencyHistogram().getPercentile(50),
+            "An empty histogram is expected to return zero");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> latencyHistogram.getPercentile(0),
+            "IllegalArgumentException is expected but not thrown");
+    }
+
+    @Test
+    void testMetricsCountResponsesByStatusCodeAndFailuresByType() {
+
+        NewsFeedMetrics newsFeedMetrics = new NewsFeedMetrics();
+
+        newsFeedMetrics.onResponseReceived(new ResponseMetrics(QUERY, 1, 200, Duration.ofMillis(40),
+            Duration.ofMillis(5), 2_048));
+        newsFeedMetrics.onResponseReceived(new ResponseMetrics(QUERY, 2, 429, Duration.ofMillis(20),
+            Duration.ZERO, 0));
+        newsFeedMetrics.onResponseReceived(new ResponseMetrics(QUERY, 2, 429, Duration.ofMillis(20),
+            Duration.ZERO, 0));
+        newsFeedMetrics.onRequestFailed(QUERY, 2, new TooManyRequestsException("rate limited"));
+        newsFeedMetrics.onCacheHit(QUERY);
+        newsFeedMetrics.onCacheMiss(QUERY);
+        newsFeedMetrics.onCacheMiss(QUERY);
+
+        Assertions.assertEquals(1, newsFeedMetrics.getResponsesCount(200), "One successful response is expected");
+        Assertions.assertEquals(2, newsFeedMetrics.getResponsesCount(429), "Two rate limited responses are expected");
+        Assertions.assertEquals(0, newsFeedMetrics.getResponsesCount(500), "No server errors are expected");
+        Assertions.assertEquals(1, newsFeedMetrics.getFailuresCount(TooManyRequestsException.class),
+            "The failure is expected to be counted by its type");
+        Assertions.assertEquals(0, newsFeedMetrics.getFailuresCount(ServerErrorException.class),
+            "Other failure types are not expected to be counted");
+        Assertions.assertEquals(2_048, newsFeedMetrics.getBytesReceived(), "The received bytes are expected");
+        Assertions.assertEquals(1, newsFeedMetrics.getCacheHits(), "One cache hit is expected");
+        Assertions.assertEquals(2, newsFeedMetrics.getCacheMisses(), "Two cache misses are expected");
+        Assertions.assertEquals(3, newsFeedMetrics.getTimeToHeaders().getCount(),
+            "The time to headers of every response is expected to be recorded");
+    }
+}
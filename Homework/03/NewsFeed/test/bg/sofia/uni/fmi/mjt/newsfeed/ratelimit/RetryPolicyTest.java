@@ -0,0 +1,71 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+public class RetryPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2015-10-21T07:27:30Z");
+
+    private final RetryPolicy retryPolicy = new RetryPolicy(1, Duration.ZERO, Duration.ofMinutes(5));
+
+    @Test
+    void testGetBackoffWithRetryAfterSeconds() {
+
+        Assertions.assertEquals(Optional.of(Duration.ofSeconds(120)), this.retryPolicy.getBackoff(0, "120", NOW),
+            "The number of seconds the server asked for is expected");
+    }
+
+    @Test
+    void testGetBackoffWithRetryAfterDate() {
+
+        Assertions.assertEquals(Optional.of(Duration.ofSeconds(30)),
+            this.retryPolicy.getBackoff(0, "Wed, 21 Oct 2015 07:28:00 GMT", NOW),
+            "The time until the date the server asked for is expected");
+        Assertions.assertEquals(Optional.of(Duration.ZERO),
+            this.retryPolicy.getBackoff(0, "Wed, 21 Oct 2015 07:27:00 GMT", NOW),
+            "A date in the past is not expected to add to the backoff");
+    }
+
+    @Test
+    void testGetBackoffIgnoresMalformedRetryAfter() {
+
+        Assertions.assertEquals(Optional.of(Duration.ZERO), this.retryPolicy.getBackoff(0, "soon", NOW),
+            "A value which is neither seconds nor a date is expected to be ignored");
+        Assertions.assertEquals(Optional.of(Duration.ZERO), this.retryPolicy.getBackoff(0, "-5", NOW),
+            "A negative number of seconds is expected to be ignored");
+        Assertions.assertEquals(Optional.of(Duration.ZERO), this.retryPolicy.getBackoff(0, null, NOW),
+            "A missing header is expected to leave the backoff as it is");
+    }
+
+    @Test
+    void testGetBackoffKeepsLongerBackoff() {
+
+        RetryPolicy slowRetryPolicy = new RetryPolicy(1, Duration.ofSeconds(10), Duration.ofSeconds(10));
+
+        Duration backoff = slowRetryPolicy.getBackoff(0, "1", NOW).orElseThrow();
+
+        Assertions.assertTrue(backoff.compareTo(Duration.ofSeconds(5)) >= 0,
+            "The backoff is expected to be kept when the server asks for less");
+    }
+
+    @Test
+    void testGetBackoffFailsWhenRetryAfterExceedsMaxBackoff() {
+
+        Assertions.assertEquals(Optional.of(Duration.ofMinutes(5)), this.retryPolicy.getBackoff(0, "300", NOW),
+            "Waiting as long as the maximum backoff is expected to be allowed");
+        Assertions.assertEquals(Optional.empty(), this.retryPolicy.getBackoff(0, "86400", NOW),
+            "A request to wait longer than the maximum backoff is expected not to be retried");
+        Assertions.assertEquals(Optional.empty(), this.retryPolicy.getBackoff(0, "9300000000", NOW),
+            "A request to wait longer than a Duration in nanoseconds is expected not to be retried");
+        Assertions.assertEquals(Optional.empty(), this.retryPolicy.getBackoff(0, "99999999999999999999", NOW),
+            "A number of seconds too large for a long is expected not to be retried");
+        Assertions.assertEquals(Optional.empty(),
+            this.retryPolicy.getBackoff(0, "Fri, 31 Dec 9999 23:59:59 GMT", NOW),
+            "A date too far in the future is expected not to be retried");
+    }
+}
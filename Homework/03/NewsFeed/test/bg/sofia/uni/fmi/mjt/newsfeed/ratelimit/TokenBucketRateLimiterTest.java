@@ -0,0 +1,82 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TokenBucketRateLimiterTest {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testReserveLetsBurstThroughAndThenSpacesRequests() {
+
+        AtomicLong nanoTime = new AtomicLong();
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(2, 3, nanoTime::get);
+
+        for (int i = 0; i < 3; i++) {
+
+            Assertions.assertEquals(0, rateLimiter.reserve(), "Requests up to the capacity are not expected to wait");
+        }
+
+        Assertions.assertEquals(NANOS_PER_SECOND / 2, rateLimiter.reserve(),
+            "The next request is expected to wait for the next permit");
+        Assertions.assertEquals(NANOS_PER_SECOND, rateLimiter.reserve(),
+            "A request is expected to wait for the permits reserved before it");
+    }
+
+    @Test
+    void testReserveRefillsPermitsUpToCapacity() {
+
+        AtomicLong nanoTime = new AtomicLong();
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 2, nanoTime::get);
+
+        rateLimiter.reserve();
+        rateLimiter.reserve();
+        nanoTime.addAndGet(10 * NANOS_PER_SECOND);
+
+        Assertions.assertEquals(0, rateLimiter.reserve(), "Permits are expected to be refilled");
+        Assertions.assertEquals(0, rateLimiter.reserve(), "Permits are expected to be refilled");
+        Assertions.assertEquals(NANOS_PER_SECOND / 10, rateLimiter.reserve(),
+            "Permits are not expected to be refilled beyond the capacity");
+    }
+
+    @Test
+    void testSharedReturnsSameRateLimiterForSameKey() {
+
+        Assertions.assertSame(TokenBucketRateLimiter.shared("api-key", 1, 1),
+            TokenBucketRateLimiter.shared("api-key", 5, 5), "The rate limiter is expected to be shared by key");
+        Assertions.assertNotSame(TokenBucketRateLimiter.shared("api-key", 1, 1),
+            TokenBucketRateLimiter.shared("other-api-key", 1, 1), "Other keys are expected to get other limiters");
+    }
+
+    @Test
+    void testRetryPolicyBackoffIsJitteredAndCapped() {
+
+        RetryPolicy retryPolicy = new RetryPolicy(5, Duration.ofMillis(100), Duration.ofMillis(300));
+
+        for (int i = 0; i < 100; i++) {
+
+            Duration firstBackoff = retryPolicy.getBackoff(0);
+            Duration thirdBackoff = retryPolicy.getBackoff(2);
+
+            Assertions.assertTrue(firstBackoff.toMillis() >= 50 && firstBackoff.toMillis() <= 100,
+                "The first backoff is expected to be between half and all of the initial backoff");
+            Assertions.assertTrue(thirdBackoff.toMillis() >= 150 && thirdBackoff.toMillis() <= 300,
+                "The backoff is expected to be capped by the maximum backoff");
+        }
+    }
+
+    @Test
+    void testCreateWithInvalidArguments() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0, 1),
+            "IllegalArgumentException is expected but not thrown");
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> new RetryPolicy(1, Duration.ofSeconds(2), Duration.ofSeconds(1)),
+            "IllegalArgumentException is expected but not thrown");
+    }
+}
@@ -0,0 +1,166 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.search;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Source;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+public class ArticleIndexTest {
+
+    private static final Article ELECTION_ARTICLE = createArticle("Election results announced",
+        "The Parliament has a new majority");
+    private static final Article CLIMATE_ARTICLE = createArticle("Climate summit opens", null);
+    private static final Article BUDGET_ARTICLE = createArticle("Parliament votes the budget",
+        "Climate spending is increased");
+
+    private static final QueryData PARLIAMENT_QUERY = QueryData.builder(List.of("parliament")).setCountry("bg")
+        .build();
+
+    @Test
+    void testSearchFindsArticlesByAllKeywordsInTitleOrDescription() {
+
+        ArticleIndex articleIndex = new ArticleIndex(Duration.ofMinutes(10));
+        articleIndex.add(PARLIAMENT_QUERY, List.of(ELECTION_ARTICLE, BUDGET_ARTICLE), true);
+        articleIndex.add(PARLIAMENT_QUERY, List.of(ELECTION_ARTICLE), true);
+
+        Assertions.assertEquals(Optional.of(List.of(ELECTION_ARTICLE, BUDGET_ARTICLE)),
+            articleIndex.search(PARLIAMENT_QUERY), "Articles are expected to be found by their description");
+        Assertions.assertEquals(Optional.of(List.of(BUDGET_ARTICLE)),
+            articleIndex.search(QueryData.builder(List.of("Parliament", "CLIMATE")).setCountry("BG").build()),
+            "Only articles with all keywords are expected regardless of the case");
+        Assertions.assertEquals(2, articleIndex.size(), "Every article is expected to be indexed once");
+    }
+
+    @Test
+    void testSearchAnswersOnlyQueriesCoveredByCompleteFetchedQuery() {
+
+        ArticleIndex articleIndex = new ArticleIndex(Duration.ofMinutes(10));
+        articleIndex.add(PARLIAMENT_QUERY, List.of(ELECTION_ARTICLE, BUDGET_ARTICLE), true);
+        articleIndex.add(QueryData.builder(List.of("climate")).build(), List.of(CLIMATE_ARTICLE), false);
+
+        Assertions.assertTrue(articleIndex.search(QueryData.builder(List.of("parliament")).build()).isEmpty(),
+            "A query for another country is not expected to be answered");
+        Assertions.assertTrue(articleIndex.search(QueryData.builder(List.of("budget")).setCountry("bg").build())
+            .isEmpty(), "A query with keywords which were not fetched is not expected to be answered");
+        Assertions.assertTrue(articleIndex.search(QueryData.builder(List.of("climate")).build()).isEmpty(),
+            "A query whose results were not all fetched is not expected to be answered");
+    }
+
+    @Test
+    void testSearchDoesNotAnswerFromQueriesOlderThanMaxAge() {
+
+        MutableClock clock = new MutableClock(Instant.parse("2023-01-20T10:00:00Z"));
+        ArticleIndex articleIndex = new ArticleIndex(Duration.ofMinutes(10), clock);
+        articleIndex.add(PARLIAMENT_QUERY, List.of(ELECTION_ARTICLE), true);
+
+        clock.advance(Duration.ofMinutes(9));
+        Assertions.assertTrue(articleIndex.search(PARLIAMENT_QUERY).isPresent(),
+            "A recently fetched query is expected to be answered");
+
+        clock.advance(Duration.ofMinutes(1));
+        Assertions.assertTrue(articleIndex.search(PARLIAMENT_QUERY).isEmpty(),
+            "A query fetched before the maximum age is not expected to be answered");
+    }
+
+    @Test
+    void testSearchReturnsOnlyArticlesFetchedWithinMaxAge() {
+
+        MutableClock clock = new MutableClock(Instant.parse("2023-01-20T10:00:00Z"));
+        ArticleIndex articleIndex = new ArticleIndex(Duration.ofMinutes(10), clock);
+        articleIndex.add(PARLIAMENT_QUERY, List.of(ELECTION_ARTICLE, BUDGET_ARTICLE), true);
+
+        clock.advance(Duration.ofMinutes(5));
+        articleIndex.add(PARLIAMENT_QUERY, List.of(BUDGET_ARTICLE), true);
+
+        clock.advance(Duration.ofMinutes(6));
+        Assertions.assertEquals(Optional.of(List.of(BUDGET_ARTICLE)), articleIndex.search(PARLIAMENT_QUERY),
+            "Only the article fetched again within the maximum age is expected");
+    }
+
+    @Test
+    void testAddEvictsArticlesAndQueriesOlderThanMaxAge() {
+
+        MutableClock clock = new MutableClock(Instant.parse("2023-01-20T10:00:00Z"));
+        ArticleIndex articleIndex = new ArticleIndex(Duration.ofMinutes(10), clock);
+        QueryData climateQuery = QueryData.builder(List.of("climate")).build();
+
+        articleIndex.add(PARLIAMENT_QUERY, List.of(ELECTION_ARTICLE, BUDGET_ARTICLE), true);
+        articleIndex.add(climateQuery, List.of(BUDGET_ARTICLE), true);
+
+        clock.advance(Duration.ofMinutes(5));
+        articleIndex.add(climateQuery, List.of(CLIMATE_ARTICLE, BUDGET_ARTICLE), true);
+
+        clock.advance(Duration.ofMinutes(6));
+        articleIndex.add(QueryData.builder(List.of("summit")).build(), List.of(CLIMATE_ARTICLE), true);
+
+        Assertions.assertEquals(2, articleIndex.size(),
+            "Only the articles fetched within the maximum age are expected to stay indexed");
+        Assertions.assertTrue(articleIndex.search(PARLIAMENT_QUERY).isEmpty(),
+            "An evicted query is not expected to be answered");
+        Assertions.assertEquals(Optional.of(List.of(BUDGET_ARTICLE, CLIMATE_ARTICLE)),
+            articleIndex.search(QueryData.builder(List.of("climate")).build()),
+            "Articles fetched again are expected to stay indexed in the order they were first fetched");
+
+        clock.advance(Duration.ofMinutes(10));
+        articleIndex.add(PARLIAMENT_QUERY, List.of(ELECTION_ARTICLE), true);
+
+        Assertions.assertEquals(1, articleIndex.size(), "Every article fetched earlier is expected to be evicted");
+        Assertions.assertEquals(Optional.of(List.of(ELECTION_ARTICLE)), articleIndex.search(PARLIAMENT_QUERY),
+            "An article indexed again in the place of an evicted one is expected to be found");
+    }
+
+    @Test
+    void testCreateWithNonPositiveMaxAge() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ArticleIndex(Duration.ZERO),
+            "IllegalArgumentException is expected but not thrown");
+    }
+
+    private static Article createArticle(String title, String description) {
+
+        return new Article(new Source(null, "bbc"), null, title, description, "https://news.bg/" + title.hashCode(),
+            null, null, null);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+
+            return this.instant;
+        }
+    }
+}
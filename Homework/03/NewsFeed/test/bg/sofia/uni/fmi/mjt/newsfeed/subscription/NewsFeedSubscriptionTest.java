@@ -0,0 +1,167 @@
+package bg.sofia.uni.fmi.mjt.newsfeed.subscription;
+
+import bg.sofia.uni.fmi.mjt.newsfeed.QueryData;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.IncorrectRequestException;
+import bg.sofia.uni.fmi.mjt.newsfeed.exceptions.ServerErrorException;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Article;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.News;
+import bg.sofia.uni.fmi.mjt.newsfeed.model.Source;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class NewsFeedSubscriptionTest {
+
+    private static final int PAGE_SIZE = 2;
+    private static final int MAX_PAGES = 3;
+    private static final QueryData QUERY = QueryData.builder(List.of("headlines")).build();
+
+    private List<Article> headlines;
+    private List<Integer> loadedPages;
+    private NewsFeedSubscription subscription;
+
+    @BeforeEach
+    void setUp() {
+
+        this.headlines = new ArrayList<>();
+        this.loadedPages = new ArrayList<>();
+        this.subscription = new NewsFeedSubscription(QUERY, (queryData, pageNumber) -> {
+
+            this.loadedPages.add(pageNumber);
+            int begin = Math.min(this.headlines.size(), (pageNumber - 1) * PAGE_SIZE);
+            int end = Math.min(this.headlines.size(), pageNumber * PAGE_SIZE);
+
+            return new News("ok", this.headlines.size(), this.headlines.subList(begin, end).toArray(Article[]::new));
+        }, PAGE_SIZE, MAX_PAGES);
+    }
+
+    @Test
+    void testPollGivesOnlyNewArticlesToListeners() throws Exception {
+
+        List<List<Article>> notifiedArticles = new ArrayList<>();
+        this.subscription.addListener((queryData, articles) -> notifiedArticles.add(articles));
+
+        publish(1, 2, 3, 4, 5);
+        Assertions.assertEquals(createArticles(1, 2, 3, 4, 5), this.subscription.poll(),
+            "All articles are expected to be new at the first poll");
+        Assertions.assertEquals(List.of(1, 2, 3), this.loadedPages, "All pages are expected to be loaded at first");
+
+        this.loadedPages.clear();
+        publish(6);
+        Assertions.assertEquals(createArticles(6), this.subscription.poll(), "Only the new article is expected");
+        Assertions.assertEquals(List.of(1), this.loadedPages,
+            "Paging is expected to stop at the first page with seen articles");
+
+        this.loadedPages.clear();
+        Assertions.assertEquals(List.of(), this.subscription.poll(), "No new articles are expected");
+        Assertions.assertEquals(List.of(1), this.loadedPages, "Only the first page is expected to be loaded");
+
+        Assertions.assertEquals(List.of(createArticles(1, 2, 3, 4, 5), createArticles(6)), notifiedArticles,
+            "The listeners are expected to be notified only about new articles");
+    }
+
+    @Test
+    void testPollLoadsNextPagesWhileAllArticlesAreNew() throws Exception {
+
+        publish(1, 2);
+        this.subscription.poll();
+
+        this.loadedPages.clear();
+        publish(3, 4, 5);
+        Assertions.assertEquals(createArticles(3, 4, 5), this.subscription.poll(),
+            "All new articles are expected to be found");
+        Assertions.assertEquals(List.of(1, 2), this.loadedPages,
+            "Pages are expected to be loaded until one with seen articles");
+    }
+
+    @Test
+    void testStartedSubscriptionReportsFailedPolls() throws Exception {
+
+        CountDownLatch pollFailed = new CountDownLatch(1);
+        NewsFeedSubscription failingSubscription = new NewsFeedSubscription(QUERY, (queryData, pageNumber) -> {
+            throw new ServerErrorException("unavailable");
+        }, PAGE_SIZE, MAX_PAGES);
+
+        failingSubscription.addListener(new NewArticlesListener() {
+
+            @Override
+            public void onNewArticles(QueryData queryData, List<Article> articles) {
+            }
+
+            @Override
+            public void onPollFailed(QueryData queryData, Exception exception) {
+
+                if (exception instanceof ServerErrorException) {
+
+                    pollFailed.countDown();
+                }
+            }
+        });
+
+        try (failingSubscription) {
+
+            failingSubscription.start(Duration.ofHours(1));
+            Assertions.assertTrue(pollFailed.await(5, TimeUnit.SECONDS), "The failed poll is expected to be reported");
+            Assertions.assertThrows(IllegalStateException.class, () -> failingSubscription.start(Duration.ofHours(1)),
+                "IllegalStateException is expected but not thrown");
+        }
+    }
+
+    @Test
+    void testCloseInterruptsABlockedPollWithoutWaitingForIt() throws Exception {
+
+        CountDownLatch pollStarted = new CountDownLatch(1);
+        CountDownLatch pollInterrupted = new CountDownLatch(1);
+        NewsFeedSubscription blockedSubscription = new NewsFeedSubscription(QUERY, (queryData, pageNumber) -> {
+
+            pollStarted.countDown();
+
+            try {
+
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+
+                pollInterrupted.countDown();
+            }
+
+            throw new IncorrectRequestException("interrupted");
+        }, PAGE_SIZE, MAX_PAGES);
+
+        blockedSubscription.start(Duration.ofHours(1));
+        Assertions.assertTrue(pollStarted.await(5, TimeUnit.SECONDS), "The poll is expected to be started");
+
+        Thread closing = new Thread(blockedSubscription::close);
+        closing.setDaemon(true);
+        closing.start();
+        closing.join(TimeUnit.SECONDS.toMillis(5));
+
+        Assertions.assertFalse(closing.isAlive(), "Closing is not expected to wait for the blocked poll");
+        Assertions.assertTrue(pollInterrupted.await(5, TimeUnit.SECONDS),
+            "The blocked poll is expected to be interrupted");
+    }
+
+    private void publish(int... numbers) {
+
+        // The newest articles are returned first.
+        this.headlines.addAll(0, createArticles(numbers));
+    }
+
+    private static List<Article> createArticles(int... numbers) {
+
+        List<Article> articles = new ArrayList<>();
+
+        for (int i = numbers.length - 1; i >= 0; i--) {
+
+            articles.add(new Article(new Source(null, "bbc"), null, "Headline " + numbers[i], null,
+                "https://news.bg/" + numbers[i], null, null, null));
+        }
+
+        return articles;
+    }
+}